@@ -41,7 +41,13 @@ public class App {
     BaseMode baseMode = null;
     switch (config.getBENCHMARK_WORK_MODE()) {
       case TEST_WITH_DEFAULT_PATH:
-        baseMode = new TestWithDefaultPathMode();
+        if (!config.getBENCHMARK_COORDINATOR().isEmpty()) {
+          baseMode = new WorkerMode();
+        } else if (config.isIS_PIPELINE_INGESTION()) {
+          baseMode = new PipelineMode();
+        } else {
+          baseMode = new TestWithDefaultPathMode();
+        }
         break;
       case GENERATE_DATA:
         baseMode = new GenerateDataMode();
@@ -55,6 +61,9 @@ public class App {
       case SERVER:
         baseMode = new ServerMode();
         break;
+      case COORDINATOR:
+        baseMode = new CoordinatorMode();
+        break;
       default:
         throw new SQLException("Unsupported mode:" + config.getBENCHMARK_WORK_MODE());
     }
@@ -21,11 +21,21 @@ package cn.edu.tsinghua.iotdb.benchmark;
 
 import cn.edu.tsinghua.iotdb.benchmark.kafka.BatchConsumer;
 
+/** Write the batches of TOPIC_NAME into DB_SWITCH, the consumer group is args[0] */
 public class IoTDBWriteBatchMain {
 
-  public static void main(String[] args)
-      throws IllegalAccessException, ClassNotFoundException, InstantiationException {
-    BatchConsumer consumer = new BatchConsumer(args[4]);
-    consumer.consume(args[0], args[1], args[2], args[3]);
+  public static void main(String[] args) throws Exception {
+    BatchConsumer consumer = new BatchConsumer(args.length > 0 ? args[0] : "benchmark");
+    Runtime.getRuntime()
+        .addShutdownHook(
+            new Thread(
+                () -> {
+                  try {
+                    consumer.close();
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                }));
+    consumer.consume();
   }
 }
@@ -19,10 +19,15 @@
 
 package cn.edu.tsinghua.iotdb.benchmark.client;
 
+import cn.edu.tsinghua.iotdb.benchmark.client.generate.GenerateDataAutoTuneClient;
 import cn.edu.tsinghua.iotdb.benchmark.client.generate.GenerateDataDeviceClient;
 import cn.edu.tsinghua.iotdb.benchmark.client.generate.GenerateDataMixClient;
+import cn.edu.tsinghua.iotdb.benchmark.client.generate.GenerateDataRealTimeClient;
+import cn.edu.tsinghua.iotdb.benchmark.client.generate.GenerateDataSaturationClient;
+import cn.edu.tsinghua.iotdb.benchmark.client.generate.GenerateDataStageClient;
 import cn.edu.tsinghua.iotdb.benchmark.client.generate.GenerateDataWriteClient;
 import cn.edu.tsinghua.iotdb.benchmark.client.real.RealDataSetQueryClient;
+import cn.edu.tsinghua.iotdb.benchmark.client.real.RealDataSetRangeQueryClient;
 import cn.edu.tsinghua.iotdb.benchmark.client.real.RealDataSetWriteClient;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
 import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
@@ -74,7 +79,8 @@ public abstract class Client implements Runnable {
   /** Control the end of client */
   private final CountDownLatch countDownLatch;
 
-  private final CyclicBarrier barrier;
+  /** Make all clients start test simultaneously */
+  protected final CyclicBarrier barrier;
 
   public Client(int id, CountDownLatch countDownLatch, CyclicBarrier barrier) {
     this.countDownLatch = countDownLatch;
@@ -93,6 +99,14 @@ public abstract class Client implements Runnable {
       case TEST_WITH_DEFAULT_PATH:
         if (config.isIS_POINT_COMPARISON()) {
           return new GenerateDataDeviceClient(id, countDownLatch, barrier);
+        } else if (config.isIS_SATURATION_SEARCH()) {
+          return new GenerateDataSaturationClient(id, countDownLatch, barrier);
+        } else if (!config.getWORKLOAD_STAGES().isEmpty()) {
+          return new GenerateDataStageClient(id, countDownLatch, barrier);
+        } else if (config.isIS_REAL_TIME_INGESTION()) {
+          return new GenerateDataRealTimeClient(id, countDownLatch, barrier);
+        } else if (config.isIS_BATCH_AUTO_TUNE()) {
+          return new GenerateDataAutoTuneClient(id, countDownLatch, barrier);
         } else {
           return new GenerateDataMixClient(id, countDownLatch, barrier);
         }
@@ -101,6 +115,9 @@ public abstract class Client implements Runnable {
       case VERIFICATION_WRITE:
         return new RealDataSetWriteClient(id, countDownLatch, barrier);
       case VERIFICATION_QUERY:
+        if (config.isIS_RANGE_VERIFICATION()) {
+          return new RealDataSetRangeQueryClient(id, countDownLatch, barrier);
+        }
         return new RealDataSetQueryClient(id, countDownLatch, barrier);
       default:
         LOGGER.warn("No need to create client" + config.getBENCHMARK_WORK_MODE());
@@ -129,7 +146,7 @@ public abstract class Client implements Runnable {
           // print current progress periodically
           service.scheduleAtFixedRate(
               () -> {
-                String percent = String.format("%.2f", (loopIndex + 1) * 100.0D / this.totalLoop);
+                String percent = String.format("%.2f", getProgress());
                 LOGGER.info("{} {}% workload is done.", currentThread, percent);
               },
               1,
@@ -143,7 +160,9 @@ public abstract class Client implements Runnable {
         LOGGER.error("Unexpected error: ", e);
       } finally {
         try {
-          dbWrapper.close();
+          if (dbWrapper != null) {
+            dbWrapper.close();
+          }
         } catch (TsdbException e) {
           LOGGER.error("Close {} error: ", config.getDbConfig().getDB_SWITCH(), e);
         }
@@ -160,6 +179,11 @@ public abstract class Client implements Runnable {
   /** Do test */
   protected abstract void doTest();
 
+  /** Get the percent of finished workload */
+  protected double getProgress() {
+    return (loopIndex + 1) * 100.0D / this.totalLoop;
+  }
+
   /** Init DBWrapper */
   protected void initDBWrappers() {
     List<DBConfig> dbConfigs = new ArrayList<>();
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.client.generate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tune the batch size by hill climbing on the throughput of each window. The batch size is
+ * multiplied or divided by a step factor, the direction is reversed with a smaller factor when the
+ * throughput drops, and the tuning converges to the best batch size when the factor is small
+ * enough. A window whose avg latency exceeds the latency SLO halves the batch size, and the sizes
+ * above it are not tried again.
+ */
+public class BatchSizeTuner {
+
+  /** The initial step factor */
+  private static final double INITIAL_FACTOR = 2.0d;
+  /** The tuning converges when the step factor is below it */
+  private static final double MIN_FACTOR = 1.1d;
+
+  private final int minBatchSize;
+  /** The upper bound of batch size, lowered when the latency SLO is violated */
+  private int maxBatchSize;
+  /** The max avg latency of window in ms, 0 means no limit */
+  private final double latencySlo;
+
+  private int batchSize;
+  private double factor = INITIAL_FACTOR;
+  private boolean increasing = true;
+  /** The throughput of last window within SLO, negative means no window to compare with */
+  private double lastThroughput = -1;
+  private int bestBatchSize;
+  private double bestThroughput = -1;
+  private boolean converged = false;
+  /** The throughput curve */
+  private final List<Window> windows = new ArrayList<>();
+
+  public BatchSizeTuner(int minBatchSize, int maxBatchSize, double latencySlo) {
+    this.minBatchSize = minBatchSize;
+    this.maxBatchSize = maxBatchSize;
+    this.latencySlo = latencySlo;
+    this.batchSize = minBatchSize;
+    this.bestBatchSize = minBatchSize;
+  }
+
+  /**
+   * Feed the result of the window written with current batch size
+   *
+   * @param pointNum the number of points written in window
+   * @param operationNum the number of write operations in window
+   * @param latencySum the sum of latency of write operations in ms
+   * @param seconds the length of window
+   * @return the batch size of next window
+   */
+  public int update(long pointNum, long operationNum, double latencySum, double seconds) {
+    if (converged || operationNum == 0 || seconds <= 0) {
+      return batchSize;
+    }
+    double throughput = pointNum / seconds;
+    double avgLatency = latencySum / operationNum;
+    boolean violated = latencySlo > 0 && avgLatency > latencySlo;
+    windows.add(new Window(batchSize, throughput, avgLatency, violated));
+    if (violated) {
+      // multiplicative decrease, then probe upwards again with a smaller step
+      maxBatchSize = Math.max(minBatchSize, batchSize - 1);
+      batchSize = Math.max(minBatchSize, batchSize / 2);
+      increasing = true;
+      factor = Math.sqrt(factor);
+      lastThroughput = -1;
+      checkConverged();
+      return batchSize;
+    }
+    if (throughput > bestThroughput) {
+      bestThroughput = throughput;
+      bestBatchSize = batchSize;
+    }
+    if (lastThroughput >= 0 && throughput < lastThroughput) {
+      increasing = !increasing;
+      factor = Math.sqrt(factor);
+    }
+    lastThroughput = throughput;
+    int next = nextBatchSize();
+    if (next == batchSize) {
+      // reach the bound
+      increasing = !increasing;
+      factor = Math.sqrt(factor);
+      next = nextBatchSize();
+    }
+    batchSize = next;
+    checkConverged();
+    return batchSize;
+  }
+
+  private int nextBatchSize() {
+    long next =
+        increasing ? (long) Math.ceil(batchSize * factor) : (long) Math.floor(batchSize / factor);
+    return (int) Math.max(minBatchSize, Math.min(maxBatchSize, next));
+  }
+
+  private void checkConverged() {
+    if (factor < MIN_FACTOR) {
+      converged = true;
+      batchSize = Math.min(bestBatchSize, maxBatchSize);
+    }
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public boolean isConverged() {
+    return converged;
+  }
+
+  public List<Window> getWindows() {
+    return windows;
+  }
+
+  /** The result of one window */
+  public static class Window {
+    private final int batchSize;
+    /** points per second */
+    private final double throughput;
+    /** avg latency in ms */
+    private final double avgLatency;
+    private final boolean sloViolated;
+
+    public Window(int batchSize, double throughput, double avgLatency, boolean sloViolated) {
+      this.batchSize = batchSize;
+      this.throughput = throughput;
+      this.avgLatency = avgLatency;
+      this.sloViolated = sloViolated;
+    }
+
+    public int getBatchSize() {
+      return batchSize;
+    }
+
+    public double getThroughput() {
+      return throughput;
+    }
+
+    public double getAvgLatency() {
+      return avgLatency;
+    }
+
+    public boolean isSloViolated() {
+      return sloViolated;
+    }
+  }
+}
@@ -59,6 +59,17 @@ public abstract class GenerateBaseClient extends Client implements Runnable {
     this.totalLoop = config.getLOOP();
   }
 
+  /** Get the number of batches to write for the device of deviceIndex in one insert loop */
+  protected int getBatchNumberOfDevice(int deviceIndex) {
+    if (config.isIS_SENSOR_TS_ALIGNMENT()) {
+      return 1;
+    } else if (config.isIS_CLIENT_BIND()) {
+      return deviceSchemas.get(deviceIndex).getSensors().size();
+    } else {
+      return deviceSchemas.get(deviceIndex).getSensors().size() * config.getDEVICE_NUMBER();
+    }
+  }
+
   /** Check whether write batch */
   protected boolean checkBatch(Batch batch) {
     if (batch.getDeviceSchema().getDeviceId() > actualDeviceFloor) {
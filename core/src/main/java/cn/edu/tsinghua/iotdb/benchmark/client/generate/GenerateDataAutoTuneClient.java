@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.client.generate;
+
+import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.exception.WorkloadException;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.Measurement;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Run like GenerateDataMixClient, and tune the batch size by BatchSizeTuner with the ingestion
+ * counters of the measurement of each AUTO_TUNE_WINDOW_MS window.
+ */
+public class GenerateDataAutoTuneClient extends GenerateDataMixClient {
+
+  private static final double NANO_TO_SECOND = 1000000000.0d;
+
+  private final BatchSizeTuner tuner =
+      new BatchSizeTuner(
+          config.getAUTO_TUNE_MIN_BATCH_SIZE(),
+          config.getAUTO_TUNE_MAX_BATCH_SIZE(),
+          config.getAUTO_TUNE_LATENCY_SLO_MS());
+  private final long windowNanos = TimeUnit.MILLISECONDS.toNanos(config.getAUTO_TUNE_WINDOW_MS());
+  /** The number of records per batch in current window */
+  private int batchSize = tuner.getBatchSize();
+
+  /** The measurement and its ingestion counters at the start of current window */
+  private Measurement windowMeasurement = null;
+  private long windowStart;
+  private long windowPointNum;
+  private long windowOperationNum;
+  private double windowLatencySum;
+
+  public GenerateDataAutoTuneClient(int id, CountDownLatch countDownLatch, CyclicBarrier barrier) {
+    super(id, countDownLatch, barrier);
+  }
+
+  @Override
+  protected boolean doOperation(Operation operation) {
+    if (windowMeasurement == null) {
+      startWindow(System.nanoTime());
+    }
+    boolean result = super.doOperation(operation);
+    long now = System.nanoTime();
+    if (now - windowStart >= windowNanos && !tuner.isConverged()) {
+      finishWindow(now);
+    }
+    return result;
+  }
+
+  /** Feed the counters of window to the tuner and start the next window */
+  private void finishWindow(long now) {
+    Measurement current = dbWrapper.getMeasurement();
+    // the measurement is replaced when warm-up finishes, the window is dropped then
+    if (current == windowMeasurement) {
+      int lastBatchSize = batchSize;
+      batchSize =
+          tuner.update(
+              current.getOkPointNum(Operation.INGESTION) - windowPointNum,
+              current.getOkOperationNum(Operation.INGESTION) - windowOperationNum,
+              current.getOperationLatencySumThisClient().get(Operation.INGESTION)
+                  - windowLatencySum,
+              (now - windowStart) / NANO_TO_SECOND);
+      if (!config.isIS_QUIET_MODE() && !tuner.getWindows().isEmpty()) {
+        BatchSizeTuner.Window window = tuner.getWindows().get(tuner.getWindows().size() - 1);
+        LOGGER.info(
+            "{} batch size {}: {} points/s, avg latency {} ms, next batch size {}",
+            Thread.currentThread().getName(),
+            lastBatchSize,
+            String.format("%.2f", window.getThroughput()),
+            String.format("%.2f", window.getAvgLatency()),
+            batchSize);
+      }
+      if (tuner.isConverged()) {
+        LOGGER.info(
+            "{} batch size converges to {}", Thread.currentThread().getName(), batchSize);
+      }
+    }
+    startWindow(now);
+  }
+
+  private void startWindow(long now) {
+    windowMeasurement = dbWrapper.getMeasurement();
+    windowStart = now;
+    windowPointNum = windowMeasurement.getOkPointNum(Operation.INGESTION);
+    windowOperationNum = windowMeasurement.getOkOperationNum(Operation.INGESTION);
+    windowLatencySum =
+        windowMeasurement.getOperationLatencySumThisClient().get(Operation.INGESTION);
+  }
+
+  /** Generate batches of batchSize records */
+  @Override
+  protected Batch getOneBatch() throws WorkloadException {
+    return dataWorkLoad.getOneBatch(batchSize);
+  }
+
+  public BatchSizeTuner getTuner() {
+    return tuner;
+  }
+}
@@ -20,14 +20,22 @@
 package cn.edu.tsinghua.iotdb.benchmark.client.generate;
 
 import cn.edu.tsinghua.iotdb.benchmark.entity.DeviceSummary;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.TsdbException;
 import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.DeviceQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
+import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Compare the data of devices between two databases point by point. Clients sweep devices in
+ * parallel: each client takes POINT_COMPARISON_DEVICE_BATCH devices at a time, fetches their
+ * summaries together, and pages over the time range of each device with VERIFICATION_STEP_SIZE.
+ */
 public class GenerateDataDeviceClient extends GenerateBaseClient {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(GenerateDataDeviceClient.class);
@@ -35,7 +43,8 @@ public class GenerateDataDeviceClient extends GenerateBaseClient {
       config.getVERIFICATION_STEP_SIZE()
           * config.getPOINT_STEP()
           * config.getBATCH_SIZE_PER_WRITE();
-  private int now = 0;
+  private final AtomicLong checkedDeviceNum = new AtomicLong();
+  private final AtomicLong checkedPointNum = new AtomicLong();
 
   public GenerateDataDeviceClient(int id, CountDownLatch countDownLatch, CyclicBarrier barrier) {
     super(id, countDownLatch, barrier);
@@ -43,46 +52,57 @@ public class GenerateDataDeviceClient extends GenerateBaseClient {
 
   @Override
   protected void doTest() {
+    ScheduledExecutorService pointService = Executors.newSingleThreadScheduledExecutor();
+    String currentThread = Thread.currentThread().getName();
+    // print current progress periodically
+    pointService.scheduleAtFixedRate(
+        () ->
+            LOGGER.info(
+                "{} has checked {} devices and {} data points.",
+                currentThread,
+                checkedDeviceNum.get(),
+                checkedPointNum.get()),
+        1,
+        config.getLOG_PRINT_INTERVAL(),
+        TimeUnit.SECONDS);
     try {
-      for (int i = 0; i < config.getDEVICE_NUMBER() / config.getCLIENT_NUMBER() + 1; i++) {
-        DeviceQuery deviceQuery = queryWorkLoad.getDeviceQuery();
-        if (deviceQuery == null) {
-          break;
-        }
-        DeviceSummary deviceSummary = dbWrapper.deviceSummary(deviceQuery);
-        if (deviceSummary == null) {
-          return;
+      List<DeviceQuery> deviceQueries =
+          queryWorkLoad.getDeviceQueries(config.getPOINT_COMPARISON_DEVICE_BATCH());
+      while (!deviceQueries.isEmpty()) {
+        List<DeviceSummary> deviceSummaries = dbWrapper.deviceSummaries(deviceQueries);
+        if (deviceSummaries == null) {
+          LOGGER.error("Skip {} devices without summary", deviceQueries.size());
+        } else {
+          for (int i = 0; i < deviceQueries.size(); i++) {
+            checkDevice(deviceQueries.get(i), deviceSummaries.get(i));
+          }
         }
-        ScheduledExecutorService pointService = Executors.newSingleThreadScheduledExecutor();
-        String currentThread = Thread.currentThread().getName();
-        // print current progress periodically
-        pointService.scheduleAtFixedRate(
-            () -> {
-              String percent =
-                  String.format(
-                      "%.2f",
-                      now
-                          * 100.0D
-                          / (deviceSummary.getTotalLineNumber() * config.getSENSOR_NUMBER()));
-              LOGGER.info(
-                  "{} has checked {} ({}%) data point for {}.",
-                  currentThread, now, percent, deviceQuery.getDeviceSchema().getDevice());
-            },
-            1,
-            config.getLOG_PRINT_INTERVAL(),
-            TimeUnit.SECONDS);
-        long queryStartTime = deviceSummary.getMinTimeStamp();
-        do {
-          DeviceQuery query =
-              deviceQuery.getTotalDeviceQuery(
-                  queryStartTime, queryStartTime + verificationStepSize);
-          now += dbWrapper.deviceQuery(query).getQueryResultPointNum();
-          queryStartTime += verificationStepSize;
-        } while (queryStartTime < deviceSummary.getMaxTimeStamp());
-        pointService.shutdown();
+        deviceQueries = queryWorkLoad.getDeviceQueries(config.getPOINT_COMPARISON_DEVICE_BATCH());
       }
     } catch (SQLException | TsdbException sqlException) {
       LOGGER.error("Failed DeviceQuery: " + sqlException.getMessage());
+    } finally {
+      pointService.shutdown();
+    }
+  }
+
+  /** Query the device window by window from its min timestamp to its max timestamp */
+  private void checkDevice(DeviceQuery deviceQuery, DeviceSummary deviceSummary)
+      throws SQLException, TsdbException {
+    checkedDeviceNum.incrementAndGet();
+    // the summary is null when it is different between databases
+    if (deviceSummary == null || deviceSummary.getTotalLineNumber() == 0) {
+      return;
+    }
+    for (long queryStartTime = deviceSummary.getMinTimeStamp();
+        queryStartTime <= deviceSummary.getMaxTimeStamp();
+        queryStartTime += verificationStepSize) {
+      DeviceQuery query =
+          deviceQuery.getTotalDeviceQuery(queryStartTime, queryStartTime + verificationStepSize);
+      Status status = dbWrapper.deviceQuery(query);
+      if (status != null) {
+        checkedPointNum.addAndGet(status.getQueryResultPointNum());
+      }
     }
   }
 }
@@ -21,15 +21,20 @@ package cn.edu.tsinghua.iotdb.benchmark.client.generate;
 
 import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
 import cn.edu.tsinghua.iotdb.benchmark.client.operation.OperationController;
+import cn.edu.tsinghua.iotdb.benchmark.distribution.AccessDistribution;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.exception.WorkloadException;
 
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
 
 public class GenerateDataMixClient extends GenerateBaseClient {
 
   /** Control operation according to OPERATION_PROPORTION */
   private final OperationController operationController;
+  /** The start time of test in nanosecond */
+  private volatile long testStart = 0;
 
   public GenerateDataMixClient(int id, CountDownLatch countDownLatch, CyclicBarrier barrier) {
     super(id, countDownLatch, barrier);
@@ -41,63 +46,23 @@ public class GenerateDataMixClient extends GenerateBaseClient {
   @Override
   protected void doTest() {
     long start = 0;
-    for (loopIndex = 0; loopIndex < config.getLOOP(); loopIndex++) {
+    testStart = System.nanoTime();
+    long warmUpEnd = testStart + TimeUnit.SECONDS.toNanos(config.getWARMUP_DURATION());
+    boolean warmingUp = config.getWARMUP_DURATION() > 0;
+    if (warmingUp) {
+      dbWrapper.startWarmUp();
+    }
+    for (loopIndex = 0; isRunning(); loopIndex++) {
+      if (warmingUp && System.nanoTime() >= warmUpEnd) {
+        dbWrapper.finishWarmUp();
+        warmingUp = false;
+      }
       Operation operation = operationController.getNextOperationType();
       if (config.getOP_INTERVAL() > 0) {
         start = System.currentTimeMillis();
       }
-      if (operation == Operation.INGESTION) {
-        if (!ingestionOperation()) {
-          break;
-        }
-      } else {
-        if (config.isIS_RECENT_QUERY()) {
-          long timestamp = dataWorkLoad.getCurrentTimestamp();
-          if (!config.isIS_QUIET_MODE()) {
-            String currentThread = Thread.currentThread().getName();
-            LOGGER.info(
-                "{} update queryWorkLoad with maxTimestamp : {}.", currentThread, timestamp);
-          }
-          queryWorkLoad.updateTime(timestamp);
-        }
-        try {
-          switch (operation) {
-            case PRECISE_QUERY:
-              dbWrapper.preciseQuery(queryWorkLoad.getPreciseQuery());
-              break;
-            case RANGE_QUERY:
-              dbWrapper.rangeQuery(queryWorkLoad.getRangeQuery());
-              break;
-            case VALUE_RANGE_QUERY:
-              dbWrapper.valueRangeQuery(queryWorkLoad.getValueRangeQuery());
-              break;
-            case AGG_RANGE_QUERY:
-              dbWrapper.aggRangeQuery(queryWorkLoad.getAggRangeQuery());
-              break;
-            case AGG_VALUE_QUERY:
-              dbWrapper.aggValueQuery(queryWorkLoad.getAggValueQuery());
-              break;
-            case AGG_RANGE_VALUE_QUERY:
-              dbWrapper.aggRangeValueQuery(queryWorkLoad.getAggRangeValueQuery());
-              break;
-            case GROUP_BY_QUERY:
-              dbWrapper.groupByQuery(queryWorkLoad.getGroupByQuery());
-              break;
-            case LATEST_POINT_QUERY:
-              dbWrapper.latestPointQuery(queryWorkLoad.getLatestPointQuery());
-              break;
-            case RANGE_QUERY_ORDER_BY_TIME_DESC:
-              dbWrapper.rangeQueryOrderByDesc(queryWorkLoad.getRangeQuery());
-              break;
-            case VALUE_RANGE_QUERY_ORDER_BY_TIME_DESC:
-              dbWrapper.valueRangeQueryOrderByDesc(queryWorkLoad.getValueRangeQuery());
-              break;
-            default:
-              LOGGER.error("Unsupported operation sensorType {}", operation);
-          }
-        } catch (Exception e) {
-          LOGGER.error("Failed to do " + operation.getName() + " query because ", e);
-        }
+      if (!doOperation(operation)) {
+        break;
       }
       if (config.getOP_INTERVAL() > 0) {
         long elapsed = System.currentTimeMillis() - start;
@@ -110,24 +75,93 @@ public class GenerateDataMixClient extends GenerateBaseClient {
         }
       }
     }
+    dbWrapper.finishWarmUp();
+  }
+
+  /** Run until TEST_DURATION if it is set, otherwise run LOOP operations */
+  private boolean isRunning() {
+    if (config.getTEST_DURATION() > 0) {
+      return System.nanoTime() - testStart < TimeUnit.SECONDS.toNanos(config.getTEST_DURATION());
+    }
+    return loopIndex < config.getLOOP();
+  }
+
+  @Override
+  protected double getProgress() {
+    if (config.getTEST_DURATION() > 0) {
+      return (System.nanoTime() - testStart) * 100.0D
+          / TimeUnit.SECONDS.toNanos(config.getTEST_DURATION());
+    }
+    return super.getProgress();
+  }
+
+  /**
+   * Do one operation
+   *
+   * @return false when ingestion failed
+   */
+  protected boolean doOperation(Operation operation) {
+    if (operation == Operation.INGESTION) {
+      return ingestionOperation();
+    } else {
+      if (config.isIS_RECENT_QUERY()
+          || config.getQUERY_TIME_DISTRIBUTION() != AccessDistribution.DEFAULT) {
+        long timestamp = dataWorkLoad.getCurrentTimestamp();
+        if (!config.isIS_QUIET_MODE()) {
+          String currentThread = Thread.currentThread().getName();
+          LOGGER.info("{} update queryWorkLoad with maxTimestamp : {}.", currentThread, timestamp);
+        }
+        queryWorkLoad.updateTime(timestamp);
+      }
+      try {
+        switch (operation) {
+          case PRECISE_QUERY:
+            dbWrapper.preciseQuery(queryWorkLoad.getPreciseQuery());
+            break;
+          case RANGE_QUERY:
+            dbWrapper.rangeQuery(queryWorkLoad.getRangeQuery());
+            break;
+          case VALUE_RANGE_QUERY:
+            dbWrapper.valueRangeQuery(queryWorkLoad.getValueRangeQuery());
+            break;
+          case AGG_RANGE_QUERY:
+            dbWrapper.aggRangeQuery(queryWorkLoad.getAggRangeQuery());
+            break;
+          case AGG_VALUE_QUERY:
+            dbWrapper.aggValueQuery(queryWorkLoad.getAggValueQuery());
+            break;
+          case AGG_RANGE_VALUE_QUERY:
+            dbWrapper.aggRangeValueQuery(queryWorkLoad.getAggRangeValueQuery());
+            break;
+          case GROUP_BY_QUERY:
+            dbWrapper.groupByQuery(queryWorkLoad.getGroupByQuery());
+            break;
+          case LATEST_POINT_QUERY:
+            dbWrapper.latestPointQuery(queryWorkLoad.getLatestPointQuery());
+            break;
+          case RANGE_QUERY_ORDER_BY_TIME_DESC:
+            dbWrapper.rangeQueryOrderByDesc(queryWorkLoad.getRangeQuery());
+            break;
+          case VALUE_RANGE_QUERY_ORDER_BY_TIME_DESC:
+            dbWrapper.valueRangeQueryOrderByDesc(queryWorkLoad.getValueRangeQuery());
+            break;
+          default:
+            LOGGER.error("Unsupported operation sensorType {}", operation);
+        }
+      } catch (Exception e) {
+        LOGGER.error("Failed to do " + operation.getName() + " query because ", e);
+      }
+    }
+    return true;
   }
 
   /** Do Ingestion Operation @Return when connect failed return false */
   private boolean ingestionOperation() {
     try {
       for (int i = 0; i < deviceSchemasSize; i++) {
-        int innerLoop = 0;
-        if (config.isIS_SENSOR_TS_ALIGNMENT()) {
-          innerLoop = 1;
-        } else {
-          if (config.isIS_CLIENT_BIND()) {
-            innerLoop = deviceSchemas.get(i).getSensors().size();
-          } else {
-            innerLoop = deviceSchemas.get(i).getSensors().size() * config.getDEVICE_NUMBER();
-          }
-        }
+        int innerLoop = getBatchNumberOfDevice(i);
         for (int j = 0; j < innerLoop; j++) {
-          Batch batch = dataWorkLoad.getOneBatch();
+          Batch batch = getOneBatch();
           if (checkBatch(batch)) {
             dbWrapper.insertOneBatch(batch);
           }
@@ -140,4 +174,9 @@ public class GenerateDataMixClient extends GenerateBaseClient {
     }
     return true;
   }
+
+  /** Get the next batch to write */
+  protected Batch getOneBatch() throws WorkloadException {
+    return dataWorkLoad.getOneBatch();
+  }
 }
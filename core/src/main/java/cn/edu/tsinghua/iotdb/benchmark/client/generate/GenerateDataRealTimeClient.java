@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.client.generate;
+
+import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
+import cn.edu.tsinghua.iotdb.benchmark.utils.TimeUtils;
+import cn.edu.tsinghua.iotdb.benchmark.utils.TimerWheel;
+import cn.edu.tsinghua.iotdb.benchmark.workload.GenerateDataWorkLoad;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each device samples at its own period and uploads the samples since its last upload at its own
+ * period, both by wall-clock time. A timer wheel wakes the devices whose uploads are due, so the
+ * cost of client is proportional to the number of uploads instead of the number of devices.
+ */
+public class GenerateDataRealTimeClient extends GenerateBaseClient {
+
+  private static final long TICK_MS = 1;
+  private static final int WHEEL_SIZE = 4096;
+  private static final long TIMESTAMP_CONST =
+      TimeUtils.getTimestampConst(config.getTIMESTAMP_PRECISION());
+
+  private final Random random = new Random(config.getDATA_SEED() + clientThreadId);
+  /** The start time of test in nanosecond */
+  private volatile long testStart = 0;
+
+  public GenerateDataRealTimeClient(int id, CountDownLatch countDownLatch, CyclicBarrier barrier) {
+    super(id, countDownLatch, barrier);
+  }
+
+  /** Do uploads of devices until TEST_DURATION, or until each device uploads LOOP times */
+  @Override
+  protected void doTest() {
+    testStart = System.nanoTime();
+    long warmUpEnd = testStart + TimeUnit.SECONDS.toNanos(config.getWARMUP_DURATION());
+    boolean warmingUp = config.getWARMUP_DURATION() > 0;
+    if (warmingUp) {
+      dbWrapper.startWarmUp();
+    }
+    long now = System.currentTimeMillis();
+    TimerWheel<RealTimeDevice> timerWheel = new TimerWheel<>(WHEEL_SIZE, TICK_MS, now);
+    for (DeviceSchema deviceSchema : deviceSchemas) {
+      if (deviceSchema.getDeviceId() > actualDeviceFloor) {
+        continue;
+      }
+      RealTimeDevice device = new RealTimeDevice(deviceSchema, now);
+      timerWheel.schedule(device, device.nextUploadTime);
+    }
+    totalLoop = Math.max(1, config.getLOOP() * timerWheel.size());
+    List<RealTimeDevice> dueDevices = new ArrayList<>();
+    while (timerWheel.size() > 0 && isRunning()) {
+      sleepUntil(timerWheel.getNextTickMs());
+      if (warmingUp && System.nanoTime() >= warmUpEnd) {
+        dbWrapper.finishWarmUp();
+        warmingUp = false;
+      }
+      dueDevices.clear();
+      timerWheel.advance(System.currentTimeMillis(), dueDevices);
+      for (RealTimeDevice device : dueDevices) {
+        if (!upload(device)) {
+          dbWrapper.finishWarmUp();
+          return;
+        }
+        loopIndex++;
+        if (config.getTEST_DURATION() > 0 || device.uploadNumber < config.getLOOP()) {
+          timerWheel.schedule(device, device.getNextUploadTime());
+        }
+      }
+    }
+    dbWrapper.finishWarmUp();
+  }
+
+  /**
+   * Write the samples of device until now
+   *
+   * @return false when ingestion failed
+   */
+  private boolean upload(RealTimeDevice device) {
+    long now = System.currentTimeMillis();
+    Batch batch = new Batch();
+    batch.setDeviceSchema(device.deviceSchema);
+    while (device.nextSampleTime <= now) {
+      batch.add(
+          device.nextSampleTime * TIMESTAMP_CONST,
+          GenerateDataWorkLoad.getRowValues(-1, device.sampleNumber));
+      device.sampleNumber++;
+      device.nextSampleTime += device.samplingPeriod;
+    }
+    device.uploadNumber++;
+    if (batch.getRecords().isEmpty()) {
+      return true;
+    }
+    try {
+      dbWrapper.insertOneBatch(batch);
+    } catch (Exception e) {
+      LOGGER.error("Failed to insert one batch data because ", e);
+      return false;
+    }
+    return true;
+  }
+
+  private boolean isRunning() {
+    if (config.getTEST_DURATION() > 0) {
+      return System.nanoTime() - testStart < TimeUnit.SECONDS.toNanos(config.getTEST_DURATION());
+    }
+    return true;
+  }
+
+  @Override
+  protected double getProgress() {
+    if (config.getTEST_DURATION() > 0) {
+      return (System.nanoTime() - testStart) * 100.0D
+          / TimeUnit.SECONDS.toNanos(config.getTEST_DURATION());
+    }
+    return super.getProgress();
+  }
+
+  private void sleepUntil(long deadline) {
+    long waitTime = deadline - System.currentTimeMillis();
+    if (waitTime > 0) {
+      try {
+        Thread.sleep(waitTime);
+      } catch (InterruptedException e) {
+        LOGGER.error("Wait for next upload failed because ", e);
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /** Get a period uniform in [mean * (1 - spread), mean * (1 + spread)], at least 1 ms */
+  private long getRandomPeriod(long mean) {
+    double spread = config.getREAL_TIME_PERIOD_SPREAD();
+    return Math.max(1L, Math.round(mean * (1 + spread * (2 * random.nextDouble() - 1))));
+  }
+
+  private class RealTimeDevice {
+    private final DeviceSchema deviceSchema;
+    private final long samplingPeriod;
+    private final long uploadPeriod;
+    private long nextSampleTime;
+    /** The upload time without jitter */
+    private long nextUploadTime;
+
+    private long sampleNumber = 0;
+    private long uploadNumber = 0;
+
+    private RealTimeDevice(DeviceSchema deviceSchema, long now) {
+      this.deviceSchema = deviceSchema;
+      this.samplingPeriod = getRandomPeriod(config.getREAL_TIME_SAMPLING_PERIOD_MS());
+      this.uploadPeriod = getRandomPeriod(config.getREAL_TIME_UPLOAD_PERIOD_MS());
+      // devices do not start at the same time
+      this.nextSampleTime = now + (long) (random.nextDouble() * samplingPeriod);
+      this.nextUploadTime = now + (long) (random.nextDouble() * uploadPeriod);
+    }
+
+    /** Move to the next upload and get its time with jitter */
+    private long getNextUploadTime() {
+      nextUploadTime += uploadPeriod;
+      long jitter = config.getREAL_TIME_UPLOAD_JITTER_MS();
+      if (jitter <= 0) {
+        return nextUploadTime;
+      }
+      return nextUploadTime + (long) ((2 * random.nextDouble() - 1) * jitter);
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.client.generate;
+
+import cn.edu.tsinghua.iotdb.benchmark.client.operation.OperationController;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.exception.WorkloadException;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.Measurement;
+import cn.edu.tsinghua.iotdb.benchmark.workload.WorkloadStage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Run the stages of WORKLOAD_STAGE_FILE one by one. All clients start each stage together, the
+ * clients beyond the client number of stage stay idle, and each stage is recorded by its own
+ * measurement.
+ */
+public class GenerateDataStageClient extends GenerateDataMixClient {
+
+  private static final double NANO_TO_SECOND = 1000000000.0d;
+
+  private final List<WorkloadStage> stages = config.getWORKLOAD_STAGES();
+  /** The measurement of each stage */
+  private final List<Measurement> stageMeasurements = new ArrayList<>();
+  /** The number of records per batch in current stage */
+  private int batchSize = config.getBATCH_SIZE_PER_WRITE();
+  /** Whether ingestion failed, the client stays idle in the following stages then */
+  private boolean failed = false;
+  /** The start time of test in nanosecond */
+  private volatile long testStart = 0;
+
+  public GenerateDataStageClient(int id, CountDownLatch countDownLatch, CyclicBarrier barrier) {
+    super(id, countDownLatch, barrier);
+  }
+
+  /** Do stages */
+  @Override
+  protected void doTest() {
+    testStart = System.nanoTime();
+    for (int stageIndex = 0; ; stageIndex++) {
+      try {
+        // start stage simultaneously
+        barrier.await();
+      } catch (InterruptedException e) {
+        LOGGER.error("Wait for stage {} failed because ", stageIndex, e);
+        Thread.currentThread().interrupt();
+        return;
+      } catch (BrokenBarrierException e) {
+        LOGGER.error("Wait for stage {} failed because ", stageIndex, e);
+        return;
+      }
+      WorkloadStage stage = getStage(stageIndex);
+      if (stage == null) {
+        return;
+      }
+      Measurement stageMeasurement = new Measurement();
+      stageMeasurements.add(stageMeasurement);
+      measurement = stageMeasurement;
+      dbWrapper.setMeasurement(stageMeasurement);
+      batchSize = stage.getBatchSize();
+      long stageStart = System.nanoTime();
+      long stageEnd = stageStart + TimeUnit.SECONDS.toNanos(stage.getDuration());
+      if (!config.isIS_QUIET_MODE()) {
+        LOGGER.info("{} start stage {}", Thread.currentThread().getName(), stage.getName());
+      }
+      if (clientThreadId < stage.getClientNumber() && !failed) {
+        doStage(stage, stageStart, stageEnd);
+      }
+      sleepUntil(stageEnd);
+      stageMeasurement.setElapseTime((System.nanoTime() - stageStart) / NANO_TO_SECOND);
+      finishStage(stageMeasurement);
+    }
+  }
+
+  /**
+   * Get the stage to do, all clients call it after they finish the previous stage
+   *
+   * @return null if there is no more stage
+   */
+  protected WorkloadStage getStage(int stageIndex) {
+    return stageIndex < stages.size() ? stages.get(stageIndex) : null;
+  }
+
+  /** Called after the client finishes a stage */
+  protected void finishStage(Measurement stageMeasurement) {
+    // do nothing
+  }
+
+  /** Do operations of stage until stageEnd at the target rate of stage */
+  private void doStage(WorkloadStage stage, long stageStart, long stageEnd) {
+    OperationController operationController =
+        new OperationController(clientThreadId, stage.getOperationProportion());
+    long nextStart = stageStart;
+    long now = stageStart;
+    while (now < stageEnd && nextStart < stageEnd) {
+      double elapsed = (now - stageStart) / NANO_TO_SECOND;
+      double clientOps = stage.getTargetOps(elapsed) / stage.getClientNumber();
+      if (clientOps > 0) {
+        sleepUntil(nextStart);
+        long interval = (long) (NANO_TO_SECOND / clientOps);
+        // do not catch up with the operations delayed by a slow database in a burst
+        nextStart = Math.max(nextStart, System.nanoTime() - interval) + interval;
+      }
+      if (!doOperation(operationController.getNextOperationType())) {
+        failed = true;
+        return;
+      }
+      now = System.nanoTime();
+      loopIndex++;
+    }
+  }
+
+  @Override
+  protected double getProgress() {
+    long totalDuration = 0;
+    for (WorkloadStage stage : stages) {
+      totalDuration += stage.getDuration();
+    }
+    return (System.nanoTime() - testStart) * 100.0D / TimeUnit.SECONDS.toNanos(totalDuration);
+  }
+
+  private void sleepUntil(long deadline) {
+    long waitTime = deadline - System.nanoTime();
+    if (waitTime > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(waitTime);
+      } catch (InterruptedException e) {
+        LOGGER.error("Wait for next operation failed because ", e);
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /** Generate batches of batchSize records */
+  @Override
+  protected Batch getOneBatch() throws WorkloadException {
+    return dataWorkLoad.getOneBatch(batchSize);
+  }
+
+  public List<Measurement> getStageMeasurements() {
+    return stageMeasurements;
+  }
+}
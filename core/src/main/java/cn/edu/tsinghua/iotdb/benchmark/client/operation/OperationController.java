@@ -22,7 +22,9 @@ package cn.edu.tsinghua.iotdb.benchmark.client.operation;
 import cn.edu.tsinghua.iotdb.benchmark.client.generate.GenerateDataMixClient;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
 import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.distribution.AliasTable;
 import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -30,87 +32,80 @@ import java.util.Random;
 
 public class OperationController {
 
-  private static final Logger LOGGER = null;
+  private static final Logger LOGGER = LoggerFactory.getLogger(OperationController.class);
   private static Config config = ConfigDescriptor.getInstance().getConfig();
-  private List<Double> proportion = new ArrayList<>();
-  private List<Operation> operations = Operation.getNormalOperation();
-  private boolean isAllWrite = false;
-  private Random random;
+  private final List<Operation> operations;
+  /** Alias table built once from the weights of operations, null if only one can be chosen */
+  private AliasTable aliasTable;
+  /** The operation to return when aliasTable is null */
+  private Operation onlyOperation = Operation.INGESTION;
+  private final Random random;
 
   public OperationController(int seed) {
-    random = new Random(seed);
-    String[] split = config.getOPERATION_PROPORTION().split(":");
+    this(seed, config.getOPERATION_PROPORTION());
+  }
+
+  /** @param operationProportion the same format as OPERATION_PROPORTION */
+  public OperationController(int seed, String operationProportion) {
+    this(seed, Operation.getNormalOperation(), parseProportion(operationProportion));
+  }
+
+  /**
+   * Choose among the given operations according to their weights, the result is reproducible for
+   * the same seed.
+   *
+   * @param operations the operations to choose from, e.g. user-defined operations
+   * @param weights the non-negative weight of each operation, they do not need to sum to 1
+   */
+  public OperationController(int seed, List<Operation> operations, double[] weights) {
+    this.random = new Random(seed);
+    this.operations = new ArrayList<>(operations);
+    if (weights.length != operations.size()) {
+      LOGGER.error(
+          "The number of weights {} is not equal to the number of operations {}.",
+          weights.length,
+          operations.size());
+    }
+    double[] operationWeights = new double[operations.size()];
+    double sum = 0;
+    int positiveNumber = 0;
+    for (int i = 0; i < operations.size() && i < weights.length; i++) {
+      operationWeights[i] = weights[i];
+      sum += weights[i];
+      if (weights[i] > 0) {
+        positiveNumber++;
+        onlyOperation = operations.get(i);
+      }
+    }
+    if (sum <= 0) {
+      LOGGER.error("The sum of operation proportions is zero!");
+      onlyOperation = Operation.INGESTION;
+    } else if (positiveNumber > 1) {
+      aliasTable = new AliasTable(operationWeights);
+    }
+  }
+
+  private static double[] parseProportion(String operationProportion) {
+    String[] split = operationProportion.split(":");
     if (split.length != Operation.getNormalOperation().size()) {
       LOGGER.error("OPERATION_PROPORTION error, please check this parameter.");
     }
-    double[] proportions = new double[Operation.getNormalOperation().size()];
-    double sum = 0;
+    double[] proportions = new double[split.length];
     for (int i = 0; i < split.length; i++) {
       proportions[i] = Double.parseDouble(split[i]);
-      sum += proportions[i];
-    }
-    for (int i = 0; i < split.length; i++) {
-      if (sum != 0) {
-        proportion.add(proportions[i] / sum);
-      } else {
-        proportion.add(0.0);
-        LOGGER.error("The sum of operation proportions is zero!");
-      }
-    }
-    if (Math.abs(proportion.get(0) - 1.0) < 1e-7) {
-      isAllWrite = true;
     }
+    return proportions;
   }
 
   /**
-   * Get next Operation type, using by {@link GenerateDataMixClient}
+   * Get next Operation type in O(1), using by {@link GenerateDataMixClient}
    *
    * @return Operation the next operation for client to execute
    */
   public Operation getNextOperationType() {
-    if (isAllWrite) {
-      return Operation.INGESTION;
-    }
-    // p contains cumulative probability
-    double[] p = new double[operations.size() + 1];
-    p[0] = 0.0;
-    for (int i = 1; i <= operations.size(); i++) {
-      p[i] = p[i - 1] + proportion.get(i - 1);
-    }
-    // use random to getNextOperationType
-    double rand = random.nextDouble();
-    int i;
-    for (i = 1; i <= Operation.getNormalOperation().size(); i++) {
-      if (rand >= p[i - 1] && rand <= p[i]) {
-        break;
-      }
-    }
-    switch (i) {
-      case 1:
-        return Operation.INGESTION;
-      case 2:
-        return Operation.PRECISE_QUERY;
-      case 3:
-        return Operation.RANGE_QUERY;
-      case 4:
-        return Operation.VALUE_RANGE_QUERY;
-      case 5:
-        return Operation.AGG_RANGE_QUERY;
-      case 6:
-        return Operation.AGG_VALUE_QUERY;
-      case 7:
-        return Operation.AGG_RANGE_VALUE_QUERY;
-      case 8:
-        return Operation.GROUP_BY_QUERY;
-      case 9:
-        return Operation.LATEST_POINT_QUERY;
-      case 10:
-        return Operation.RANGE_QUERY_ORDER_BY_TIME_DESC;
-      case 11:
-        return Operation.VALUE_RANGE_QUERY_ORDER_BY_TIME_DESC;
-      default:
-        LOGGER.error("Unsupported operation {}, use default operation: INGESTION.", i);
-        return Operation.INGESTION;
+    if (aliasTable == null) {
+      return onlyOperation;
     }
+    return operations.get(aliasTable.sample(random));
   }
 }
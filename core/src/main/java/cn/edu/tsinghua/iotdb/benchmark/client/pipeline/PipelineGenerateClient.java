@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.client.pipeline;
+
+import cn.edu.tsinghua.iotdb.benchmark.client.generate.GenerateBaseClient;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.exception.WorkloadException;
+import cn.edu.tsinghua.iotdb.benchmark.utils.RingBuffer;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generate the batches of its devices and put them into the queue of each database, the batches
+ * are written by PipelineWriter, so the client never touches the database.
+ */
+public class PipelineGenerateClient extends GenerateBaseClient {
+
+  /** The time to park when the queue is full */
+  private static final long FULL_PARK_NANOS = 10000;
+
+  /** The queues of tested databases */
+  private final List<RingBuffer<Batch>> queues;
+  /** Set when any writer fails, so that the clients stop generating */
+  private final AtomicBoolean aborted;
+  /** The start time of test in nanosecond */
+  private volatile long testStart = 0;
+
+  private long batchNum = 0;
+  private long pointNum = 0;
+  /** The time spent in generating batches in nanosecond */
+  private long generateTime = 0;
+  /** The time spent in waiting for the space of full queues in nanosecond */
+  private long blockedTime = 0;
+
+  public PipelineGenerateClient(
+      int id,
+      CountDownLatch countDownLatch,
+      CyclicBarrier barrier,
+      List<RingBuffer<Batch>> queues,
+      AtomicBoolean aborted) {
+    super(id, countDownLatch, barrier);
+    this.queues = queues;
+    this.aborted = aborted;
+  }
+
+  /** The batches are written by PipelineWriter, so no database is needed */
+  @Override
+  protected void initDBWrappers() {
+    this.totalLoop = config.getLOOP();
+  }
+
+  @Override
+  protected void doTest() {
+    testStart = System.nanoTime();
+    try {
+      for (loopIndex = 0; isRunning(); loopIndex++) {
+        for (int i = 0; i < deviceSchemasSize; i++) {
+          int innerLoop = getBatchNumberOfDevice(i);
+          for (int j = 0; j < innerLoop; j++) {
+            long start = System.nanoTime();
+            Batch batch = dataWorkLoad.getOneBatch();
+            generateTime += System.nanoTime() - start;
+            if (!checkBatch(batch)) {
+              continue;
+            }
+            int batchPointNum = batch.pointNum();
+            // each database gets its own batch, the writers never share one
+            for (int q = 0; q < queues.size(); q++) {
+              if (!put(queues.get(q), q == queues.size() - 1 ? batch : batch.copy())) {
+                return;
+              }
+            }
+            batchNum++;
+            pointNum += batchPointNum;
+          }
+        }
+        insertLoopIndex++;
+      }
+    } catch (WorkloadException e) {
+      LOGGER.error("Failed to generate one batch data because ", e);
+      aborted.set(true);
+    }
+  }
+
+  /**
+   * Put batch into queue, wait while the queue is full
+   *
+   * @return false when the test is aborted
+   */
+  private boolean put(RingBuffer<Batch> queue, Batch batch) {
+    if (queue.offer(batch)) {
+      return true;
+    }
+    long start = System.nanoTime();
+    try {
+      while (!queue.offer(batch)) {
+        if (aborted.get()) {
+          return false;
+        }
+        LockSupport.parkNanos(FULL_PARK_NANOS);
+      }
+      return true;
+    } finally {
+      blockedTime += System.nanoTime() - start;
+    }
+  }
+
+  /** Run until TEST_DURATION if it is set, otherwise run LOOP insert loops */
+  private boolean isRunning() {
+    if (aborted.get()) {
+      return false;
+    }
+    if (config.getTEST_DURATION() > 0) {
+      return System.nanoTime() - testStart < TimeUnit.SECONDS.toNanos(config.getTEST_DURATION());
+    }
+    return loopIndex < config.getLOOP();
+  }
+
+  @Override
+  protected double getProgress() {
+    if (config.getTEST_DURATION() > 0) {
+      return (System.nanoTime() - testStart) * 100.0D
+          / TimeUnit.SECONDS.toNanos(config.getTEST_DURATION());
+    }
+    return super.getProgress();
+  }
+
+  public long getBatchNum() {
+    return batchNum;
+  }
+
+  public long getPointNum() {
+    return pointNum;
+  }
+
+  public long getGenerateTime() {
+    return generateTime;
+  }
+
+  public long getBlockedTime() {
+    return blockedTime;
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.client.pipeline;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.exception.DBConnectException;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.Measurement;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBWrapper;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.TsdbException;
+import cn.edu.tsinghua.iotdb.benchmark.utils.RingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/** Take batches from the queue of one database and write them until the generation finishes */
+public class PipelineWriter implements Runnable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PipelineWriter.class);
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+
+  /** The time to park when the queue is empty */
+  private static final long EMPTY_PARK_NANOS = 10000;
+
+  private final DBConfig dbConfig;
+  private final RingBuffer<Batch> queue;
+  private final DBWrapper dbWrapper;
+  private final Measurement measurement = new Measurement();
+  /** Set when all generate clients finished */
+  private final AtomicBoolean generateFinished;
+  /** Set when any writer or generate client fails */
+  private final AtomicBoolean aborted;
+  private final CountDownLatch countDownLatch;
+  private final CyclicBarrier barrier;
+
+  private long batchNum = 0;
+  private long pointNum = 0;
+  /** The time spent in writing batches in nanosecond */
+  private long writeTime = 0;
+
+  public PipelineWriter(
+      DBConfig dbConfig,
+      RingBuffer<Batch> queue,
+      AtomicBoolean generateFinished,
+      AtomicBoolean aborted,
+      CountDownLatch countDownLatch,
+      CyclicBarrier barrier) {
+    this.dbConfig = dbConfig;
+    this.queue = queue;
+    this.generateFinished = generateFinished;
+    this.aborted = aborted;
+    this.countDownLatch = countDownLatch;
+    this.barrier = barrier;
+    this.dbWrapper = new DBWrapper(Collections.singletonList(dbConfig), measurement);
+  }
+
+  @Override
+  public void run() {
+    try {
+      try {
+        dbWrapper.init();
+      } catch (TsdbException e) {
+        LOGGER.error("Initialize {} failed because ", dbConfig.getDB_SWITCH(), e);
+        aborted.set(true);
+      }
+      // wait for that all clients and writers start test simultaneously
+      barrier.await();
+      write();
+    } catch (Exception e) {
+      LOGGER.error("Unexpected error: ", e);
+      aborted.set(true);
+    } finally {
+      try {
+        dbWrapper.close();
+      } catch (TsdbException e) {
+        LOGGER.error("Close {} error: ", dbConfig.getDB_SWITCH(), e);
+      }
+      countDownLatch.countDown();
+    }
+  }
+
+  private void write() {
+    long warmUpEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getWARMUP_DURATION());
+    boolean warmingUp = config.getWARMUP_DURATION() > 0;
+    if (warmingUp) {
+      dbWrapper.startWarmUp();
+    }
+    while (!aborted.get()) {
+      if (warmingUp && System.nanoTime() >= warmUpEnd) {
+        dbWrapper.finishWarmUp();
+        warmingUp = false;
+      }
+      // read the flag before polling, so no batch is left when the queue is empty after it is set
+      boolean finished = generateFinished.get();
+      Batch batch = queue.poll();
+      if (batch == null) {
+        if (finished) {
+          break;
+        }
+        LockSupport.parkNanos(EMPTY_PARK_NANOS);
+        continue;
+      }
+      long start = System.nanoTime();
+      try {
+        Status status = dbWrapper.insertOneBatch(batch);
+        if (status != null && status.isOk()) {
+          batchNum++;
+          pointNum += batch.pointNum();
+        }
+      } catch (DBConnectException e) {
+        LOGGER.error("Failed to insert one batch data because ", e);
+        aborted.set(true);
+      }
+      writeTime += System.nanoTime() - start;
+    }
+    dbWrapper.finishWarmUp();
+  }
+
+  public Measurement getMeasurement() {
+    return measurement;
+  }
+
+  public long getBatchNum() {
+    return batchNum;
+  }
+
+  public long getPointNum() {
+    return pointNum;
+  }
+
+  public long getWriteTime() {
+    return writeTime;
+  }
+}
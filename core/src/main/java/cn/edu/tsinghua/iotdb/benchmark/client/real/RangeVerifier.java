@@ -0,0 +1,290 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package cn.edu.tsinghua.iotdb.benchmark.client.real;
+
+import cn.edu.tsinghua.iotdb.benchmark.entity.Record;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
+import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.ResultChecksum;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.DeviceQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Compare the rows of one time range of a device read from the dataset with the rows returned by
+ * the database. The rows of database are merged with the expected rows by timestamp while they are
+ * read, so the result is never kept in memory. If the database doesn't return the rows in order of
+ * time, the range is compared by the number and the checksum of its rows instead.
+ */
+public class RangeVerifier implements Consumer<Record> {
+
+  /** The max number of row level differences kept for one range */
+  private static final int MAX_DIFF_NUM = 100;
+
+  private final DeviceQuery range;
+  private final List<Sensor> sensors;
+  /** The expected rows, in ascending order of time without duplicated timestamps */
+  private final List<Record> expected;
+  private final double tolerance;
+
+  private int index = 0;
+  private boolean ordered = true;
+  private long lastTimestamp = Long.MIN_VALUE;
+  private int actualRowNum = 0;
+  private final ResultChecksum actualChecksum = new ResultChecksum();
+
+  private int matchedPointNum = 0;
+  private int failedPointNum = 0;
+  private int diffNum = 0;
+  private final List<String> diffs = new ArrayList<>();
+
+  public RangeVerifier(DeviceQuery range, List<Record> expected, double tolerance) {
+    this.range = range;
+    this.sensors = range.getDeviceSchema().getSensors();
+    this.expected = expected;
+    this.tolerance = tolerance;
+  }
+
+  @Override
+  public void accept(Record actual) {
+    actualRowNum++;
+    addRow(actualChecksum, actual);
+    if (!ordered) {
+      return;
+    }
+    if (actual.getTimestamp() <= lastTimestamp) {
+      ordered = false;
+      return;
+    }
+    lastTimestamp = actual.getTimestamp();
+    while (index < expected.size() && expected.get(index).getTimestamp() < lastTimestamp) {
+      addMissing(expected.get(index++));
+    }
+    if (index < expected.size() && expected.get(index).getTimestamp() == lastTimestamp) {
+      compareRow(expected.get(index++), actual);
+    } else {
+      addExtra(actual);
+    }
+  }
+
+  /** Called after all rows of database are passed */
+  public void finish() {
+    if (ordered) {
+      while (index < expected.size()) {
+        addMissing(expected.get(index++));
+      }
+      return;
+    }
+    // the merged result is meaningless, so the whole range is compared by checksum
+    matchedPointNum = 0;
+    failedPointNum = 0;
+    diffNum = 0;
+    diffs.clear();
+    ResultChecksum expectedChecksum = new ResultChecksum();
+    int pointNum = 0;
+    for (Record record : expected) {
+      addRow(expectedChecksum, record);
+      pointNum += countPoints(record);
+    }
+    if (expected.size() == actualRowNum
+        && expectedChecksum.getChecksum() == actualChecksum.getChecksum()) {
+      matchedPointNum = pointNum;
+    } else {
+      failedPointNum = pointNum;
+      diffNum++;
+      diffs.add(
+          "H,"
+              + range.getDeviceSchema().getDevice()
+              + ","
+              + range.getStartTimestamp()
+              + ","
+              + range.getEndTimestamp()
+              + ","
+              + expectedChecksum.getChecksum()
+              + ","
+              + actualChecksum.getChecksum());
+    }
+  }
+
+  private void compareRow(Record expectedRow, Record actualRow) {
+    for (int i = 0; i < sensors.size(); i++) {
+      Object expectedValue = getValue(expectedRow, i);
+      Object actualValue = getValue(actualRow, i);
+      if (expectedValue == null && actualValue == null) {
+        continue;
+      }
+      if (isEqual(sensors.get(i).getSensorType(), expectedValue, actualValue)) {
+        matchedPointNum++;
+      } else {
+        failedPointNum++;
+        addDiff(
+            "M,"
+                + range.getDeviceSchema().getDevice()
+                + ","
+                + expectedRow.getTimestamp()
+                + ","
+                + sensors.get(i).getName()
+                + ","
+                + expectedValue
+                + ","
+                + actualValue);
+      }
+    }
+  }
+
+  private void addMissing(Record record) {
+    failedPointNum += countPoints(record);
+    addDiff("-," + range.getDeviceSchema().getDevice() + "," + record.getTimestamp());
+  }
+
+  private void addExtra(Record record) {
+    failedPointNum += countPoints(record);
+    addDiff("+," + range.getDeviceSchema().getDevice() + "," + record.getTimestamp());
+  }
+
+  private void addDiff(String diff) {
+    diffNum++;
+    if (diffs.size() < MAX_DIFF_NUM) {
+      diffs.add(diff);
+    }
+  }
+
+  private int countPoints(Record record) {
+    int pointNum = 0;
+    for (int i = 0; i < sensors.size(); i++) {
+      if (getValue(record, i) != null) {
+        pointNum++;
+      }
+    }
+    return pointNum;
+  }
+
+  /** Add the timestamp and the normalized values of the row, so that both sides hash the same */
+  private void addRow(ResultChecksum checksum, Record record) {
+    checksum.update(record.getTimestamp());
+    for (int i = 0; i < sensors.size(); i++) {
+      checksum.update(normalize(sensors.get(i).getSensorType(), getValue(record, i)));
+    }
+    checksum.endRow();
+  }
+
+  private static Object getValue(Record record, int i) {
+    List<Object> values = record.getRecordDataValue();
+    return i < values.size() ? values.get(i) : null;
+  }
+
+  private boolean isEqual(SensorType type, Object expectedValue, Object actualValue) {
+    if (expectedValue == null || actualValue == null) {
+      return false;
+    }
+    try {
+      switch (type) {
+        case BOOLEAN:
+          return Boolean.parseBoolean(String.valueOf(expectedValue))
+              == Boolean.parseBoolean(String.valueOf(actualValue));
+        case INT32:
+        case INT64:
+          return toLong(expectedValue) == toLong(actualValue);
+        case FLOAT:
+        case DOUBLE:
+          double expectedDouble = toDouble(expectedValue);
+          double actualDouble = toDouble(actualValue);
+          return Double.compare(expectedDouble, actualDouble) == 0
+              || Math.abs(expectedDouble - actualDouble)
+                  <= tolerance * Math.max(1, Math.abs(expectedDouble));
+        default:
+          return String.valueOf(expectedValue).equals(String.valueOf(actualValue));
+      }
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  private static Object normalize(SensorType type, Object value) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      switch (type) {
+        case BOOLEAN:
+          return Boolean.parseBoolean(String.valueOf(value));
+        case INT32:
+        case INT64:
+          return toLong(value);
+        case FLOAT:
+        case DOUBLE:
+          // the values stored as FLOAT may be returned with different digits
+          return (float) toDouble(value);
+        default:
+          return String.valueOf(value);
+      }
+    } catch (NumberFormatException e) {
+      return String.valueOf(value);
+    }
+  }
+
+  private static long toLong(Object value) {
+    return value instanceof Number
+        ? ((Number) value).longValue()
+        : Long.parseLong(String.valueOf(value));
+  }
+
+  private static double toDouble(Object value) {
+    return value instanceof Number
+        ? ((Number) value).doubleValue()
+        : Double.parseDouble(String.valueOf(value));
+  }
+
+  public boolean isOk() {
+    return diffNum == 0;
+  }
+
+  public DeviceQuery getRange() {
+    return range;
+  }
+
+  public int getExpectedRowNum() {
+    return expected.size();
+  }
+
+  public int getActualRowNum() {
+    return actualRowNum;
+  }
+
+  public int getMatchedPointNum() {
+    return matchedPointNum;
+  }
+
+  public int getFailedPointNum() {
+    return failedPointNum;
+  }
+
+  /** The number of differences, including those not kept */
+  public int getDiffNum() {
+    return diffNum;
+  }
+
+  public List<String> getDiffs() {
+    return diffs;
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package cn.edu.tsinghua.iotdb.benchmark.client.real;
+
+import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Record;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.DeviceQuery;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+
+/**
+ * Verify the dataset by contiguous time ranges: the consecutive batches of one device are merged
+ * into a range of at most VERIFICATION_RANGE_SIZE rows, and the range is queried at once and
+ * compared with the merged rows while the result is read. The devices are split into clients, so
+ * the devices are verified in parallel.
+ */
+public class RealDataSetRangeQueryClient extends RealBaseClient {
+
+  private final VerificationDiffWriter diffWriter;
+
+  public RealDataSetRangeQueryClient(int id, CountDownLatch countDownLatch, CyclicBarrier barrier) {
+    super(id, countDownLatch, barrier);
+    this.diffWriter = new VerificationDiffWriter(id, System.currentTimeMillis());
+  }
+
+  /** Do Operations */
+  @Override
+  protected void doTest() {
+    try {
+      Batch next = dataWorkLoad.getOneBatch();
+      while (next != null) {
+        String device = next.getDeviceSchema().getDevice();
+        DeviceQuery range = new DeviceQuery(next.getDeviceSchema());
+        List<Record> records = new ArrayList<>(next.getRecords());
+        next = dataWorkLoad.getOneBatch();
+        loopIndex++;
+        while (next != null
+            && device.equals(next.getDeviceSchema().getDevice())
+            && records.size() < config.getVERIFICATION_RANGE_SIZE()) {
+          records.addAll(next.getRecords());
+          next = dataWorkLoad.getOneBatch();
+          loopIndex++;
+        }
+        records = sortAndDeduplicate(records);
+        if (records.isEmpty()) {
+          continue;
+        }
+        long lastTimestamp = records.get(records.size() - 1).getTimestamp();
+        range.setStartTimestamp(records.get(0).getTimestamp());
+        range.setEndTimestamp(lastTimestamp + 1);
+        // extend the range to the next one, so the extra rows between them are found as well
+        if (next != null && device.equals(next.getDeviceSchema().getDevice())) {
+          long nextTimestamp =
+              next.getRecords().stream().mapToLong(Record::getTimestamp).min().orElse(0);
+          if (nextTimestamp > lastTimestamp) {
+            range.setEndTimestamp(nextTimestamp);
+          }
+        }
+        dbWrapper.verificationRangeQuery(range, records, diffWriter);
+      }
+    } catch (Exception e) {
+      LOGGER.error("Failed to verify the range because ", e);
+    } finally {
+      diffWriter.close();
+    }
+  }
+
+  /** Sort the rows by time, and keep the last one of the rows with the same timestamp */
+  private static List<Record> sortAndDeduplicate(List<Record> records) {
+    // the sort is stable, so the later written row is still after the earlier one
+    records.sort(Comparator.comparingLong(Record::getTimestamp));
+    List<Record> result = new ArrayList<>(records.size());
+    for (Record record : records) {
+      int last = result.size() - 1;
+      if (last >= 0 && result.get(last).getTimestamp() == record.getTimestamp()) {
+        result.set(last, record);
+      } else {
+        result.add(record);
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package cn.edu.tsinghua.iotdb.benchmark.client.real;
+
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.DeviceQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Write the ranges failing verification of one client into a diff file, which is created when the
+ * first difference is found. Each line is one of:
+ *
+ * <p>R,device,startTime,endTime,expectedRows,actualRows,failedPoints: summary of a failed range
+ *
+ * <p>M,device,time,sensor,expectedValue,actualValue: the values are different
+ *
+ * <p>-,device,time: the row is missing in database
+ *
+ * <p>+,device,time: the row only exists in database
+ *
+ * <p>H,device,startTime,endTime,expectedChecksum,actualChecksum: the rows of database are not in
+ * order of time and the checksums are different
+ */
+public class VerificationDiffWriter implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(VerificationDiffWriter.class);
+
+  private final File file;
+  private Writer writer = null;
+
+  public VerificationDiffWriter(int clientId, long startTime) {
+    SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd-HH-mm-ss");
+    String fileName = sdf.format(new Date(startTime)) + "-verification-" + clientId + ".diff";
+    this.file = new File("data/csvOutput", fileName);
+  }
+
+  public void write(RangeVerifier verifier) {
+    DeviceQuery range = verifier.getRange();
+    try {
+      if (writer == null) {
+        File folder = file.getParentFile();
+        if (!folder.exists() && !folder.mkdirs()) {
+          LOGGER.error("Failed to create {}", folder);
+        }
+        writer = new BufferedWriter(new FileWriter(file));
+      }
+      writer.write(
+          "R,"
+              + range.getDeviceSchema().getDevice()
+              + ","
+              + range.getStartTimestamp()
+              + ","
+              + range.getEndTimestamp()
+              + ","
+              + verifier.getExpectedRowNum()
+              + ","
+              + verifier.getActualRowNum()
+              + ","
+              + verifier.getFailedPointNum());
+      writer.write(System.lineSeparator());
+      for (String diff : verifier.getDiffs()) {
+        writer.write(diff);
+        writer.write(System.lineSeparator());
+      }
+    } catch (IOException e) {
+      LOGGER.error("Failed to write the differences of {} into {}", range.getQueryAttrs(), file, e);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (writer == null) {
+      return;
+    }
+    try {
+      writer.close();
+      LOGGER.info("The differences of verification are written into {}", file.getAbsolutePath());
+    } catch (IOException e) {
+      LOGGER.error("Failed to close {}", file, e);
+    }
+  }
+}
@@ -19,6 +19,8 @@
 
 package cn.edu.tsinghua.iotdb.benchmark.conf;
 
+import cn.edu.tsinghua.iotdb.benchmark.distribution.AccessDistribution;
+import cn.edu.tsinghua.iotdb.benchmark.distribution.ServiceTimeDistribution;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
 import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
 import cn.edu.tsinghua.iotdb.benchmark.function.Function;
@@ -27,6 +29,7 @@ import cn.edu.tsinghua.iotdb.benchmark.function.FunctionXml;
 import cn.edu.tsinghua.iotdb.benchmark.mode.enums.BenchmarkMode;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.DBSwitch;
+import cn.edu.tsinghua.iotdb.benchmark.workload.WorkloadStage;
 import cn.edu.tsinghua.iotdb.benchmark.workload.enums.OutOfOrderMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,6 +61,10 @@ public class Config {
   // 初始化：工作状态
   /** Total number of operations that each client process */
   private long LOOP = 10000;
+  /** The time in second that each client runs, LOOP is ignored if it is positive */
+  private long TEST_DURATION = 0;
+  /** The time in second at the start of test whose operations are not measured */
+  private long WARMUP_DURATION = 0;
 
   /**
    * The running mode of benchmark 1. testWithDefaultPath: Conventional test mode, supporting mixed
@@ -82,6 +89,13 @@ public class Config {
   private int BENCHMARK_INDEX = 0;
   /** Calculated in this way: FIRST_DEVICE_INDEX = BENCHMARK_INDEX * DEVICE_NUMBER */
   private int FIRST_DEVICE_INDEX = 0;
+  /**
+   * The address (host:port) of the coordinator of distributed benchmark. The coordinator listens on
+   * the port, and testWithDefaultPath runs as a worker of it if it is not empty
+   */
+  private String BENCHMARK_COORDINATOR = "";
+  /** The number of workers that the coordinator waits for */
+  private int BENCHMARK_WORKER_NUMBER = 1;
   /** 是否都可见，如果可见就可以向其他node发送 Whether access all nodes, rather than just one coordinator */
   private boolean IS_ALL_NODES_VISIBLE = false;
 
@@ -111,6 +125,8 @@ public class Config {
   private boolean IS_POINT_COMPARISON = false;
   /** The step size of verification query */
   private int VERIFICATION_STEP_SIZE = 1000;
+  /** The number of devices whose summaries are fetched at once in point comparison */
+  private int POINT_COMPARISON_DEVICE_BATCH = 100;
 
   // 初始化：Kafka
   /** Location of Kafka */
@@ -119,6 +135,8 @@ public class Config {
   private String ZOOKEEPER_LOCATION = "127.0.0.1:2181";
   /** The name of topic in Kafka */
   private String TOPIC_NAME = "NULL";
+  /** The max number of batches in one poll, which are written in one request */
+  private int KAFKA_MAX_POLL_RECORDS = 500;
 
   // 时间戳
   /** The interval of timestamp(not real rate) */
@@ -161,6 +179,12 @@ public class Config {
   private String FILE_PATH;
   /** The size of Big Batch */
   private int BIG_BATCH_SIZE = 10;
+  /** Whether to verify contiguous time ranges of each device in verificationQueryMode */
+  private boolean IS_RANGE_VERIFICATION = false;
+  /** The max number of rows of one verified range */
+  private int VERIFICATION_RANGE_SIZE = 10000;
+  /** The relative tolerance when comparing FLOAT and DOUBLE values in range verification */
+  private double VERIFICATION_TOLERANCE = 1e-6;
 
   // 设备、传感器、客户端相关参数
   /** The number of devices of database */
@@ -214,10 +238,45 @@ public class Config {
   private boolean TEMPLATE = true;
   /** Whether to use vector */
   private boolean VECTOR = true;
+  /** The max number of rows gathered into one insertTablets call in SESSION_BY_TABLETS mode */
+  private int IOTDB_TABLETS_MAX_ROWS = 10000;
+  /**
+   * The max estimated bytes gathered into one insertTablets call in SESSION_BY_TABLETS mode, 0
+   * means no limit
+   */
+  private long IOTDB_TABLETS_MAX_BYTES = 0;
 
   // 被测系统是MS SQL Server时的参数
   private String COMPRESSION = "NONE";
 
+  // 被测系统是SQLite时的参数
+  /** Whether to open SQLite with journal_mode=WAL and synchronous=NORMAL */
+  private boolean SQLITE_WAL = false;
+  /** The max number of records committed in one explicit transaction, 0 means auto commit */
+  private int SQLITE_TRANSACTION_SIZE = 0;
+  /** Whether to store one row per timestamp (wide table) instead of one row per value */
+  private boolean SQLITE_WIDE_TABLE = false;
+
+  // 被测系统是FakeDB时的参数
+  /** The service time distribution of FakeDB, none/fixed/exponential/lognormal/bimodal */
+  private ServiceTimeDistribution FAKEDB_SERVICE_TIME_DISTRIBUTION = ServiceTimeDistribution.NONE;
+  /** The mean service time of one operation of FakeDB in ms */
+  private double FAKEDB_SERVICE_TIME_MS = 1;
+  /** The standard deviation of the logarithm of the service time in lognormal distribution */
+  private double FAKEDB_LOGNORMAL_SIGMA = 1;
+  /** The probability of a GC pause in one operation in bimodal distribution */
+  private double FAKEDB_PAUSE_PROBABILITY = 0.01;
+  /** The length of a GC pause in bimodal distribution in ms */
+  private double FAKEDB_PAUSE_MS = 200;
+  /** The extra service time of each written point in us */
+  private double FAKEDB_POINT_COST_US = 0;
+  /** The max number of operations served at the same time by FakeDB, 0 means unlimited */
+  private int FAKEDB_CONCURRENCY = 0;
+  /** The max number of operations waiting for FakeDB, the others are rejected at once */
+  private int FAKEDB_QUEUE_SIZE = 1000;
+  /** The probability that one operation of FakeDB fails */
+  private double FAKEDB_FAILURE_RATE = 0;
+
   // Operation 相关参数
   /**
    * The operation execution interval if operation time > OP_INTERVAL, then execute next operations
@@ -228,6 +287,69 @@ public class Config {
   private int WRITE_OPERATION_TIMEOUT_MS = 120000;
   /** The max time for reading in ms */
   private int READ_OPERATION_TIMEOUT_MS = 300000;
+  /**
+   * Whether to pass READ_OPERATION_TIMEOUT_MS to the statement and run queries on the client thread
+   * instead of waiting for them in an executor
+   */
+  private boolean IS_STATEMENT_QUERY_TIMEOUT = false;
+  /** The file of phased workload stages, empty means one flat phase of LOOP operations */
+  private String WORKLOAD_STAGE_FILE = "";
+  /** The stages loaded from WORKLOAD_STAGE_FILE */
+  private List<WorkloadStage> WORKLOAD_STAGES = new ArrayList<>();
+  /**
+   * Whether each device samples and uploads by wall-clock time at its own frequency, instead of
+   * writing BATCH_SIZE_PER_WRITE rows as fast as possible
+   */
+  private boolean IS_REAL_TIME_INGESTION = false;
+  /** The mean sampling period of devices in ms when IS_REAL_TIME_INGESTION = true */
+  private long REAL_TIME_SAMPLING_PERIOD_MS = 1000;
+  /** The mean upload period of devices in ms when IS_REAL_TIME_INGESTION = true */
+  private long REAL_TIME_UPLOAD_PERIOD_MS = 10000;
+  /** The periods of each device are uniform in [mean * (1 - spread), mean * (1 + spread)] */
+  private double REAL_TIME_PERIOD_SPREAD = 0;
+  /** Each upload is delayed or advanced by a uniform random time in [-jitter, jitter] ms */
+  private long REAL_TIME_UPLOAD_JITTER_MS = 0;
+  /**
+   * Whether to ingest by an in-process pipeline, in which clients only generate batches into a
+   * queue of each database and separate writers write them
+   */
+  private boolean IS_PIPELINE_INGESTION = false;
+  /** The number of writers of each database when IS_PIPELINE_INGESTION = true */
+  private int PIPELINE_WRITER_NUMBER = 5;
+  /** The capacity of the batch queue of each database, rounded up to a power of 2 */
+  private int PIPELINE_QUEUE_SIZE = 1024;
+  /**
+   * Whether each client tunes its batch size at runtime by hill climbing on the ingestion
+   * throughput of each window, within [AUTO_TUNE_MIN_BATCH_SIZE, AUTO_TUNE_MAX_BATCH_SIZE]
+   */
+  private boolean IS_BATCH_AUTO_TUNE = false;
+  /** The lower bound of batch size when IS_BATCH_AUTO_TUNE = true */
+  private int AUTO_TUNE_MIN_BATCH_SIZE = 1;
+  /** The upper bound of batch size when IS_BATCH_AUTO_TUNE = true */
+  private int AUTO_TUNE_MAX_BATCH_SIZE = 1000;
+  /** The length of the window to measure each batch size in ms */
+  private long AUTO_TUNE_WINDOW_MS = 10000;
+  /** The batch size is decreased when the avg write latency of window exceeds it, 0 is no limit */
+  private double AUTO_TUNE_LATENCY_SLO_MS = 0;
+  /**
+   * Whether to search the max sustainable operations per second by steps of increasing target rate,
+   * until the latency of a step exceeds SATURATION_LATENCY_SLO_MS
+   */
+  private boolean IS_SATURATION_SEARCH = false;
+  /** The target operations per second of all clients of the first step */
+  private double SATURATION_START_OPS = 100;
+  /** The target rate of next step is multiplied by it until the first unsustainable step */
+  private double SATURATION_GROWTH_FACTOR = 2;
+  /** The duration of each step in second */
+  private long SATURATION_STEP_DURATION = 30;
+  /** The max latency in ms at SATURATION_LATENCY_PERCENTILE of a sustainable step */
+  private double SATURATION_LATENCY_SLO_MS = 100;
+  /** The percentile of latency compared with SATURATION_LATENCY_SLO_MS, in (0, 1] */
+  private double SATURATION_LATENCY_PERCENTILE = 0.99;
+  /** The search stops when the unsustainable rate is within this ratio above the sustainable one */
+  private double SATURATION_PRECISION = 0.05;
+  /** The max number of steps */
+  private int SATURATION_MAX_STEPS = 20;
 
   // Operation：写入相关参数
   /**
@@ -308,6 +430,32 @@ public class Config {
   private long GROUP_BY_TIME_UNIT = QUERY_INTERVAL / 2;
   /** Query random seed */
   private long QUERY_SEED = 1516580959202L;
+  /** The access distribution of devices in query, default/uniform/zipfian/hotspot/latest */
+  private AccessDistribution QUERY_DEVICE_DISTRIBUTION = AccessDistribution.DEFAULT;
+  /** The access distribution of time window in query, the latest window is the hottest */
+  private AccessDistribution QUERY_TIME_DISTRIBUTION = AccessDistribution.DEFAULT;
+  /** The theta of zipfian distribution */
+  private double QUERY_ZIPFIAN_THETA = 0.99;
+  /** The fraction of hot items in hotspot distribution */
+  private double QUERY_HOTSPOT_DATA_FRACTION = 0.05;
+  /** The fraction of accesses to hot items in hotspot distribution */
+  private double QUERY_HOTSPOT_OPERATION_FRACTION = 0.8;
+  /** The decay rate of latest distribution, the weight of item i is exp(-lambda * i / n) */
+  private double QUERY_LATEST_LAMBDA = 10;
+  /**
+   * Whether to read query results as a stream, only counting rows and computing a checksum when
+   * IS_COMPARISON=true, instead of keeping the rows in memory
+   */
+  private boolean IS_STREAMING_QUERY = false;
+  /** The fetch size of query results when IS_STREAMING_QUERY=true */
+  private int QUERY_FETCH_SIZE = 1000;
+  /**
+   * The time span of buckets of the checksum when IS_STREAMING_QUERY=true and IS_COMPARISON=true,
+   * the rows are re-queried only in the different buckets. 0 means one checksum for each query
+   */
+  private long COMPARISON_BUCKET_MS = 0;
+  /** The max number of different buckets to re-query for each query */
+  private int COMPARISON_MAX_DRILL_DOWN = 10;
 
   // workload 相关部分
   /** The size of workload buffer size */
@@ -320,6 +468,30 @@ public class Config {
   // 输出：系统性能 Server mode
   /** System performance information recording interval is INTERVAL+2 seconds */
   private int MONITOR_INTERVAL = 0;
+  /**
+   * Whether server mode reads /proc directly instead of running iostat, free and du, only on Linux
+   */
+  private boolean IS_PROC_MONITOR = true;
+  /** The sampling interval of server mode in ms, replaces MONITOR_INTERVAL when it's positive */
+  private long MONITOR_INTERVAL_MS = 0;
+  /** Whether to monitor the CPU, allocation, GC and threads of benchmark itself in test */
+  private boolean IS_CLIENT_MONITOR = false;
+  /** The sampling interval of client monitor in ms */
+  private long CLIENT_MONITOR_INTERVAL_MS = 1000;
+  /** The file of the JFR recording of the measured phase, empty means no recording */
+  private String CLIENT_JFR_FILE = "";
+  /** The client is reported as saturated when its CPU usage reaches this rate, in (0, 1] */
+  private double CLIENT_SATURATION_THRESHOLD = 0.9;
+  /** Whether to export the throughput, latency and server metrics of each interval */
+  private boolean IS_TIMELINE = false;
+  /** The interval of timeline in ms */
+  private long TIMELINE_INTERVAL_MS = 1000;
+  /** The source of server metrics in timeline: None, Local or Remote */
+  private String TIMELINE_SERVER_METRICS = Constants.TIMELINE_SERVER_NONE;
+  /** The host of server mode to pull server metrics from when TIMELINE_SERVER_METRICS=Remote */
+  private String TIMELINE_SERVER_HOST = "127.0.0.1";
+  /** The port on which server mode serves its samples, 0 means not serving */
+  private int SERVER_METRICS_PORT = 0;
 
   // 输出：日志
   /** Whether use quiet mode. Quiet mode will mute some log output and computations */
@@ -571,6 +743,22 @@ public class Config {
     this.LOOP = LOOP;
   }
 
+  public long getTEST_DURATION() {
+    return TEST_DURATION;
+  }
+
+  public void setTEST_DURATION(long TEST_DURATION) {
+    this.TEST_DURATION = TEST_DURATION;
+  }
+
+  public long getWARMUP_DURATION() {
+    return WARMUP_DURATION;
+  }
+
+  public void setWARMUP_DURATION(long WARMUP_DURATION) {
+    this.WARMUP_DURATION = WARMUP_DURATION;
+  }
+
   public BenchmarkMode getBENCHMARK_WORK_MODE() {
     return BENCHMARK_WORK_MODE;
   }
@@ -619,6 +807,22 @@ public class Config {
     this.FIRST_DEVICE_INDEX = FIRST_DEVICE_INDEX;
   }
 
+  public String getBENCHMARK_COORDINATOR() {
+    return BENCHMARK_COORDINATOR;
+  }
+
+  public void setBENCHMARK_COORDINATOR(String BENCHMARK_COORDINATOR) {
+    this.BENCHMARK_COORDINATOR = BENCHMARK_COORDINATOR;
+  }
+
+  public int getBENCHMARK_WORKER_NUMBER() {
+    return BENCHMARK_WORKER_NUMBER;
+  }
+
+  public void setBENCHMARK_WORKER_NUMBER(int BENCHMARK_WORKER_NUMBER) {
+    this.BENCHMARK_WORKER_NUMBER = BENCHMARK_WORKER_NUMBER;
+  }
+
   public boolean isIS_ALL_NODES_VISIBLE() {
     return IS_ALL_NODES_VISIBLE;
   }
@@ -691,6 +895,14 @@ public class Config {
     this.TOPIC_NAME = TOPIC_NAME;
   }
 
+  public int getKAFKA_MAX_POLL_RECORDS() {
+    return KAFKA_MAX_POLL_RECORDS;
+  }
+
+  public void setKAFKA_MAX_POLL_RECORDS(int KAFKA_MAX_POLL_RECORDS) {
+    this.KAFKA_MAX_POLL_RECORDS = KAFKA_MAX_POLL_RECORDS;
+  }
+
   public long getPOINT_STEP() {
     return POINT_STEP;
   }
@@ -931,6 +1143,22 @@ public class Config {
     this.IOTDB_SESSION_POOL_SIZE = IOTDB_SESSION_POOL_SIZE;
   }
 
+  public int getIOTDB_TABLETS_MAX_ROWS() {
+    return IOTDB_TABLETS_MAX_ROWS;
+  }
+
+  public void setIOTDB_TABLETS_MAX_ROWS(int IOTDB_TABLETS_MAX_ROWS) {
+    this.IOTDB_TABLETS_MAX_ROWS = IOTDB_TABLETS_MAX_ROWS;
+  }
+
+  public long getIOTDB_TABLETS_MAX_BYTES() {
+    return IOTDB_TABLETS_MAX_BYTES;
+  }
+
+  public void setIOTDB_TABLETS_MAX_BYTES(long IOTDB_TABLETS_MAX_BYTES) {
+    this.IOTDB_TABLETS_MAX_BYTES = IOTDB_TABLETS_MAX_BYTES;
+  }
+
   public boolean isTEMPLATE() {
     return TEMPLATE;
   }
@@ -971,6 +1199,198 @@ public class Config {
     this.READ_OPERATION_TIMEOUT_MS = READ_OPERATION_TIMEOUT_MS;
   }
 
+  public boolean isIS_STATEMENT_QUERY_TIMEOUT() {
+    return IS_STATEMENT_QUERY_TIMEOUT;
+  }
+
+  public void setIS_STATEMENT_QUERY_TIMEOUT(boolean IS_STATEMENT_QUERY_TIMEOUT) {
+    this.IS_STATEMENT_QUERY_TIMEOUT = IS_STATEMENT_QUERY_TIMEOUT;
+  }
+
+  public String getWORKLOAD_STAGE_FILE() {
+    return WORKLOAD_STAGE_FILE;
+  }
+
+  public void setWORKLOAD_STAGE_FILE(String WORKLOAD_STAGE_FILE) {
+    this.WORKLOAD_STAGE_FILE = WORKLOAD_STAGE_FILE;
+  }
+
+  public List<WorkloadStage> getWORKLOAD_STAGES() {
+    return WORKLOAD_STAGES;
+  }
+
+  public void setWORKLOAD_STAGES(List<WorkloadStage> WORKLOAD_STAGES) {
+    this.WORKLOAD_STAGES = WORKLOAD_STAGES;
+  }
+
+  public boolean isIS_REAL_TIME_INGESTION() {
+    return IS_REAL_TIME_INGESTION;
+  }
+
+  public void setIS_REAL_TIME_INGESTION(boolean IS_REAL_TIME_INGESTION) {
+    this.IS_REAL_TIME_INGESTION = IS_REAL_TIME_INGESTION;
+  }
+
+  public long getREAL_TIME_SAMPLING_PERIOD_MS() {
+    return REAL_TIME_SAMPLING_PERIOD_MS;
+  }
+
+  public void setREAL_TIME_SAMPLING_PERIOD_MS(long REAL_TIME_SAMPLING_PERIOD_MS) {
+    this.REAL_TIME_SAMPLING_PERIOD_MS = REAL_TIME_SAMPLING_PERIOD_MS;
+  }
+
+  public long getREAL_TIME_UPLOAD_PERIOD_MS() {
+    return REAL_TIME_UPLOAD_PERIOD_MS;
+  }
+
+  public void setREAL_TIME_UPLOAD_PERIOD_MS(long REAL_TIME_UPLOAD_PERIOD_MS) {
+    this.REAL_TIME_UPLOAD_PERIOD_MS = REAL_TIME_UPLOAD_PERIOD_MS;
+  }
+
+  public double getREAL_TIME_PERIOD_SPREAD() {
+    return REAL_TIME_PERIOD_SPREAD;
+  }
+
+  public void setREAL_TIME_PERIOD_SPREAD(double REAL_TIME_PERIOD_SPREAD) {
+    this.REAL_TIME_PERIOD_SPREAD = REAL_TIME_PERIOD_SPREAD;
+  }
+
+  public long getREAL_TIME_UPLOAD_JITTER_MS() {
+    return REAL_TIME_UPLOAD_JITTER_MS;
+  }
+
+  public void setREAL_TIME_UPLOAD_JITTER_MS(long REAL_TIME_UPLOAD_JITTER_MS) {
+    this.REAL_TIME_UPLOAD_JITTER_MS = REAL_TIME_UPLOAD_JITTER_MS;
+  }
+
+  public boolean isIS_PIPELINE_INGESTION() {
+    return IS_PIPELINE_INGESTION;
+  }
+
+  public void setIS_PIPELINE_INGESTION(boolean IS_PIPELINE_INGESTION) {
+    this.IS_PIPELINE_INGESTION = IS_PIPELINE_INGESTION;
+  }
+
+  public int getPIPELINE_WRITER_NUMBER() {
+    return PIPELINE_WRITER_NUMBER;
+  }
+
+  public void setPIPELINE_WRITER_NUMBER(int PIPELINE_WRITER_NUMBER) {
+    this.PIPELINE_WRITER_NUMBER = PIPELINE_WRITER_NUMBER;
+  }
+
+  public int getPIPELINE_QUEUE_SIZE() {
+    return PIPELINE_QUEUE_SIZE;
+  }
+
+  public void setPIPELINE_QUEUE_SIZE(int PIPELINE_QUEUE_SIZE) {
+    this.PIPELINE_QUEUE_SIZE = PIPELINE_QUEUE_SIZE;
+  }
+
+  public boolean isIS_BATCH_AUTO_TUNE() {
+    return IS_BATCH_AUTO_TUNE;
+  }
+
+  public void setIS_BATCH_AUTO_TUNE(boolean IS_BATCH_AUTO_TUNE) {
+    this.IS_BATCH_AUTO_TUNE = IS_BATCH_AUTO_TUNE;
+  }
+
+  public int getAUTO_TUNE_MIN_BATCH_SIZE() {
+    return AUTO_TUNE_MIN_BATCH_SIZE;
+  }
+
+  public void setAUTO_TUNE_MIN_BATCH_SIZE(int AUTO_TUNE_MIN_BATCH_SIZE) {
+    this.AUTO_TUNE_MIN_BATCH_SIZE = AUTO_TUNE_MIN_BATCH_SIZE;
+  }
+
+  public int getAUTO_TUNE_MAX_BATCH_SIZE() {
+    return AUTO_TUNE_MAX_BATCH_SIZE;
+  }
+
+  public void setAUTO_TUNE_MAX_BATCH_SIZE(int AUTO_TUNE_MAX_BATCH_SIZE) {
+    this.AUTO_TUNE_MAX_BATCH_SIZE = AUTO_TUNE_MAX_BATCH_SIZE;
+  }
+
+  public long getAUTO_TUNE_WINDOW_MS() {
+    return AUTO_TUNE_WINDOW_MS;
+  }
+
+  public void setAUTO_TUNE_WINDOW_MS(long AUTO_TUNE_WINDOW_MS) {
+    this.AUTO_TUNE_WINDOW_MS = AUTO_TUNE_WINDOW_MS;
+  }
+
+  public double getAUTO_TUNE_LATENCY_SLO_MS() {
+    return AUTO_TUNE_LATENCY_SLO_MS;
+  }
+
+  public void setAUTO_TUNE_LATENCY_SLO_MS(double AUTO_TUNE_LATENCY_SLO_MS) {
+    this.AUTO_TUNE_LATENCY_SLO_MS = AUTO_TUNE_LATENCY_SLO_MS;
+  }
+
+  public boolean isIS_SATURATION_SEARCH() {
+    return IS_SATURATION_SEARCH;
+  }
+
+  public void setIS_SATURATION_SEARCH(boolean IS_SATURATION_SEARCH) {
+    this.IS_SATURATION_SEARCH = IS_SATURATION_SEARCH;
+  }
+
+  public double getSATURATION_START_OPS() {
+    return SATURATION_START_OPS;
+  }
+
+  public void setSATURATION_START_OPS(double SATURATION_START_OPS) {
+    this.SATURATION_START_OPS = SATURATION_START_OPS;
+  }
+
+  public double getSATURATION_GROWTH_FACTOR() {
+    return SATURATION_GROWTH_FACTOR;
+  }
+
+  public void setSATURATION_GROWTH_FACTOR(double SATURATION_GROWTH_FACTOR) {
+    this.SATURATION_GROWTH_FACTOR = SATURATION_GROWTH_FACTOR;
+  }
+
+  public long getSATURATION_STEP_DURATION() {
+    return SATURATION_STEP_DURATION;
+  }
+
+  public void setSATURATION_STEP_DURATION(long SATURATION_STEP_DURATION) {
+    this.SATURATION_STEP_DURATION = SATURATION_STEP_DURATION;
+  }
+
+  public double getSATURATION_LATENCY_SLO_MS() {
+    return SATURATION_LATENCY_SLO_MS;
+  }
+
+  public void setSATURATION_LATENCY_SLO_MS(double SATURATION_LATENCY_SLO_MS) {
+    this.SATURATION_LATENCY_SLO_MS = SATURATION_LATENCY_SLO_MS;
+  }
+
+  public double getSATURATION_LATENCY_PERCENTILE() {
+    return SATURATION_LATENCY_PERCENTILE;
+  }
+
+  public void setSATURATION_LATENCY_PERCENTILE(double SATURATION_LATENCY_PERCENTILE) {
+    this.SATURATION_LATENCY_PERCENTILE = SATURATION_LATENCY_PERCENTILE;
+  }
+
+  public double getSATURATION_PRECISION() {
+    return SATURATION_PRECISION;
+  }
+
+  public void setSATURATION_PRECISION(double SATURATION_PRECISION) {
+    this.SATURATION_PRECISION = SATURATION_PRECISION;
+  }
+
+  public int getSATURATION_MAX_STEPS() {
+    return SATURATION_MAX_STEPS;
+  }
+
+  public void setSATURATION_MAX_STEPS(int SATURATION_MAX_STEPS) {
+    this.SATURATION_MAX_STEPS = SATURATION_MAX_STEPS;
+  }
+
   public int getBATCH_SIZE_PER_WRITE() {
     return BATCH_SIZE_PER_WRITE;
   }
@@ -1155,6 +1575,86 @@ public class Config {
     this.QUERY_SEED = QUERY_SEED;
   }
 
+  public AccessDistribution getQUERY_DEVICE_DISTRIBUTION() {
+    return QUERY_DEVICE_DISTRIBUTION;
+  }
+
+  public void setQUERY_DEVICE_DISTRIBUTION(AccessDistribution QUERY_DEVICE_DISTRIBUTION) {
+    this.QUERY_DEVICE_DISTRIBUTION = QUERY_DEVICE_DISTRIBUTION;
+  }
+
+  public AccessDistribution getQUERY_TIME_DISTRIBUTION() {
+    return QUERY_TIME_DISTRIBUTION;
+  }
+
+  public void setQUERY_TIME_DISTRIBUTION(AccessDistribution QUERY_TIME_DISTRIBUTION) {
+    this.QUERY_TIME_DISTRIBUTION = QUERY_TIME_DISTRIBUTION;
+  }
+
+  public double getQUERY_ZIPFIAN_THETA() {
+    return QUERY_ZIPFIAN_THETA;
+  }
+
+  public void setQUERY_ZIPFIAN_THETA(double QUERY_ZIPFIAN_THETA) {
+    this.QUERY_ZIPFIAN_THETA = QUERY_ZIPFIAN_THETA;
+  }
+
+  public double getQUERY_HOTSPOT_DATA_FRACTION() {
+    return QUERY_HOTSPOT_DATA_FRACTION;
+  }
+
+  public void setQUERY_HOTSPOT_DATA_FRACTION(double QUERY_HOTSPOT_DATA_FRACTION) {
+    this.QUERY_HOTSPOT_DATA_FRACTION = QUERY_HOTSPOT_DATA_FRACTION;
+  }
+
+  public double getQUERY_HOTSPOT_OPERATION_FRACTION() {
+    return QUERY_HOTSPOT_OPERATION_FRACTION;
+  }
+
+  public void setQUERY_HOTSPOT_OPERATION_FRACTION(double QUERY_HOTSPOT_OPERATION_FRACTION) {
+    this.QUERY_HOTSPOT_OPERATION_FRACTION = QUERY_HOTSPOT_OPERATION_FRACTION;
+  }
+
+  public double getQUERY_LATEST_LAMBDA() {
+    return QUERY_LATEST_LAMBDA;
+  }
+
+  public void setQUERY_LATEST_LAMBDA(double QUERY_LATEST_LAMBDA) {
+    this.QUERY_LATEST_LAMBDA = QUERY_LATEST_LAMBDA;
+  }
+
+  public boolean isIS_STREAMING_QUERY() {
+    return IS_STREAMING_QUERY;
+  }
+
+  public void setIS_STREAMING_QUERY(boolean IS_STREAMING_QUERY) {
+    this.IS_STREAMING_QUERY = IS_STREAMING_QUERY;
+  }
+
+  public int getQUERY_FETCH_SIZE() {
+    return QUERY_FETCH_SIZE;
+  }
+
+  public void setQUERY_FETCH_SIZE(int QUERY_FETCH_SIZE) {
+    this.QUERY_FETCH_SIZE = QUERY_FETCH_SIZE;
+  }
+
+  public long getCOMPARISON_BUCKET_MS() {
+    return COMPARISON_BUCKET_MS;
+  }
+
+  public void setCOMPARISON_BUCKET_MS(long COMPARISON_BUCKET_MS) {
+    this.COMPARISON_BUCKET_MS = COMPARISON_BUCKET_MS;
+  }
+
+  public int getCOMPARISON_MAX_DRILL_DOWN() {
+    return COMPARISON_MAX_DRILL_DOWN;
+  }
+
+  public void setCOMPARISON_MAX_DRILL_DOWN(int COMPARISON_MAX_DRILL_DOWN) {
+    this.COMPARISON_MAX_DRILL_DOWN = COMPARISON_MAX_DRILL_DOWN;
+  }
+
   public int getWORKLOAD_BUFFER_SIZE() {
     return WORKLOAD_BUFFER_SIZE;
   }
@@ -1179,6 +1679,94 @@ public class Config {
     this.MONITOR_INTERVAL = MONITOR_INTERVAL;
   }
 
+  public boolean isIS_PROC_MONITOR() {
+    return IS_PROC_MONITOR;
+  }
+
+  public void setIS_PROC_MONITOR(boolean IS_PROC_MONITOR) {
+    this.IS_PROC_MONITOR = IS_PROC_MONITOR;
+  }
+
+  public long getMONITOR_INTERVAL_MS() {
+    return MONITOR_INTERVAL_MS;
+  }
+
+  public void setMONITOR_INTERVAL_MS(long MONITOR_INTERVAL_MS) {
+    this.MONITOR_INTERVAL_MS = MONITOR_INTERVAL_MS;
+  }
+
+  public boolean isIS_CLIENT_MONITOR() {
+    return IS_CLIENT_MONITOR;
+  }
+
+  public void setIS_CLIENT_MONITOR(boolean IS_CLIENT_MONITOR) {
+    this.IS_CLIENT_MONITOR = IS_CLIENT_MONITOR;
+  }
+
+  public long getCLIENT_MONITOR_INTERVAL_MS() {
+    return CLIENT_MONITOR_INTERVAL_MS;
+  }
+
+  public void setCLIENT_MONITOR_INTERVAL_MS(long CLIENT_MONITOR_INTERVAL_MS) {
+    this.CLIENT_MONITOR_INTERVAL_MS = CLIENT_MONITOR_INTERVAL_MS;
+  }
+
+  public String getCLIENT_JFR_FILE() {
+    return CLIENT_JFR_FILE;
+  }
+
+  public void setCLIENT_JFR_FILE(String CLIENT_JFR_FILE) {
+    this.CLIENT_JFR_FILE = CLIENT_JFR_FILE;
+  }
+
+  public double getCLIENT_SATURATION_THRESHOLD() {
+    return CLIENT_SATURATION_THRESHOLD;
+  }
+
+  public void setCLIENT_SATURATION_THRESHOLD(double CLIENT_SATURATION_THRESHOLD) {
+    this.CLIENT_SATURATION_THRESHOLD = CLIENT_SATURATION_THRESHOLD;
+  }
+
+  public boolean isIS_TIMELINE() {
+    return IS_TIMELINE;
+  }
+
+  public void setIS_TIMELINE(boolean IS_TIMELINE) {
+    this.IS_TIMELINE = IS_TIMELINE;
+  }
+
+  public long getTIMELINE_INTERVAL_MS() {
+    return TIMELINE_INTERVAL_MS;
+  }
+
+  public void setTIMELINE_INTERVAL_MS(long TIMELINE_INTERVAL_MS) {
+    this.TIMELINE_INTERVAL_MS = TIMELINE_INTERVAL_MS;
+  }
+
+  public String getTIMELINE_SERVER_METRICS() {
+    return TIMELINE_SERVER_METRICS;
+  }
+
+  public void setTIMELINE_SERVER_METRICS(String TIMELINE_SERVER_METRICS) {
+    this.TIMELINE_SERVER_METRICS = TIMELINE_SERVER_METRICS;
+  }
+
+  public String getTIMELINE_SERVER_HOST() {
+    return TIMELINE_SERVER_HOST;
+  }
+
+  public void setTIMELINE_SERVER_HOST(String TIMELINE_SERVER_HOST) {
+    this.TIMELINE_SERVER_HOST = TIMELINE_SERVER_HOST;
+  }
+
+  public int getSERVER_METRICS_PORT() {
+    return SERVER_METRICS_PORT;
+  }
+
+  public void setSERVER_METRICS_PORT(int SERVER_METRICS_PORT) {
+    this.SERVER_METRICS_PORT = SERVER_METRICS_PORT;
+  }
+
   public boolean isIS_QUIET_MODE() {
     return IS_QUIET_MODE;
   }
@@ -1335,6 +1923,103 @@ public class Config {
     this.COMPRESSION = COMPRESSION;
   }
 
+  public boolean isSQLITE_WAL() {
+    return SQLITE_WAL;
+  }
+
+  public void setSQLITE_WAL(boolean SQLITE_WAL) {
+    this.SQLITE_WAL = SQLITE_WAL;
+  }
+
+  public int getSQLITE_TRANSACTION_SIZE() {
+    return SQLITE_TRANSACTION_SIZE;
+  }
+
+  public void setSQLITE_TRANSACTION_SIZE(int SQLITE_TRANSACTION_SIZE) {
+    this.SQLITE_TRANSACTION_SIZE = SQLITE_TRANSACTION_SIZE;
+  }
+
+  public boolean isSQLITE_WIDE_TABLE() {
+    return SQLITE_WIDE_TABLE;
+  }
+
+  public void setSQLITE_WIDE_TABLE(boolean SQLITE_WIDE_TABLE) {
+    this.SQLITE_WIDE_TABLE = SQLITE_WIDE_TABLE;
+  }
+
+  public ServiceTimeDistribution getFAKEDB_SERVICE_TIME_DISTRIBUTION() {
+    return FAKEDB_SERVICE_TIME_DISTRIBUTION;
+  }
+
+  public void setFAKEDB_SERVICE_TIME_DISTRIBUTION(
+      ServiceTimeDistribution FAKEDB_SERVICE_TIME_DISTRIBUTION) {
+    this.FAKEDB_SERVICE_TIME_DISTRIBUTION = FAKEDB_SERVICE_TIME_DISTRIBUTION;
+  }
+
+  public double getFAKEDB_SERVICE_TIME_MS() {
+    return FAKEDB_SERVICE_TIME_MS;
+  }
+
+  public void setFAKEDB_SERVICE_TIME_MS(double FAKEDB_SERVICE_TIME_MS) {
+    this.FAKEDB_SERVICE_TIME_MS = FAKEDB_SERVICE_TIME_MS;
+  }
+
+  public double getFAKEDB_LOGNORMAL_SIGMA() {
+    return FAKEDB_LOGNORMAL_SIGMA;
+  }
+
+  public void setFAKEDB_LOGNORMAL_SIGMA(double FAKEDB_LOGNORMAL_SIGMA) {
+    this.FAKEDB_LOGNORMAL_SIGMA = FAKEDB_LOGNORMAL_SIGMA;
+  }
+
+  public double getFAKEDB_PAUSE_PROBABILITY() {
+    return FAKEDB_PAUSE_PROBABILITY;
+  }
+
+  public void setFAKEDB_PAUSE_PROBABILITY(double FAKEDB_PAUSE_PROBABILITY) {
+    this.FAKEDB_PAUSE_PROBABILITY = FAKEDB_PAUSE_PROBABILITY;
+  }
+
+  public double getFAKEDB_PAUSE_MS() {
+    return FAKEDB_PAUSE_MS;
+  }
+
+  public void setFAKEDB_PAUSE_MS(double FAKEDB_PAUSE_MS) {
+    this.FAKEDB_PAUSE_MS = FAKEDB_PAUSE_MS;
+  }
+
+  public double getFAKEDB_POINT_COST_US() {
+    return FAKEDB_POINT_COST_US;
+  }
+
+  public void setFAKEDB_POINT_COST_US(double FAKEDB_POINT_COST_US) {
+    this.FAKEDB_POINT_COST_US = FAKEDB_POINT_COST_US;
+  }
+
+  public int getFAKEDB_CONCURRENCY() {
+    return FAKEDB_CONCURRENCY;
+  }
+
+  public void setFAKEDB_CONCURRENCY(int FAKEDB_CONCURRENCY) {
+    this.FAKEDB_CONCURRENCY = FAKEDB_CONCURRENCY;
+  }
+
+  public int getFAKEDB_QUEUE_SIZE() {
+    return FAKEDB_QUEUE_SIZE;
+  }
+
+  public void setFAKEDB_QUEUE_SIZE(int FAKEDB_QUEUE_SIZE) {
+    this.FAKEDB_QUEUE_SIZE = FAKEDB_QUEUE_SIZE;
+  }
+
+  public double getFAKEDB_FAILURE_RATE() {
+    return FAKEDB_FAILURE_RATE;
+  }
+
+  public void setFAKEDB_FAILURE_RATE(double FAKEDB_FAILURE_RATE) {
+    this.FAKEDB_FAILURE_RATE = FAKEDB_FAILURE_RATE;
+  }
+
   public void setIS_DOUBLE_WRITE(boolean IS_DOUBLE_WRITE) {
     this.IS_DOUBLE_WRITE = IS_DOUBLE_WRITE;
   }
@@ -1432,6 +2117,30 @@ public class Config {
     this.BIG_BATCH_SIZE = BIG_BATCH_SIZE;
   }
 
+  public boolean isIS_RANGE_VERIFICATION() {
+    return IS_RANGE_VERIFICATION;
+  }
+
+  public void setIS_RANGE_VERIFICATION(boolean IS_RANGE_VERIFICATION) {
+    this.IS_RANGE_VERIFICATION = IS_RANGE_VERIFICATION;
+  }
+
+  public int getVERIFICATION_RANGE_SIZE() {
+    return VERIFICATION_RANGE_SIZE;
+  }
+
+  public void setVERIFICATION_RANGE_SIZE(int VERIFICATION_RANGE_SIZE) {
+    this.VERIFICATION_RANGE_SIZE = VERIFICATION_RANGE_SIZE;
+  }
+
+  public double getVERIFICATION_TOLERANCE() {
+    return VERIFICATION_TOLERANCE;
+  }
+
+  public void setVERIFICATION_TOLERANCE(double VERIFICATION_TOLERANCE) {
+    this.VERIFICATION_TOLERANCE = VERIFICATION_TOLERANCE;
+  }
+
   public boolean isIS_POINT_COMPARISON() {
     return IS_POINT_COMPARISON;
   }
@@ -1448,6 +2157,14 @@ public class Config {
     this.VERIFICATION_STEP_SIZE = VERIFICATION_STEP_SIZE;
   }
 
+  public int getPOINT_COMPARISON_DEVICE_BATCH() {
+    return POINT_COMPARISON_DEVICE_BATCH;
+  }
+
+  public void setPOINT_COMPARISON_DEVICE_BATCH(int POINT_COMPARISON_DEVICE_BATCH) {
+    this.POINT_COMPARISON_DEVICE_BATCH = POINT_COMPARISON_DEVICE_BATCH;
+  }
+
   /** write dataset config to info */
   public String toInfoText() {
     return "LOOP="
@@ -1549,6 +2266,7 @@ public class Config {
       properties.put("IS_POINT_COMPARISON", this.IS_POINT_COMPARISON);
       if (this.IS_POINT_COMPARISON) {
         properties.put("VERIFICATION_STEP_SIZE", this.VERIFICATION_STEP_SIZE);
+        properties.put("POINT_COMPARISON_DEVICE_BATCH", this.POINT_COMPARISON_DEVICE_BATCH);
       }
     }
     properties.put("BENCHMARK_CLUSTER", this.BENCHMARK_CLUSTER);
@@ -1590,6 +2308,8 @@ public class Config {
     }
     properties.put("BATCH_SIZE_PER_WRITE", this.BATCH_SIZE_PER_WRITE);
     properties.put("LOOP", this.LOOP);
+    properties.put("TEST_DURATION", this.TEST_DURATION);
+    properties.put("WARMUP_DURATION", this.WARMUP_DURATION);
     properties.put("POINT_STEP", this.POINT_STEP);
     properties.put("OP_INTERVAL", this.OP_INTERVAL);
     properties.put("QUERY_INTERVAL", this.QUERY_INTERVAL);
@@ -1597,12 +2317,27 @@ public class Config {
     properties.put("ANOMALY_RATE", this.ANOMALY_RATE);
     properties.put("ANOMALY_TIMES", this.ANOMALY_TIMES);
     properties.put("IS_COPY_MODE", this.IS_COPY_MODE);
+    if (this.BENCHMARK_WORK_MODE == BenchmarkMode.VERIFICATION_QUERY) {
+      properties.put("IS_RANGE_VERIFICATION", this.IS_RANGE_VERIFICATION);
+      if (this.IS_RANGE_VERIFICATION) {
+        properties.put("VERIFICATION_RANGE_SIZE", this.VERIFICATION_RANGE_SIZE);
+        properties.put("VERIFICATION_TOLERANCE", this.VERIFICATION_TOLERANCE);
+      }
+    }
     properties.put("IS_OUT_OF_ORDER", this.IS_OUT_OF_ORDER);
     properties.put("OUT_OF_ORDER_MODE", this.OUT_OF_ORDER_MODE);
     properties.put("OUT_OF_ORDER_RATIO", this.OUT_OF_ORDER_RATIO);
     properties.put("IS_REGULAR_FREQUENCY", this.IS_REGULAR_FREQUENCY);
     properties.put("START_TIME", this.START_TIME);
     properties.put("IS_RECENT_QUERY", this.IS_RECENT_QUERY);
+    if (this.dbConfig.getDB_SWITCH() == DBSwitch.DB_FAKE) {
+      properties.put("FAKEDB_SERVICE_TIME_DISTRIBUTION", this.FAKEDB_SERVICE_TIME_DISTRIBUTION);
+      properties.put("FAKEDB_SERVICE_TIME_MS", this.FAKEDB_SERVICE_TIME_MS);
+      properties.put("FAKEDB_POINT_COST_US", this.FAKEDB_POINT_COST_US);
+      properties.put("FAKEDB_CONCURRENCY", this.FAKEDB_CONCURRENCY);
+      properties.put("FAKEDB_QUEUE_SIZE", this.FAKEDB_QUEUE_SIZE);
+      properties.put("FAKEDB_FAILURE_RATE", this.FAKEDB_FAILURE_RATE);
+    }
     return properties;
   }
 
@@ -1613,6 +2348,37 @@ public class Config {
     properties.put("ENABLE_THRIFT_COMPRESSION", this.ENABLE_THRIFT_COMPRESSION);
     properties.put("WRITE_OPERATION_TIMEOUT_MS", this.WRITE_OPERATION_TIMEOUT_MS);
     properties.put("READ_OPERATION_TIMEOUT_MS", this.READ_OPERATION_TIMEOUT_MS);
+    properties.put("IS_STATEMENT_QUERY_TIMEOUT", this.IS_STATEMENT_QUERY_TIMEOUT);
+    properties.put("WORKLOAD_STAGE_FILE", this.WORKLOAD_STAGE_FILE);
+    properties.put("IS_REAL_TIME_INGESTION", this.IS_REAL_TIME_INGESTION);
+    if (this.IS_REAL_TIME_INGESTION) {
+      properties.put("REAL_TIME_SAMPLING_PERIOD_MS", this.REAL_TIME_SAMPLING_PERIOD_MS);
+      properties.put("REAL_TIME_UPLOAD_PERIOD_MS", this.REAL_TIME_UPLOAD_PERIOD_MS);
+      properties.put("REAL_TIME_PERIOD_SPREAD", this.REAL_TIME_PERIOD_SPREAD);
+      properties.put("REAL_TIME_UPLOAD_JITTER_MS", this.REAL_TIME_UPLOAD_JITTER_MS);
+    }
+    properties.put("IS_PIPELINE_INGESTION", this.IS_PIPELINE_INGESTION);
+    if (this.IS_PIPELINE_INGESTION) {
+      properties.put("PIPELINE_WRITER_NUMBER", this.PIPELINE_WRITER_NUMBER);
+      properties.put("PIPELINE_QUEUE_SIZE", this.PIPELINE_QUEUE_SIZE);
+    }
+    properties.put("IS_BATCH_AUTO_TUNE", this.IS_BATCH_AUTO_TUNE);
+    if (this.IS_BATCH_AUTO_TUNE) {
+      properties.put("AUTO_TUNE_MIN_BATCH_SIZE", this.AUTO_TUNE_MIN_BATCH_SIZE);
+      properties.put("AUTO_TUNE_MAX_BATCH_SIZE", this.AUTO_TUNE_MAX_BATCH_SIZE);
+      properties.put("AUTO_TUNE_WINDOW_MS", this.AUTO_TUNE_WINDOW_MS);
+      properties.put("AUTO_TUNE_LATENCY_SLO_MS", this.AUTO_TUNE_LATENCY_SLO_MS);
+    }
+    properties.put("IS_SATURATION_SEARCH", this.IS_SATURATION_SEARCH);
+    if (this.IS_SATURATION_SEARCH) {
+      properties.put("SATURATION_START_OPS", this.SATURATION_START_OPS);
+      properties.put("SATURATION_GROWTH_FACTOR", this.SATURATION_GROWTH_FACTOR);
+      properties.put("SATURATION_STEP_DURATION", this.SATURATION_STEP_DURATION);
+      properties.put("SATURATION_LATENCY_SLO_MS", this.SATURATION_LATENCY_SLO_MS);
+      properties.put("SATURATION_LATENCY_PERCENTILE", this.SATURATION_LATENCY_PERCENTILE);
+      properties.put("SATURATION_PRECISION", this.SATURATION_PRECISION);
+      properties.put("SATURATION_MAX_STEPS", this.SATURATION_MAX_STEPS);
+    }
     if (this.IS_OUT_OF_ORDER) {
       properties.put("LAMBDA", this.LAMBDA);
       properties.put("MAX_K", this.MAX_K);
@@ -1623,7 +2389,32 @@ public class Config {
     properties.put("QUERY_AGGREGATE_FUN", this.QUERY_AGGREGATE_FUN);
     properties.put("QUERY_LOWER_VALUE", this.QUERY_LOWER_VALUE);
     properties.put("QUERY_SEED", this.QUERY_SEED);
+    properties.put("QUERY_DEVICE_DISTRIBUTION", this.QUERY_DEVICE_DISTRIBUTION);
+    properties.put("QUERY_TIME_DISTRIBUTION", this.QUERY_TIME_DISTRIBUTION);
+    properties.put("IS_STREAMING_QUERY", this.IS_STREAMING_QUERY);
+    if (this.IS_STREAMING_QUERY) {
+      properties.put("QUERY_FETCH_SIZE", this.QUERY_FETCH_SIZE);
+      if (this.IS_COMPARISON) {
+        properties.put("COMPARISON_BUCKET_MS", this.COMPARISON_BUCKET_MS);
+        properties.put("COMPARISON_MAX_DRILL_DOWN", this.COMPARISON_MAX_DRILL_DOWN);
+      }
+    }
     properties.put("WORKLOAD_BUFFER_SIZE", this.WORKLOAD_BUFFER_SIZE);
+    properties.put("IS_CLIENT_MONITOR", this.IS_CLIENT_MONITOR);
+    if (this.IS_CLIENT_MONITOR) {
+      properties.put("CLIENT_MONITOR_INTERVAL_MS", this.CLIENT_MONITOR_INTERVAL_MS);
+      properties.put("CLIENT_JFR_FILE", this.CLIENT_JFR_FILE);
+      properties.put("CLIENT_SATURATION_THRESHOLD", this.CLIENT_SATURATION_THRESHOLD);
+    }
+    properties.put("IS_TIMELINE", this.IS_TIMELINE);
+    if (this.IS_TIMELINE) {
+      properties.put("TIMELINE_INTERVAL_MS", this.TIMELINE_INTERVAL_MS);
+      properties.put("TIMELINE_SERVER_METRICS", this.TIMELINE_SERVER_METRICS);
+      if (Constants.TIMELINE_SERVER_REMOTE.equals(this.TIMELINE_SERVER_METRICS)) {
+        properties.put("TIMELINE_SERVER_HOST", this.TIMELINE_SERVER_HOST);
+        properties.put("SERVER_METRICS_PORT", this.SERVER_METRICS_PORT);
+      }
+    }
     return properties;
   }
 }
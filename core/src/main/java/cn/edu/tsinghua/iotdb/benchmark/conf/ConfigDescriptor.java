@@ -19,11 +19,14 @@
 
 package cn.edu.tsinghua.iotdb.benchmark.conf;
 
+import cn.edu.tsinghua.iotdb.benchmark.distribution.AccessDistribution;
+import cn.edu.tsinghua.iotdb.benchmark.distribution.ServiceTimeDistribution;
 import cn.edu.tsinghua.iotdb.benchmark.mode.enums.BenchmarkMode;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.DBSwitch;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.DBType;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.DBVersion;
+import cn.edu.tsinghua.iotdb.benchmark.workload.WorkloadStage;
 import cn.edu.tsinghua.iotdb.benchmark.workload.enums.OutOfOrderMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -85,6 +88,12 @@ public class ConfigDescriptor {
                 properties.getProperty("INIT_WAIT_TIME", config.getINIT_WAIT_TIME() + "")));
         config.setNET_DEVICE(properties.getProperty("NET_DEVICE", config.getNET_DEVICE()));
         config.setLOOP(Long.parseLong(properties.getProperty("LOOP", config.getLOOP() + "")));
+        config.setTEST_DURATION(
+            Long.parseLong(
+                properties.getProperty("TEST_DURATION", config.getTEST_DURATION() + "")));
+        config.setWARMUP_DURATION(
+            Long.parseLong(
+                properties.getProperty("WARMUP_DURATION", config.getWARMUP_DURATION() + "")));
         config.setBENCHMARK_WORK_MODE(
             BenchmarkMode.getBenchmarkMode(properties.getProperty("BENCHMARK_WORK_MODE", "")));
         config.setUSE_MEASUREMENT(
@@ -138,6 +147,11 @@ public class ConfigDescriptor {
                 Integer.parseInt(
                     properties.getProperty(
                         "VERIFICATION_STEP_SIZE", config.getVERIFICATION_STEP_SIZE() + "")));
+            config.setPOINT_COMPARISON_DEVICE_BATCH(
+                Integer.parseInt(
+                    properties.getProperty(
+                        "POINT_COMPARISON_DEVICE_BATCH",
+                        config.getPOINT_COMPARISON_DEVICE_BATCH() + "")));
           }
         }
 
@@ -157,6 +171,10 @@ public class ConfigDescriptor {
         config.setZOOKEEPER_LOCATION(
             properties.getProperty("ZOOKEEPER_LOCATION", config.getZOOKEEPER_LOCATION() + ""));
         config.setTOPIC_NAME(properties.getProperty("TOPIC_NAME", "NULL"));
+        config.setKAFKA_MAX_POLL_RECORDS(
+            Integer.parseInt(
+                properties.getProperty(
+                    "KAFKA_MAX_POLL_RECORDS", config.getKAFKA_MAX_POLL_RECORDS() + "")));
 
         config.setPOINT_STEP(
             Long.parseLong(properties.getProperty("POINT_STEP", config.getPOINT_STEP() + "")));
@@ -207,6 +225,18 @@ public class ConfigDescriptor {
         config.setBIG_BATCH_SIZE(
             Integer.parseInt(
                 properties.getProperty("BIG_BATCH_SIZE", config.getBIG_BATCH_SIZE() + "")));
+        config.setIS_RANGE_VERIFICATION(
+            Boolean.parseBoolean(
+                properties.getProperty(
+                    "IS_RANGE_VERIFICATION", config.isIS_RANGE_VERIFICATION() + "")));
+        config.setVERIFICATION_RANGE_SIZE(
+            Integer.parseInt(
+                properties.getProperty(
+                    "VERIFICATION_RANGE_SIZE", config.getVERIFICATION_RANGE_SIZE() + "")));
+        config.setVERIFICATION_TOLERANCE(
+            Double.parseDouble(
+                properties.getProperty(
+                    "VERIFICATION_TOLERANCE", config.getVERIFICATION_TOLERANCE() + "")));
 
         config.setDEVICE_NUMBER(
             Integer.parseInt(
@@ -251,6 +281,14 @@ public class ConfigDescriptor {
         } else {
           config.setFIRST_DEVICE_INDEX(0);
         }
+        config.setBENCHMARK_COORDINATOR(
+            properties
+                .getProperty("BENCHMARK_COORDINATOR", config.getBENCHMARK_COORDINATOR())
+                .trim());
+        config.setBENCHMARK_WORKER_NUMBER(
+            Integer.parseInt(
+                properties.getProperty(
+                    "BENCHMARK_WORKER_NUMBER", config.getBENCHMARK_WORKER_NUMBER() + "")));
         config.setIS_ALL_NODES_VISIBLE(
             Boolean.parseBoolean(
                 properties.getProperty(
@@ -284,6 +322,14 @@ public class ConfigDescriptor {
             Integer.parseInt(
                 properties.getProperty(
                     "IOTDB_SESSION_POOL_SIZE", config.getIOTDB_SESSION_POOL_SIZE() + "")));
+        config.setIOTDB_TABLETS_MAX_ROWS(
+            Integer.parseInt(
+                properties.getProperty(
+                    "IOTDB_TABLETS_MAX_ROWS", config.getIOTDB_TABLETS_MAX_ROWS() + "")));
+        config.setIOTDB_TABLETS_MAX_BYTES(
+            Long.parseLong(
+                properties.getProperty(
+                    "IOTDB_TABLETS_MAX_BYTES", config.getIOTDB_TABLETS_MAX_BYTES() + "")));
         config.setTEMPLATE(
             Boolean.parseBoolean(
                 properties.getProperty("TEMPLATE", String.valueOf(config.isTEMPLATE()))));
@@ -292,12 +338,145 @@ public class ConfigDescriptor {
                 properties.getProperty("VECTOR", String.valueOf(config.isVECTOR()))));
 
         config.setCOMPRESSION(properties.getProperty("COMPRESSION", "NONE"));
+        config.setSQLITE_WAL(
+            Boolean.parseBoolean(
+                properties.getProperty("SQLITE_WAL", String.valueOf(config.isSQLITE_WAL()))));
+        config.setSQLITE_TRANSACTION_SIZE(
+            Integer.parseInt(
+                properties.getProperty(
+                    "SQLITE_TRANSACTION_SIZE", config.getSQLITE_TRANSACTION_SIZE() + "")));
+        config.setSQLITE_WIDE_TABLE(
+            Boolean.parseBoolean(
+                properties.getProperty(
+                    "SQLITE_WIDE_TABLE", String.valueOf(config.isSQLITE_WIDE_TABLE()))));
+        config.setFAKEDB_SERVICE_TIME_DISTRIBUTION(
+            ServiceTimeDistribution.getServiceTimeDistribution(
+                properties.getProperty(
+                    "FAKEDB_SERVICE_TIME_DISTRIBUTION",
+                    config.getFAKEDB_SERVICE_TIME_DISTRIBUTION().toString())));
+        config.setFAKEDB_SERVICE_TIME_MS(
+            Double.parseDouble(
+                properties.getProperty(
+                    "FAKEDB_SERVICE_TIME_MS", config.getFAKEDB_SERVICE_TIME_MS() + "")));
+        config.setFAKEDB_LOGNORMAL_SIGMA(
+            Double.parseDouble(
+                properties.getProperty(
+                    "FAKEDB_LOGNORMAL_SIGMA", config.getFAKEDB_LOGNORMAL_SIGMA() + "")));
+        config.setFAKEDB_PAUSE_PROBABILITY(
+            Double.parseDouble(
+                properties.getProperty(
+                    "FAKEDB_PAUSE_PROBABILITY", config.getFAKEDB_PAUSE_PROBABILITY() + "")));
+        config.setFAKEDB_PAUSE_MS(
+            Double.parseDouble(
+                properties.getProperty("FAKEDB_PAUSE_MS", config.getFAKEDB_PAUSE_MS() + "")));
+        config.setFAKEDB_POINT_COST_US(
+            Double.parseDouble(
+                properties.getProperty(
+                    "FAKEDB_POINT_COST_US", config.getFAKEDB_POINT_COST_US() + "")));
+        config.setFAKEDB_CONCURRENCY(
+            Integer.parseInt(
+                properties.getProperty("FAKEDB_CONCURRENCY", config.getFAKEDB_CONCURRENCY() + "")));
+        config.setFAKEDB_QUEUE_SIZE(
+            Integer.parseInt(
+                properties.getProperty("FAKEDB_QUEUE_SIZE", config.getFAKEDB_QUEUE_SIZE() + "")));
+        config.setFAKEDB_FAILURE_RATE(
+            Double.parseDouble(
+                properties.getProperty(
+                    "FAKEDB_FAILURE_RATE", config.getFAKEDB_FAILURE_RATE() + "")));
 
         config.setOP_INTERVAL(
             Long.parseLong(properties.getProperty("OP_INTERVAL", config.getOP_INTERVAL() + "")));
         if (config.getOP_INTERVAL() == -1L) {
           config.setOP_INTERVAL(config.getPOINT_STEP());
         }
+        config.setWORKLOAD_STAGE_FILE(
+            properties.getProperty("WORKLOAD_STAGE_FILE", config.getWORKLOAD_STAGE_FILE()).trim());
+        config.setIS_REAL_TIME_INGESTION(
+            Boolean.parseBoolean(
+                properties.getProperty(
+                    "IS_REAL_TIME_INGESTION", String.valueOf(config.isIS_REAL_TIME_INGESTION()))));
+        config.setREAL_TIME_SAMPLING_PERIOD_MS(
+            Long.parseLong(
+                properties.getProperty(
+                    "REAL_TIME_SAMPLING_PERIOD_MS",
+                    config.getREAL_TIME_SAMPLING_PERIOD_MS() + "")));
+        config.setREAL_TIME_UPLOAD_PERIOD_MS(
+            Long.parseLong(
+                properties.getProperty(
+                    "REAL_TIME_UPLOAD_PERIOD_MS", config.getREAL_TIME_UPLOAD_PERIOD_MS() + "")));
+        config.setREAL_TIME_PERIOD_SPREAD(
+            Double.parseDouble(
+                properties.getProperty(
+                    "REAL_TIME_PERIOD_SPREAD", config.getREAL_TIME_PERIOD_SPREAD() + "")));
+        config.setREAL_TIME_UPLOAD_JITTER_MS(
+            Long.parseLong(
+                properties.getProperty(
+                    "REAL_TIME_UPLOAD_JITTER_MS", config.getREAL_TIME_UPLOAD_JITTER_MS() + "")));
+        config.setIS_PIPELINE_INGESTION(
+            Boolean.parseBoolean(
+                properties.getProperty(
+                    "IS_PIPELINE_INGESTION", String.valueOf(config.isIS_PIPELINE_INGESTION()))));
+        config.setPIPELINE_WRITER_NUMBER(
+            Integer.parseInt(
+                properties.getProperty(
+                    "PIPELINE_WRITER_NUMBER", config.getPIPELINE_WRITER_NUMBER() + "")));
+        config.setPIPELINE_QUEUE_SIZE(
+            Integer.parseInt(
+                properties.getProperty(
+                    "PIPELINE_QUEUE_SIZE", config.getPIPELINE_QUEUE_SIZE() + "")));
+        config.setIS_BATCH_AUTO_TUNE(
+            Boolean.parseBoolean(
+                properties.getProperty(
+                    "IS_BATCH_AUTO_TUNE", String.valueOf(config.isIS_BATCH_AUTO_TUNE()))));
+        config.setAUTO_TUNE_MIN_BATCH_SIZE(
+            Integer.parseInt(
+                properties.getProperty(
+                    "AUTO_TUNE_MIN_BATCH_SIZE", config.getAUTO_TUNE_MIN_BATCH_SIZE() + "")));
+        config.setAUTO_TUNE_MAX_BATCH_SIZE(
+            Integer.parseInt(
+                properties.getProperty(
+                    "AUTO_TUNE_MAX_BATCH_SIZE", config.getAUTO_TUNE_MAX_BATCH_SIZE() + "")));
+        config.setAUTO_TUNE_WINDOW_MS(
+            Long.parseLong(
+                properties.getProperty(
+                    "AUTO_TUNE_WINDOW_MS", config.getAUTO_TUNE_WINDOW_MS() + "")));
+        config.setAUTO_TUNE_LATENCY_SLO_MS(
+            Double.parseDouble(
+                properties.getProperty(
+                    "AUTO_TUNE_LATENCY_SLO_MS", config.getAUTO_TUNE_LATENCY_SLO_MS() + "")));
+        config.setIS_SATURATION_SEARCH(
+            Boolean.parseBoolean(
+                properties.getProperty(
+                    "IS_SATURATION_SEARCH", String.valueOf(config.isIS_SATURATION_SEARCH()))));
+        config.setSATURATION_START_OPS(
+            Double.parseDouble(
+                properties.getProperty(
+                    "SATURATION_START_OPS", config.getSATURATION_START_OPS() + "")));
+        config.setSATURATION_GROWTH_FACTOR(
+            Double.parseDouble(
+                properties.getProperty(
+                    "SATURATION_GROWTH_FACTOR", config.getSATURATION_GROWTH_FACTOR() + "")));
+        config.setSATURATION_STEP_DURATION(
+            Long.parseLong(
+                properties.getProperty(
+                    "SATURATION_STEP_DURATION", config.getSATURATION_STEP_DURATION() + "")));
+        config.setSATURATION_LATENCY_SLO_MS(
+            Double.parseDouble(
+                properties.getProperty(
+                    "SATURATION_LATENCY_SLO_MS", config.getSATURATION_LATENCY_SLO_MS() + "")));
+        config.setSATURATION_LATENCY_PERCENTILE(
+            Double.parseDouble(
+                properties.getProperty(
+                    "SATURATION_LATENCY_PERCENTILE",
+                    config.getSATURATION_LATENCY_PERCENTILE() + "")));
+        config.setSATURATION_PRECISION(
+            Double.parseDouble(
+                properties.getProperty(
+                    "SATURATION_PRECISION", config.getSATURATION_PRECISION() + "")));
+        config.setSATURATION_MAX_STEPS(
+            Integer.parseInt(
+                properties.getProperty(
+                    "SATURATION_MAX_STEPS", config.getSATURATION_MAX_STEPS() + "")));
         config.setWRITE_OPERATION_TIMEOUT_MS(
             Integer.parseInt(
                 properties.getProperty(
@@ -306,6 +485,11 @@ public class ConfigDescriptor {
             Integer.parseInt(
                 properties.getProperty(
                     "READ_OPERATION_TIMEOUT_MS", config.getREAD_OPERATION_TIMEOUT_MS() + "")));
+        config.setIS_STATEMENT_QUERY_TIMEOUT(
+            Boolean.parseBoolean(
+                properties.getProperty(
+                    "IS_STATEMENT_QUERY_TIMEOUT",
+                    String.valueOf(config.isIS_STATEMENT_QUERY_TIMEOUT()))));
         config.setBATCH_SIZE_PER_WRITE(
             Integer.parseInt(
                 properties.getProperty(
@@ -373,6 +557,47 @@ public class ConfigDescriptor {
                 properties.getProperty("GROUP_BY_TIME_UNIT", config.getGROUP_BY_TIME_UNIT() + "")));
         config.setQUERY_SEED(
             Long.parseLong(properties.getProperty("QUERY_SEED", config.getQUERY_SEED() + "")));
+        config.setQUERY_DEVICE_DISTRIBUTION(
+            AccessDistribution.getAccessDistribution(
+                properties.getProperty(
+                    "QUERY_DEVICE_DISTRIBUTION",
+                    config.getQUERY_DEVICE_DISTRIBUTION().toString())));
+        config.setQUERY_TIME_DISTRIBUTION(
+            AccessDistribution.getAccessDistribution(
+                properties.getProperty(
+                    "QUERY_TIME_DISTRIBUTION", config.getQUERY_TIME_DISTRIBUTION().toString())));
+        config.setQUERY_ZIPFIAN_THETA(
+            Double.parseDouble(
+                properties.getProperty(
+                    "QUERY_ZIPFIAN_THETA", config.getQUERY_ZIPFIAN_THETA() + "")));
+        config.setQUERY_HOTSPOT_DATA_FRACTION(
+            Double.parseDouble(
+                properties.getProperty(
+                    "QUERY_HOTSPOT_DATA_FRACTION", config.getQUERY_HOTSPOT_DATA_FRACTION() + "")));
+        config.setQUERY_HOTSPOT_OPERATION_FRACTION(
+            Double.parseDouble(
+                properties.getProperty(
+                    "QUERY_HOTSPOT_OPERATION_FRACTION",
+                    config.getQUERY_HOTSPOT_OPERATION_FRACTION() + "")));
+        config.setQUERY_LATEST_LAMBDA(
+            Double.parseDouble(
+                properties.getProperty(
+                    "QUERY_LATEST_LAMBDA", config.getQUERY_LATEST_LAMBDA() + "")));
+        config.setIS_STREAMING_QUERY(
+            Boolean.parseBoolean(
+                properties.getProperty(
+                    "IS_STREAMING_QUERY", String.valueOf(config.isIS_STREAMING_QUERY()))));
+        config.setQUERY_FETCH_SIZE(
+            Integer.parseInt(
+                properties.getProperty("QUERY_FETCH_SIZE", config.getQUERY_FETCH_SIZE() + "")));
+        config.setCOMPARISON_BUCKET_MS(
+            Long.parseLong(
+                properties.getProperty(
+                    "COMPARISON_BUCKET_MS", config.getCOMPARISON_BUCKET_MS() + "")));
+        config.setCOMPARISON_MAX_DRILL_DOWN(
+            Integer.parseInt(
+                properties.getProperty(
+                    "COMPARISON_MAX_DRILL_DOWN", config.getCOMPARISON_MAX_DRILL_DOWN() + "")));
 
         config.setWORKLOAD_BUFFER_SIZE(
             Integer.parseInt(
@@ -383,6 +608,41 @@ public class ConfigDescriptor {
         config.setMONITOR_INTERVAL(
             Integer.parseInt(
                 properties.getProperty("MONITOR_INTERVAL", config.getMONITOR_INTERVAL() + "")));
+        config.setIS_PROC_MONITOR(
+            Boolean.parseBoolean(
+                properties.getProperty("IS_PROC_MONITOR", config.isIS_PROC_MONITOR() + "")));
+        config.setMONITOR_INTERVAL_MS(
+            Long.parseLong(
+                properties.getProperty(
+                    "MONITOR_INTERVAL_MS", config.getMONITOR_INTERVAL_MS() + "")));
+        config.setIS_CLIENT_MONITOR(
+            Boolean.parseBoolean(
+                properties.getProperty("IS_CLIENT_MONITOR", config.isIS_CLIENT_MONITOR() + "")));
+        config.setCLIENT_MONITOR_INTERVAL_MS(
+            Long.parseLong(
+                properties.getProperty(
+                    "CLIENT_MONITOR_INTERVAL_MS", config.getCLIENT_MONITOR_INTERVAL_MS() + "")));
+        config.setCLIENT_JFR_FILE(
+            properties.getProperty("CLIENT_JFR_FILE", config.getCLIENT_JFR_FILE()));
+        config.setCLIENT_SATURATION_THRESHOLD(
+            Double.parseDouble(
+                properties.getProperty(
+                    "CLIENT_SATURATION_THRESHOLD", config.getCLIENT_SATURATION_THRESHOLD() + "")));
+        config.setIS_TIMELINE(
+            Boolean.parseBoolean(
+                properties.getProperty("IS_TIMELINE", config.isIS_TIMELINE() + "")));
+        config.setTIMELINE_INTERVAL_MS(
+            Long.parseLong(
+                properties.getProperty(
+                    "TIMELINE_INTERVAL_MS", config.getTIMELINE_INTERVAL_MS() + "")));
+        config.setTIMELINE_SERVER_METRICS(
+            properties.getProperty("TIMELINE_SERVER_METRICS", config.getTIMELINE_SERVER_METRICS()));
+        config.setTIMELINE_SERVER_HOST(
+            properties.getProperty("TIMELINE_SERVER_HOST", config.getTIMELINE_SERVER_HOST()));
+        config.setSERVER_METRICS_PORT(
+            Integer.parseInt(
+                properties.getProperty(
+                    "SERVER_METRICS_PORT", config.getSERVER_METRICS_PORT() + "")));
 
         config.setIS_QUIET_MODE(
             Boolean.parseBoolean(
@@ -497,6 +757,10 @@ public class ConfigDescriptor {
               if (config.getDEVICE_NUMBER() < config.getCLIENT_NUMBER()) {
                 LOGGER.warn("There are too many client ( > device number)");
               }
+              if (config.getPOINT_COMPARISON_DEVICE_BATCH() <= 0) {
+                LOGGER.error("POINT_COMPARISON_DEVICE_BATCH must be positive");
+                result = false;
+              }
             }
           }
           if (config.isIS_COMPARISON() || config.isIS_POINT_COMPARISON()) {
@@ -512,12 +776,23 @@ public class ConfigDescriptor {
             config.setIS_POINT_COMPARISON(false);
           }
         }
+        result &= loadWorkloadStages();
         break;
       case VERIFICATION_QUERY:
         result &= checkDatabaseVerification(config.getDbConfig());
         if (config.isIS_DOUBLE_WRITE()) {
           result &= checkDatabaseVerification(config.getANOTHER_DBConfig());
         }
+        if (config.isIS_RANGE_VERIFICATION()) {
+          if (config.getVERIFICATION_RANGE_SIZE() <= 0) {
+            LOGGER.error("VERIFICATION_RANGE_SIZE must be positive");
+            result = false;
+          }
+          if (config.getVERIFICATION_TOLERANCE() < 0) {
+            LOGGER.error("VERIFICATION_TOLERANCE can't be negative");
+            result = false;
+          }
+        }
       default:
         break;
     }
@@ -537,9 +812,203 @@ public class ConfigDescriptor {
       LOGGER.error("Client number can't be zero");
       result = false;
     }
+    if (config.getBENCHMARK_WORK_MODE() == BenchmarkMode.COORDINATOR
+        || (config.getBENCHMARK_WORK_MODE() == BenchmarkMode.TEST_WITH_DEFAULT_PATH
+            && !config.getBENCHMARK_COORDINATOR().isEmpty())) {
+      if (config.getBENCHMARK_COORDINATOR().lastIndexOf(':') < 0) {
+        LOGGER.error("BENCHMARK_COORDINATOR should be host:port");
+        result = false;
+      }
+      if (config.getBENCHMARK_WORKER_NUMBER() <= 0) {
+        LOGGER.error("BENCHMARK_WORKER_NUMBER must be positive");
+        result = false;
+      }
+    }
+    if (config.isIS_REAL_TIME_INGESTION()) {
+      if (config.getREAL_TIME_SAMPLING_PERIOD_MS() <= 0
+          || config.getREAL_TIME_UPLOAD_PERIOD_MS() <= 0) {
+        LOGGER.error("Real time sampling period and upload period must be positive");
+        result = false;
+      }
+      if (config.getREAL_TIME_PERIOD_SPREAD() < 0 || config.getREAL_TIME_PERIOD_SPREAD() >= 1) {
+        LOGGER.error("REAL_TIME_PERIOD_SPREAD must be in [0, 1)");
+        result = false;
+      }
+    }
+    if (config.isIS_PIPELINE_INGESTION()) {
+      if (config.getPIPELINE_WRITER_NUMBER() <= 0 || config.getPIPELINE_QUEUE_SIZE() <= 0) {
+        LOGGER.error("PIPELINE_WRITER_NUMBER and PIPELINE_QUEUE_SIZE must be positive");
+        result = false;
+      }
+      if (config.isIS_POINT_COMPARISON()
+          || !config.getWORKLOAD_STAGES().isEmpty()
+          || config.isIS_REAL_TIME_INGESTION()
+          || !config.getBENCHMARK_COORDINATOR().isEmpty()) {
+        LOGGER.error(
+            "IS_PIPELINE_INGESTION can't be used with IS_POINT_COMPARISON, WORKLOAD_STAGE_FILE, "
+                + "IS_REAL_TIME_INGESTION or BENCHMARK_COORDINATOR");
+        result = false;
+      }
+      String[] proportions = config.getOPERATION_PROPORTION().split(":");
+      for (int i = 1; i < proportions.length; i++) {
+        if (Double.parseDouble(proportions[i]) > 1e-7) {
+          LOGGER.warn("Pipeline ingestion only writes data, the queries are ignored");
+          break;
+        }
+      }
+    }
+    if (config.isIS_BATCH_AUTO_TUNE()) {
+      if (config.getAUTO_TUNE_MIN_BATCH_SIZE() <= 0
+          || config.getAUTO_TUNE_MIN_BATCH_SIZE() > config.getAUTO_TUNE_MAX_BATCH_SIZE()) {
+        LOGGER.error("AUTO_TUNE_MIN_BATCH_SIZE must be in [1, AUTO_TUNE_MAX_BATCH_SIZE]");
+        result = false;
+      }
+      if (!config.isUSE_MEASUREMENT()) {
+        LOGGER.error("IS_BATCH_AUTO_TUNE needs USE_MEASUREMENT = true");
+        result = false;
+      }
+      if (config.getAUTO_TUNE_WINDOW_MS() <= 0) {
+        LOGGER.error("AUTO_TUNE_WINDOW_MS must be positive");
+        result = false;
+      }
+      if (config.getAUTO_TUNE_LATENCY_SLO_MS() < 0) {
+        LOGGER.error("AUTO_TUNE_LATENCY_SLO_MS can't be negative");
+        result = false;
+      }
+      if (config.isIS_POINT_COMPARISON()
+          || !config.getWORKLOAD_STAGES().isEmpty()
+          || config.isIS_REAL_TIME_INGESTION()
+          || config.isIS_PIPELINE_INGESTION()) {
+        LOGGER.error(
+            "IS_BATCH_AUTO_TUNE can't be used with IS_POINT_COMPARISON, WORKLOAD_STAGE_FILE, "
+                + "IS_REAL_TIME_INGESTION or IS_PIPELINE_INGESTION");
+        result = false;
+      }
+    }
+    if (config.isIS_SATURATION_SEARCH()) {
+      if (config.getSATURATION_START_OPS() <= 0
+          || config.getSATURATION_STEP_DURATION() <= 0
+          || config.getSATURATION_LATENCY_SLO_MS() <= 0
+          || config.getSATURATION_MAX_STEPS() <= 0) {
+        LOGGER.error(
+            "SATURATION_START_OPS, SATURATION_STEP_DURATION, SATURATION_LATENCY_SLO_MS and "
+                + "SATURATION_MAX_STEPS must be positive");
+        result = false;
+      }
+      if (config.getSATURATION_GROWTH_FACTOR() <= 1) {
+        LOGGER.error("SATURATION_GROWTH_FACTOR must be greater than 1");
+        result = false;
+      }
+      if (config.getSATURATION_LATENCY_PERCENTILE() <= 0
+          || config.getSATURATION_LATENCY_PERCENTILE() > 1) {
+        LOGGER.error("SATURATION_LATENCY_PERCENTILE must be in (0, 1]");
+        result = false;
+      }
+      if (config.getSATURATION_PRECISION() <= 0 || config.getSATURATION_PRECISION() >= 1) {
+        LOGGER.error("SATURATION_PRECISION must be in (0, 1)");
+        result = false;
+      }
+      if (!config.isUSE_MEASUREMENT()) {
+        LOGGER.error("IS_SATURATION_SEARCH needs USE_MEASUREMENT = true");
+        result = false;
+      }
+      if (config.isIS_POINT_COMPARISON()
+          || !config.getWORKLOAD_STAGES().isEmpty()
+          || config.isIS_REAL_TIME_INGESTION()
+          || config.isIS_PIPELINE_INGESTION()
+          || config.isIS_BATCH_AUTO_TUNE()) {
+        LOGGER.error(
+            "IS_SATURATION_SEARCH can't be used with IS_POINT_COMPARISON, WORKLOAD_STAGE_FILE, "
+                + "IS_REAL_TIME_INGESTION, IS_PIPELINE_INGESTION or IS_BATCH_AUTO_TUNE");
+        result = false;
+      }
+    }
+    if (config.getMONITOR_INTERVAL_MS() < 0) {
+      LOGGER.error("MONITOR_INTERVAL_MS can't be negative");
+      result = false;
+    }
+    if (config.isIS_CLIENT_MONITOR()) {
+      if (config.getCLIENT_MONITOR_INTERVAL_MS() <= 0) {
+        LOGGER.error("CLIENT_MONITOR_INTERVAL_MS must be positive");
+        result = false;
+      }
+      if (config.getCLIENT_SATURATION_THRESHOLD() <= 0
+          || config.getCLIENT_SATURATION_THRESHOLD() > 1) {
+        LOGGER.error("CLIENT_SATURATION_THRESHOLD must be in (0, 1]");
+        result = false;
+      }
+    }
+    if (config.getFAKEDB_SERVICE_TIME_MS() < 0
+        || config.getFAKEDB_LOGNORMAL_SIGMA() < 0
+        || config.getFAKEDB_PAUSE_MS() < 0
+        || config.getFAKEDB_POINT_COST_US() < 0
+        || config.getFAKEDB_CONCURRENCY() < 0
+        || config.getFAKEDB_QUEUE_SIZE() < 0) {
+      LOGGER.error(
+          "FAKEDB_SERVICE_TIME_MS, FAKEDB_LOGNORMAL_SIGMA, FAKEDB_PAUSE_MS, FAKEDB_POINT_COST_US, "
+              + "FAKEDB_CONCURRENCY and FAKEDB_QUEUE_SIZE can't be negative");
+      result = false;
+    }
+    if (config.getFAKEDB_PAUSE_PROBABILITY() < 0
+        || config.getFAKEDB_PAUSE_PROBABILITY() > 1
+        || config.getFAKEDB_FAILURE_RATE() < 0
+        || config.getFAKEDB_FAILURE_RATE() > 1) {
+      LOGGER.error("FAKEDB_PAUSE_PROBABILITY and FAKEDB_FAILURE_RATE must be in [0, 1]");
+      result = false;
+    }
+    if (config.getCOMPARISON_BUCKET_MS() < 0 || config.getCOMPARISON_MAX_DRILL_DOWN() < 0) {
+      LOGGER.error("COMPARISON_BUCKET_MS and COMPARISON_MAX_DRILL_DOWN can't be negative");
+      result = false;
+    }
+    if (config.isIS_TIMELINE()) {
+      if (config.getTIMELINE_INTERVAL_MS() <= 0) {
+        LOGGER.error("TIMELINE_INTERVAL_MS must be positive");
+        result = false;
+      }
+      switch (config.getTIMELINE_SERVER_METRICS()) {
+        case Constants.TIMELINE_SERVER_NONE:
+        case Constants.TIMELINE_SERVER_LOCAL:
+          break;
+        case Constants.TIMELINE_SERVER_REMOTE:
+          if (config.getSERVER_METRICS_PORT() <= 0) {
+            LOGGER.error("SERVER_METRICS_PORT must be positive to pull server metrics");
+            result = false;
+          }
+          break;
+        default:
+          LOGGER.error(
+              "TIMELINE_SERVER_METRICS must be None, Local or Remote, but is {}",
+              config.getTIMELINE_SERVER_METRICS());
+          result = false;
+      }
+    }
     return result;
   }
 
+  /** Load the stages of WORKLOAD_STAGE_FILE if it is set */
+  private boolean loadWorkloadStages() {
+    if (config.getWORKLOAD_STAGE_FILE().isEmpty()) {
+      return true;
+    }
+    if (config.isIS_POINT_COMPARISON()) {
+      LOGGER.warn("WORKLOAD_STAGE_FILE does not work when IS_POINT_COMPARISON = true");
+      return true;
+    }
+    if (config.getTEST_DURATION() > 0 || config.getWARMUP_DURATION() > 0) {
+      LOGGER.warn("TEST_DURATION and WARMUP_DURATION do not work with WORKLOAD_STAGE_FILE");
+    }
+    try {
+      config.setWORKLOAD_STAGES(WorkloadStage.loadStages(config.getWORKLOAD_STAGE_FILE(), config));
+      for (WorkloadStage stage : config.getWORKLOAD_STAGES()) {
+        LOGGER.info("Load {}", stage);
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      LOGGER.error("Failed to load WORKLOAD_STAGE_FILE {}", config.getWORKLOAD_STAGE_FILE(), e);
+      return false;
+    }
+    return true;
+  }
+
   private void checkQuery() {
     if (config.isIS_DELETE_DATA()) {
       LOGGER.warn("Benchmark is doing query, no need to delete data.");
@@ -563,9 +1032,10 @@ public class ConfigDescriptor {
    */
   private boolean checkDatabaseVerification(DBConfig dbConfig) {
     if (dbConfig.getDB_SWITCH() != DBSwitch.DB_TIMESCALE
+        && dbConfig.getDB_SWITCH() != DBSwitch.DB_MEMORY
         && dbConfig.getDB_SWITCH().getType() != DBType.IoTDB
         && dbConfig.getDB_SWITCH().getVersion() != DBVersion.IOTDB_012) {
-      LOGGER.error("Verification only support between iotdb v0.12 and timescaledb");
+      LOGGER.error("Verification only support between iotdb v0.12, timescaledb and MemoryDB");
       return false;
     }
     return true;
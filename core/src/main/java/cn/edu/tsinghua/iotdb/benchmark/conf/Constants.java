@@ -56,6 +56,12 @@ public class Constants {
   public static final String HASH_SG_ASSIGN_MODE = "hash";
   public static final String DIV_SG_ASSIGN_MODE = "div";
 
+  /** source of server metrics in timeline */
+  public static final String TIMELINE_SERVER_NONE = "None";
+
+  public static final String TIMELINE_SERVER_LOCAL = "Local";
+  public static final String TIMELINE_SERVER_REMOTE = "Remote";
+
   public static final String IOTDB013_JDBC_CLASS = "cn.edu.tsinghua.iotdb.benchmark.iotdb013.IoTDB";
   public static final String IOTDB013_SESSION_CLASS =
       "cn.edu.tsinghua.iotdb.benchmark.iotdb013.IoTDBSession";
@@ -83,6 +89,8 @@ public class Constants {
   public static final String INFLUXDB2_CLASS = "cn.edu.tsinghua.iotdb.benchmark.influxdb2.InfluxDB";
 
   public static final String FAKEDB_CLASS = "cn.edu.tsinghua.iotdb.benchmark.tsdb.fakedb.FakeDB";
+  public static final String MEMORYDB_CLASS =
+      "cn.edu.tsinghua.iotdb.benchmark.tsdb.memory.MemoryDB";
   public static final String KAIROSDB_CLASS = "cn.edu.tsinghua.iotdb.benchmark.kairosdb.KairosDB";
   public static final String OPENTSDB_CLASS = "cn.edu.tsinghua.iotdb.benchmark.opentsdb.OpenTSDB";
   public static final String TIMESCALEDB_CLASS =
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.distribution;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** The access distribution of items in query workload, the item with index 0 is the hottest */
+public enum AccessDistribution {
+  /** keep the original behaviour of the workload */
+  DEFAULT("default"),
+  UNIFORM("uniform"),
+  /** weight of item i is 1 / (i + 1)^QUERY_ZIPFIAN_THETA */
+  ZIPFIAN("zipfian"),
+  /** QUERY_HOTSPOT_OPERATION_FRACTION of accesses go to the first QUERY_HOTSPOT_DATA_FRACTION */
+  HOTSPOT("hotspot"),
+  /** weight of item i is exp(-QUERY_LATEST_LAMBDA * i / n) */
+  LATEST("latest");
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AccessDistribution.class);
+  public String name;
+
+  AccessDistribution(String name) {
+    this.name = name;
+  }
+
+  public static AccessDistribution getAccessDistribution(String name) {
+    for (AccessDistribution accessDistribution : AccessDistribution.values()) {
+      if (accessDistribution.name.equalsIgnoreCase(name.trim())) {
+        return accessDistribution;
+      }
+    }
+    LOGGER.warn("Unknown access distribution {}, using {}", name, DEFAULT.name);
+    return DEFAULT;
+  }
+
+  /** Get the weights of n items, return null for DEFAULT */
+  public double[] getWeights(int n) {
+    if (this == DEFAULT) {
+      return null;
+    }
+    // Config refers to this enum, so the config is not kept in a static field
+    Config config = ConfigDescriptor.getInstance().getConfig();
+    double[] weights = new double[n];
+    int hotNumber =
+        (int) Math.min(n, Math.max(1, Math.round(n * config.getQUERY_HOTSPOT_DATA_FRACTION())));
+    for (int i = 0; i < n; i++) {
+      switch (this) {
+        case ZIPFIAN:
+          weights[i] = 1.0 / Math.pow(i + 1, config.getQUERY_ZIPFIAN_THETA());
+          break;
+        case HOTSPOT:
+          if (hotNumber == n) {
+            weights[i] = 1.0;
+          } else if (i < hotNumber) {
+            weights[i] = config.getQUERY_HOTSPOT_OPERATION_FRACTION() / hotNumber;
+          } else {
+            weights[i] = (1 - config.getQUERY_HOTSPOT_OPERATION_FRACTION()) / (n - hotNumber);
+          }
+          break;
+        case LATEST:
+          weights[i] = Math.exp(-config.getQUERY_LATEST_LAMBDA() * i / n);
+          break;
+        case UNIFORM:
+        default:
+          weights[i] = 1.0;
+          break;
+      }
+    }
+    return weights;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
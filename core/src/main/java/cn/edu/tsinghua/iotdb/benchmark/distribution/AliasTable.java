@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.distribution;
+
+import java.util.Random;
+
+/**
+ * Sample from a discrete distribution in O(1) using Vose's alias method. The table is built once in
+ * O(n) and is immutable, so it can be shared between clients.
+ */
+public class AliasTable {
+
+  /** The probability to keep the sampled column instead of using its alias */
+  private final double[] probability;
+  /** The alias of each column */
+  private final int[] alias;
+
+  /**
+   * @param weights non-negative weights of each item, they do not need to be normalized
+   * @throws IllegalArgumentException if there is no item or the sum of weights is not positive
+   */
+  public AliasTable(double[] weights) {
+    int n = weights.length;
+    if (n == 0) {
+      throw new IllegalArgumentException("Alias table needs at least one weight");
+    }
+    double sum = 0;
+    for (double weight : weights) {
+      if (weight < 0) {
+        throw new IllegalArgumentException("Weight can't be negative: " + weight);
+      }
+      sum += weight;
+    }
+    if (sum <= 0) {
+      throw new IllegalArgumentException("The sum of weights must be positive");
+    }
+    probability = new double[n];
+    alias = new int[n];
+    double[] scaled = new double[n];
+    // work lists of columns whose scaled weight is below or above the average
+    int[] small = new int[n];
+    int[] large = new int[n];
+    int smallSize = 0;
+    int largeSize = 0;
+    for (int i = 0; i < n; i++) {
+      scaled[i] = weights[i] * n / sum;
+      if (scaled[i] < 1.0) {
+        small[smallSize++] = i;
+      } else {
+        large[largeSize++] = i;
+      }
+    }
+    while (smallSize > 0 && largeSize > 0) {
+      int less = small[--smallSize];
+      int more = large[--largeSize];
+      probability[less] = scaled[less];
+      alias[less] = more;
+      scaled[more] = scaled[more] + scaled[less] - 1.0;
+      if (scaled[more] < 1.0) {
+        small[smallSize++] = more;
+      } else {
+        large[largeSize++] = more;
+      }
+    }
+    // the rest are full columns, up to rounding errors
+    while (largeSize > 0) {
+      probability[large[--largeSize]] = 1.0;
+    }
+    while (smallSize > 0) {
+      probability[small[--smallSize]] = 1.0;
+    }
+  }
+
+  /** Return the index of a sampled item, it does not allocate */
+  public int sample(Random random) {
+    int column = random.nextInt(probability.length);
+    return random.nextDouble() < probability[column] ? column : alias[column];
+  }
+
+  public int size() {
+    return probability.length;
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.distribution;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** The distribution of the service time of one operation of FakeDB */
+public enum ServiceTimeDistribution {
+  /** no service time, only the cost of written points */
+  NONE("none"),
+  /** always FAKEDB_SERVICE_TIME_MS */
+  FIXED("fixed"),
+  /** exponential distribution with mean FAKEDB_SERVICE_TIME_MS */
+  EXPONENTIAL("exponential"),
+  /** lognormal distribution with mean FAKEDB_SERVICE_TIME_MS and sigma FAKEDB_LOGNORMAL_SIGMA */
+  LOGNORMAL("lognormal"),
+  /** FAKEDB_SERVICE_TIME_MS plus a pause of FAKEDB_PAUSE_MS with FAKEDB_PAUSE_PROBABILITY */
+  BIMODAL("bimodal");
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ServiceTimeDistribution.class);
+  public String name;
+
+  ServiceTimeDistribution(String name) {
+    this.name = name;
+  }
+
+  public static ServiceTimeDistribution getServiceTimeDistribution(String name) {
+    for (ServiceTimeDistribution distribution : ServiceTimeDistribution.values()) {
+      if (distribution.name.equalsIgnoreCase(name.trim())) {
+        return distribution;
+      }
+    }
+    LOGGER.warn("Unknown service time distribution {}, using {}", name, NONE.name);
+    return NONE;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
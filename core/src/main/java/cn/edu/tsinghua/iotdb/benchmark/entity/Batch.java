@@ -27,6 +27,7 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -91,6 +92,25 @@ public class Batch {
     return new Batch(deviceSchema, records);
   }
 
+  /**
+   * Copy the batch for another database, so that the databases never see the changes of each
+   * other. The values are immutable and shared.
+   */
+  public Batch copy() {
+    List<Record> copiedRecords = new ArrayList<>(records.size());
+    for (Record record : records) {
+      copiedRecords.add(
+          new Record(record.getTimestamp(), new ArrayList<>(record.getRecordDataValue())));
+    }
+    try {
+      Batch batch = new Batch((DeviceSchema) deviceSchema.clone(), copiedRecords);
+      batch.setColIndex(colIndex);
+      return batch;
+    } catch (CloneNotSupportedException e) {
+      throw new IllegalStateException("Failed to copy the device schema", e);
+    }
+  }
+
   public DeviceSchema getDeviceSchema() {
     return deviceSchema;
   }
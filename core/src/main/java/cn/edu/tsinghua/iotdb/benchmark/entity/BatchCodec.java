@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.entity;
+
+import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
+import cn.edu.tsinghua.iotdb.benchmark.schema.MetaDataSchema;
+import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
+import cn.edu.tsinghua.iotdb.benchmark.utils.ReadWriteIOUtils;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * A compact binary format of batch, which refers to the device schema by deviceId instead of
+ * writing it into every message:
+ *
+ * <pre>
+ * version(byte) deviceId(varint) colIndex(varint) rowNumber(varint) columnNumber(varint)
+ * firstTimestamp(varlong) timestampDelta(varlong) * (rowNumber - 1)
+ * [type(byte) values] * columnNumber
+ * </pre>
+ *
+ * The values of BOOLEAN are packed into bits, INT32 and INT64 are zigzag varint, FLOAT and DOUBLE
+ * are raw, TEXT is varint length + UTF-8 bytes. Only the device schemas of synthetic data set have
+ * deviceId, so the batches of real data set can not be encoded, see isEncodable.
+ */
+public class BatchCodec {
+
+  private static final byte VERSION = 1;
+
+  private BatchCodec() {}
+
+  /**
+   * Whether the device schema of batch is the one resolved by its deviceId, otherwise the batch
+   * would be decoded into another device. The device schemas of real data set have no deviceId.
+   */
+  public static boolean isEncodable(Batch batch) {
+    return isEncodable(batch, MetaDataSchema.getInstance()::getDeviceSchemaById);
+  }
+
+  /**
+   * Whether the device schema of batch is the one resolved by its deviceId
+   *
+   * @param schemaResolver get the device schema with all sensors by deviceId
+   */
+  public static boolean isEncodable(Batch batch, IntFunction<DeviceSchema> schemaResolver) {
+    DeviceSchema deviceSchema = batch.getDeviceSchema();
+    try {
+      return deviceSchema.equals(
+          resolveSchema(schemaResolver, deviceSchema.getDeviceId(), batch.getColIndex()));
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Encode batch into buffer from its position
+   *
+   * @return the number of bytes written
+   * @throws BufferOverflowException if the remaining of buffer is not enough, the position of
+   *     buffer is undefined then
+   */
+  public static int encode(Batch batch, ByteBuffer buffer) {
+    int start = buffer.position();
+    List<Sensor> sensors = batch.getDeviceSchema().getSensors();
+    List<Record> records = batch.getRecords();
+    buffer.put(VERSION);
+    ReadWriteIOUtils.writeVarInt(batch.getDeviceSchema().getDeviceId(), buffer);
+    ReadWriteIOUtils.writeVarInt(batch.getColIndex(), buffer);
+    ReadWriteIOUtils.writeVarInt(records.size(), buffer);
+    ReadWriteIOUtils.writeVarInt(sensors.size(), buffer);
+    long previous = 0;
+    for (Record record : records) {
+      if (record.size() != sensors.size()) {
+        throw new IllegalArgumentException(
+            "Record of " + batch.getDeviceSchema().getDevice() + " does not match its sensors");
+      }
+      ReadWriteIOUtils.writeVarLong(record.getTimestamp() - previous, buffer);
+      previous = record.getTimestamp();
+    }
+    for (int col = 0; col < sensors.size(); col++) {
+      SensorType type = sensors.get(col).getSensorType();
+      buffer.put((byte) type.ordinal());
+      if (type == SensorType.BOOLEAN) {
+        encodeBooleans(records, col, buffer);
+        continue;
+      }
+      for (Record record : records) {
+        encodeValue(type, record.getRecordDataValue().get(col), buffer);
+      }
+    }
+    return buffer.position() - start;
+  }
+
+  private static void encodeBooleans(List<Record> records, int col, ByteBuffer buffer) {
+    int bits = 0;
+    int count = 0;
+    for (Record record : records) {
+      if ((Boolean) record.getRecordDataValue().get(col)) {
+        bits |= 1 << count;
+      }
+      if (++count == Byte.SIZE) {
+        buffer.put((byte) bits);
+        bits = 0;
+        count = 0;
+      }
+    }
+    if (count > 0) {
+      buffer.put((byte) bits);
+    }
+  }
+
+  private static void encodeValue(SensorType type, Object value, ByteBuffer buffer) {
+    if (value == null) {
+      throw new IllegalArgumentException("Null value is not supported");
+    }
+    switch (type) {
+      case INT32:
+        ReadWriteIOUtils.writeVarInt(((Number) value).intValue(), buffer);
+        break;
+      case INT64:
+        ReadWriteIOUtils.writeVarLong(((Number) value).longValue(), buffer);
+        break;
+      case FLOAT:
+        buffer.putFloat(((Number) value).floatValue());
+        break;
+      case DOUBLE:
+        buffer.putDouble(((Number) value).doubleValue());
+        break;
+      default:
+        byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        ReadWriteIOUtils.writeVarInt(bytes.length, buffer);
+        buffer.put(bytes);
+        break;
+    }
+  }
+
+  /** Decode one batch from buffer, the device schema is got from MetaDataSchema */
+  public static ColumnarBatch decode(ByteBuffer buffer) {
+    return decode(buffer, MetaDataSchema.getInstance()::getDeviceSchemaById);
+  }
+
+  /**
+   * Decode one batch from buffer
+   *
+   * @param schemaResolver get the device schema with all sensors by deviceId
+   * @throws IllegalArgumentException if the version, the device or the columns is unknown
+   */
+  public static ColumnarBatch decode(ByteBuffer buffer, IntFunction<DeviceSchema> schemaResolver) {
+    byte version = buffer.get();
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unknown version of batch: " + version);
+    }
+    int deviceId = ReadWriteIOUtils.readVarInt(buffer);
+    int colIndex = ReadWriteIOUtils.readVarInt(buffer);
+    int rowNumber = ReadWriteIOUtils.readVarInt(buffer);
+    int columnNumber = ReadWriteIOUtils.readVarInt(buffer);
+    DeviceSchema deviceSchema = resolveSchema(schemaResolver, deviceId, colIndex);
+    ColumnarBatch batch = new ColumnarBatch(deviceSchema, colIndex, rowNumber);
+    if (batch.getColumnNumber() != columnNumber) {
+      throw new IllegalArgumentException(
+          "Batch of " + deviceSchema.getDevice() + " has " + columnNumber + " columns");
+    }
+    long[] timestamps = batch.getTimestamps();
+    long previous = 0;
+    for (int row = 0; row < rowNumber; row++) {
+      previous += ReadWriteIOUtils.readVarLong(buffer);
+      timestamps[row] = previous;
+    }
+    for (int col = 0; col < columnNumber; col++) {
+      byte type = buffer.get();
+      if (type != batch.getType(col).ordinal()) {
+        throw new IllegalArgumentException(
+            "Column " + col + " of " + deviceSchema.getDevice() + " is not " + batch.getType(col));
+      }
+      decodeColumn(batch, col, buffer);
+    }
+    return batch;
+  }
+
+  private static DeviceSchema resolveSchema(
+      IntFunction<DeviceSchema> schemaResolver, int deviceId, int colIndex) {
+    DeviceSchema deviceSchema = schemaResolver.apply(deviceId);
+    if (deviceSchema == null) {
+      throw new IllegalArgumentException("Unknown device: " + deviceId);
+    }
+    if (colIndex == -1) {
+      return deviceSchema;
+    }
+    // the batch of one sensor only has the sensor of colIndex, the same as it is generated
+    try {
+      DeviceSchema sensorSchema = (DeviceSchema) deviceSchema.clone();
+      sensorSchema.setSensors(Collections.singletonList(deviceSchema.getSensors().get(colIndex)));
+      return sensorSchema;
+    } catch (CloneNotSupportedException | IndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("Unknown sensor " + colIndex + " of " + deviceId, e);
+    }
+  }
+
+  private static void decodeColumn(ColumnarBatch batch, int col, ByteBuffer buffer) {
+    int size = batch.getSize();
+    switch (batch.getType(col)) {
+      case BOOLEAN:
+        boolean[] booleans = batch.getBooleans(col);
+        int bits = 0;
+        for (int row = 0; row < size; row++) {
+          if (row % Byte.SIZE == 0) {
+            bits = buffer.get();
+          }
+          booleans[row] = (bits & (1 << (row % Byte.SIZE))) != 0;
+        }
+        break;
+      case INT32:
+        int[] ints = batch.getInts(col);
+        for (int row = 0; row < size; row++) {
+          ints[row] = ReadWriteIOUtils.readVarInt(buffer);
+        }
+        break;
+      case INT64:
+        long[] longs = batch.getLongs(col);
+        for (int row = 0; row < size; row++) {
+          longs[row] = ReadWriteIOUtils.readVarLong(buffer);
+        }
+        break;
+      case FLOAT:
+        float[] floats = batch.getFloats(col);
+        for (int row = 0; row < size; row++) {
+          floats[row] = buffer.getFloat();
+        }
+        break;
+      case DOUBLE:
+        double[] doubles = batch.getDoubles(col);
+        for (int row = 0; row < size; row++) {
+          doubles[row] = buffer.getDouble();
+        }
+        break;
+      default:
+        String[] strings = batch.getStrings(col);
+        for (int row = 0; row < size; row++) {
+          strings[row] = decodeString(buffer);
+        }
+        break;
+    }
+  }
+
+  private static String decodeString(ByteBuffer buffer) {
+    int length = ReadWriteIOUtils.readVarInt(buffer);
+    if (!buffer.hasArray()) {
+      return new String(ReadWriteIOUtils.readBytes(buffer, length), StandardCharsets.UTF_8);
+    }
+    // decode from the backing array directly to avoid copying the bytes
+    String value =
+        new String(
+            buffer.array(),
+            buffer.arrayOffset() + buffer.position(),
+            length,
+            StandardCharsets.UTF_8);
+    buffer.position(buffer.position() + length);
+    return value;
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.entity;
+
+import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
+import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch organized by columns, the values of each sensor are kept in a primitive array of its
+ * type instead of boxed objects in rows
+ */
+public class ColumnarBatch {
+
+  private final DeviceSchema deviceSchema;
+  private final int colIndex;
+  private final int size;
+  private final long[] timestamps;
+  private final SensorType[] types;
+  /** boolean[], int[], long[], float[], double[] or String[] according to the type of column */
+  private final Object[] columns;
+
+  /**
+   * @param deviceSchema the sensors of it are the columns of this batch
+   * @param colIndex the index of sensor in the device, -1 means all sensors
+   * @param size the number of rows
+   */
+  public ColumnarBatch(DeviceSchema deviceSchema, int colIndex, int size) {
+    this.deviceSchema = deviceSchema;
+    this.colIndex = colIndex;
+    this.size = size;
+    this.timestamps = new long[size];
+    List<Sensor> sensors = deviceSchema.getSensors();
+    this.types = new SensorType[sensors.size()];
+    this.columns = new Object[sensors.size()];
+    for (int i = 0; i < sensors.size(); i++) {
+      types[i] = sensors.get(i).getSensorType();
+      columns[i] = createColumn(types[i], size);
+    }
+  }
+
+  private static Object createColumn(SensorType type, int size) {
+    switch (type) {
+      case BOOLEAN:
+        return new boolean[size];
+      case INT32:
+        return new int[size];
+      case INT64:
+        return new long[size];
+      case FLOAT:
+        return new float[size];
+      case DOUBLE:
+        return new double[size];
+      default:
+        return new String[size];
+    }
+  }
+
+  /** Convert to the row batch used by IDatabase */
+  public Batch toBatch() {
+    List<Record> records = new ArrayList<>(size);
+    for (int row = 0; row < size; row++) {
+      List<Object> values = new ArrayList<>(columns.length);
+      for (int col = 0; col < columns.length; col++) {
+        values.add(getValue(col, row));
+      }
+      records.add(new Record(timestamps[row], values));
+    }
+    Batch batch = new Batch(deviceSchema, records);
+    batch.setColIndex(colIndex);
+    return batch;
+  }
+
+  /** Get one value as the boxed type which the data generator uses */
+  public Object getValue(int col, int row) {
+    switch (types[col]) {
+      case BOOLEAN:
+        return ((boolean[]) columns[col])[row];
+      case INT32:
+        return ((int[]) columns[col])[row];
+      case INT64:
+        return ((long[]) columns[col])[row];
+      case FLOAT:
+        return ((float[]) columns[col])[row];
+      case DOUBLE:
+        return ((double[]) columns[col])[row];
+      default:
+        return ((String[]) columns[col])[row];
+    }
+  }
+
+  public int pointNum() {
+    return size * columns.length;
+  }
+
+  public DeviceSchema getDeviceSchema() {
+    return deviceSchema;
+  }
+
+  public int getColIndex() {
+    return colIndex;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public long[] getTimestamps() {
+    return timestamps;
+  }
+
+  public SensorType getType(int col) {
+    return types[col];
+  }
+
+  public int getColumnNumber() {
+    return columns.length;
+  }
+
+  public boolean[] getBooleans(int col) {
+    return (boolean[]) columns[col];
+  }
+
+  public int[] getInts(int col) {
+    return (int[]) columns[col];
+  }
+
+  public long[] getLongs(int col) {
+    return (long[]) columns[col];
+  }
+
+  public float[] getFloats(int col) {
+    return (float[]) columns[col];
+  }
+
+  public double[] getDoubles(int col) {
+    return (double[]) columns[col];
+  }
+
+  public String[] getStrings(int col) {
+    return (String[]) columns[col];
+  }
+}
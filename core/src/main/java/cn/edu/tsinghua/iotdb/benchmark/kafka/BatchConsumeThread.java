@@ -21,37 +21,136 @@ package cn.edu.tsinghua.iotdb.benchmark.kafka;
 
 import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
 import cn.edu.tsinghua.iotdb.benchmark.exception.DBConnectException;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.IDatabase;
-import kafka.consumer.KafkaStream;
-import kafka.message.MessageAndMetadata;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.TsdbException;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consume one partition: the batches of each poll are written by one insertBatches call, and the
+ * offset is committed only after the write succeeds, so a failed poll is consumed again.
+ */
 public class BatchConsumeThread implements Runnable {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(BatchConsumeThread.class);
-  private final KafkaStream<String, Batch> stream;
-  private IDatabase session;
+  private static final Duration POLL_TIMEOUT = Duration.ofMillis(100);
+  /** The time to wait before consuming a failed poll again */
+  private static final long RETRY_INTERVAL_MS = 1000;
+
+  private final Consumer<String, Batch> consumer;
+  private final TopicPartition partition;
+  private final IDatabase database;
+  private volatile boolean running = true;
+
+  private final AtomicLong batchNum = new AtomicLong();
+  private final AtomicLong pointNum = new AtomicLong();
+  /** The sum and the max of the time from producing to writing of batches in ms */
+  private final AtomicLong lagSum = new AtomicLong();
+  private final AtomicLong maxLag = new AtomicLong();
 
   public BatchConsumeThread(
-      KafkaStream<String, Batch> stream, String host, String port, String user, String password)
-      throws ClassNotFoundException, IllegalAccessException, InstantiationException {
-    this.stream = stream;
-    // TODO no hard code
-    // Establish session connection of IoTDB
-    session =
-        (IDatabase) Class.forName("cn.edu.tsinghua.iotdb.benchmark.iotdb011.IoTDB").newInstance();
+      Consumer<String, Batch> consumer, TopicPartition partition, IDatabase database) {
+    this.consumer = consumer;
+    this.partition = partition;
+    this.database = database;
   }
 
   @Override
   public void run() {
-    for (MessageAndMetadata<String, Batch> consumerIterator : stream) {
+    try {
+      consumer.assign(Collections.singletonList(partition));
+      while (running) {
+        ConsumerRecords<String, Batch> records = consumer.poll(POLL_TIMEOUT);
+        if (!records.isEmpty()) {
+          write(records.records(partition));
+        }
+      }
+    } catch (WakeupException e) {
+      // thrown by shutdown
+      if (running) {
+        throw e;
+      }
+    } catch (DBConnectException e) {
+      LOGGER.error("Failed to write {} because ", partition, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      consumer.close();
       try {
-        session.insertOneBatch(consumerIterator.message());
-      } catch (DBConnectException e) {
-        LOGGER.error(e.getMessage());
-        break;
+        database.close();
+      } catch (TsdbException e) {
+        LOGGER.error("Close database of {} error: ", partition, e);
       }
     }
   }
+
+  private void write(List<ConsumerRecord<String, Batch>> records)
+      throws DBConnectException, InterruptedException {
+    List<Batch> batches = new ArrayList<>(records.size());
+    int points = 0;
+    for (ConsumerRecord<String, Batch> record : records) {
+      // the message which can't be deserialized is skipped
+      if (record.value() != null) {
+        batches.add(record.value());
+        points += record.value().pointNum();
+      }
+    }
+    Status status = database.insertBatches(batches);
+    if (!status.isOk()) {
+      LOGGER.error("Failed to write {} batches of {}, retry", batches.size(), partition);
+      consumer.seek(partition, records.get(0).offset());
+      Thread.sleep(RETRY_INTERVAL_MS);
+      return;
+    }
+    long lastOffset = records.get(records.size() - 1).offset();
+    consumer.commitSync(
+        Collections.singletonMap(partition, new OffsetAndMetadata(lastOffset + 1)));
+    long now = System.currentTimeMillis();
+    for (ConsumerRecord<String, Batch> record : records) {
+      long lag = now - record.timestamp();
+      lagSum.addAndGet(lag);
+      maxLag.accumulateAndGet(lag, Math::max);
+    }
+    batchNum.addAndGet(records.size());
+    pointNum.addAndGet(points);
+  }
+
+  /** Stop consuming, the current write is finished before the thread exits */
+  public void shutdown() {
+    running = false;
+    consumer.wakeup();
+  }
+
+  public TopicPartition getPartition() {
+    return partition;
+  }
+
+  public long getBatchNum() {
+    return batchNum.get();
+  }
+
+  public long getPointNum() {
+    return pointNum.get();
+  }
+
+  public long getLagSum() {
+    return lagSum.get();
+  }
+
+  public long getMaxLag() {
+    return maxLag.get();
+  }
 }
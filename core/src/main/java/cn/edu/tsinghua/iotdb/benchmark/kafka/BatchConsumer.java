@@ -22,64 +22,105 @@ package cn.edu.tsinghua.iotdb.benchmark.kafka;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
 import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
-import kafka.consumer.KafkaStream;
-import kafka.javaapi.consumer.ConsumerConnector;
-import kafka.serializer.StringDecoder;
-import kafka.utils.VerifiableProperties;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBFactory;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.IDatabase;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.TsdbException;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/** Consume the batches of TOPIC_NAME and write them into the database of DB_SWITCH */
 public class BatchConsumer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BatchConsumer.class);
   private static Config config = ConfigDescriptor.getInstance().getConfig();
-  private ConsumerConnector consumer;
 
-  public BatchConsumer(String group) {
-    Properties props = new Properties();
-    props.put("zookeeper.connect", config.getZOOKEEPER_LOCATION());
-    props.put(ConsumerConfig.GROUP_ID_CONFIG, group);
-    props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "true");
-    props.put(ConsumerConfig.AUTO_COMMIT_INTERVAL_MS_CONFIG, "1000");
-    props.put("consumer.timeout.ms", "10000");
-    props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
-    props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, BatchDeserializer.class.getName());
-    props.put("auto.offset.reset", "latest");
+  private final Properties properties = new Properties();
+  private final List<BatchConsumeThread> threads = new ArrayList<>();
+  private ExecutorService executor;
+  private final ScheduledExecutorService logService = Executors.newSingleThreadScheduledExecutor();
 
-    kafka.consumer.ConsumerConfig config = new kafka.consumer.ConsumerConfig(props);
-    consumer = kafka.consumer.Consumer.createJavaConsumerConnector(config);
+  public BatchConsumer(String group) {
+    properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, config.getKAFKA_LOCATION());
+    properties.put(ConsumerConfig.GROUP_ID_CONFIG, group);
+    // the offset is committed by BatchConsumeThread after the batches are written
+    properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+    properties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, config.getKAFKA_MAX_POLL_RECORDS());
+    properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+    properties.put(
+        ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+    properties.put(
+        ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, BatchDeserializer.class.getName());
   }
 
-  /**
-   * use multi-thread to consume
-   *
-   * @param host session host
-   * @param port session port
-   * @param user session username
-   * @param password session password
-   */
-  public void consume(String host, String port, String user, String password)
-      throws IllegalAccessException, InstantiationException, ClassNotFoundException {
-    // Specify the number of consumer thread
-    Map<String, Integer> topicCountMap = new HashMap<>();
-    topicCountMap.put(config.getTOPIC_NAME(), config.getCLIENT_NUMBER());
+  /** Start one thread with its own consumer and database for each partition of TOPIC_NAME */
+  public void consume() throws SQLException, TsdbException {
+    List<PartitionInfo> partitions;
+    try (Consumer<String, Batch> consumer = createConsumer()) {
+      partitions = consumer.partitionsFor(config.getTOPIC_NAME());
+    }
+    if (partitions == null || partitions.isEmpty()) {
+      LOGGER.error("Topic {} has no partition", config.getTOPIC_NAME());
+      return;
+    }
+    DBFactory dbFactory = new DBFactory();
+    for (PartitionInfo partitionInfo : partitions) {
+      IDatabase database = dbFactory.getDatabase(config.getDbConfig());
+      database.init();
+      TopicPartition partition =
+          new TopicPartition(partitionInfo.topic(), partitionInfo.partition());
+      threads.add(new BatchConsumeThread(createConsumer(), partition, database));
+    }
+    executor = Executors.newFixedThreadPool(threads.size());
+    threads.forEach(executor::submit);
+    executor.shutdown();
+    logService.scheduleAtFixedRate(
+        this::logProgress,
+        config.getLOG_PRINT_INTERVAL(),
+        config.getLOG_PRINT_INTERVAL(),
+        TimeUnit.SECONDS);
+  }
 
-    // specify data decoder
-    StringDecoder keyDecoder = new StringDecoder(new VerifiableProperties());
-    BatchDeserializer valueDecoder = new BatchDeserializer();
+  protected Consumer<String, Batch> createConsumer() {
+    return new KafkaConsumer<>(properties);
+  }
 
-    Map<String, List<KafkaStream<String, Batch>>> consumerMap =
-        consumer.createMessageStreams(topicCountMap, keyDecoder, valueDecoder);
+  /** Log the written batches and the lag from producing to writing of each partition */
+  private void logProgress() {
+    for (BatchConsumeThread thread : threads) {
+      long batchNum = thread.getBatchNum();
+      double avgLag = batchNum == 0 ? 0 : (double) thread.getLagSum() / batchNum;
+      LOGGER.info(
+          "{} wrote {} batches, {} points, avg lag {} ms, max lag {} ms",
+          thread.getPartition(),
+          batchNum,
+          thread.getPointNum(),
+          String.format("%.2f", avgLag),
+          thread.getMaxLag());
+    }
+  }
 
-    List<KafkaStream<String, Batch>> streams = consumerMap.get(config.getTOPIC_NAME());
-    ExecutorService executor = Executors.newFixedThreadPool(config.getCLIENT_NUMBER());
-    for (final KafkaStream<String, Batch> stream : streams) {
-      executor.submit(new BatchConsumeThread(stream, host, port, user, password));
+  /** Stop all threads and wait for their current writes */
+  public void close() throws InterruptedException {
+    threads.forEach(BatchConsumeThread::shutdown);
+    if (executor != null) {
+      executor.awaitTermination(1, TimeUnit.MINUTES);
     }
+    logService.shutdown();
+    logProgress();
   }
 }
@@ -20,21 +20,51 @@
 package cn.edu.tsinghua.iotdb.benchmark.kafka;
 
 import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
-import kafka.serializer.Decoder;
+import cn.edu.tsinghua.iotdb.benchmark.entity.BatchCodec;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Map;
 
-public class BatchDeserializer implements Decoder<Batch> {
+/**
+ * Deserialize the message of BatchSerializer by its format, the message which can't be decoded is
+ * returned as null
+ */
+public class BatchDeserializer implements Deserializer<Batch> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BatchDeserializer.class);
 
   @Override
-  public Batch fromBytes(byte[] bytes) {
-    try (ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes)) {
-      return Batch.deserialize(inputStream);
-    } catch (IOException e) {
-      e.printStackTrace();
-    }
+  public void configure(Map<String, ?> map, boolean b) {}
 
+  @Override
+  public Batch deserialize(String s, byte[] bytes) {
+    if (bytes == null) {
+      return null;
+    }
+    try {
+      switch (bytes[0]) {
+        case BatchSerializer.CODEC_FORMAT:
+          return BatchCodec.decode(ByteBuffer.wrap(bytes, 1, bytes.length - 1)).toBatch();
+        case BatchSerializer.SERIALIZE_FORMAT:
+          return Batch.deserialize(new ByteArrayInputStream(bytes, 1, bytes.length - 1));
+        default:
+          throw new IllegalArgumentException("Unknown format of batch: " + bytes[0]);
+      }
+    } catch (IllegalArgumentException
+        | IndexOutOfBoundsException
+        | BufferUnderflowException
+        | IOException e) {
+      LOGGER.error("Failed to deserialize batch of topic {} because ", s, e);
+    }
     return null;
   }
+
+  @Override
+  public void close() {}
 }
@@ -41,7 +41,6 @@ public class BatchProducer {
 
     Properties properties = new Properties();
     properties.put("bootstrap.servers", config.getKAFKA_LOCATION());
-    properties.put("zookeeper.connect", config.getZOOKEEPER_LOCATION());
     properties.put("key.serializer", StringSerializer.class.getName());
     properties.put("value.serializer", BatchSerializer.class.getName());
     properties.put("acks", "-1");
@@ -20,26 +20,70 @@
 package cn.edu.tsinghua.iotdb.benchmark.kafka;
 
 import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.entity.BatchCodec;
+import org.apache.kafka.common.errors.SerializationException;
 import org.apache.kafka.common.serialization.Serializer;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Map;
 
+/**
+ * Serialize batch by BatchCodec into a buffer reused by each thread. The batch which BatchCodec can
+ * not encode, e.g. the batch of real data set, is serialized by Batch.serialize. The first byte of
+ * message tells which format it is.
+ */
 public class BatchSerializer implements Serializer<Batch> {
 
+  /** The message of BatchCodec */
+  static final byte CODEC_FORMAT = 0;
+  /** The message of Batch.serialize */
+  static final byte SERIALIZE_FORMAT = 1;
+
+  private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+  private final ThreadLocal<ByteBuffer> buffers =
+      ThreadLocal.withInitial(() -> ByteBuffer.allocate(INITIAL_BUFFER_SIZE));
+
   @Override
   public void configure(Map<String, ?> map, boolean b) {}
 
   @Override
   public byte[] serialize(String s, Batch batch) {
-    try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+    if (batch == null) {
+      return null;
+    }
+    if (!BatchCodec.isEncodable(batch)) {
+      return serializeBatch(batch);
+    }
+    ByteBuffer buffer = buffers.get();
+    while (true) {
+      buffer.clear();
+      try {
+        buffer.put(CODEC_FORMAT);
+        int length = 1 + BatchCodec.encode(batch, buffer);
+        // Kafka takes byte[], so this is the only copy
+        return Arrays.copyOf(buffer.array(), length);
+      } catch (BufferOverflowException e) {
+        buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+        buffers.set(buffer);
+      }
+    }
+  }
+
+  private byte[] serializeBatch(Batch batch) {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    outputStream.write(SERIALIZE_FORMAT);
+    try {
       batch.serialize(outputStream);
-      return outputStream.toByteArray();
     } catch (IOException e) {
-      e.printStackTrace();
+      throw new SerializationException(
+          "Failed to serialize batch of " + batch.getDeviceSchema().getDevice(), e);
     }
-    return new byte[0];
+    return outputStream.toByteArray();
   }
 
   @Override
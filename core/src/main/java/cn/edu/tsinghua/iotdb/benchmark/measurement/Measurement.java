@@ -32,9 +32,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.text.SimpleDateFormat;
 import java.util.*;
 
@@ -42,10 +45,8 @@ public class Measurement {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(Measurement.class);
   private static final Config config = ConfigDescriptor.getInstance().getConfig();
-  private static final Map<Operation, TDigest> operationLatencyDigest =
-      new EnumMap<>(Operation.class);
-  private static final Map<Operation, Double> operationLatencySumAllClient =
-      new EnumMap<>(Operation.class);
+  private final Map<Operation, TDigest> operationLatencyDigest;
+  private final Map<Operation, Double> operationLatencySumAllClient;
   private double createSchemaTime;
   private double elapseTime;
   private final Map<Operation, Double> operationLatencySumThisClient;
@@ -58,15 +59,9 @@ public class Measurement {
   /** Precision = 3 / COMPRESSION */
   private static final int COMPRESSION = (int) (300 / config.getRESULT_PRECISION());
 
-  static {
-    for (Operation operation : Operation.values()) {
-      operationLatencyDigest.put(
-          operation, new TDigest(COMPRESSION, new Random(config.getDATA_SEED())));
-      operationLatencySumAllClient.put(operation, 0D);
-    }
-  }
-
   public Measurement() {
+    operationLatencyDigest = new EnumMap<>(Operation.class);
+    operationLatencySumAllClient = new EnumMap<>(Operation.class);
     okOperationNumMap = new EnumMap<>(Operation.class);
     failOperationNumMap = new EnumMap<>(Operation.class);
     okPointNumMap = new EnumMap<>(Operation.class);
@@ -78,6 +73,9 @@ public class Measurement {
       okPointNumMap.put(operation, 0L);
       failPointNumMap.put(operation, 0L);
       operationLatencySumThisClient.put(operation, 0D);
+      operationLatencyDigest.put(
+          operation, new TDigest(COMPRESSION, new Random(config.getDATA_SEED())));
+      operationLatencySumAllClient.put(operation, 0D);
     }
   }
 
@@ -87,6 +85,22 @@ public class Measurement {
    * @param m measurement to be merged
    */
   public void mergeMeasurement(Measurement m) {
+    merge(m, m.getOperationLatencySumThisClient());
+  }
+
+  /**
+   * Merge the measurement that is already merged from clients, e.g. the result of a worker. Users
+   * need to call calculateMetrics() after it too.
+   *
+   * @param m merged measurement to be merged
+   */
+  public void mergeMergedMeasurement(Measurement m) {
+    merge(m, m.operationLatencySumAllClient);
+    createSchemaTime = Math.max(createSchemaTime, m.createSchemaTime);
+    elapseTime = Math.max(elapseTime, m.elapseTime);
+  }
+
+  private void merge(Measurement m, Map<Operation, Double> latencySum) {
     for (Operation operation : Operation.values()) {
       okOperationNumMap.put(
           operation, okOperationNumMap.get(operation) + m.getOkOperationNum(operation));
@@ -103,12 +117,86 @@ public class Measurement {
             operation, m.getOperationLatencySumThisClient().get(operation));
       }
       operationLatencySumAllClient.put(
-          operation,
-          operationLatencySumAllClient.get(operation)
-              + m.getOperationLatencySumThisClient().get(operation));
+          operation, operationLatencySumAllClient.get(operation) + latencySum.get(operation));
+      mergeDigest(operationLatencyDigest.get(operation), m.operationLatencyDigest.get(operation));
     }
   }
 
+  /**
+   * Add the centroids of other into digest. TDigest.add(TDigest) of stream-lib only works when all
+   * data of other is recorded, so the centroids are added by hand.
+   */
+  static void mergeDigest(TDigest digest, TDigest other) {
+    // the centroids of an empty digest of stream-lib contain one null
+    if (other.centroidCount() == 0) {
+      return;
+    }
+    synchronized (digest) {
+      for (TDigest.Group centroid : other.centroids()) {
+        digest.add(centroid.mean(), centroid.count());
+      }
+    }
+  }
+
+  /**
+   * Get the quantile of digest. TDigest.quantile() of stream-lib requires more than one centroid,
+   * so the only centroid is returned directly, and 0 is returned if digest is empty.
+   */
+  static double quantile(TDigest digest, double quantile) {
+    if (digest.centroidCount() > 1) {
+      return digest.quantile(quantile);
+    } else if (digest.centroidCount() == 1) {
+      return digest.centroids().iterator().next().mean();
+    }
+    return 0;
+  }
+
+  /** Serialize the counters, latency sums and latency digests of all operations */
+  public void serialize(DataOutputStream outputStream) throws IOException {
+    outputStream.writeDouble(createSchemaTime);
+    outputStream.writeDouble(elapseTime);
+    for (Operation operation : Operation.values()) {
+      outputStream.writeLong(okOperationNumMap.get(operation));
+      outputStream.writeLong(failOperationNumMap.get(operation));
+      outputStream.writeLong(okPointNumMap.get(operation));
+      outputStream.writeLong(failPointNumMap.get(operation));
+      outputStream.writeDouble(operationLatencySumThisClient.get(operation));
+      outputStream.writeDouble(operationLatencySumAllClient.get(operation));
+      TDigest digest = operationLatencyDigest.get(operation);
+      // asBytes() of stream-lib fails on an empty digest, so it is written as 0 bytes
+      if (digest.centroidCount() == 0) {
+        outputStream.writeInt(0);
+        continue;
+      }
+      ByteBuffer buffer = ByteBuffer.allocate(digest.byteSize());
+      digest.asBytes(buffer);
+      outputStream.writeInt(buffer.position());
+      outputStream.write(buffer.array(), 0, buffer.position());
+    }
+  }
+
+  /** Deserialize the measurement written by serialize() */
+  public static Measurement deserialize(DataInputStream inputStream) throws IOException {
+    Measurement measurement = new Measurement();
+    measurement.createSchemaTime = inputStream.readDouble();
+    measurement.elapseTime = inputStream.readDouble();
+    for (Operation operation : Operation.values()) {
+      measurement.okOperationNumMap.put(operation, inputStream.readLong());
+      measurement.failOperationNumMap.put(operation, inputStream.readLong());
+      measurement.okPointNumMap.put(operation, inputStream.readLong());
+      measurement.failPointNumMap.put(operation, inputStream.readLong());
+      measurement.operationLatencySumThisClient.put(operation, inputStream.readDouble());
+      measurement.operationLatencySumAllClient.put(operation, inputStream.readDouble());
+      byte[] bytes = new byte[inputStream.readInt()];
+      if (bytes.length == 0) {
+        continue;
+      }
+      inputStream.readFully(bytes);
+      measurement.operationLatencyDigest.put(operation, TDigest.fromBytes(ByteBuffer.wrap(bytes)));
+    }
+    return measurement;
+  }
+
   /** Calculate metrics of each operation */
   public void calculateMetrics(List<Operation> operations) {
     for (Operation operation : operations) {
@@ -121,34 +209,39 @@ public class Measurement {
             .put(operation, operationLatencySumThisClient.get(operation));
         Metric.MIN_LATENCY
             .getTypeValueMap()
-            .put(operation, operationLatencyDigest.get(operation).quantile(0.0));
+            .put(operation, quantile(operationLatencyDigest.get(operation), 0.0));
         Metric.MAX_LATENCY
             .getTypeValueMap()
-            .put(operation, operationLatencyDigest.get(operation).quantile(1.0));
+            .put(operation, quantile(operationLatencyDigest.get(operation), 1.0));
         Metric.P10_LATENCY
             .getTypeValueMap()
-            .put(operation, operationLatencyDigest.get(operation).quantile(0.1));
+            .put(operation, quantile(operationLatencyDigest.get(operation), 0.1));
         Metric.P25_LATENCY
             .getTypeValueMap()
-            .put(operation, operationLatencyDigest.get(operation).quantile(0.25));
+            .put(operation, quantile(operationLatencyDigest.get(operation), 0.25));
         Metric.MEDIAN_LATENCY
             .getTypeValueMap()
-            .put(operation, operationLatencyDigest.get(operation).quantile(0.50));
+            .put(operation, quantile(operationLatencyDigest.get(operation), 0.50));
         Metric.P75_LATENCY
             .getTypeValueMap()
-            .put(operation, operationLatencyDigest.get(operation).quantile(0.75));
+            .put(operation, quantile(operationLatencyDigest.get(operation), 0.75));
         Metric.P90_LATENCY
             .getTypeValueMap()
-            .put(operation, operationLatencyDigest.get(operation).quantile(0.90));
+            .put(operation, quantile(operationLatencyDigest.get(operation), 0.90));
         Metric.P95_LATENCY
             .getTypeValueMap()
-            .put(operation, operationLatencyDigest.get(operation).quantile(0.95));
+            .put(operation, quantile(operationLatencyDigest.get(operation), 0.95));
         Metric.P99_LATENCY
             .getTypeValueMap()
-            .put(operation, operationLatencyDigest.get(operation).quantile(0.99));
+            .put(operation, quantile(operationLatencyDigest.get(operation), 0.99));
         Metric.P999_LATENCY
             .getTypeValueMap()
-            .put(operation, operationLatencyDigest.get(operation).quantile(0.999));
+            .put(operation, quantile(operationLatencyDigest.get(operation), 0.999));
+      } else {
+        // the metrics may be left by the measurement of previous stage
+        for (Metric metric : Metric.values()) {
+          metric.getTypeValueMap().put(operation, 0D);
+        }
       }
     }
   }
@@ -402,19 +495,19 @@ public class Measurement {
     }
   }
 
-  private Map<Operation, Double> getOperationLatencySumThisClient() {
+  public Map<Operation, Double> getOperationLatencySumThisClient() {
     return operationLatencySumThisClient;
   }
 
-  private long getOkOperationNum(Operation operation) {
+  public long getOkOperationNum(Operation operation) {
     return okOperationNumMap.get(operation);
   }
 
-  private long getFailOperationNum(Operation operation) {
+  public long getFailOperationNum(Operation operation) {
     return failOperationNumMap.get(operation);
   }
 
-  private long getOkPointNum(Operation operation) {
+  public long getOkPointNum(Operation operation) {
     return okPointNumMap.get(operation);
   }
 
@@ -422,6 +515,17 @@ public class Measurement {
     return failPointNumMap.get(operation);
   }
 
+  /** Get the latency in ms at the quantile in [0, 1] of the ok operations */
+  public double getLatencyQuantile(Operation operation, double quantile) {
+    if (okOperationNumMap.get(operation) == 0) {
+      return 0;
+    }
+    TDigest digest = operationLatencyDigest.get(operation);
+    synchronized (digest) {
+      return quantile(digest, quantile);
+    }
+  }
+
   public void addOperationLatency(Operation op, double latency) {
     synchronized (operationLatencyDigest.get(op)) {
       operationLatencyDigest.get(op).add(latency);
@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.measurement;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Checksum of the rows of a query result, computed while the rows are read so that the result can
+ * be compared between databases without keeping it in memory. Rows are combined by addition, so
+ * the checksum does not depend on the order of rows.
+ *
+ * <p>With a positive bucket size, the rows are also summed into buckets by the time in their first
+ * cell, so the time ranges in which two results differ can be found without the rows. The cells
+ * added with a device are summed into the bucket of that device, together with the first cell of
+ * the row, so a row holding several devices is split into one row per device, and the devices
+ * whose cells are all null in the row are skipped.
+ */
+public class ResultChecksum {
+
+  /** The bucket of the rows whose first cell is not a time */
+  public static final long NO_TIME_BUCKET = Long.MIN_VALUE;
+
+  private static final long NULL_TYPE = 0;
+  private static final long BOOLEAN_TYPE = 1;
+  private static final long INTEGER_TYPE = 2;
+  private static final long DECIMAL_TYPE = 3;
+  private static final long TEXT_TYPE = 4;
+
+  private static final Comparator<Bucket> BUCKET_COMPARATOR =
+      Comparator.comparingLong(Bucket::getStartTime)
+          .thenComparing(Bucket::getDevice, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+  private final long bucketSize;
+  /** The checksum and the row number of each bucket */
+  private final Map<Bucket, long[]> buckets;
+  /**
+   * The hash of the cells of each device in the current row, and whether the device has a non-null
+   * cell in it. The entries are reused across rows, so its size is the number of devices
+   */
+  private final Map<String, long[]> rowDevices = new LinkedHashMap<>();
+
+  private long checksum = 0;
+  private long rowHash = 1;
+  private boolean rowStarted = false;
+  private long rowBucket = NO_TIME_BUCKET;
+  /** The hash of the first cell of the current row, which is shared by all devices of the row */
+  private long firstCellHash = 0;
+  private boolean hasDeviceCell = false;
+
+  public ResultChecksum() {
+    this(0);
+  }
+
+  /** @param bucketSize the time span of buckets, 0 means no bucket */
+  public ResultChecksum(long bucketSize) {
+    this.bucketSize = bucketSize;
+    this.buckets = bucketSize > 0 ? new TreeMap<>(BUCKET_COMPARATOR) : null;
+  }
+
+  /** add one cell of the current row, cells are compared by their typed values, see hashCell */
+  public void update(Object value) {
+    update(value, null);
+  }
+
+  /**
+   * add one cell of the current row which belongs to device, the first cell of a row, e.g. the
+   * time, should not belong to any device
+   */
+  public void update(Object value, String device) {
+    long cellHash = hashCell(value);
+    if (!rowStarted) {
+      if (buckets != null) {
+        rowBucket = getBucket(value);
+      }
+      firstCellHash = cellHash;
+    }
+    rowStarted = true;
+    rowHash = 31 * rowHash + cellHash;
+    if (buckets != null && device != null) {
+      long[] deviceRow = rowDevices.computeIfAbsent(device, key -> new long[] {1, 0});
+      if (deviceRow[1] == 0) {
+        // the first cell of the device in this row, which starts from the first cell of the row
+        deviceRow[0] = 31 + firstCellHash;
+        deviceRow[1] = 1;
+      }
+      deviceRow[0] = 31 * deviceRow[0] + cellHash;
+      if (value != null) {
+        deviceRow[1] = 2;
+      }
+      hasDeviceCell = true;
+    }
+  }
+
+  /** add all cells of one row and finish it */
+  public void update(List<Object> row) {
+    update(row, (String[]) null);
+  }
+
+  /**
+   * add all cells of one row and finish it
+   *
+   * @param devices the device of each cell of the row, null if the cells belong to no device
+   */
+  public void update(List<Object> row, String[] devices) {
+    for (int i = 0; i < row.size(); i++) {
+      update(row.get(i), devices == null ? null : devices[i]);
+    }
+    endRow();
+  }
+
+  /** finish the current row */
+  public void endRow() {
+    long hash = spread(rowHash);
+    checksum += hash;
+    if (buckets != null) {
+      if (hasDeviceCell) {
+        for (Map.Entry<String, long[]> entry : rowDevices.entrySet()) {
+          long[] deviceRow = entry.getValue();
+          if (deviceRow[1] == 2) {
+            addToBucket(new Bucket(entry.getKey(), rowBucket), spread(deviceRow[0]));
+          }
+          deviceRow[1] = 0;
+        }
+      } else {
+        addToBucket(new Bucket(null, rowBucket), hash);
+      }
+    }
+    rowHash = 1;
+    rowStarted = false;
+    hasDeviceCell = false;
+  }
+
+  /**
+   * Hash the value of a cell with its type, so that the adapters returning values of different
+   * classes hash the same: integers of any width are integers, floats are widened to doubles, and
+   * the values of other classes are hashed as text
+   */
+  static long hashCell(Object value) {
+    if (value == null) {
+      return hashBits(NULL_TYPE, 0);
+    } else if (value instanceof Boolean) {
+      return hashBits(BOOLEAN_TYPE, (Boolean) value ? 1 : 0);
+    } else if (value instanceof Long
+        || value instanceof Integer
+        || value instanceof Short
+        || value instanceof Byte) {
+      return hashBits(INTEGER_TYPE, ((Number) value).longValue());
+    } else if (value instanceof Number) {
+      return hashBits(DECIMAL_TYPE, Double.doubleToLongBits(((Number) value).doubleValue()));
+    }
+    // FNV-1a over the chars of the text
+    String text = value.toString();
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < text.length(); i++) {
+      hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+    }
+    return hashBits(TEXT_TYPE, hash);
+  }
+
+  private static long hashBits(long type, long bits) {
+    return spread(bits + spread(type));
+  }
+
+  /** spread the bits of the hash, like SplitMix64 */
+  private static long spread(long hash) {
+    hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+    hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+    return hash ^ (hash >>> 31);
+  }
+
+  private void addToBucket(Bucket bucket, long hash) {
+    long[] value = buckets.computeIfAbsent(bucket, key -> new long[2]);
+    value[0] += hash;
+    value[1]++;
+  }
+
+  private long getBucket(Object time) {
+    long timestamp;
+    if (time instanceof Long || time instanceof Integer) {
+      timestamp = ((Number) time).longValue();
+    } else {
+      try {
+        timestamp = Long.parseLong(String.valueOf(time));
+      } catch (NumberFormatException e) {
+        return NO_TIME_BUCKET;
+      }
+    }
+    return Math.floorDiv(timestamp, bucketSize) * bucketSize;
+  }
+
+  public long getChecksum() {
+    return checksum;
+  }
+
+  public long getBucketSize() {
+    return bucketSize;
+  }
+
+  public boolean hasBuckets() {
+    return buckets != null;
+  }
+
+  /**
+   * Get the buckets whose checksum or row number is different from those of the other result, in
+   * ascending order of time. Both checksums must have the same bucket size.
+   */
+  public List<Bucket> getDifferentBuckets(ResultChecksum other) {
+    List<Bucket> result = new ArrayList<>();
+    Map<Bucket, long[]> all = new TreeMap<>(BUCKET_COMPARATOR);
+    all.putAll(buckets);
+    all.putAll(other.buckets);
+    for (Bucket bucket : all.keySet()) {
+      long[] value = buckets.get(bucket);
+      long[] otherValue = other.buckets.get(bucket);
+      if (value == null
+          || otherValue == null
+          || value[0] != otherValue[0]
+          || value[1] != otherValue[1]) {
+        result.add(bucket);
+      }
+    }
+    return result;
+  }
+
+  /** The rows of one device in [startTime, startTime + bucketSize) */
+  public static class Bucket {
+    /** The device of the rows, null if the cells of the rows are not added with devices */
+    private final String device;
+
+    private final long startTime;
+
+    public Bucket(String device, long startTime) {
+      this.device = device;
+      this.startTime = startTime;
+    }
+
+    public String getDevice() {
+      return device;
+    }
+
+    public long getStartTime() {
+      return startTime;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Bucket)) {
+        return false;
+      }
+      Bucket bucket = (Bucket) o;
+      return startTime == bucket.startTime && Objects.equals(device, bucket.device);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(device, startTime);
+    }
+
+    @Override
+    public String toString() {
+      return (device == null ? "" : device + "@") + startTime;
+    }
+  }
+}
@@ -37,6 +37,14 @@ public class Status {
   private String sql;
   /** results in record */
   private List<List<Object>> records;
+  /** checksum of results, used instead of records when IS_STREAMING_QUERY=true */
+  private ResultChecksum checksum;
+  /**
+   * The number of points written by an insert which buffers batches, e.g. 0 when the batch is only
+   * buffered, or the points of all buffered batches when they are written. -1 means the points of
+   * the inserted batch
+   */
+  private int insertPointNum = -1;
 
   public Status(boolean isOk) {
     this.isOk = isOk;
@@ -54,6 +62,13 @@ public class Status {
     this.records = records;
   }
 
+  public Status(boolean isOk, int queryResultPointNum, String sql, ResultChecksum checksum) {
+    this.isOk = isOk;
+    this.queryResultPointNum = queryResultPointNum;
+    this.sql = sql;
+    this.checksum = checksum;
+  }
+
   public Status(boolean isOk, Exception exception, String errorMessage) {
     this.isOk = isOk;
     this.exception = exception;
@@ -95,6 +110,22 @@ public class Status {
     return records;
   }
 
+  public Long getChecksum() {
+    return checksum == null ? null : checksum.getChecksum();
+  }
+
+  public ResultChecksum getResultChecksum() {
+    return checksum;
+  }
+
+  public int getInsertPointNum() {
+    return insertPointNum;
+  }
+
+  public void setInsertPointNum(int insertPointNum) {
+    this.insertPointNum = insertPointNum;
+  }
+
   public String getSql() {
     return sql;
   }
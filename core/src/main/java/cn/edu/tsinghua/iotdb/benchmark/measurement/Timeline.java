@@ -0,0 +1,322 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.measurement;
+
+import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.conf.Constants;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.SystemMetrics;
+import cn.edu.tsinghua.iotdb.benchmark.syslog.ProcSampler;
+import cn.edu.tsinghua.iotdb.benchmark.syslog.ServerMetricsClient;
+import com.clearspring.analytics.stream.quantile.TDigest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collect the throughput and latency of each operation per TIMELINE_INTERVAL_MS, together with the
+ * server metrics sampled in the same interval, and export them into one csv file whose rows are
+ * the intervals. The server metrics are sampled from /proc of this host, or pulled from server mode
+ * on the host of database.
+ */
+public class Timeline {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(Timeline.class);
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+
+  /** The compression of the latency digest of each interval, which is smaller than Measurement's */
+  private static final int COMPRESSION = 100;
+
+  private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+  private static final String[] QUANTILE_NAMES = {"P50", "P90", "P99"};
+  private static final String SEPARATOR = ",";
+
+  private final long interval;
+  private final String serverMetricsSource;
+  private final ConcurrentHashMap<Long, Slot> slots = new ConcurrentHashMap<>();
+  /** The time in ms when the timeline starts and stops, 0 if not yet */
+  private volatile long startTime = 0;
+  private volatile long stopTime = 0;
+  private ScheduledExecutorService sampleService;
+  private ServerMetricsClient serverMetricsClient;
+
+  Timeline(long interval, String serverMetricsSource) {
+    this.interval = interval;
+    this.serverMetricsSource = serverMetricsSource;
+  }
+
+  public static Timeline getInstance() {
+    return TimelineHolder.INSTANCE;
+  }
+
+  private static class TimelineHolder {
+    private static final Timeline INSTANCE =
+        new Timeline(config.getTIMELINE_INTERVAL_MS(), config.getTIMELINE_SERVER_METRICS());
+  }
+
+  /** Start collecting, the operations before it are ignored */
+  public synchronized void start() {
+    start(System.currentTimeMillis());
+    startServerSampling();
+  }
+
+  synchronized void start(long startTime) {
+    slots.clear();
+    this.startTime = startTime;
+    stopTime = 0;
+  }
+
+  private void startServerSampling() {
+    switch (serverMetricsSource) {
+      case Constants.TIMELINE_SERVER_LOCAL:
+        if (!ProcSampler.isAvailable()) {
+          LOGGER.warn("/proc is not available, the timeline has no server metrics");
+          return;
+        }
+        break;
+      case Constants.TIMELINE_SERVER_REMOTE:
+        String host = config.getTIMELINE_SERVER_HOST();
+        serverMetricsClient = new ServerMetricsClient(host, config.getSERVER_METRICS_PORT());
+        break;
+      default:
+        return;
+    }
+    sampleService = Executors.newSingleThreadScheduledExecutor();
+    sampleService.scheduleAtFixedRate(this::sampleServer, 0, interval, TimeUnit.MILLISECONDS);
+  }
+
+  /** Stop collecting, the operations after it are ignored */
+  public synchronized void stop() {
+    stopTime = System.currentTimeMillis();
+    if (sampleService != null) {
+      sampleService.shutdownNow();
+      try {
+        sampleService.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      sampleService = null;
+    }
+    if (serverMetricsClient != null) {
+      serverMetricsClient.close();
+      serverMetricsClient = null;
+    }
+  }
+
+  private void sampleServer() {
+    try {
+      if (serverMetricsClient != null) {
+        Map<SystemMetrics, Float> systemMetricsMap = serverMetricsClient.fetch();
+        if (systemMetricsMap != null) {
+          addServerMetrics(serverMetricsClient.getSampleTime(), systemMetricsMap);
+        }
+      } else {
+        long time = System.currentTimeMillis();
+        addServerMetrics(time, ProcSampler.getInstance().sample());
+      }
+    } catch (Exception e) {
+      // the exception stops the scheduled sampling, so it's only logged
+      LOGGER.error("Failed to sample server metrics for timeline", e);
+    }
+  }
+
+  public void addOkOperation(Operation operation, int okPointNum, double latency) {
+    addOkOperation(System.currentTimeMillis(), operation, okPointNum, latency);
+  }
+
+  void addOkOperation(long time, Operation operation, int okPointNum, double latency) {
+    Slot slot = getSlot(time);
+    if (slot != null) {
+      synchronized (slot) {
+        OperationSlot operationSlot = slot.getOperationSlot(operation);
+        operationSlot.okOperationNum++;
+        operationSlot.okPointNum += okPointNum;
+        operationSlot.latencySum += latency;
+        operationSlot.maxLatency = Math.max(operationSlot.maxLatency, latency);
+        operationSlot.latencyDigest.add(latency);
+      }
+    }
+  }
+
+  public void addFailOperation(Operation operation) {
+    addFailOperation(System.currentTimeMillis(), operation);
+  }
+
+  void addFailOperation(long time, Operation operation) {
+    Slot slot = getSlot(time);
+    if (slot != null) {
+      synchronized (slot) {
+        slot.getOperationSlot(operation).failOperationNum++;
+      }
+    }
+  }
+
+  /** Keep the last sample of each interval */
+  void addServerMetrics(long time, Map<SystemMetrics, Float> systemMetricsMap) {
+    Slot slot = getSlot(time);
+    if (slot != null) {
+      synchronized (slot) {
+        slot.serverMetrics = systemMetricsMap;
+      }
+    }
+  }
+
+  private Slot getSlot(long time) {
+    long start = startTime;
+    if (start == 0 || time < start || (stopTime != 0 && time > stopTime)) {
+      return null;
+    }
+    return slots.computeIfAbsent((time - start) / interval, index -> new Slot());
+  }
+
+  /** Export the timeline into data/csvOutput */
+  public void export() {
+    SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd-HH-mm-ss");
+    File folder = new File("data/csvOutput");
+    if (!folder.exists() && !folder.mkdirs()) {
+      LOGGER.error("Failed to create {}", folder);
+      return;
+    }
+    File file = new File(folder, sdf.format(new Date(startTime)) + "-timeline.csv");
+    try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+      write(writer);
+      LOGGER.info("Timeline is exported into {}", file.getAbsolutePath());
+    } catch (IOException e) {
+      LOGGER.error("Failed to export timeline into {}", file, e);
+    }
+  }
+
+  /**
+   * Write one line for each interval: the start time, the throughput and latency of each executed
+   * operation, and the last server sample in the interval
+   */
+  void write(Writer writer) throws IOException {
+    long end = stopTime == 0 ? System.currentTimeMillis() : stopTime;
+    Set<Operation> operations = EnumSet.noneOf(Operation.class);
+    long slotNum = 0;
+    for (Map.Entry<Long, Slot> entry : slots.entrySet()) {
+      synchronized (entry.getValue()) {
+        operations.addAll(entry.getValue().operationSlots.keySet());
+      }
+      slotNum = Math.max(slotNum, entry.getKey() + 1);
+    }
+    boolean hasServerMetrics = !Constants.TIMELINE_SERVER_NONE.equals(serverMetricsSource);
+
+    StringBuilder line = new StringBuilder("time,elapsed(s)");
+    for (Operation operation : operations) {
+      String name = operation.getName();
+      line.append(SEPARATOR).append(name).append("_okOperation");
+      line.append(SEPARATOR).append(name).append("_okPoint");
+      line.append(SEPARATOR).append(name).append("_failOperation");
+      line.append(SEPARATOR).append(name).append("_throughput(point/s)");
+      line.append(SEPARATOR).append(name).append("_AVG(ms)");
+      for (String quantile : QUANTILE_NAMES) {
+        line.append(SEPARATOR).append(name).append("_").append(quantile).append("(ms)");
+      }
+      line.append(SEPARATOR).append(name).append("_MAX(ms)");
+    }
+    if (hasServerMetrics) {
+      for (SystemMetrics systemMetrics : SystemMetrics.values()) {
+        line.append(SEPARATOR).append(systemMetrics.name());
+      }
+    }
+    writer.write(line.append("\n").toString());
+
+    for (long i = 0; i < slotNum; i++) {
+      long slotStart = startTime + i * interval;
+      // the last interval may be shorter
+      double seconds = Math.max(1, Math.min(interval, end - slotStart)) / 1000.0;
+      line.setLength(0);
+      line.append(slotStart).append(SEPARATOR).append(String.format("%.3f", i * interval / 1000.0));
+      Slot slot = slots.getOrDefault(i, new Slot());
+      synchronized (slot) {
+        for (Operation operation : operations) {
+          OperationSlot operationSlot = slot.operationSlots.get(operation);
+          if (operationSlot == null) {
+            operationSlot = new OperationSlot();
+          }
+          line.append(SEPARATOR).append(operationSlot.okOperationNum);
+          line.append(SEPARATOR).append(operationSlot.okPointNum);
+          line.append(SEPARATOR).append(operationSlot.failOperationNum);
+          line.append(SEPARATOR).append(String.format("%.2f", operationSlot.okPointNum / seconds));
+          if (operationSlot.okOperationNum == 0) {
+            // no latency in this interval
+            for (int j = 0; j < QUANTILES.length + 2; j++) {
+              line.append(SEPARATOR);
+            }
+            continue;
+          }
+          double avgLatency = operationSlot.latencySum / operationSlot.okOperationNum;
+          line.append(SEPARATOR).append(String.format("%.2f", avgLatency));
+          for (double quantile : QUANTILES) {
+            // an interval with only one operation has only one centroid
+            double latency = Measurement.quantile(operationSlot.latencyDigest, quantile);
+            line.append(SEPARATOR).append(String.format("%.2f", latency));
+          }
+          line.append(SEPARATOR).append(String.format("%.2f", operationSlot.maxLatency));
+        }
+        if (hasServerMetrics) {
+          for (SystemMetrics systemMetrics : SystemMetrics.values()) {
+            line.append(SEPARATOR);
+            if (slot.serverMetrics != null && slot.serverMetrics.get(systemMetrics) != null) {
+              line.append(slot.serverMetrics.get(systemMetrics));
+            }
+          }
+        }
+      }
+      writer.write(line.append("\n").toString());
+    }
+  }
+
+  /** The operations and server metrics in one interval */
+  private static class Slot {
+    private final Map<Operation, OperationSlot> operationSlots = new EnumMap<>(Operation.class);
+    private Map<SystemMetrics, Float> serverMetrics = null;
+
+    private OperationSlot getOperationSlot(Operation operation) {
+      return operationSlots.computeIfAbsent(operation, op -> new OperationSlot());
+    }
+  }
+
+  private static class OperationSlot {
+    private long okOperationNum = 0;
+    private long okPointNum = 0;
+    private long failOperationNum = 0;
+    private double latencySum = 0;
+    private double maxLatency = 0;
+    private final TDigest latencyDigest = new TDigest(COMPRESSION);
+  }
+}
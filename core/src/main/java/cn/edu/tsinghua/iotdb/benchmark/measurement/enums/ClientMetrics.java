@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.measurement.enums;
+
+public enum ClientMetrics {
+  /*
+   * store the resource consumption data of benchmark itself
+   * @param cpu CPU usage of all threads, 1 means all processors are busy
+   * @param maxThreadCpu CPU usage of the busiest thread, 1 means it is always running
+   * @param allocationRate allocated MB per second
+   * @param gcPause GC pause time in ms during the interval
+   * @param gcCount GC number during the interval
+   * @param heap used heap / max heap
+   * @param runnable the number of runnable threads
+   * @param blocked the number of threads blocked on monitors
+   * @param waiting the number of waiting and timed waiting threads
+   */
+
+  CPU_USAGE,
+  MAX_THREAD_CPU_USAGE,
+  ALLOCATION_RATE_MB,
+  GC_PAUSE_MS,
+  GC_COUNT,
+  HEAP_USAGE,
+  RUNNABLE_THREADS,
+  BLOCKED_THREADS,
+  WAITING_THREADS,
+}
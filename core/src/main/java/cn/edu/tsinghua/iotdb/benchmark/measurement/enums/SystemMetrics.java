@@ -36,6 +36,7 @@ public enum SystemMetrics {
    * @param tps I/O TPS
    * @param ioRead I/O read speed
    * @param ioWrite I/O write speed
+   * @param openFileNumber the number of files opened by the DB service process
    */
 
   CPU_USAGE,
@@ -53,4 +54,6 @@ public enum SystemMetrics {
   SEQUENCE_FILE_SIZE,
   UN_SEQUENCE_FILE_SIZE,
   WAL_FILE_SIZE,
+
+  OPEN_FILE_NUMBER,
 }
@@ -21,6 +21,7 @@ package cn.edu.tsinghua.iotdb.benchmark.measurement.persistence;
 
 import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
 import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.ClientMetrics;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.SystemMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +44,13 @@ public abstract class TestDataPersistence {
    */
   public abstract void insertSystemMetrics(Map<SystemMetrics, Float> systemMetricsMap);
 
+  /**
+   * Store resources metrics data of benchmark itself
+   *
+   * @param clientMetricsMap Client resources metrics to be stored
+   */
+  public abstract void insertClientMetrics(Map<ClientMetrics, Float> clientMetricsMap);
+
   /** Save config of test */
   public abstract void saveTestConfig();
 
@@ -22,6 +22,7 @@ package cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.csv;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
 import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Constants;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.ClientMetrics;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.SystemMetrics;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.TestDataPersistence;
 import cn.edu.tsinghua.iotdb.benchmark.mode.enums.BenchmarkMode;
@@ -74,6 +75,7 @@ public class CSVRecorder extends TestDataPersistence {
   static FileWriter serverInfoWriter = null;
   static FileWriter confWriter = null;
   static FileWriter finalResultWriter = null;
+  static FileWriter clientInfoWriter = null;
   static String confDir;
   static String dataDir;
   static String csvDir;
@@ -116,6 +118,14 @@ public class CSVRecorder extends TestDataPersistence {
         }
         finalResultWriter = new FileWriter(csvDir + "/" + projectID + "_FINAL_RESULT.csv", true);
         projectWriter = new FileWriter(csvDir + "/" + projectID + "_DETAIL.csv", true);
+        if (config.isIS_CLIENT_MONITOR() && clientInfoWriter == null) {
+          clientInfoWriter = new FileWriter(csvDir + "/" + projectID + "_CLIENT.csv", true);
+          StringBuilder firstLine = new StringBuilder("id");
+          for (ClientMetrics clientMetrics : ClientMetrics.values()) {
+            firstLine.append(",").append(clientMetrics.name().toLowerCase());
+          }
+          clientInfoWriter.append(firstLine).append("\n");
+        }
       } else {
         serverInfoWriter =
             new FileWriter(csvDir + "/SERVER_MODE_" + localName + "_" + day + ".csv", true);
@@ -201,6 +211,22 @@ public class CSVRecorder extends TestDataPersistence {
     }
   }
 
+  @Override
+  public void insertClientMetrics(Map<ClientMetrics, Float> clientMetricsMap) {
+    StringBuilder client = new StringBuilder().append(System.currentTimeMillis());
+    for (ClientMetrics clientMetrics : ClientMetrics.values()) {
+      client.append(",").append(clientMetricsMap.get(clientMetrics));
+    }
+    client.append("\n");
+    try {
+      if (clientInfoWriter != null) {
+        clientInfoWriter.append(client);
+      }
+    } catch (IOException e) {
+      LOGGER.error("", e);
+    }
+  }
+
   @Override
   public void saveTestConfig() {
     StringBuffer str = new StringBuffer("id,configuration_item,configuration_value\n");
@@ -343,6 +369,10 @@ public class CSVRecorder extends TestDataPersistence {
         serverInfoWriter.flush();
         serverInfoWriter.close();
       }
+      if (clientInfoWriter != null) {
+        clientInfoWriter.flush();
+        clientInfoWriter.close();
+      }
     } catch (IOException ioException) {
       LOGGER.error("Failed to close writer", ioException);
     }
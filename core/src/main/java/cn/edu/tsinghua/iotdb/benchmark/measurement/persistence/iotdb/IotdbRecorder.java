@@ -112,6 +112,9 @@ public class IotdbRecorder extends TestDataPersistence {
     if (config.getBENCHMARK_WORK_MODE() == BenchmarkMode.TEST_WITH_DEFAULT_PATH) {
       initSingleTestMetrics();
       initResultMetrics();
+      if (config.isIS_CLIENT_MONITOR()) {
+        initClientMetrics();
+      }
     }
     if (config.getBENCHMARK_WORK_MODE() == BenchmarkMode.SERVER) {
       initSystemMetrics();
@@ -141,6 +144,29 @@ public class IotdbRecorder extends TestDataPersistence {
     }
   }
 
+  /** Client metrics include: root.test.localName.PROJECT_ID.CLIENT. */
+  private void initClientMetrics() {
+    try (Statement statement = connection.createStatement()) {
+      for (ClientMetrics clientMetric : ClientMetrics.values()) {
+        String createSeriesSql =
+            String.format(
+                CREATE_SERIES_SQL,
+                PATH_PREFIX + "." + localName + "." + PROJECT_ID + ".CLIENT." + clientMetric,
+                DOUBLE_TYPE,
+                ENCODING,
+                COMPRESS);
+        statement.addBatch(createSeriesSql);
+      }
+      statement.executeBatch();
+      statement.clearBatch();
+    } catch (SQLException e) {
+      // ignore if already has the time series
+      if (!e.getMessage().contains(ALREADY_KEYWORD)) {
+        LOGGER.error(CRETE_SCHEMA_ERROR_HINT, e);
+      }
+    }
+  }
+
   private void initResultMetrics() {
     try (Statement statement = connection.createStatement()) {
       for (Operation op : Operation.values()) {
@@ -237,6 +263,31 @@ public class IotdbRecorder extends TestDataPersistence {
     }
   }
 
+  @Override
+  public void insertClientMetrics(Map<ClientMetrics, Float> clientMetricsMap) {
+    try (Statement statement = connection.createStatement()) {
+      long currTime = System.currentTimeMillis();
+      currTime = currTime * 1000000;
+      StringBuffer builder =
+          new StringBuffer(INSERT_SQL_PREFIX)
+              .append(".")
+              .append(localName)
+              .append(".")
+              .append(PROJECT_ID)
+              .append(".CLIENT")
+              .append(INSERT_SQL_STR2);
+      StringBuffer valueBuilder = new StringBuffer(INSERT_SQL_STR1).append(currTime);
+      for (Map.Entry<ClientMetrics, Float> entry : clientMetricsMap.entrySet()) {
+        builder.append(",").append(entry.getKey());
+        valueBuilder.append(",").append(entry.getValue() == null ? 0 : entry.getValue());
+      }
+      builder.append(valueBuilder).append(")");
+      statement.execute(builder.toString());
+    } catch (SQLException e) {
+      LOGGER.error("Insert client metric data failed ", e);
+    }
+  }
+
   @Override
   protected void saveOperationResult(
       String operation, int okPoint, int failPoint, double latency, String remark, String device) {
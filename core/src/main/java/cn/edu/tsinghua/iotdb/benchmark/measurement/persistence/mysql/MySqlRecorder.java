@@ -22,6 +22,7 @@ package cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.mysql;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
 import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Constants;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.ClientMetrics;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.SystemMetrics;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.TestDataPersistence;
 import cn.edu.tsinghua.iotdb.benchmark.mode.enums.BenchmarkMode;
@@ -71,6 +72,9 @@ public class MySqlRecorder extends TestDataPersistence {
           config.getREMARK(),
           projectDateFormat.format(new java.util.Date(EXP_TIME)));
 
+  /** The table of the resources metrics of benchmark itself */
+  private static final String CLIENT_TABLE = PROJECT_ID + "_CLIENT";
+
   private static final String COMMENT =
       String.format(
           "%s_%s_%s_%s",
@@ -156,6 +160,16 @@ public class MySqlRecorder extends TestDataPersistence {
                 + "\";");
         LOGGER.info("Table {} create success!", PROJECT_ID);
       }
+      if (config.isIS_CLIENT_MONITOR() && !hasTable(CLIENT_TABLE)) {
+        StringBuilder sql = new StringBuilder("create table ").append(CLIENT_TABLE);
+        sql.append("(id BIGINT, ");
+        for (ClientMetrics clientMetrics : ClientMetrics.values()) {
+          sql.append(clientMetrics.name().toLowerCase()).append(" DOUBLE, ");
+        }
+        sql.append("primary key(id))");
+        statement.executeUpdate(sql.toString());
+        LOGGER.info("Table {} create success!", CLIENT_TABLE);
+      }
     } catch (SQLException e) {
       LOGGER.error("Failed to create tables in MySQL, because: ", e);
     }
@@ -193,6 +207,21 @@ public class MySqlRecorder extends TestDataPersistence {
     }
   }
 
+  @Override
+  public void insertClientMetrics(Map<ClientMetrics, Float> clientMetricsMap) {
+    StringBuilder sql = new StringBuilder("insert into ").append(CLIENT_TABLE);
+    sql.append(" values(").append(System.currentTimeMillis());
+    for (ClientMetrics clientMetrics : ClientMetrics.values()) {
+      sql.append(",").append(clientMetricsMap.get(clientMetrics));
+    }
+    sql.append(")");
+    try {
+      statement.executeUpdate(sql.toString());
+    } catch (SQLException e) {
+      LOGGER.error("{} insert into MySQL failed, because {}", sql, e);
+    }
+  }
+
   @Override
   protected void saveOperationResult(
       String operation, int okPoint, int failPoint, double latency, String remark, String device) {
@@ -293,6 +322,7 @@ public class MySqlRecorder extends TestDataPersistence {
         case CTSDB:
         case KairosDB:
         case FakeDB:
+        case MemoryDB:
         case TDengine:
         case QuestDB:
         case MSSQLSERVER:
@@ -19,6 +19,7 @@
 
 package cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.none;
 
+import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.ClientMetrics;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.SystemMetrics;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.TestDataPersistence;
 
@@ -31,6 +32,11 @@ public class NoneRecorder extends TestDataPersistence {
     // DO nothing
   }
 
+  @Override
+  public void insertClientMetrics(Map<ClientMetrics, Float> clientMetricsMap) {
+    // DO nothing
+  }
+
   @Override
   public void saveTestConfig() {
     // DO nothing
@@ -24,8 +24,10 @@ import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
 import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.Measurement;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.Timeline;
 import cn.edu.tsinghua.iotdb.benchmark.schema.MetaDataSchema;
 import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
+import cn.edu.tsinghua.iotdb.benchmark.syslog.ClientMonitor;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBWrapper;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.TsdbException;
@@ -53,6 +55,8 @@ public abstract class BaseMode {
   protected List<Client> clients = new ArrayList<>();
   protected Measurement measurement = new Measurement();
   protected long start = 0;
+  /** The monitor of benchmark itself, null if IS_CLIENT_MONITOR is false */
+  protected ClientMonitor clientMonitor = null;
 
   protected abstract boolean preCheck();
 
@@ -70,6 +74,7 @@ public abstract class BaseMode {
       executorService.submit(client);
     }
     start = System.nanoTime();
+    startMonitors();
     executorService.shutdown();
     try {
       // wait for all clients finish test
@@ -78,7 +83,38 @@ public abstract class BaseMode {
       LOGGER.error("Exception occurred during waiting for all threads finish.", e);
       Thread.currentThread().interrupt();
     }
+    stopMonitors();
     postCheck();
+    showMonitors();
+  }
+
+  /** Start the client monitor and the timeline if enabled, after start is set */
+  protected void startMonitors() {
+    if (config.isIS_CLIENT_MONITOR()) {
+      clientMonitor = new ClientMonitor();
+      clientMonitor.start(start);
+    }
+    if (config.isIS_TIMELINE()) {
+      Timeline.getInstance().start();
+    }
+  }
+
+  protected void stopMonitors() {
+    if (clientMonitor != null) {
+      clientMonitor.stop();
+    }
+    if (config.isIS_TIMELINE()) {
+      Timeline.getInstance().stop();
+    }
+  }
+
+  protected void showMonitors() {
+    if (clientMonitor != null) {
+      clientMonitor.showReport();
+    }
+    if (config.isIS_TIMELINE()) {
+      Timeline.getInstance().export();
+    }
   }
 
   protected abstract void postCheck();
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.mode;
+
+import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.Measurement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark mode: coordinatorMode. It waits for BENCHMARK_WORKER_NUMBER workers, assigns the
+ * BENCHMARK_INDEX (and so the device range) of each worker, lets the first worker clean up and
+ * register schema before the others, starts all workers together and prints the merged result of
+ * all workers.
+ */
+public class CoordinatorMode extends BaseMode {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CoordinatorMode.class);
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+
+  /** worker -> coordinator: connected */
+  static final byte HELLO = 1;
+  /** coordinator -> worker: BENCHMARK_INDEX of worker */
+  static final byte ASSIGN = 2;
+  /** coordinator -> worker: clean up and register schema */
+  static final byte PREPARE = 3;
+  /** worker -> coordinator: whether preparation succeeded */
+  static final byte READY = 4;
+  /** coordinator -> worker: start test */
+  static final byte START = 5;
+  /** coordinator -> worker: stop because some worker failed */
+  static final byte ABORT = 6;
+  /** worker -> coordinator: the merged measurement of worker */
+  static final byte RESULT = 7;
+
+  @Override
+  protected boolean preCheck() {
+    return true;
+  }
+
+  /** Start benchmark */
+  @Override
+  public void run() {
+    String coordinator = config.getBENCHMARK_COORDINATOR();
+    int port = Integer.parseInt(coordinator.substring(coordinator.lastIndexOf(':') + 1));
+    int workerNumber = config.getBENCHMARK_WORKER_NUMBER();
+    List<Worker> workers = new ArrayList<>();
+    try (ServerSocket serverSocket = new ServerSocket(port)) {
+      LOGGER.info("Waiting for {} workers on port {}", workerNumber, port);
+      while (workers.size() < workerNumber) {
+        Worker worker = new Worker(serverSocket.accept());
+        workers.add(worker);
+        worker.expect(HELLO);
+        LOGGER.info("Worker {} connected from {}", workers.size() - 1, worker.getAddress());
+      }
+      for (int i = 0; i < workerNumber; i++) {
+        workers.get(i).send(ASSIGN, i);
+      }
+      // the first worker cleans up before the others register schema
+      workers.get(0).send(PREPARE);
+      boolean ready = workers.get(0).waitReady();
+      if (ready) {
+        for (int i = 1; i < workerNumber; i++) {
+          workers.get(i).send(PREPARE);
+        }
+        for (int i = 1; i < workerNumber; i++) {
+          ready &= workers.get(i).waitReady();
+        }
+      }
+      for (Worker worker : workers) {
+        worker.send(ready ? START : ABORT);
+      }
+      if (!ready) {
+        LOGGER.error("Some workers failed to prepare, stop test.");
+        return;
+      }
+      LOGGER.info("All workers started.");
+      for (int i = 0; i < workerNumber; i++) {
+        workers.get(i).expect(RESULT);
+        measurement.mergeMergedMeasurement(Measurement.deserialize(workers.get(i).input));
+        LOGGER.info("Worker {} finished.", i);
+      }
+    } catch (IOException e) {
+      LOGGER.error("Failed to coordinate workers because ", e);
+      return;
+    } finally {
+      for (Worker worker : workers) {
+        worker.close();
+      }
+    }
+    postCheck();
+  }
+
+  @Override
+  protected void postCheck() {
+    List<Operation> operations = Operation.getNormalOperation();
+    System.out.println("Merged result of " + config.getBENCHMARK_WORKER_NUMBER() + " workers:");
+    if (config.isUSE_MEASUREMENT()) {
+      measurement.calculateMetrics(operations);
+      measurement.showMeasurements(operations);
+      measurement.showMetrics(operations);
+    }
+    if (config.isCSV_OUTPUT()) {
+      measurement.outputCSV();
+    }
+  }
+
+  private static class Worker {
+    private final Socket socket;
+    private final DataInputStream input;
+    private final DataOutputStream output;
+
+    private Worker(Socket socket) throws IOException {
+      this.socket = socket;
+      this.input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      this.output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    private void send(byte command) throws IOException {
+      output.writeByte(command);
+      output.flush();
+    }
+
+    private void send(byte command, int value) throws IOException {
+      output.writeByte(command);
+      output.writeInt(value);
+      output.flush();
+    }
+
+    /** Wait for the worker to prepare and return whether it succeeded */
+    private boolean waitReady() throws IOException {
+      expect(READY);
+      return input.readBoolean();
+    }
+
+    private void expect(byte command) throws IOException {
+      byte received = input.readByte();
+      if (received != command) {
+        throw new IOException("Expect command " + command + " from worker but got " + received);
+      }
+    }
+
+    private String getAddress() {
+      return socket.getRemoteSocketAddress().toString();
+    }
+
+    private void close() {
+      try {
+        socket.close();
+      } catch (IOException e) {
+        LOGGER.warn("Failed to close connection of worker {}", getAddress(), e);
+      }
+    }
+  }
+}
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.mode;
+
+import cn.edu.tsinghua.iotdb.benchmark.client.Client;
+import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
+import cn.edu.tsinghua.iotdb.benchmark.client.pipeline.PipelineGenerateClient;
+import cn.edu.tsinghua.iotdb.benchmark.client.pipeline.PipelineWriter;
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.Measurement;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
+import cn.edu.tsinghua.iotdb.benchmark.utils.RingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ingest by an in-process pipeline: CLIENT_NUMBER clients generate batches into a bounded ring
+ * buffer of each database, and PIPELINE_WRITER_NUMBER writers of each database drain it. The
+ * generation rate, the queue depth and the write rate are reported separately, so the throughput
+ * of database is not limited by the cost of generating data.
+ */
+public class PipelineMode extends TestWithDefaultPathMode {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PipelineMode.class);
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+
+  private static final double NANO_TO_SECOND = 1000000000.0d;
+  /** The interval of sampling the depth of queues in ms */
+  private static final long QUEUE_SAMPLE_INTERVAL_MS = 100;
+  private static final String RESULT_ITEM = "%-25s";
+
+  private final List<RingBuffer<Batch>> queues = new ArrayList<>();
+  /** The DB_SWITCH of each queue */
+  private final List<String> queueNames = new ArrayList<>();
+  private final List<PipelineWriter> writers = new ArrayList<>();
+  private final AtomicBoolean generateFinished = new AtomicBoolean(false);
+  private final AtomicBoolean aborted = new AtomicBoolean(false);
+  /** The sum, the max and the sample number of queue depth of each queue */
+  private long[] depthSum;
+  private int[] depthMax;
+  private long depthSampleNum = 0;
+  private double elapseTime = 0;
+
+  @Override
+  public void run() {
+    if (!preCheck()) {
+      return;
+    }
+    List<DBConfig> dbConfigs = new ArrayList<>();
+    dbConfigs.add(config.getDbConfig());
+    if (config.isIS_DOUBLE_WRITE()) {
+      dbConfigs.add(config.getANOTHER_DBConfig());
+    }
+    int writerNumber = config.getPIPELINE_WRITER_NUMBER() * dbConfigs.size();
+    int threadNumber = config.getCLIENT_NUMBER() + writerNumber;
+    CyclicBarrier pipelineBarrier = new CyclicBarrier(threadNumber);
+    CountDownLatch generateLatch = new CountDownLatch(config.getCLIENT_NUMBER());
+    CountDownLatch writeLatch = new CountDownLatch(writerNumber);
+    ExecutorService pipelineService = Executors.newFixedThreadPool(threadNumber);
+
+    for (DBConfig dbConfig : dbConfigs) {
+      RingBuffer<Batch> queue = new RingBuffer<>(config.getPIPELINE_QUEUE_SIZE());
+      queues.add(queue);
+      queueNames.add(dbConfig.getDB_SWITCH().toString());
+      for (int i = 0; i < config.getPIPELINE_WRITER_NUMBER(); i++) {
+        writers.add(
+            new PipelineWriter(
+                dbConfig, queue, generateFinished, aborted, writeLatch, pipelineBarrier));
+      }
+    }
+    for (int i = 0; i < config.getCLIENT_NUMBER(); i++) {
+      clients.add(
+          new PipelineGenerateClient(i, generateLatch, pipelineBarrier, queues, aborted));
+    }
+    writers.forEach(pipelineService::submit);
+    clients.forEach(pipelineService::submit);
+    start = System.nanoTime();
+    startMonitors();
+    pipelineService.shutdown();
+
+    depthSum = new long[queues.size()];
+    depthMax = new int[queues.size()];
+    ScheduledExecutorService sampleService = Executors.newSingleThreadScheduledExecutor();
+    sampleService.scheduleAtFixedRate(
+        this::sampleQueueDepth, 0, QUEUE_SAMPLE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    try {
+      generateLatch.await();
+      generateFinished.set(true);
+      writeLatch.await();
+    } catch (InterruptedException e) {
+      LOGGER.error("Exception occurred during waiting for all threads finish.", e);
+      Thread.currentThread().interrupt();
+    }
+    elapseTime = (System.nanoTime() - start) / NANO_TO_SECOND;
+    sampleService.shutdownNow();
+    stopMonitors();
+    if (aborted.get()) {
+      LOGGER.error("Pipeline is aborted, the result only covers the batches written before.");
+    }
+    postCheck();
+    showMonitors();
+  }
+
+  private synchronized void sampleQueueDepth() {
+    for (int i = 0; i < queues.size(); i++) {
+      int depth = queues.get(i).size();
+      depthSum[i] += depth;
+      depthMax[i] = Math.max(depthMax[i], depth);
+    }
+    depthSampleNum++;
+  }
+
+  @Override
+  protected void postCheck() {
+    List<Operation> operations = new ArrayList<>();
+    operations.add(Operation.INGESTION);
+    List<Measurement> writerMeasurements = new ArrayList<>();
+    for (PipelineWriter writer : writers) {
+      writerMeasurements.add(writer.getMeasurement());
+    }
+    // the operations during warm-up are not measured, so is the time
+    long measureStart = start + TimeUnit.SECONDS.toNanos(config.getWARMUP_DURATION());
+    measureStart = Math.min(measureStart, System.nanoTime());
+    finalMeasure(measurement, writerMeasurements, measureStart, new ArrayList<>(), operations);
+    showPipeline();
+  }
+
+  /** Show the rate of generation and writing, and the depth of queues */
+  private synchronized void showPipeline() {
+    System.out.println(
+        "---------------------------------------------------------Pipeline Matrix---------------------------------------------------------");
+    StringBuffer format = new StringBuffer();
+    for (int i = 0; i < 6; i++) {
+      format.append(RESULT_ITEM);
+    }
+    format.append("\n");
+    System.out.printf(
+        format.toString(),
+        "Stage",
+        "thread",
+        "batch",
+        "point",
+        "throughput(point/s)",
+        "busyRate(point/s)");
+    long batchNum = 0;
+    long pointNum = 0;
+    long busyTime = 0;
+    for (Client client : clients) {
+      PipelineGenerateClient generateClient = (PipelineGenerateClient) client;
+      batchNum += generateClient.getBatchNum();
+      pointNum += generateClient.getPointNum();
+      busyTime += generateClient.getGenerateTime();
+    }
+    printStage(format.toString(), "generate", clients.size(), batchNum, pointNum, busyTime);
+    for (int i = 0; i < queues.size(); i++) {
+      batchNum = 0;
+      pointNum = 0;
+      busyTime = 0;
+      int writerNumber = config.getPIPELINE_WRITER_NUMBER();
+      for (PipelineWriter writer : writers.subList(i * writerNumber, (i + 1) * writerNumber)) {
+        batchNum += writer.getBatchNum();
+        pointNum += writer.getPointNum();
+        busyTime += writer.getWriteTime();
+      }
+      String name = "write(" + queueNames.get(i) + ")";
+      printStage(format.toString(), name, writerNumber, batchNum, pointNum, busyTime);
+    }
+    long blockedTime = 0;
+    for (Client client : clients) {
+      blockedTime += ((PipelineGenerateClient) client).getBlockedTime();
+    }
+    System.out.println(
+        "Generate clients blocked by full queues for "
+            + String.format("%.2f", blockedTime / NANO_TO_SECOND / Math.max(1, clients.size()))
+            + " second on average");
+    String queueFormat = RESULT_ITEM + RESULT_ITEM + RESULT_ITEM + RESULT_ITEM + "\n";
+    System.out.printf(queueFormat, "Queue", "capacity", "avgDepth", "maxDepth");
+    for (int i = 0; i < queues.size(); i++) {
+      double avgDepth = depthSampleNum == 0 ? 0 : (double) depthSum[i] / depthSampleNum;
+      System.out.printf(
+          queueFormat,
+          "queue(" + queueNames.get(i) + ")",
+          queues.get(i).capacity(),
+          String.format("%.2f", avgDepth),
+          depthMax[i]);
+    }
+    System.out.println(
+        "---------------------------------------------------------------------------------------------------------------------------------");
+  }
+
+  /**
+   * Show one stage of pipeline, the busy rate is the rate of the threads while they are working,
+   * which is the capacity of this stage when it is not waiting for the other stage
+   */
+  private void printStage(
+      String format, String name, int threadNumber, long batchNum, long pointNum, long busyTime) {
+    double throughput = elapseTime > 0 ? pointNum / elapseTime : 0;
+    double busySecond = busyTime / NANO_TO_SECOND / Math.max(1, threadNumber);
+    double busyRate = busySecond > 0 ? pointNum / busySecond : 0;
+    System.out.printf(
+        format,
+        name,
+        threadNumber,
+        batchNum,
+        pointNum,
+        String.format("%.2f", throughput),
+        String.format("%.2f", busyRate));
+  }
+}
@@ -28,6 +28,7 @@ import cn.edu.tsinghua.iotdb.benchmark.syslog.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.*;
 
@@ -50,110 +51,137 @@ public class ServerMode extends BaseMode {
   public void run() {
     PersistenceFactory persistenceFactory = new PersistenceFactory();
     TestDataPersistence recorder = persistenceFactory.getPersistence();
-
-    float abnormalValue = -1;
-
-    Map<FileSize.FileSizeKinds, Float> fileSizeStatistics =
-        new EnumMap<>(FileSize.FileSizeKinds.class);
-
-    for (FileSize.FileSizeKinds kinds : FileSize.FileSizeKinds.values()) {
-      fileSizeStatistics.put(kinds, abnormalValue);
+    ServerMetricsServer metricsServer = null;
+    if (config.getSERVER_METRICS_PORT() > 0) {
+      try {
+        metricsServer = new ServerMetricsServer(config.getSERVER_METRICS_PORT());
+      } catch (IOException e) {
+        LOGGER.error("Failed to serve server metrics on {}", config.getSERVER_METRICS_PORT(), e);
+      }
     }
 
-    HashMap<IoUsage.IOStatistics, Float> ioStatistics;
-    int interval = config.getMONITOR_INTERVAL();
+    boolean useProc = config.isIS_PROC_MONITOR() && ProcSampler.isAvailable();
+    if (config.isIS_PROC_MONITOR() && !useProc) {
+      LOGGER.warn("/proc is not available, use iostat, free and du to monitor instead");
+    }
+    long interval =
+        config.getMONITOR_INTERVAL_MS() > 0
+            ? config.getMONITOR_INTERVAL_MS()
+            : config.getMONITOR_INTERVAL() * 1000L;
     boolean headerPrinted = false;
     SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
-    // The minimum of interval is 2s
     while (true) {
       long start = System.currentTimeMillis();
-      ArrayList<Float> ioUsageList = IoUsage.getInstance().get();
-      LOGGER.debug(
-          "IoUsage.getInstance().get() consume ,{}, ms", System.currentTimeMillis() - start);
-      start = System.currentTimeMillis();
-      ArrayList<Float> netUsageList = NetUsage.getInstance().get();
-      LOGGER.debug(
-          "NetUsage.getInstance().get() consume ,{}, ms", System.currentTimeMillis() - start);
-      start = System.currentTimeMillis();
-      fileSizeStatistics = FileSize.getInstance().getFileSize();
-      LOGGER.debug(
-          "FileSize.getInstance().getFileSize() consume ,{}, ms",
-          System.currentTimeMillis() - start);
-      start = System.currentTimeMillis();
-      ioStatistics = IoUsage.getInstance().getIOStatistics();
-      LOGGER.debug(
-          "IoUsage.getInstance().getIOStatistics() consume ,{}, ms",
-          System.currentTimeMillis() - start);
-      start = System.currentTimeMillis();
-      double memRate = MemUsage.getInstance().get();
-      LOGGER.debug(
-          "MemUsage.getInstance().get() consume ,{}, ms", System.currentTimeMillis() - start);
-      start = System.currentTimeMillis();
-      double proMem = MemUsage.getInstance().getProcessMemUsage();
-      LOGGER.debug(
-          "MemUsage.getInstance().getProcessMemUsage() consume ,{}, ms",
-          System.currentTimeMillis() - start);
+      Map<SystemMetrics, Float> systemMetricsMap;
+      int pid;
+      if (useProc) {
+        systemMetricsMap = ProcSampler.getInstance().sample();
+        pid = ProcSampler.getInstance().getPid();
+        LOGGER.debug(
+            "ProcSampler.getInstance().sample() consume ,{}, ms",
+            System.currentTimeMillis() - start);
+      } else {
+        systemMetricsMap = collectByCommand();
+        pid = OpenFileStatistics.getInstance().getPid();
+      }
 
       if (!headerPrinted) {
         LOGGER.info(
-            ",测量时间,PID,内存使用大小GB,内存使用率,CPU使用率,磁盘IO使用率,磁盘TPS,读速率MB/s,写速率MB/s,网卡接收速率KB/s,网卡发送速率KB/s,data文件大小GB,system文件大小GB,sequence文件大小GB,unsequence文件大小GB,wal文件大小GB");
+            ",测量时间,PID,内存使用大小GB,内存使用率,CPU使用率,磁盘IO使用率,磁盘TPS,读速率MB/s,写速率MB/s,网卡接收速率KB/s,网卡发送速率KB/s,data文件大小GB,system文件大小GB,sequence文件大小GB,unsequence文件大小GB,wal文件大小GB,打开文件数");
         headerPrinted = true;
       }
       String time = sdf.format(new Date(start));
       LOGGER.info(
-          ",{},{},{},{},{},{},{},{},{},{},{},{},{},{},{},{}",
+          ",{},{},{},{},{},{},{},{},{},{},{},{},{},{},{},{},{}",
           time,
-          OpenFileStatistics.getInstance().getPid(),
-          proMem,
-          memRate,
-          ioUsageList.get(0),
-          ioUsageList.get(1),
-          ioStatistics.get(IoUsage.IOStatistics.TPS),
-          ioStatistics.get(IoUsage.IOStatistics.MB_READ),
-          ioStatistics.get(IoUsage.IOStatistics.MB_WRTN),
-          netUsageList.get(0),
-          netUsageList.get(1),
-          fileSizeStatistics.get(FileSize.FileSizeKinds.DATA),
-          fileSizeStatistics.get(FileSize.FileSizeKinds.SYSTEM),
-          fileSizeStatistics.get(FileSize.FileSizeKinds.SEQUENCE),
-          fileSizeStatistics.get(FileSize.FileSizeKinds.UN_SEQUENCE),
-          fileSizeStatistics.get(FileSize.FileSizeKinds.WAL));
-
-      Map<SystemMetrics, Float> systemMetricsMap = new EnumMap<>(SystemMetrics.class);
-      systemMetricsMap.put(SystemMetrics.CPU_USAGE, ioUsageList.get(0));
-      systemMetricsMap.put(SystemMetrics.MEM_USAGE, MemUsage.getInstance().get());
-      systemMetricsMap.put(SystemMetrics.DISK_IO_USAGE, ioUsageList.get(1));
-      systemMetricsMap.put(SystemMetrics.NETWORK_R_RATE, netUsageList.get(0));
-      systemMetricsMap.put(SystemMetrics.NETWORK_S_RATE, netUsageList.get(1));
-      systemMetricsMap.put(
-          SystemMetrics.PROCESS_MEM_SIZE, MemUsage.getInstance().getProcessMemUsage());
-      systemMetricsMap.put(
-          SystemMetrics.DATA_FILE_SIZE, fileSizeStatistics.get(FileSize.FileSizeKinds.DATA));
-      systemMetricsMap.put(
-          SystemMetrics.SYSTEM_FILE_SIZE, fileSizeStatistics.get(FileSize.FileSizeKinds.SYSTEM));
-      systemMetricsMap.put(
-          SystemMetrics.SEQUENCE_FILE_SIZE,
-          fileSizeStatistics.get(FileSize.FileSizeKinds.SEQUENCE));
-      systemMetricsMap.put(
-          SystemMetrics.UN_SEQUENCE_FILE_SIZE,
-          fileSizeStatistics.get(FileSize.FileSizeKinds.UN_SEQUENCE));
-      systemMetricsMap.put(
-          SystemMetrics.WAL_FILE_SIZE, fileSizeStatistics.get(FileSize.FileSizeKinds.WAL));
-      systemMetricsMap.put(SystemMetrics.DISK_TPS, ioStatistics.get(IoUsage.IOStatistics.TPS));
-      systemMetricsMap.put(
-          SystemMetrics.DISK_READ_SPEED_MB, ioStatistics.get(IoUsage.IOStatistics.MB_READ));
-      systemMetricsMap.put(
-          SystemMetrics.DISK_WRITE_SPEED_MB, ioStatistics.get(IoUsage.IOStatistics.MB_WRTN));
+          pid,
+          systemMetricsMap.get(SystemMetrics.PROCESS_MEM_SIZE),
+          systemMetricsMap.get(SystemMetrics.MEM_USAGE),
+          systemMetricsMap.get(SystemMetrics.CPU_USAGE),
+          systemMetricsMap.get(SystemMetrics.DISK_IO_USAGE),
+          systemMetricsMap.get(SystemMetrics.DISK_TPS),
+          systemMetricsMap.get(SystemMetrics.DISK_READ_SPEED_MB),
+          systemMetricsMap.get(SystemMetrics.DISK_WRITE_SPEED_MB),
+          systemMetricsMap.get(SystemMetrics.NETWORK_R_RATE),
+          systemMetricsMap.get(SystemMetrics.NETWORK_S_RATE),
+          systemMetricsMap.get(SystemMetrics.DATA_FILE_SIZE),
+          systemMetricsMap.get(SystemMetrics.SYSTEM_FILE_SIZE),
+          systemMetricsMap.get(SystemMetrics.SEQUENCE_FILE_SIZE),
+          systemMetricsMap.get(SystemMetrics.UN_SEQUENCE_FILE_SIZE),
+          systemMetricsMap.get(SystemMetrics.WAL_FILE_SIZE),
+          systemMetricsMap.getOrDefault(SystemMetrics.OPEN_FILE_NUMBER, -1f));
       recorder.insertSystemMetrics(systemMetricsMap);
+      if (metricsServer != null) {
+        metricsServer.update(start, systemMetricsMap);
+      }
 
+      // the commands take seconds, so their time is not deducted as before
+      long sleepTime = useProc ? interval - (System.currentTimeMillis() - start) : interval;
       try {
-        Thread.sleep(interval * 1000L);
+        if (sleepTime > 0) {
+          Thread.sleep(sleepTime);
+        }
       } catch (Exception e) {
         LOGGER.error("sleep failed", e);
       }
     }
   }
 
+  /** Collect system metrics by iostat, free, pmap and du, the minimum of interval is 2s */
+  private Map<SystemMetrics, Float> collectByCommand() {
+    long start = System.currentTimeMillis();
+    ArrayList<Float> ioUsageList = IoUsage.getInstance().get();
+    LOGGER.debug("IoUsage.getInstance().get() consume ,{}, ms", System.currentTimeMillis() - start);
+    start = System.currentTimeMillis();
+    ArrayList<Float> netUsageList = NetUsage.getInstance().get();
+    LOGGER.debug(
+        "NetUsage.getInstance().get() consume ,{}, ms", System.currentTimeMillis() - start);
+    start = System.currentTimeMillis();
+    Map<FileSize.FileSizeKinds, Float> fileSizeStatistics = FileSize.getInstance().getFileSize();
+    LOGGER.debug(
+        "FileSize.getInstance().getFileSize() consume ,{}, ms",
+        System.currentTimeMillis() - start);
+    start = System.currentTimeMillis();
+    HashMap<IoUsage.IOStatistics, Float> ioStatistics = IoUsage.getInstance().getIOStatistics();
+    LOGGER.debug(
+        "IoUsage.getInstance().getIOStatistics() consume ,{}, ms",
+        System.currentTimeMillis() - start);
+    start = System.currentTimeMillis();
+    float memRate = MemUsage.getInstance().get();
+    LOGGER.debug(
+        "MemUsage.getInstance().get() consume ,{}, ms", System.currentTimeMillis() - start);
+    start = System.currentTimeMillis();
+    float proMem = MemUsage.getInstance().getProcessMemUsage();
+    LOGGER.debug(
+        "MemUsage.getInstance().getProcessMemUsage() consume ,{}, ms",
+        System.currentTimeMillis() - start);
+
+    Map<SystemMetrics, Float> systemMetricsMap = new EnumMap<>(SystemMetrics.class);
+    systemMetricsMap.put(SystemMetrics.CPU_USAGE, ioUsageList.get(0));
+    systemMetricsMap.put(SystemMetrics.MEM_USAGE, memRate);
+    systemMetricsMap.put(SystemMetrics.DISK_IO_USAGE, ioUsageList.get(1));
+    systemMetricsMap.put(SystemMetrics.NETWORK_R_RATE, netUsageList.get(0));
+    systemMetricsMap.put(SystemMetrics.NETWORK_S_RATE, netUsageList.get(1));
+    systemMetricsMap.put(SystemMetrics.PROCESS_MEM_SIZE, proMem);
+    systemMetricsMap.put(
+        SystemMetrics.DATA_FILE_SIZE, fileSizeStatistics.get(FileSize.FileSizeKinds.DATA));
+    systemMetricsMap.put(
+        SystemMetrics.SYSTEM_FILE_SIZE, fileSizeStatistics.get(FileSize.FileSizeKinds.SYSTEM));
+    systemMetricsMap.put(
+        SystemMetrics.SEQUENCE_FILE_SIZE, fileSizeStatistics.get(FileSize.FileSizeKinds.SEQUENCE));
+    systemMetricsMap.put(
+        SystemMetrics.UN_SEQUENCE_FILE_SIZE,
+        fileSizeStatistics.get(FileSize.FileSizeKinds.UN_SEQUENCE));
+    systemMetricsMap.put(
+        SystemMetrics.WAL_FILE_SIZE, fileSizeStatistics.get(FileSize.FileSizeKinds.WAL));
+    systemMetricsMap.put(SystemMetrics.DISK_TPS, ioStatistics.get(IoUsage.IOStatistics.TPS));
+    systemMetricsMap.put(
+        SystemMetrics.DISK_READ_SPEED_MB, ioStatistics.get(IoUsage.IOStatistics.MB_READ));
+    systemMetricsMap.put(
+        SystemMetrics.DISK_WRITE_SPEED_MB, ioStatistics.get(IoUsage.IOStatistics.MB_WRTN));
+    return systemMetricsMap;
+  }
+
   @Override
   protected void postCheck() {}
 }
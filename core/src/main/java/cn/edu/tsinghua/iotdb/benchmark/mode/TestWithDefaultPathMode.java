@@ -19,6 +19,10 @@
 
 package cn.edu.tsinghua.iotdb.benchmark.mode;
 
+import cn.edu.tsinghua.iotdb.benchmark.client.Client;
+import cn.edu.tsinghua.iotdb.benchmark.client.generate.BatchSizeTuner;
+import cn.edu.tsinghua.iotdb.benchmark.client.generate.GenerateDataAutoTuneClient;
+import cn.edu.tsinghua.iotdb.benchmark.client.generate.GenerateDataStageClient;
 import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
 import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
@@ -26,9 +30,12 @@ import cn.edu.tsinghua.iotdb.benchmark.measurement.Measurement;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.PersistenceFactory;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.TestDataPersistence;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
+import cn.edu.tsinghua.iotdb.benchmark.workload.SaturationSearch;
+import cn.edu.tsinghua.iotdb.benchmark.workload.WorkloadStage;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class TestWithDefaultPathMode extends BaseMode {
 
@@ -56,6 +63,89 @@ public class TestWithDefaultPathMode extends BaseMode {
       operations.add(Operation.DEVICE_QUERY);
     }
     List<Measurement> threadsMeasurements = new ArrayList<>();
-    finalMeasure(measurement, threadsMeasurements, start, clients, operations);
+    if (config.isIS_SATURATION_SEARCH()) {
+      // the total result is merged from the measurements of all steps
+      for (Client client : clients) {
+        threadsMeasurements.addAll(((GenerateDataStageClient) client).getStageMeasurements());
+      }
+      finalMeasure(measurement, threadsMeasurements, start, new ArrayList<>(), operations);
+      SaturationSearch.getInstance().showResult();
+    } else if (!clients.isEmpty() && clients.get(0) instanceof GenerateDataStageClient) {
+      // the total result is merged from the measurements of all stages
+      threadsMeasurements.addAll(stageMeasure(operations));
+      finalMeasure(measurement, threadsMeasurements, start, new ArrayList<>(), operations);
+    } else {
+      long measureStart = start;
+      if (!config.isIS_POINT_COMPARISON()) {
+        // the operations during warm-up are not measured, so is the time
+        measureStart += TimeUnit.SECONDS.toNanos(config.getWARMUP_DURATION());
+        measureStart = Math.min(measureStart, System.nanoTime());
+      }
+      finalMeasure(measurement, threadsMeasurements, measureStart, clients, operations);
+    }
+    if (config.isIS_BATCH_AUTO_TUNE()) {
+      showAutoTuneResult();
+    }
+  }
+
+  /** Show the converged batch size and the throughput curve of each client */
+  private void showAutoTuneResult() {
+    System.out.println("Batch size auto-tune:");
+    String format = "%-12s%-12s%-25s%-20s%-15s%n";
+    for (int clientId = 0; clientId < clients.size(); clientId++) {
+      BatchSizeTuner tuner = ((GenerateDataAutoTuneClient) clients.get(clientId)).getTuner();
+      System.out.println(
+          "Client "
+              + clientId
+              + (tuner.isConverged() ? " converged to " : " stopped at ")
+              + "batch size "
+              + tuner.getBatchSize());
+      System.out.printf(
+          format, "Window", "BatchSize", "Throughput(point/s)", "AvgLatency(ms)", "SLOViolated");
+      List<BatchSizeTuner.Window> windows = tuner.getWindows();
+      for (int i = 0; i < windows.size(); i++) {
+        BatchSizeTuner.Window window = windows.get(i);
+        System.out.printf(
+            format,
+            i,
+            window.getBatchSize(),
+            String.format("%.2f", window.getThroughput()),
+            String.format("%.2f", window.getAvgLatency()),
+            window.isSloViolated());
+      }
+    }
+  }
+
+  /**
+   * Show the result of each stage
+   *
+   * @return the measurements of all stages of all clients
+   */
+  private List<Measurement> stageMeasure(List<Operation> operations) {
+    List<Measurement> allStageMeasurements = new ArrayList<>();
+    List<WorkloadStage> stages = config.getWORKLOAD_STAGES();
+    for (int i = 0; i < stages.size(); i++) {
+      Measurement stageMeasurement = new Measurement();
+      stageMeasurement.setCreateSchemaTime(measurement.getCreateSchemaTime());
+      double elapseTime = 0;
+      for (Client client : clients) {
+        List<Measurement> clientMeasurements =
+            ((GenerateDataStageClient) client).getStageMeasurements();
+        if (i < clientMeasurements.size()) {
+          Measurement m = clientMeasurements.get(i);
+          stageMeasurement.mergeMeasurement(m);
+          elapseTime = Math.max(elapseTime, m.getElapseTime());
+          allStageMeasurements.add(m);
+        }
+      }
+      stageMeasurement.setElapseTime(elapseTime);
+      System.out.println("Stage " + stages.get(i) + ":");
+      if (config.isUSE_MEASUREMENT()) {
+        stageMeasurement.calculateMetrics(operations);
+        stageMeasurement.showMeasurements(operations);
+        stageMeasurement.showMetrics(operations);
+      }
+    }
+    return allStageMeasurements;
   }
 }
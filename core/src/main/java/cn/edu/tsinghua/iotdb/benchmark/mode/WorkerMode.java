@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.mode;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * testWithDefaultPath as a worker of coordinatorMode. The worker gets its BENCHMARK_INDEX from the
+ * coordinator, starts test when all workers are ready and sends its result to the coordinator.
+ */
+public class WorkerMode extends TestWithDefaultPathMode {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WorkerMode.class);
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+
+  private static final int CONNECT_RETRY_TIMES = 60;
+  private static final long CONNECT_RETRY_INTERVAL_MS = 1000;
+
+  private Socket socket;
+  private DataInputStream input;
+  private DataOutputStream output;
+
+  @Override
+  protected boolean preCheck() {
+    try {
+      connect();
+      output.writeByte(CoordinatorMode.HELLO);
+      output.flush();
+      expect(CoordinatorMode.ASSIGN);
+      int index = input.readInt();
+      // must be set before the schema is created
+      config.setBENCHMARK_CLUSTER(true);
+      config.setBENCHMARK_INDEX(index);
+      config.setFIRST_DEVICE_INDEX(index * config.getDEVICE_NUMBER());
+      if (index != 0 && config.isIS_DELETE_DATA()) {
+        LOGGER.info("Only the first worker deletes data.");
+        config.setIS_DELETE_DATA(false);
+      }
+      LOGGER.info("Assigned BENCHMARK_INDEX={} by coordinator.", index);
+      expect(CoordinatorMode.PREPARE);
+      boolean ready = super.preCheck();
+      output.writeByte(CoordinatorMode.READY);
+      output.writeBoolean(ready);
+      output.flush();
+      if (input.readByte() != CoordinatorMode.START) {
+        LOGGER.error("Test is aborted by coordinator.");
+        ready = false;
+      }
+      if (!ready) {
+        close();
+      }
+      return ready;
+    } catch (IOException e) {
+      LOGGER.error("Failed to communicate with coordinator because ", e);
+      close();
+      return false;
+    }
+  }
+
+  @Override
+  protected void postCheck() {
+    super.postCheck();
+    try {
+      output.writeByte(CoordinatorMode.RESULT);
+      measurement.serialize(output);
+      output.flush();
+    } catch (IOException e) {
+      LOGGER.error("Failed to send result to coordinator because ", e);
+    } finally {
+      close();
+    }
+  }
+
+  /** Connect to coordinator, retry if the coordinator is not started yet */
+  private void connect() throws IOException {
+    String coordinator = config.getBENCHMARK_COORDINATOR();
+    int split = coordinator.lastIndexOf(':');
+    String host = coordinator.substring(0, split);
+    int port = Integer.parseInt(coordinator.substring(split + 1));
+    for (int i = 0; ; i++) {
+      try {
+        socket = new Socket(host, port);
+        break;
+      } catch (IOException e) {
+        if (i >= CONNECT_RETRY_TIMES) {
+          throw e;
+        }
+        LOGGER.info("Coordinator {} is not ready, retry later.", coordinator);
+        try {
+          Thread.sleep(CONNECT_RETRY_INTERVAL_MS);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          throw e;
+        }
+      }
+    }
+    input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+  }
+
+  private void expect(byte command) throws IOException {
+    byte received = input.readByte();
+    if (received != command) {
+      throw new IOException("Expect command " + command + " from coordinator but got " + received);
+    }
+  }
+
+  private void close() {
+    if (socket != null) {
+      try {
+        socket.close();
+      } catch (IOException e) {
+        LOGGER.warn("Failed to close connection of coordinator", e);
+      }
+    }
+  }
+}
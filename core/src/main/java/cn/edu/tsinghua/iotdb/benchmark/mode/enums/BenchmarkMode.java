@@ -27,7 +27,8 @@ public enum BenchmarkMode {
   GENERATE_DATA("generateDataMode"),
   VERIFICATION_WRITE("verificationWriteMode"),
   VERIFICATION_QUERY("verificationQueryMode"),
-  SERVER("serverMODE");
+  SERVER("serverMODE"),
+  COORDINATOR("coordinatorMode");
 
   private static final Logger LOGGER = LoggerFactory.getLogger(BenchmarkMode.class);
   public String mode;
@@ -75,6 +75,11 @@ public abstract class MetaDataSchema {
     }
   }
 
+  /** Get DeviceSchema by deviceId, only for synthetic data set */
+  public DeviceSchema getDeviceSchemaById(int deviceId) {
+    return getDeviceSchemaByName(MetaUtil.getDeviceName(deviceId));
+  }
+
   /** Get DeviceSchema by clientId */
   public List<DeviceSchema> getDeviceSchemaByClientId(int clientId) {
     return CLIENT_DATA_SCHEMA.get(clientId);
@@ -23,6 +23,7 @@ import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
 import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Constants;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
+import cn.edu.tsinghua.iotdb.benchmark.mode.enums.BenchmarkMode;
 import cn.edu.tsinghua.iotdb.benchmark.schema.MetaDataSchema;
 import cn.edu.tsinghua.iotdb.benchmark.schema.MetaUtil;
 import cn.edu.tsinghua.iotdb.benchmark.source.CSVSchemaReader;
@@ -36,6 +37,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -93,10 +95,25 @@ public class RealMetaDataSchema extends MetaDataSchema {
       clientFiles.add(new ArrayList<>());
     }
 
-    for (int i = 0; i < files.size(); i++) {
-      String filePath = files.get(i);
-      int clientId = i % config.getCLIENT_NUMBER();
-      clientFiles.get(clientId).add(filePath);
+    if (config.getBENCHMARK_WORK_MODE() == BenchmarkMode.VERIFICATION_QUERY
+        && config.isIS_RANGE_VERIFICATION()) {
+      // all files of one device are verified by one client, so its ranges are contiguous
+      Map<String, Integer> deviceClients = new HashMap<>();
+      for (String filePath : files) {
+        String deviceName = new File(filePath).getParentFile().getName();
+        Integer clientId = deviceClients.get(deviceName);
+        if (clientId == null) {
+          clientId = deviceClients.size() % config.getCLIENT_NUMBER();
+          deviceClients.put(deviceName, clientId);
+        }
+        clientFiles.get(clientId).add(filePath);
+      }
+    } else {
+      for (int i = 0; i < files.size(); i++) {
+        String filePath = files.get(i);
+        int clientId = i % config.getCLIENT_NUMBER();
+        clientFiles.get(clientId).add(filePath);
+      }
     }
     MetaUtil.setClientFiles(clientFiles);
     return true;
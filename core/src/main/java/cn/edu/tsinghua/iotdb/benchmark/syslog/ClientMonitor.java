@@ -0,0 +1,398 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.syslog;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.ClientMetrics;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.PersistenceFactory;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.TestDataPersistence;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monitor the resources of benchmark itself during test: the CPU time and the allocated bytes of
+ * each thread, the GC pauses, the heap and the thread states are sampled every
+ * CLIENT_MONITOR_INTERVAL_MS and stored by the recorder. The samples after warm-up are summarized
+ * into the final report, which tells whether the client rather than the database was the
+ * bottleneck. If CLIENT_JFR_FILE is set, a JFR recording covers the measured phase.
+ */
+public class ClientMonitor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ClientMonitor.class);
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+
+  private static final double NANO_TO_SECOND = 1000000000.0d;
+  private static final double BYTE_TO_MB = 1024.0d * 1024.0d;
+  /** The client is saturated when GC pauses take more than this rate of the measured time */
+  private static final double GC_OVERHEAD_THRESHOLD = 0.1;
+
+  private static final String JFR_NAME = "benchmark";
+  private static final String DIAGNOSTIC_COMMAND = "com.sun.management:type=DiagnosticCommand";
+  private static final String RESULT_ITEM = "%-25s";
+
+  private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+  private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+  private final int processors = Runtime.getRuntime().availableProcessors();
+  private final TestDataPersistence recorder;
+  private final ScheduledExecutorService sampleService =
+      Executors.newSingleThreadScheduledExecutor();
+  private final NotificationListener gcListener = this::handleGcNotification;
+
+  /** The time when the measured phase starts, the samples before it are not summarized */
+  private long measureStart;
+  private boolean jfrStarted = false;
+
+  /** The CPU time and the allocated bytes of each thread at the last sample */
+  private Map<Long, Long> lastCpuTime = new HashMap<>();
+  private Map<Long, Long> lastAllocated = new HashMap<>();
+  private long lastSampleTime;
+  /** The GC pauses since start, updated by the GC notifications */
+  private long gcPauseMs = 0;
+  private long gcCount = 0;
+  private long lastGcPauseMs = 0;
+  private long lastGcCount = 0;
+
+  /** The summary of the samples after warm-up */
+  private long sampleNum = 0;
+  private double measuredTime = 0;
+  private double cpuSum = 0;
+  private double maxCpu = 0;
+  private double threadCpuSum = 0;
+  private double maxThreadCpu = 0;
+  private double allocatedMB = 0;
+  private long measuredGcPauseMs = 0;
+  private long measuredGcCount = 0;
+  private long maxGcPauseMs = 0;
+
+  public ClientMonitor() {
+    recorder = new PersistenceFactory().getPersistence();
+    if (threadBean.isThreadCpuTimeSupported() && !threadBean.isThreadCpuTimeEnabled()) {
+      threadBean.setThreadCpuTimeEnabled(true);
+    }
+    if (threadBean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean sunThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+      if (sunThreadBean.isThreadAllocatedMemorySupported()
+          && !sunThreadBean.isThreadAllocatedMemoryEnabled()) {
+        sunThreadBean.setThreadAllocatedMemoryEnabled(true);
+      }
+    }
+  }
+
+  /**
+   * Start sampling
+   *
+   * @param start the start time of test by System.nanoTime(), the measured phase starts after
+   *     WARMUP_DURATION
+   */
+  public synchronized void start(long start) {
+    measureStart = start + TimeUnit.SECONDS.toNanos(config.getWARMUP_DURATION());
+    for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+      if (gcBean instanceof NotificationEmitter) {
+        ((NotificationEmitter) gcBean).addNotificationListener(gcListener, null, null);
+      }
+    }
+    lastSampleTime = System.nanoTime();
+    readThreads(lastCpuTime, lastAllocated);
+    if (lastSampleTime >= measureStart) {
+      startJfr();
+    }
+    long interval = config.getCLIENT_MONITOR_INTERVAL_MS();
+    sampleService.scheduleAtFixedRate(this::sample, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  /** Stop sampling, the time after the last sample is sampled once more */
+  public void stop() {
+    sampleService.shutdownNow();
+    try {
+      sampleService.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (this) {
+      sample();
+      stopJfr();
+      for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+        if (gcBean instanceof NotificationEmitter) {
+          try {
+            ((NotificationEmitter) gcBean).removeNotificationListener(gcListener);
+          } catch (Exception e) {
+            LOGGER.debug("Failed to remove GC listener of {}", gcBean.getName(), e);
+          }
+        }
+      }
+    }
+  }
+
+  private synchronized void sample() {
+    try {
+      long now = System.nanoTime();
+      double interval = now - lastSampleTime;
+      if (interval <= 0) {
+        return;
+      }
+      Map<Long, Long> cpuTime = new HashMap<>();
+      Map<Long, Long> allocated = new HashMap<>();
+      int[] states = readThreads(cpuTime, allocated);
+      long cpuDelta = 0;
+      long maxThreadCpuDelta = 0;
+      for (Map.Entry<Long, Long> entry : cpuTime.entrySet()) {
+        long delta = entry.getValue() - lastCpuTime.getOrDefault(entry.getKey(), 0L);
+        cpuDelta += delta;
+        maxThreadCpuDelta = Math.max(maxThreadCpuDelta, delta);
+      }
+      long allocatedDelta = 0;
+      for (Map.Entry<Long, Long> entry : allocated.entrySet()) {
+        allocatedDelta += entry.getValue() - lastAllocated.getOrDefault(entry.getKey(), 0L);
+      }
+      long gcPauseDelta = gcPauseMs - lastGcPauseMs;
+      long gcCountDelta = gcCount - lastGcCount;
+
+      double cpu = cpuDelta / interval / processors;
+      double threadCpu = maxThreadCpuDelta / interval;
+      double allocationRate = allocatedDelta / BYTE_TO_MB / (interval / NANO_TO_SECOND);
+      MemoryUsage heap = memoryBean.getHeapMemoryUsage();
+      long maxHeap = heap.getMax() > 0 ? heap.getMax() : heap.getCommitted();
+
+      Map<ClientMetrics, Float> clientMetricsMap = new EnumMap<>(ClientMetrics.class);
+      clientMetricsMap.put(ClientMetrics.CPU_USAGE, (float) cpu);
+      clientMetricsMap.put(ClientMetrics.MAX_THREAD_CPU_USAGE, (float) threadCpu);
+      clientMetricsMap.put(ClientMetrics.ALLOCATION_RATE_MB, (float) allocationRate);
+      clientMetricsMap.put(ClientMetrics.GC_PAUSE_MS, (float) gcPauseDelta);
+      clientMetricsMap.put(ClientMetrics.GC_COUNT, (float) gcCountDelta);
+      clientMetricsMap.put(ClientMetrics.HEAP_USAGE, (float) heap.getUsed() / maxHeap);
+      clientMetricsMap.put(ClientMetrics.RUNNABLE_THREADS, (float) states[0]);
+      clientMetricsMap.put(ClientMetrics.BLOCKED_THREADS, (float) states[1]);
+      clientMetricsMap.put(ClientMetrics.WAITING_THREADS, (float) states[2]);
+      recorder.insertClientMetrics(clientMetricsMap);
+
+      if (lastSampleTime >= measureStart) {
+        sampleNum++;
+        measuredTime += interval / NANO_TO_SECOND;
+        cpuSum += cpu;
+        maxCpu = Math.max(maxCpu, cpu);
+        threadCpuSum += threadCpu;
+        maxThreadCpu = Math.max(maxThreadCpu, threadCpu);
+        allocatedMB += allocatedDelta / BYTE_TO_MB;
+        measuredGcPauseMs += gcPauseDelta;
+        measuredGcCount += gcCountDelta;
+      } else if (now >= measureStart) {
+        startJfr();
+      }
+      lastSampleTime = now;
+      lastCpuTime = cpuTime;
+      lastAllocated = allocated;
+      lastGcPauseMs += gcPauseDelta;
+      lastGcCount += gcCountDelta;
+    } catch (Exception e) {
+      // the exception stops the scheduled sampling, so it's only logged
+      LOGGER.error("Failed to sample client metrics", e);
+    }
+  }
+
+  /**
+   * Read the CPU time and the allocated bytes of all live threads
+   *
+   * @return the number of runnable, blocked and waiting threads
+   */
+  private int[] readThreads(Map<Long, Long> cpuTime, Map<Long, Long> allocated) {
+    long[] ids = threadBean.getAllThreadIds();
+    long[] cpus = null;
+    long[] bytes = null;
+    if (threadBean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean sunThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+      if (sunThreadBean.isThreadCpuTimeEnabled()) {
+        cpus = sunThreadBean.getThreadCpuTime(ids);
+      }
+      if (sunThreadBean.isThreadAllocatedMemoryEnabled()) {
+        bytes = sunThreadBean.getThreadAllocatedBytes(ids);
+      }
+    }
+    for (int i = 0; i < ids.length; i++) {
+      // -1 means that the thread is dead or the value is not supported
+      if (cpus != null && cpus[i] >= 0) {
+        cpuTime.put(ids[i], cpus[i]);
+      }
+      if (bytes != null && bytes[i] >= 0) {
+        allocated.put(ids[i], bytes[i]);
+      }
+    }
+    int[] states = new int[3];
+    for (ThreadInfo threadInfo : threadBean.getThreadInfo(ids)) {
+      if (threadInfo == null) {
+        continue;
+      }
+      switch (threadInfo.getThreadState()) {
+        case RUNNABLE:
+          states[0]++;
+          break;
+        case BLOCKED:
+          states[1]++;
+          break;
+        case WAITING:
+        case TIMED_WAITING:
+          states[2]++;
+          break;
+        default:
+          break;
+      }
+    }
+    return states;
+  }
+
+  private void handleGcNotification(Notification notification, Object handback) {
+    if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(
+        notification.getType())) {
+      return;
+    }
+    GarbageCollectionNotificationInfo info =
+        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+    // the time of concurrent collectors is mostly spent beside the application threads
+    if (info.getGcName().contains("Concurrent")) {
+      return;
+    }
+    long duration = info.getGcInfo().getDuration();
+    synchronized (this) {
+      gcPauseMs += duration;
+      gcCount++;
+      if (System.nanoTime() >= measureStart) {
+        maxGcPauseMs = Math.max(maxGcPauseMs, duration);
+      }
+    }
+  }
+
+  /** Start JFR by the DiagnosticCommand MBean, so it works without jdk.jfr of Java 11 */
+  private void startJfr() {
+    if (jfrStarted || config.getCLIENT_JFR_FILE().isEmpty()) {
+      return;
+    }
+    jfrStarted =
+        invokeDiagnosticCommand(
+            "jfrStart",
+            "name=" + JFR_NAME,
+            "filename=" + config.getCLIENT_JFR_FILE(),
+            "settings=profile");
+    if (jfrStarted) {
+      LOGGER.info("Start JFR recording into {}", config.getCLIENT_JFR_FILE());
+    }
+  }
+
+  private void stopJfr() {
+    if (!jfrStarted) {
+      return;
+    }
+    jfrStarted = false;
+    if (invokeDiagnosticCommand("jfrStop", "name=" + JFR_NAME)) {
+      LOGGER.info("JFR recording is saved into {}", config.getCLIENT_JFR_FILE());
+    }
+  }
+
+  private boolean invokeDiagnosticCommand(String command, String... arguments) {
+    try {
+      ManagementFactory.getPlatformMBeanServer()
+          .invoke(
+              new ObjectName(DIAGNOSTIC_COMMAND),
+              command,
+              new Object[] {arguments},
+              new String[] {String[].class.getName()});
+      return true;
+    } catch (Exception e) {
+      LOGGER.warn("Failed to {} because {}, the JVM may not support JFR", command, e.toString());
+      return false;
+    }
+  }
+
+  /** Show the summary of the measured phase and whether the client is saturated */
+  public synchronized void showReport() {
+    double avgCpu = sampleNum == 0 ? 0 : cpuSum / sampleNum;
+    double avgThreadCpu = sampleNum == 0 ? 0 : threadCpuSum / sampleNum;
+    double allocationRate = measuredTime > 0 ? allocatedMB / measuredTime : 0;
+    double gcOverhead = measuredTime > 0 ? measuredGcPauseMs / 1000.0 / measuredTime : 0;
+    System.out.println(
+        "------------------------------------------------------Client Monitor Matrix------------------------------------------------------");
+    String format = RESULT_ITEM + RESULT_ITEM + RESULT_ITEM + RESULT_ITEM + RESULT_ITEM + "\n";
+    System.out.printf(
+        format, "avgCpu", "maxCpu", "avgMaxThreadCpu", "maxThreadCpu", "allocation(MB/s)");
+    System.out.printf(
+        format,
+        String.format("%.2f", avgCpu),
+        String.format("%.2f", maxCpu),
+        String.format("%.2f", avgThreadCpu),
+        String.format("%.2f", maxThreadCpu),
+        String.format("%.2f", allocationRate));
+    System.out.printf(format, "gcCount", "gcPause(ms)", "maxGcPause(ms)", "gcOverhead", "samples");
+    System.out.printf(
+        format,
+        measuredGcCount,
+        measuredGcPauseMs,
+        maxGcPauseMs,
+        String.format("%.4f", gcOverhead),
+        sampleNum);
+
+    double threshold = config.getCLIENT_SATURATION_THRESHOLD();
+    StringBuilder reasons = new StringBuilder();
+    if (avgCpu >= threshold) {
+      reasons.append(" all processors are busy;");
+    }
+    if (avgThreadCpu >= threshold) {
+      reasons.append(" the busiest thread is always running;");
+    }
+    if (gcOverhead > GC_OVERHEAD_THRESHOLD) {
+      reasons.append(" GC pauses take too much time;");
+    }
+    boolean saturated = reasons.length() > 0;
+    if (saturated) {
+      System.out.println(
+          "WARNING: the client is saturated, the result may be limited by benchmark itself:"
+              + reasons);
+    } else {
+      System.out.println("The client is not saturated.");
+    }
+    System.out.println(
+        "---------------------------------------------------------------------------------------------------------------------------------");
+
+    recorder.saveResultAsync("CLIENT", "avgCpu", String.format("%.4f", avgCpu));
+    recorder.saveResultAsync("CLIENT", "avgMaxThreadCpu", String.format("%.4f", avgThreadCpu));
+    recorder.saveResultAsync("CLIENT", "allocationRateMB", String.format("%.2f", allocationRate));
+    recorder.saveResultAsync("CLIENT", "gcOverhead", String.format("%.4f", gcOverhead));
+    recorder.saveResultAsync("CLIENT", "saturated", String.valueOf(saturated));
+    recorder.closeAsync();
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.syslog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The total size of the files under some directories. The directories are walked once, then the
+ * size is updated by the events of a WatchService instead of walking them on each sample. If the
+ * WatchService is not available, the directories are walked again at most once per
+ * MIN_WALK_INTERVAL_MS, and if it loses events, they are walked again at once.
+ */
+public class DirectorySize implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DirectorySize.class);
+  private static final long MIN_WALK_INTERVAL_MS = 1000;
+
+  private final List<Path> roots = new ArrayList<>();
+  /** The roots which have been walked, a root which doesn't exist yet is walked once created */
+  private final Set<Path> walkedRoots = new HashSet<>();
+  /** The size of each file, sorted by path so the files under a directory are a sub map */
+  private final NavigableMap<String, Long> fileSizes = new TreeMap<>();
+  private final Map<WatchKey, Path> watchedDirs = new HashMap<>();
+  private WatchService watchService;
+  private long totalSize = 0;
+  private long lastWalkTime = 0;
+
+  public DirectorySize(List<String> paths) {
+    for (String path : paths) {
+      roots.add(Paths.get(path).toAbsolutePath().normalize());
+    }
+    try {
+      watchService = FileSystems.getDefault().newWatchService();
+    } catch (IOException | UnsupportedOperationException e) {
+      LOGGER.warn("WatchService is not available, the directories are walked on each sample");
+    }
+    walkAll();
+  }
+
+  /** @return the total size in byte, or -1 if none of the directories exists */
+  public synchronized long getSize() {
+    if (watchService == null) {
+      if (System.currentTimeMillis() - lastWalkTime >= MIN_WALK_INTERVAL_MS) {
+        walkAll();
+      }
+    } else {
+      processEvents();
+      for (Path root : roots) {
+        if (!walkedRoots.contains(root) && Files.isDirectory(root)) {
+          walkedRoots.add(root);
+          walk(root);
+        }
+      }
+    }
+    return walkedRoots.isEmpty() ? -1 : totalSize;
+  }
+
+  private void processEvents() {
+    boolean overflow = false;
+    WatchKey key;
+    while ((key = watchService.poll()) != null) {
+      Path dir = watchedDirs.get(key);
+      for (WatchEvent<?> event : key.pollEvents()) {
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+          overflow = true;
+        } else if (dir != null) {
+          update(
+              dir.resolve((Path) event.context()),
+              event.kind() == StandardWatchEventKinds.ENTRY_CREATE);
+        }
+      }
+      if (!key.reset()) {
+        // the directory is deleted
+        watchedDirs.remove(key);
+        if (dir != null) {
+          remove(dir);
+          walkedRoots.remove(dir);
+        }
+      }
+    }
+    if (overflow) {
+      walkAll();
+    }
+  }
+
+  /** Update the size of a created, modified or deleted path */
+  private void update(Path path, boolean created) {
+    try {
+      BasicFileAttributes attributes =
+          Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+      if (attributes.isDirectory()) {
+        // a modified directory is watched already
+        if (created) {
+          walk(path);
+        }
+      } else if (attributes.isRegularFile()) {
+        setSize(path.toString(), attributes.size());
+      }
+    } catch (IOException e) {
+      remove(path);
+    }
+  }
+
+  private void setSize(String path, long size) {
+    Long previous = fileSizes.put(path, size);
+    totalSize += size - (previous == null ? 0 : previous);
+  }
+
+  /** Remove the path and all files under it */
+  private void remove(Path path) {
+    String prefix = path.toString();
+    Long previous = fileSizes.remove(prefix);
+    if (previous != null) {
+      totalSize -= previous;
+    }
+    // the paths under prefix are in [prefix + "/", prefix + "0") because '0' follows '/'
+    NavigableMap<String, Long> children =
+        fileSizes.subMap(prefix + "/", true, prefix + "0", false);
+    for (long size : children.values()) {
+      totalSize -= size;
+    }
+    children.clear();
+  }
+
+  private void walkAll() {
+    for (WatchKey key : watchedDirs.keySet()) {
+      key.cancel();
+    }
+    watchedDirs.clear();
+    fileSizes.clear();
+    walkedRoots.clear();
+    totalSize = 0;
+    for (Path root : roots) {
+      if (Files.isDirectory(root)) {
+        walkedRoots.add(root);
+        walk(root);
+      }
+    }
+    lastWalkTime = System.currentTimeMillis();
+  }
+
+  private void walk(Path dir) {
+    try {
+      Files.walkFileTree(
+          dir,
+          new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes attributes) {
+              register(path);
+              return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path path, BasicFileAttributes attributes) {
+              if (attributes.isRegularFile()) {
+                setSize(path.toString(), attributes.size());
+              }
+              return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path path, IOException e) {
+              // the file is deleted during walking
+              return FileVisitResult.CONTINUE;
+            }
+          });
+    } catch (IOException e) {
+      LOGGER.debug("Walk {} failed", dir, e);
+    }
+  }
+
+  private void register(Path dir) {
+    if (watchService == null) {
+      return;
+    }
+    try {
+      WatchKey key =
+          dir.register(
+              watchService,
+              StandardWatchEventKinds.ENTRY_CREATE,
+              StandardWatchEventKinds.ENTRY_DELETE,
+              StandardWatchEventKinds.ENTRY_MODIFY);
+      watchedDirs.put(key, dir);
+    } catch (IOException e) {
+      // e.g. the limit of inotify watches is reached, then walk the directories instead
+      LOGGER.warn("Watch {} failed, the directories are walked on each sample", dir, e);
+      close();
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    if (watchService == null) {
+      return;
+    }
+    try {
+      watchService.close();
+    } catch (IOException e) {
+      LOGGER.debug("Close WatchService failed", e);
+    }
+    watchService = null;
+    watchedDirs.clear();
+  }
+}
@@ -48,6 +48,22 @@ public class OpenFileStatistics {
     return OpenFileStatisticsHolder.INSTANCE;
   }
 
+  /** Get the keyword in the command line of the database server process */
+  static String getProcessFilter(DBType dbType) {
+    switch (dbType) {
+      case IoTDB:
+        return "IOTDB_HOME";
+      case InfluxDB:
+        return "/usr/bin/influxd";
+      case KairosDB:
+        return "kairosdb";
+      case TimescaleDB:
+        return "postgresql";
+      default:
+        return "";
+    }
+  }
+
   /**
    * Get the pid of the currently specified database server
    *
@@ -57,21 +73,7 @@ public class OpenFileStatistics {
     int pid = -1;
     Process pro1;
     Runtime r = Runtime.getRuntime();
-    String filter = "";
-    switch (dbType) {
-      case IoTDB:
-        filter = "IOTDB_HOME";
-        break;
-      case InfluxDB:
-        filter = "/usr/bin/influxd";
-        break;
-      case KairosDB:
-        filter = "kairosdb";
-        break;
-      case TimescaleDB:
-        filter = "postgresql";
-        break;
-    }
+    String filter = getProcessFilter(dbType);
     try {
       String command = String.format(SEARCH_PID, filter);
       cmds[2] = command;
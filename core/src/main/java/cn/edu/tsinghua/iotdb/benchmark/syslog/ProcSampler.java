@@ -0,0 +1,400 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.syslog;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.SystemMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sample the system by reading /proc directly instead of running iostat, free, pmap and du. Each
+ * file of /proc is opened once and read again from the beginning by the same channel, the rates
+ * are computed from the deltas of counters between two samples, so no process is forked and the
+ * sampling interval can be less than one second.
+ */
+public class ProcSampler {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ProcSampler.class);
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+
+  private static final Path PROC = Paths.get("/proc");
+  private static final float KB2GB = 1024 * 1024f;
+  private static final float B2GB = 1024 * 1024 * 1024f;
+  private static final float B2MB = 1024 * 1024f;
+  /** The same unit as NetUsage */
+  private static final float B2KB = 1000f;
+  private static final int SECTOR_SIZE = 512;
+  private static final float ABNORMAL_VALUE = -1;
+  /** The interval of searching the database server again when it is not found */
+  private static final long PID_SEARCH_INTERVAL_MS = 1000;
+
+  private final ProcFile stat = new ProcFile(PROC.resolve("stat"));
+  private final ProcFile diskStats = new ProcFile(PROC.resolve("diskstats"));
+  private final ProcFile memInfo = new ProcFile(PROC.resolve("meminfo"));
+  private final ProcFile netDev = new ProcFile(PROC.resolve("net/dev"));
+  private ProcFile processStatus;
+  private int pid = -1;
+  private long lastPidSearchTime = 0;
+  private final String processFilter;
+  private final Map<FileSize.FileSizeKinds, DirectorySize> directorySizes =
+      new EnumMap<>(FileSize.FileSizeKinds.class);
+
+  /** The counters of last sample */
+  private long lastTime = 0;
+
+  private long lastCpuTotal = 0;
+  private long lastCpuIdle = 0;
+  /** [read and write number, read sectors, written sectors, io ms] of each disk */
+  private final Map<String, long[]> lastDiskStats = new HashMap<>();
+  /** Whether each block device is a physical disk, partitions and virtual devices are ignored */
+  private final Map<String, Boolean> physicalDisks = new HashMap<>();
+
+  private long lastNetIn = -1;
+  private long lastNetOut = -1;
+
+  private ProcSampler() {
+    processFilter =
+        OpenFileStatistics.getProcessFilter(config.getDbConfig().getDB_SWITCH().getType());
+    for (FileSize.FileSizeKinds kinds : FileSize.FileSizeKinds.values()) {
+      directorySizes.put(kinds, new DirectorySize(kinds.path));
+    }
+    // the first sample only records the counters
+    sample();
+  }
+
+  public static ProcSampler getInstance() {
+    return ProcSamplerHolder.INSTANCE;
+  }
+
+  /** Whether /proc can be read, i.e. the system is Linux */
+  public static boolean isAvailable() {
+    return Files.isReadable(PROC.resolve("stat"));
+  }
+
+  /**
+   * Sample all system metrics, the rates are the average since last sample
+   *
+   * @return the metrics in the same units as the command collectors
+   */
+  public synchronized Map<SystemMetrics, Float> sample() {
+    Map<SystemMetrics, Float> metrics = new EnumMap<>(SystemMetrics.class);
+    long now = System.nanoTime();
+    float seconds = lastTime == 0 ? 0 : (now - lastTime) / 1e9f;
+    lastTime = now;
+    sampleCpu(metrics);
+    sampleDisk(metrics, seconds);
+    sampleMem(metrics);
+    sampleNet(metrics, seconds);
+    sampleProcess(metrics);
+    metrics.put(SystemMetrics.DATA_FILE_SIZE, getDirectorySize(FileSize.FileSizeKinds.DATA));
+    metrics.put(SystemMetrics.SYSTEM_FILE_SIZE, getDirectorySize(FileSize.FileSizeKinds.SYSTEM));
+    metrics.put(
+        SystemMetrics.SEQUENCE_FILE_SIZE, getDirectorySize(FileSize.FileSizeKinds.SEQUENCE));
+    metrics.put(
+        SystemMetrics.UN_SEQUENCE_FILE_SIZE, getDirectorySize(FileSize.FileSizeKinds.UN_SEQUENCE));
+    metrics.put(SystemMetrics.WAL_FILE_SIZE, getDirectorySize(FileSize.FileSizeKinds.WAL));
+    return metrics;
+  }
+
+  /** The first line of /proc/stat: cpu user nice system idle iowait irq softirq steal ... */
+  private void sampleCpu(Map<SystemMetrics, Float> metrics) {
+    float cpuUsage = 0;
+    String content = stat.read();
+    if (content != null) {
+      String[] fields = content.substring(0, content.indexOf('\n')).trim().split("\\s+");
+      long total = 0;
+      // guest and guest_nice are counted in user and nice already
+      for (int i = 1; i < Math.min(fields.length, 9); i++) {
+        total += Long.parseLong(fields[i]);
+      }
+      // the same as the %idle of iostat, which doesn't include iowait
+      long idle = Long.parseLong(fields[4]);
+      if (total > lastCpuTotal && lastCpuTotal > 0) {
+        cpuUsage = 1 - (float) (idle - lastCpuIdle) / (total - lastCpuTotal);
+      }
+      lastCpuTotal = total;
+      lastCpuIdle = idle;
+    }
+    metrics.put(SystemMetrics.CPU_USAGE, cpuUsage);
+  }
+
+  /**
+   * Each line of /proc/diskstats: major minor name reads readsMerged readSectors readMs writes
+   * writesMerged writtenSectors writeMs inProgress ioMs ..., the max of all disks is reported as
+   * iostat does
+   */
+  private void sampleDisk(Map<SystemMetrics, Float> metrics, float seconds) {
+    float ioUsage = 0;
+    float tps = 0;
+    float readSpeed = 0;
+    float writeSpeed = 0;
+    String content = diskStats.read();
+    if (content != null) {
+      for (String line : content.split("\n")) {
+        String[] fields = line.trim().split("\\s+");
+        if (fields.length < 13 || !isPhysicalDisk(fields[2])) {
+          continue;
+        }
+        long[] current = {
+          Long.parseLong(fields[3]) + Long.parseLong(fields[7]),
+          Long.parseLong(fields[5]),
+          Long.parseLong(fields[9]),
+          Long.parseLong(fields[12])
+        };
+        long[] last = lastDiskStats.put(fields[2], current);
+        if (last == null || seconds <= 0) {
+          continue;
+        }
+        tps = Math.max(tps, (current[0] - last[0]) / seconds);
+        readSpeed = Math.max(readSpeed, (current[1] - last[1]) * SECTOR_SIZE / B2MB / seconds);
+        writeSpeed = Math.max(writeSpeed, (current[2] - last[2]) * SECTOR_SIZE / B2MB / seconds);
+        ioUsage = Math.max(ioUsage, Math.min(1, (current[3] - last[3]) / 1000f / seconds));
+      }
+    }
+    metrics.put(SystemMetrics.DISK_IO_USAGE, ioUsage);
+    metrics.put(SystemMetrics.DISK_TPS, tps);
+    metrics.put(SystemMetrics.DISK_READ_SPEED_MB, readSpeed);
+    metrics.put(SystemMetrics.DISK_WRITE_SPEED_MB, writeSpeed);
+  }
+
+  private boolean isPhysicalDisk(String name) {
+    return physicalDisks.computeIfAbsent(
+        name, key -> Files.exists(Paths.get("/sys/block", key, "device")));
+  }
+
+  /** The used memory is MemTotal - MemAvailable, the same as `free` */
+  private void sampleMem(Map<SystemMetrics, Float> metrics) {
+    float memUsage = 0;
+    String content = memInfo.read();
+    if (content != null) {
+      long total = getValueOfKey(content, "MemTotal:");
+      long available = getValueOfKey(content, "MemAvailable:");
+      if (total > 0 && available >= 0) {
+        memUsage = (float) (total - available) / total;
+      }
+    }
+    metrics.put(SystemMetrics.MEM_USAGE, memUsage);
+  }
+
+  /** Each line of /proc/net/dev: device: receivedBytes ... (8 fields) transmittedBytes ... */
+  private void sampleNet(Map<SystemMetrics, Float> metrics, float seconds) {
+    float inRate = 0;
+    float outRate = 0;
+    String content = netDev.read();
+    if (content != null) {
+      for (String line : content.split("\n")) {
+        line = line.trim();
+        int colon = line.indexOf(':');
+        if (colon < 0 || !line.startsWith(config.getNET_DEVICE())) {
+          continue;
+        }
+        String[] fields = line.substring(colon + 1).trim().split("\\s+");
+        long in = Long.parseLong(fields[0]);
+        long out = Long.parseLong(fields[8]);
+        if (lastNetIn >= 0 && seconds > 0) {
+          inRate = (in - lastNetIn) / B2KB / seconds;
+          outRate = (out - lastNetOut) / B2KB / seconds;
+        }
+        lastNetIn = in;
+        lastNetOut = out;
+        break;
+      }
+    }
+    metrics.put(SystemMetrics.NETWORK_R_RATE, inRate);
+    metrics.put(SystemMetrics.NETWORK_S_RATE, outRate);
+  }
+
+  /** The resident memory of /proc/[pid]/status and the number of /proc/[pid]/fd */
+  private void sampleProcess(Map<SystemMetrics, Float> metrics) {
+    float processMem = 0;
+    float openFileNumber = ABNORMAL_VALUE;
+    refreshPid();
+    if (processStatus != null) {
+      String content = processStatus.read();
+      if (content != null) {
+        processMem = Math.max(0, getValueOfKey(content, "VmRSS:")) / KB2GB;
+      }
+      openFileNumber = countOpenFiles();
+    }
+    metrics.put(SystemMetrics.PROCESS_MEM_SIZE, processMem);
+    metrics.put(SystemMetrics.OPEN_FILE_NUMBER, openFileNumber);
+  }
+
+  /** Find the database server again if it has not started or has restarted */
+  private void refreshPid() {
+    if (pid > 0 && Files.exists(PROC.resolve(String.valueOf(pid)))) {
+      return;
+    }
+    if (processStatus != null) {
+      processStatus.close();
+      processStatus = null;
+    }
+    long now = System.currentTimeMillis();
+    if (now - lastPidSearchTime < PID_SEARCH_INTERVAL_MS) {
+      pid = -1;
+      return;
+    }
+    lastPidSearchTime = now;
+    pid = findPid(processFilter);
+    if (pid > 0) {
+      processStatus = new ProcFile(PROC.resolve(pid + "/status"));
+    }
+  }
+
+  /** Find the process whose command line contains filter by /proc/[pid]/cmdline */
+  static int findPid(String filter) {
+    if (filter.isEmpty()) {
+      return -1;
+    }
+    String lowerFilter = filter.toLowerCase();
+    String self = ManagementFactory.getRuntimeMXBean().getName().split("@")[0];
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(PROC, "[0-9]*")) {
+      for (Path path : stream) {
+        String name = path.getFileName().toString();
+        if (name.equals(self)) {
+          continue;
+        }
+        try {
+          byte[] bytes = Files.readAllBytes(path.resolve("cmdline"));
+          String command = new String(bytes, StandardCharsets.UTF_8).toLowerCase();
+          if (command.contains(lowerFilter)) {
+            return Integer.parseInt(name);
+          }
+        } catch (IOException | NumberFormatException e) {
+          // the process has exited
+        }
+      }
+    } catch (IOException e) {
+      LOGGER.debug("List {} failed", PROC, e);
+    }
+    return -1;
+  }
+
+  private float countOpenFiles() {
+    int count = 0;
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(PROC.resolve(pid + "/fd"))) {
+      for (Path ignored : stream) {
+        count++;
+      }
+    } catch (IOException e) {
+      // the fd of the process of another user can't be read
+      return ABNORMAL_VALUE;
+    }
+    return count;
+  }
+
+  private float getDirectorySize(FileSize.FileSizeKinds kinds) {
+    long size = directorySizes.get(kinds).getSize();
+    return size < 0 ? ABNORMAL_VALUE : size / B2GB;
+  }
+
+  /** Get the first number after key, e.g. 1024 of "MemTotal:   1024 kB", -1 if key is absent */
+  static long getValueOfKey(String content, String key) {
+    int start = content.indexOf(key);
+    if (start < 0) {
+      return -1;
+    }
+    int end = content.indexOf('\n', start);
+    String line = content.substring(start + key.length(), end < 0 ? content.length() : end);
+    return Long.parseLong(line.trim().split("\\s+")[0]);
+  }
+
+  public int getPid() {
+    return pid;
+  }
+
+  /** A file of /proc, which is read again from the beginning by the same channel */
+  static class ProcFile implements Closeable {
+
+    private final Path path;
+    private FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(16 * 1024);
+    private boolean failureLogged = false;
+
+    ProcFile(Path path) {
+      this.path = path;
+    }
+
+    /** @return the whole content, or null if the file can't be read */
+    String read() {
+      try {
+        if (channel == null) {
+          channel = FileChannel.open(path, StandardOpenOption.READ);
+        }
+        buffer.clear();
+        // the content of /proc is generated again when it is read from position 0
+        long position = 0;
+        int length;
+        while ((length = channel.read(buffer, position)) > 0) {
+          position += length;
+          if (!buffer.hasRemaining()) {
+            ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+          }
+        }
+        buffer.flip();
+        return StandardCharsets.US_ASCII.decode(buffer).toString();
+      } catch (IOException e) {
+        if (!failureLogged) {
+          LOGGER.warn("Read {} failed", path, e);
+          failureLogged = true;
+        }
+        close();
+        return null;
+      }
+    }
+
+    @Override
+    public void close() {
+      if (channel == null) {
+        return;
+      }
+      try {
+        channel.close();
+      } catch (IOException e) {
+        LOGGER.debug("Close {} failed", path, e);
+      }
+      channel = null;
+    }
+  }
+
+  private static class ProcSamplerHolder {
+    private static final ProcSampler INSTANCE = new ProcSampler();
+  }
+}
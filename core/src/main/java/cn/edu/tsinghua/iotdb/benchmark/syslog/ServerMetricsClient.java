@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.syslog;
+
+import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.SystemMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pull the samples from the ServerMetricsServer of server mode. The clock of server is converted
+ * into the local clock by the offset measured in the request with the shortest round trip, so the
+ * samples can be aligned with the local operations.
+ *
+ * @see ServerMetricsServer
+ */
+public class ServerMetricsClient implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ServerMetricsClient.class);
+  private static final int TIMEOUT_MS = 5000;
+
+  private final String host;
+  private final int port;
+  private Socket socket;
+  private BufferedReader reader;
+  private Writer writer;
+  /** The metric of each column in the answer, null if it's unknown to this version */
+  private final List<SystemMetrics> columns = new ArrayList<>();
+
+  /** The clock of server minus the local clock */
+  private long offset = 0;
+  private long minRoundTrip = Long.MAX_VALUE;
+  private long sampleTime = 0;
+
+  public ServerMetricsClient(String host, int port) {
+    this.host = host;
+    this.port = port;
+  }
+
+  /**
+   * Pull the latest sample of server, the connection is rebuilt on the next call after it fails
+   *
+   * @return the metrics, or null if the server is unavailable or has no sample yet
+   */
+  public Map<SystemMetrics, Float> fetch() {
+    try {
+      if (socket == null) {
+        connect();
+      }
+      long requestTime = System.currentTimeMillis();
+      writer.write(ServerMetricsServer.REQUEST + "\n");
+      writer.flush();
+      String line = reader.readLine();
+      long responseTime = System.currentTimeMillis();
+      if (line == null) {
+        throw new IOException("Connection is closed by server");
+      }
+      String[] values = line.split(ServerMetricsServer.SEPARATOR, -1);
+      long roundTrip = responseTime - requestTime;
+      if (roundTrip <= minRoundTrip) {
+        minRoundTrip = roundTrip;
+        offset = Long.parseLong(values[0]) - (requestTime + responseTime) / 2;
+      }
+      if (values.length < 2) {
+        return null;
+      }
+      sampleTime = Long.parseLong(values[1]) - offset;
+      Map<SystemMetrics, Float> systemMetricsMap = new EnumMap<>(SystemMetrics.class);
+      for (int i = 2; i < values.length && i - 2 < columns.size(); i++) {
+        SystemMetrics systemMetrics = columns.get(i - 2);
+        if (systemMetrics != null && !values[i].isEmpty()) {
+          systemMetricsMap.put(systemMetrics, Float.parseFloat(values[i]));
+        }
+      }
+      return systemMetricsMap;
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn("Failed to pull server metrics from {}:{} because {}", host, port, e.toString());
+      close();
+      return null;
+    }
+  }
+
+  private void connect() throws IOException {
+    socket = new Socket();
+    socket.connect(new InetSocketAddress(host, port), TIMEOUT_MS);
+    socket.setSoTimeout(TIMEOUT_MS);
+    reader =
+        new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+    String header = reader.readLine();
+    if (header == null || !header.startsWith(ServerMetricsServer.HEADER)) {
+      throw new IOException("Unexpected header: " + header);
+    }
+    columns.clear();
+    String[] names = header.split(ServerMetricsServer.SEPARATOR);
+    for (int i = 1; i < names.length; i++) {
+      SystemMetrics systemMetrics = null;
+      try {
+        systemMetrics = SystemMetrics.valueOf(names[i]);
+      } catch (IllegalArgumentException e) {
+        // the metric is added by a newer version of server
+      }
+      columns.add(systemMetrics);
+    }
+  }
+
+  /** The time of the latest fetched sample in the local clock */
+  public long getSampleTime() {
+    return sampleTime;
+  }
+
+  @Override
+  public void close() {
+    if (socket != null) {
+      try {
+        socket.close();
+      } catch (IOException e) {
+        LOGGER.debug("Failed to close the connection of server metrics", e);
+      }
+      socket = null;
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.syslog;
+
+import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.SystemMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serve the latest sample of server mode over TCP, so that the timeline of a test running on
+ * another host can pull the server metrics. The protocol is line based: after accepting, the server
+ * sends a header of METRICS and the names of metrics, then answers each SAMPLE request with the
+ * current time of server, the time of the latest sample and the value of each metric in the order
+ * of header, separated by commas. Before the first sample, only the current time is answered.
+ */
+public class ServerMetricsServer implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ServerMetricsServer.class);
+
+  static final String HEADER = "METRICS";
+  static final String REQUEST = "SAMPLE";
+  static final String SEPARATOR = ",";
+
+  private final ServerSocket serverSocket;
+  private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+  /** The time and the values of the latest sample, joined by SEPARATOR */
+  private volatile String latestSample = null;
+
+  public ServerMetricsServer(int port) throws IOException {
+    serverSocket = new ServerSocket(port);
+    Thread acceptor = new Thread(this::accept, "server-metrics-acceptor");
+    acceptor.setDaemon(true);
+    acceptor.start();
+    LOGGER.info("Serve server metrics on port {}", serverSocket.getLocalPort());
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /** Replace the latest sample which is answered to the following requests */
+  public void update(long time, Map<SystemMetrics, Float> systemMetricsMap) {
+    StringBuilder sample = new StringBuilder().append(time);
+    for (SystemMetrics systemMetrics : SystemMetrics.values()) {
+      Float value = systemMetricsMap.get(systemMetrics);
+      sample.append(SEPARATOR).append(value == null ? "" : value.toString());
+    }
+    latestSample = sample.toString();
+  }
+
+  private void accept() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        sockets.add(socket);
+        Thread thread = new Thread(() -> serve(socket), "server-metrics-" + socket.getPort());
+        thread.setDaemon(true);
+        thread.start();
+      } catch (IOException e) {
+        if (!serverSocket.isClosed()) {
+          LOGGER.warn("Failed to accept the connection of server metrics", e);
+        }
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (Socket s = socket;
+        BufferedReader reader =
+            new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+        Writer writer = new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8)) {
+      StringBuilder header = new StringBuilder(HEADER);
+      for (SystemMetrics systemMetrics : SystemMetrics.values()) {
+        header.append(SEPARATOR).append(systemMetrics.name());
+      }
+      writer.write(header.append("\n").toString());
+      writer.flush();
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (!REQUEST.equals(line.trim())) {
+          continue;
+        }
+        String sample = latestSample;
+        String now = String.valueOf(System.currentTimeMillis());
+        writer.write(sample == null ? now + "\n" : now + SEPARATOR + sample + "\n");
+        writer.flush();
+      }
+    } catch (IOException e) {
+      LOGGER.debug("The connection of server metrics is closed", e);
+    } finally {
+      sockets.remove(socket);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    for (Socket socket : sockets) {
+      socket.close();
+    }
+  }
+}
@@ -45,6 +45,7 @@ public class DBFactory {
         case DB_IOT_013_SESSION_BY_TABLET:
         case DB_IOT_013_SESSION_BY_RECORD:
         case DB_IOT_013_SESSION_BY_RECORDS:
+        case DB_IOT_013_SESSION_BY_TABLETS:
           if (config.isIS_ALL_NODES_VISIBLE()) {
             dbClass = Constants.IOTDB013_ROUNDROBIN_SESSION_CLASS;
           } else {
@@ -58,6 +59,7 @@ public class DBFactory {
         case DB_IOT_012_SESSION_BY_TABLET:
         case DB_IOT_012_SESSION_BY_RECORD:
         case DB_IOT_012_SESSION_BY_RECORDS:
+        case DB_IOT_012_SESSION_BY_TABLETS:
           if (config.isIS_ALL_NODES_VISIBLE()) {
             dbClass = Constants.IOTDB012_ROUNDROBIN_SESSION_CLASS;
           } else {
@@ -104,11 +106,15 @@ public class DBFactory {
           dbClass = Constants.TIMESCALEDB_CLASS;
           break;
         case DB_TDENGINE:
+        case DB_TDENGINE_STMT:
           dbClass = Constants.TDENGINE_CLASS;
           break;
         case DB_FAKE:
           dbClass = Constants.FAKEDB_CLASS;
           break;
+        case DB_MEMORY:
+          dbClass = Constants.MEMORYDB_CLASS;
+          break;
         case DB_QUESTDB:
           dbClass = Constants.QUESTDB_CLASS;
           break;
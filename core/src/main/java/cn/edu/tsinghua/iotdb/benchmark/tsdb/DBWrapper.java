@@ -21,15 +21,21 @@ package cn.edu.tsinghua.iotdb.benchmark.tsdb;
 
 import cn.edu.tsinghua.iotdb.benchmark.client.generate.RecordComparator;
 import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
+import cn.edu.tsinghua.iotdb.benchmark.client.real.RangeVerifier;
+import cn.edu.tsinghua.iotdb.benchmark.client.real.VerificationDiffWriter;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
 import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
 import cn.edu.tsinghua.iotdb.benchmark.entity.DeviceSummary;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Record;
 import cn.edu.tsinghua.iotdb.benchmark.exception.DBConnectException;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.Measurement;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.ResultChecksum;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.Timeline;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.PersistenceFactory;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.TestDataPersistence;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.none.NoneRecorder;
 import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
 import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.*;
 import org.slf4j.Logger;
@@ -53,6 +59,9 @@ public class DBWrapper implements IDatabase {
   private List<IDatabase> databases = new ArrayList<>();
   private Measurement measurement;
   private TestDataPersistence recorder;
+  /** The measurement and recorder to restore after warm-up */
+  private Measurement measurementAfterWarmUp = null;
+  private TestDataPersistence recorderAfterWarmUp = null;
 
   /** Use DBFactory to get database */
   public DBWrapper(List<DBConfig> dbConfigs, Measurement measurement) {
@@ -88,6 +97,7 @@ public class DBWrapper implements IDatabase {
     } catch (Exception e) {
       measurement.addFailOperationNum(operation);
       measurement.addFailPointNum(operation, batch.pointNum());
+      addFailToTimeline(operation);
       recorder.saveOperationResultAsync(
           operation.getName(),
           0,
@@ -100,37 +110,63 @@ public class DBWrapper implements IDatabase {
     return status;
   }
 
-  /** Measure one batch */
+  /** Measure one batch, or the batches buffered before which are written with it */
   private Status measureOneBatch(Status status, Operation operation, Batch batch, long start) {
     long end = System.nanoTime();
     status.setTimeCost(end - start);
+    if (status.isOk() && status.getInsertPointNum() == 0) {
+      // the batch is only buffered, it is measured when written
+      return status;
+    }
+    int pointNum = status.getInsertPointNum() == -1 ? batch.pointNum() : status.getInsertPointNum();
+    measureInsert(
+        status,
+        operation,
+        pointNum,
+        batch.getDeviceSchema().getDevice(),
+        batch.getDeviceSchema().getGroup());
+    return status;
+  }
+
+  private void measureInsert(
+      Status status, Operation operation, int pointNum, String device, String group) {
     if (status.isOk()) {
-      measureOkOperation(status, operation, batch.pointNum(), batch.getDeviceSchema().getDevice());
+      measureOkOperation(status, operation, pointNum, device);
       if (!config.isIS_QUIET_MODE()) {
         double timeInMillis = status.getTimeCost() / NANO_TO_MILLIS;
         String formatTimeInMillis = String.format("%.2f", timeInMillis);
-        double throughput = batch.pointNum() * 1000 / timeInMillis;
+        double throughput = pointNum * 1000 / timeInMillis;
         LOGGER.info(
             "{} insert one batch latency (device: {}, sg: {}) ,{}, ms, throughput ,{}, points/s",
             Thread.currentThread().getName(),
-            batch.getDeviceSchema().getDevice(),
-            batch.getDeviceSchema().getGroup(),
+            device,
+            group,
             formatTimeInMillis,
             throughput);
       }
     } else {
       measurement.addFailOperationNum(operation);
-      measurement.addFailPointNum(operation, batch.pointNum());
+      measurement.addFailPointNum(operation, pointNum);
+      addFailToTimeline(operation);
       recorder.saveOperationResultAsync(
-          operation.getName(),
-          0,
-          batch.pointNum(),
-          0,
-          status.getException().toString(),
-          batch.getDeviceSchema().getDevice());
+          operation.getName(), 0, pointNum, 0, status.getException().toString(), device);
       LOGGER.error("Insert batch failed because", status.getException());
     }
-    return status;
+  }
+
+  /** Write and measure the batches buffered by the database before it is closed */
+  private void flushBatches(IDatabase database) {
+    try {
+      long start = System.nanoTime();
+      Status status = database.flushBatches();
+      status.setTimeCost(System.nanoTime() - start);
+      if (!status.isOk() || status.getInsertPointNum() > 0) {
+        measureInsert(
+            status, Operation.INGESTION, status.getInsertPointNum(), "Buffered Batches", "--");
+      }
+    } catch (DBConnectException e) {
+      LOGGER.error("Failed to write the buffered batches because", e);
+    }
   }
 
   @Override
@@ -408,6 +444,47 @@ public class DBWrapper implements IDatabase {
     return status;
   }
 
+  /**
+   * Query the range of each database and compare it with the expected rows, the ranges failing
+   * verification are written by diffWriter
+   *
+   * @param records the expected rows in ascending order of time without duplicated timestamps
+   */
+  public void verificationRangeQuery(
+      DeviceQuery range, List<Record> records, VerificationDiffWriter diffWriter) {
+    Operation operation = Operation.VERIFICATION_QUERY;
+    String device = range.getDeviceSchema().getDevice();
+    for (IDatabase database : databases) {
+      try {
+        RangeVerifier verifier =
+            new RangeVerifier(range, records, config.getVERIFICATION_TOLERANCE());
+        long start = System.nanoTime();
+        Status status = database.verificationRangeQuery(range, verifier);
+        long end = System.nanoTime();
+        status.setTimeCost(end - start);
+        if (!status.isOk()) {
+          handleQueryOperation(status, operation, device);
+          continue;
+        }
+        verifier.finish();
+        measureOkOperation(status, operation, verifier.getMatchedPointNum(), device);
+        if (!verifier.isOk()) {
+          if (config.isUSE_MEASUREMENT()) {
+            measurement.addFailPointNum(operation, verifier.getFailedPointNum());
+          }
+          LOGGER.error(
+              "Found {} different points in {} of {}",
+              verifier.getFailedPointNum(),
+              range.getQueryAttrs(),
+              database.getClass().getSimpleName());
+          diffWriter.write(verifier);
+        }
+      } catch (Exception e) {
+        handleUnexpectedQueryException(operation, e, device);
+      }
+    }
+  }
+
   @Override
   public Status deviceQuery(DeviceQuery deviceQuery) throws SQLException {
     Status status = null;
@@ -463,6 +540,39 @@ public class DBWrapper implements IDatabase {
     return deviceSummary;
   }
 
+  /**
+   * Get summaries of devices from all databases
+   *
+   * @return summaries of the first database, the summary of the device which is different between
+   *     databases is null, or null when failing to get summaries
+   */
+  @Override
+  public List<DeviceSummary> deviceSummaries(List<DeviceQuery> deviceQueries) {
+    List<List<DeviceSummary>> summariesOfDatabases = new ArrayList<>();
+    try {
+      for (IDatabase database : databases) {
+        summariesOfDatabases.add(database.deviceSummaries(deviceQueries));
+      }
+    } catch (Exception e) {
+      LOGGER.error("Failed to get summaries of {} devices", deviceQueries.size(), e);
+      return null;
+    }
+    List<DeviceSummary> base = new ArrayList<>(summariesOfDatabases.get(0));
+    for (int i = 0; i < base.size(); i++) {
+      for (int j = 1; j < summariesOfDatabases.size(); j++) {
+        DeviceSummary another = summariesOfDatabases.get(j).get(i);
+        if (base.get(i) == null || !base.get(i).equals(another)) {
+          LOGGER.error("Different summary of device between databases: ");
+          LOGGER.error("DB1:" + base.get(i));
+          LOGGER.error("DB" + (j + 1) + ":" + another);
+          base.set(i, null);
+          break;
+        }
+      }
+    }
+    return base;
+  }
+
   @Override
   public void init() throws TsdbException {
     for (IDatabase database : databases) {
@@ -489,6 +599,7 @@ public class DBWrapper implements IDatabase {
   @Override
   public void close() throws TsdbException {
     for (IDatabase database : databases) {
+      flushBatches(database);
       database.close();
     }
     if (recorder != null) {
@@ -539,6 +650,15 @@ public class DBWrapper implements IDatabase {
     }
     recorder.saveOperationResultAsync(
         operation.getName(), okPointNum, 0, latencyInMillis, "", device);
+    if (config.isIS_TIMELINE()) {
+      Timeline.getInstance().addOkOperation(operation, okPointNum, latencyInMillis);
+    }
+  }
+
+  private void addFailToTimeline(Operation operation) {
+    if (config.isIS_TIMELINE()) {
+      Timeline.getInstance().addFailOperation(operation);
+    }
   }
 
   private int doPointComparison(List<Status> statuses, DeviceQuery deviceQuery) {
@@ -593,6 +713,13 @@ public class DBWrapper implements IDatabase {
       Status status2 = statuses.get(1);
       boolean isError = false;
       if (status1 != null
+          && status2 != null
+          && status1.getChecksum() != null
+          && status2.getChecksum() != null) {
+        isError =
+            status1.getQueryResultPointNum() != status2.getQueryResultPointNum()
+                || !status1.getChecksum().equals(status2.getChecksum());
+      } else if (status1 != null
           && status2 != null
           && status1.getRecords() != null
           && status2.getRecords() != null) {
@@ -632,8 +759,87 @@ public class DBWrapper implements IDatabase {
       }
       if (isError) {
         doErrorLog(query.getClass().getSimpleName(), status1, status2);
+        if (status1.getChecksum() != null && status1.getResultChecksum().hasBuckets()) {
+          drillDown(query, status1.getResultChecksum(), status2.getResultChecksum());
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Re-query the rows of the devices in the buckets whose checksums are different, and log the
+   * different rows. Only the precise and range queries, whose rows are the raw rows of the devices,
+   * are re-queried, and the buckets are clamped to the time range of the query.
+   */
+  private void drillDown(Query query, ResultChecksum checksum1, ResultChecksum checksum2) {
+    List<DeviceSchema> deviceSchemas;
+    long queryStart;
+    long queryEnd;
+    if (query instanceof PreciseQuery) {
+      deviceSchemas = ((PreciseQuery) query).getDeviceSchema();
+      queryStart = ((PreciseQuery) query).getTimestamp();
+      queryEnd = queryStart + 1;
+    } else if (query.getClass() == RangeQuery.class) {
+      deviceSchemas = ((RangeQuery) query).getDeviceSchema();
+      queryStart = ((RangeQuery) query).getStartTimestamp();
+      // the end time of range query is inclusive
+      queryEnd = ((RangeQuery) query).getEndTimestamp() + 1;
+    } else {
+      return;
+    }
+    List<ResultChecksum.Bucket> buckets = checksum1.getDifferentBuckets(checksum2);
+    buckets.removeIf(bucket -> bucket.getStartTime() == ResultChecksum.NO_TIME_BUCKET);
+    int drillDownNum = Math.min(buckets.size(), config.getCOMPARISON_MAX_DRILL_DOWN());
+    LOGGER.error(
+        "{} buckets of {} are different, re-query the first {} of them",
+        buckets.size(),
+        query.getClass().getSimpleName(),
+        drillDownNum);
+    for (int i = 0; i < drillDownNum; i++) {
+      ResultChecksum.Bucket bucket = buckets.get(i);
+      for (DeviceSchema deviceSchema : deviceSchemas) {
+        // the bucket without device is re-queried for all devices
+        if (bucket.getDevice() != null && !bucket.getDevice().equals(deviceSchema.getDevice())) {
+          continue;
+        }
+        DeviceQuery deviceQuery = new DeviceQuery(deviceSchema);
+        deviceQuery.setStartTimestamp(Math.max(bucket.getStartTime(), queryStart));
+        deviceQuery.setEndTimestamp(
+            Math.min(bucket.getStartTime() + checksum1.getBucketSize(), queryEnd));
+        if (!reQuery(deviceQuery)) {
+          return;
+        }
       }
     }
+  }
+
+  /**
+   * Re-query the rows of the device query in both databases and log the differences
+   *
+   * @return false if the re-query failed
+   */
+  private boolean reQuery(DeviceQuery deviceQuery) {
+    List<Record> records1 = new ArrayList<>();
+    List<Record> records2 = new ArrayList<>();
+    Status status1 = databases.get(0).verificationRangeQuery(deviceQuery, records1::add);
+    Status status2 = databases.get(1).verificationRangeQuery(deviceQuery, records2::add);
+    if (!status1.isOk() || !status2.isOk()) {
+      LOGGER.error("Failed to re-query {}", deviceQuery.getQueryAttrs());
+      return false;
+    }
+    RangeVerifier verifier = new RangeVerifier(deviceQuery, records1, 0);
+    records2.forEach(verifier);
+    verifier.finish();
+    if (verifier.isOk()) {
+      LOGGER.error("The rows of {} are the same in both DB", deviceQuery.getQueryAttrs());
+    } else {
+      LOGGER.error(
+          "{} differences between DB1 and DB2 in {}:",
+          verifier.getDiffNum(),
+          deviceQuery.getQueryAttrs());
+      verifier.getDiffs().forEach(LOGGER::error);
+    }
     return true;
   }
 
@@ -674,6 +880,7 @@ public class DBWrapper implements IDatabase {
       if (config.isUSE_MEASUREMENT()) {
         measurement.addFailOperationNum(operation);
       }
+      addFailToTimeline(operation);
       // currently, we do not have expected result point number for query
       recorder.saveOperationResultAsync(
           operation.getName(), 0, 0, 0, status.getException().toString(), device);
@@ -686,6 +893,7 @@ public class DBWrapper implements IDatabase {
    * @see DBWrapper
    */
   public void handleUnexpectedQueryException(Operation operation, Exception e, String device) {
+    addFailToTimeline(operation);
     if (config.isUSE_MEASUREMENT()) {
       measurement.addFailOperationNum(operation);
       // currently, we do not have expected result point number for query
@@ -693,4 +901,31 @@ public class DBWrapper implements IDatabase {
       recorder.saveOperationResultAsync(operation.getName(), 0, 0, 0, e.toString(), device);
     }
   }
+
+  /** Get the measurement of the following operations, which is a temporary one during warm-up */
+  public Measurement getMeasurement() {
+    return measurement;
+  }
+
+  /** Record the following operations into another measurement, e.g. that of next stage */
+  public void setMeasurement(Measurement measurement) {
+    this.measurement = measurement;
+  }
+
+  /** Execute the following operations without measuring or recording them until finishWarmUp */
+  public void startWarmUp() {
+    measurementAfterWarmUp = measurement;
+    recorderAfterWarmUp = recorder;
+    measurement = new Measurement();
+    recorder = new NoneRecorder();
+  }
+
+  public void finishWarmUp() {
+    if (measurementAfterWarmUp != null) {
+      measurement = measurementAfterWarmUp;
+      recorder = recorderAfterWarmUp;
+      measurementAfterWarmUp = null;
+      recorderAfterWarmUp = null;
+    }
+  }
 }
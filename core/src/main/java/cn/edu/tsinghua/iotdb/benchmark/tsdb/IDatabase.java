@@ -21,6 +21,7 @@ package cn.edu.tsinghua.iotdb.benchmark.tsdb;
 
 import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
 import cn.edu.tsinghua.iotdb.benchmark.entity.DeviceSummary;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Record;
 import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
 import cn.edu.tsinghua.iotdb.benchmark.exception.DBConnectException;
 import cn.edu.tsinghua.iotdb.benchmark.exception.WorkloadException;
@@ -29,7 +30,9 @@ import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
 import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.*;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IDatabase {
 
@@ -65,6 +68,34 @@ public interface IDatabase {
    */
   Status insertOneBatch(Batch batch) throws DBConnectException;
 
+  /**
+   * Insert batches of several devices, the database which can write several devices in one request
+   * should override it
+   *
+   * @return the first failed status, or ok if all batches are inserted
+   */
+  default Status insertBatches(List<Batch> batches) throws DBConnectException {
+    for (Batch batch : batches) {
+      Status status = insertOneBatch(batch);
+      if (!status.isOk()) {
+        return status;
+      }
+    }
+    return new Status(true);
+  }
+
+  /**
+   * Write the batches buffered by insertOneBatch, DBWrapper calls it before close so that they are
+   * measured. The database which buffers batches should override it
+   *
+   * @return status whose insertPointNum is the number of written points
+   */
+  default Status flushBatches() throws DBConnectException {
+    Status status = new Status(true);
+    status.setInsertPointNum(0);
+    return status;
+  }
+
   /**
    * Query data of one or multiple sensors at a precise timestamp. e.g. select v1... from data where
    * time = ? and device in ?
@@ -153,6 +184,19 @@ public interface IDatabase {
     return new Status(false, 0, workloadException, workloadException.getMessage());
   };
 
+  /**
+   * Using in range verification: query all sensors of the device in [startTimestamp,
+   * endTimestamp) and pass each row to the consumer in ascending order of time without keeping
+   * the result, the values are in the order of the sensors of the device schema.
+   *
+   * @return status whose query result point number is the number of the passed values
+   */
+  default Status verificationRangeQuery(DeviceQuery deviceQuery, Consumer<Record> consumer) {
+    WorkloadException workloadException =
+        new WorkloadException("Not Supported Verification Range Query");
+    return new Status(false, 0, workloadException, workloadException.getMessage());
+  }
+
   /** Verification between two database */
   default Status deviceQuery(DeviceQuery deviceQuery) throws SQLException, TsdbException {
     WorkloadException workloadException = new WorkloadException("Not Supported Verification Query");
@@ -164,6 +208,20 @@ public interface IDatabase {
     throw new TsdbException("Not Supported get summary of device.");
   }
 
+  /**
+   * get summaries of devices, the database which can fetch them in one query should override it
+   *
+   * @return summaries in the order of deviceQueries
+   */
+  default List<DeviceSummary> deviceSummaries(List<DeviceQuery> deviceQueries)
+      throws SQLException, TsdbException {
+    List<DeviceSummary> deviceSummaries = new ArrayList<>(deviceQueries.size());
+    for (DeviceQuery deviceQuery : deviceQueries) {
+      deviceSummaries.add(deviceSummary(deviceQuery));
+    }
+    return deviceSummaries;
+  }
+
   /**
    * map the given type string name to the name in the target DB
    *
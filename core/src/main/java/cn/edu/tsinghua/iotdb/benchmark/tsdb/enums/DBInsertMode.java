@@ -25,7 +25,9 @@ public enum DBInsertMode {
   INSERT_USE_SESSION_TABLET("SESSION_BY_TABLET"),
   INSERT_USE_SESSION_RECORD("SESSION_BY_RECORD"),
   INSERT_USE_SESSION_RECORDS("SESSION_BY_RECORDS"),
-  INSERT_USE_SESSION_POOL("SESSION_POOL");
+  INSERT_USE_SESSION_TABLETS("SESSION_BY_TABLETS"),
+  INSERT_USE_SESSION_POOL("SESSION_POOL"),
+  INSERT_USE_STMT("STMT");
 
   String insertType;
 
@@ -30,6 +30,8 @@ public enum DBSwitch {
       DBType.IoTDB, DBVersion.IOTDB_013, DBInsertMode.INSERT_USE_SESSION_RECORD),
   DB_IOT_013_SESSION_BY_RECORDS(
       DBType.IoTDB, DBVersion.IOTDB_013, DBInsertMode.INSERT_USE_SESSION_RECORDS),
+  DB_IOT_013_SESSION_BY_TABLETS(
+      DBType.IoTDB, DBVersion.IOTDB_013, DBInsertMode.INSERT_USE_SESSION_TABLETS),
   DB_IOT_012_JDBC(DBType.IoTDB, DBVersion.IOTDB_012, DBInsertMode.INSERT_USE_JDBC),
   DB_IOT_012_SESSION_BY_TABLET(
       DBType.IoTDB, DBVersion.IOTDB_012, DBInsertMode.INSERT_USE_SESSION_TABLET),
@@ -37,6 +39,8 @@ public enum DBSwitch {
       DBType.IoTDB, DBVersion.IOTDB_012, DBInsertMode.INSERT_USE_SESSION_RECORD),
   DB_IOT_012_SESSION_BY_RECORDS(
       DBType.IoTDB, DBVersion.IOTDB_012, DBInsertMode.INSERT_USE_SESSION_RECORDS),
+  DB_IOT_012_SESSION_BY_TABLETS(
+      DBType.IoTDB, DBVersion.IOTDB_012, DBInsertMode.INSERT_USE_SESSION_TABLETS),
   DB_IOT_011_JDBC(DBType.IoTDB, DBVersion.IOTDB_011, DBInsertMode.INSERT_USE_JDBC),
   DB_IOT_011_SESSION_POOL(DBType.IoTDB, DBVersion.IOTDB_011, DBInsertMode.INSERT_USE_SESSION_POOL),
   DB_IOT_011_SESSION(DBType.IoTDB, DBVersion.IOTDB_011, DBInsertMode.INSERT_USE_SESSION),
@@ -52,7 +56,9 @@ public enum DBSwitch {
   DB_KAIROS(DBType.KairosDB, null, null),
   DB_TIMESCALE(DBType.TimescaleDB, null, null),
   DB_FAKE(DBType.FakeDB, null, null),
+  DB_MEMORY(DBType.MemoryDB, null, null),
   DB_TDENGINE(DBType.TDengine, null, null),
+  DB_TDENGINE_STMT(DBType.TDengine, null, DBInsertMode.INSERT_USE_STMT),
   DB_QUESTDB(DBType.QuestDB, null, null),
   DB_MSSQLSERVER(DBType.MSSQLSERVER, null, null),
   DB_VICTORIAMETRICS(DBType.VictoriaMetrics, null, null),
@@ -28,6 +28,7 @@ public enum DBType {
   KairosDB("KairosDB"),
   TimescaleDB("TimescaleDB"),
   FakeDB("FakeDB"),
+  MemoryDB("MemoryDB"),
   TDengine("TDengine"),
   QuestDB("QuestDB"),
   MSSQLSERVER("MsSqlServer"),
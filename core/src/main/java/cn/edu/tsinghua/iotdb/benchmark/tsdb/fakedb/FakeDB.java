@@ -19,9 +19,12 @@
 
 package cn.edu.tsinghua.iotdb.benchmark.tsdb.fakedb;
 
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
 import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.IDatabase;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.TsdbException;
 import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.AggRangeQuery;
@@ -34,9 +37,28 @@ import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.RangeQuery;
 import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.ValueRangeQuery;
 
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * A database which keeps no data, each operation is served by the simulated FakeServer, so the
+ * benchmark itself can be tested against a local target with known latency and throughput.
+ */
 public class FakeDB implements IDatabase {
 
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+  /** The number of created FakeDB, which makes the seed of the random of each instance */
+  private static final AtomicInteger INSTANCE_NUMBER = new AtomicInteger();
+
+  private final FakeServer server = FakeServer.getInstance();
+  private final Random random =
+      new Random(config.getDATA_SEED() + INSTANCE_NUMBER.getAndIncrement());
+
+  public FakeDB() {}
+
+  /** DBFactory creates the databases by this constructor */
+  public FakeDB(DBConfig dbConfig) {}
+
   @Override
   public void init() throws TsdbException {}
 
@@ -53,56 +75,66 @@ public class FakeDB implements IDatabase {
 
   @Override
   public Status insertOneBatch(Batch batch) {
-    return new Status(true);
+    return serve(batch.pointNum());
   }
 
   @Override
   public Status preciseQuery(PreciseQuery preciseQuery) {
-    return new Status(true, null, null);
+    return serve(0);
   }
 
   @Override
   public Status rangeQuery(RangeQuery rangeQuery) {
-    return new Status(true, null, null);
+    return serve(0);
   }
 
   @Override
   public Status valueRangeQuery(ValueRangeQuery valueRangeQuery) {
-    return new Status(true, 0);
+    return serve(0);
   }
 
   @Override
   public Status aggRangeQuery(AggRangeQuery aggRangeQuery) {
-    return new Status(true, null, null);
+    return serve(0);
   }
 
   @Override
   public Status aggValueQuery(AggValueQuery aggValueQuery) {
-    return new Status(true, null, null);
+    return serve(0);
   }
 
   @Override
   public Status aggRangeValueQuery(AggRangeValueQuery aggRangeValueQuery) {
-    return new Status(true, null, null);
+    return serve(0);
   }
 
   @Override
   public Status groupByQuery(GroupByQuery groupByQuery) {
-    return new Status(true, null, null);
+    return serve(0);
   }
 
   @Override
   public Status latestPointQuery(LatestPointQuery latestPointQuery) {
-    return new Status(true, null, null);
+    return serve(0);
   }
 
   @Override
   public Status rangeQueryOrderByDesc(RangeQuery rangeQuery) {
-    return null;
+    return serve(0);
   }
 
   @Override
   public Status valueRangeQueryOrderByDesc(ValueRangeQuery valueRangeQuery) {
-    return null;
+    return serve(0);
+  }
+
+  /** Serve one operation which writes pointNum points, a failed operation returns failed status */
+  private Status serve(int pointNum) {
+    try {
+      server.serve(random, pointNum);
+      return new Status(true, 0);
+    } catch (TsdbException e) {
+      return new Status(false, 0, e, e.getMessage());
+    }
   }
 }
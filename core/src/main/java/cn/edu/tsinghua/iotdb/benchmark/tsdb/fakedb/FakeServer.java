@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.tsdb.fakedb;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.distribution.ServiceTimeDistribution;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.TsdbException;
+
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The simulated server shared by all FakeDB instances. At most FAKEDB_CONCURRENCY operations are
+ * served at the same time, at most FAKEDB_QUEUE_SIZE operations wait for a slot in arrival order
+ * and the others are rejected at once. Each operation takes a service time sampled from
+ * FAKEDB_SERVICE_TIME_DISTRIBUTION plus FAKEDB_POINT_COST_US for each written point, and fails
+ * with FAKEDB_FAILURE_RATE after it is served.
+ */
+public class FakeServer {
+
+  private final ServiceTimeDistribution distribution;
+  private final double serviceTimeMs;
+  private final double lognormalSigma;
+  private final double pauseProbability;
+  private final double pauseMs;
+  private final double pointCostUs;
+  private final double failureRate;
+  private final int queueSize;
+  /** The slots of concurrent operations, null if the concurrency is unlimited */
+  private final Semaphore slots;
+  /** The number of operations waiting for a slot */
+  private final AtomicInteger waiting = new AtomicInteger();
+
+  FakeServer(Config config) {
+    this.distribution = config.getFAKEDB_SERVICE_TIME_DISTRIBUTION();
+    this.serviceTimeMs = config.getFAKEDB_SERVICE_TIME_MS();
+    this.lognormalSigma = config.getFAKEDB_LOGNORMAL_SIGMA();
+    this.pauseProbability = config.getFAKEDB_PAUSE_PROBABILITY();
+    this.pauseMs = config.getFAKEDB_PAUSE_MS();
+    this.pointCostUs = config.getFAKEDB_POINT_COST_US();
+    this.failureRate = config.getFAKEDB_FAILURE_RATE();
+    this.queueSize = config.getFAKEDB_QUEUE_SIZE();
+    int concurrency = config.getFAKEDB_CONCURRENCY();
+    this.slots = concurrency > 0 ? new Semaphore(concurrency, true) : null;
+  }
+
+  public static FakeServer getInstance() {
+    return FakeServerHolder.INSTANCE;
+  }
+
+  private static class FakeServerHolder {
+    private static final FakeServer INSTANCE =
+        new FakeServer(ConfigDescriptor.getInstance().getConfig());
+  }
+
+  /**
+   * Serve one operation which writes pointNum points
+   *
+   * @param random the random of the calling FakeDB, so that each client is deterministic
+   * @throws TsdbException if the operation is rejected by the full queue or fails
+   */
+  public void serve(Random random, int pointNum) throws TsdbException {
+    if (slots == null) {
+      work(random, pointNum);
+      return;
+    }
+    try {
+      // tryAcquire with timeout respects the fairness, so queued operations are not overtaken
+      if (!slots.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+        if (waiting.incrementAndGet() > queueSize) {
+          waiting.decrementAndGet();
+          throw new TsdbException("FakeDB rejected the operation because the queue is full");
+        }
+        try {
+          slots.acquire();
+        } finally {
+          waiting.decrementAndGet();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TsdbException("FakeDB is interrupted while waiting in queue", e);
+    }
+    try {
+      work(random, pointNum);
+    } finally {
+      slots.release();
+    }
+  }
+
+  private void work(Random random, int pointNum) throws TsdbException {
+    double serviceTime = sampleServiceTime(random) + pointNum * pointCostUs / 1000;
+    try {
+      TimeUnit.NANOSECONDS.sleep(Math.round(serviceTime * 1000000));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TsdbException("FakeDB is interrupted while serving", e);
+    }
+    if (failureRate > 0 && random.nextDouble() < failureRate) {
+      throw new TsdbException("FakeDB injected a failure");
+    }
+  }
+
+  /** Sample the service time of one operation in ms, excluding the cost of points */
+  double sampleServiceTime(Random random) {
+    switch (distribution) {
+      case FIXED:
+        return serviceTimeMs;
+      case EXPONENTIAL:
+        return -serviceTimeMs * Math.log(1 - random.nextDouble());
+      case LOGNORMAL:
+        // the mean of exp(mu + sigma * N(0, 1)) is exp(mu + sigma^2 / 2)
+        double mu = Math.log(serviceTimeMs) - lognormalSigma * lognormalSigma / 2;
+        return Math.exp(mu + lognormalSigma * random.nextGaussian());
+      case BIMODAL:
+        return random.nextDouble() < pauseProbability ? serviceTimeMs + pauseMs : serviceTimeMs;
+      case NONE:
+      default:
+        return 0;
+    }
+  }
+}
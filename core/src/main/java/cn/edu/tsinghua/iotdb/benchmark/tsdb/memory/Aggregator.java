@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.tsdb.memory;
+
+/**
+ * Aggregate the points of one series in ascending order of time, with the aggregation functions of
+ * IoTDB. The result of an empty series is null, except that the count is 0.
+ */
+public class Aggregator implements Series.PointConsumer {
+
+  public enum Function {
+    COUNT,
+    SUM,
+    AVG,
+    MAX_VALUE,
+    MIN_VALUE,
+    FIRST_VALUE,
+    LAST_VALUE,
+    MAX_TIME,
+    MIN_TIME;
+
+    /** Get the function by its name in IoTDB, e.g. count or max_value */
+    public static Function getFunction(String name) {
+      String upperName = name.trim().toUpperCase();
+      for (Function function : values()) {
+        if (function.name().equals(upperName)) {
+          return function;
+        }
+      }
+      throw new IllegalArgumentException("Unsupported aggregation function " + name);
+    }
+  }
+
+  private final Function function;
+  private long count = 0;
+  private double sum = 0;
+  /** The max, min, first or last value */
+  private Object value = null;
+  /** The max or min time */
+  private long time = 0;
+
+  public Aggregator(Function function) {
+    this.function = function;
+  }
+
+  @Override
+  public void accept(long time, Object value) {
+    switch (function) {
+      case SUM:
+      case AVG:
+        sum += toDouble(value);
+        break;
+      case MAX_VALUE:
+        if (count == 0 || compare(value, this.value) > 0) {
+          this.value = value;
+        }
+        break;
+      case MIN_VALUE:
+        if (count == 0 || compare(value, this.value) < 0) {
+          this.value = value;
+        }
+        break;
+      case FIRST_VALUE:
+        if (count == 0) {
+          this.value = value;
+        }
+        break;
+      case LAST_VALUE:
+        this.value = value;
+        break;
+      case MAX_TIME:
+        this.time = time;
+        break;
+      case MIN_TIME:
+        if (count == 0) {
+          this.time = time;
+        }
+        break;
+      case COUNT:
+      default:
+        break;
+    }
+    count++;
+  }
+
+  public Object getResult() {
+    if (function == Function.COUNT) {
+      return count;
+    }
+    if (count == 0) {
+      return null;
+    }
+    switch (function) {
+      case SUM:
+        return sum;
+      case AVG:
+        return sum / count;
+      case MAX_TIME:
+      case MIN_TIME:
+        return time;
+      default:
+        return value;
+    }
+  }
+
+  private static double toDouble(Object value) {
+    if (value instanceof Number) {
+      return ((Number) value).doubleValue();
+    }
+    throw new IllegalArgumentException("Can't aggregate value " + value + " as number");
+  }
+
+  /** Compare numbers by their values, and the others by their natural order */
+  @SuppressWarnings("unchecked")
+  private static int compare(Object value, Object another) {
+    if (value instanceof Number && another instanceof Number) {
+      return Double.compare(((Number) value).doubleValue(), ((Number) another).doubleValue());
+    }
+    return ((Comparable<Object>) value).compareTo(another);
+  }
+}
@@ -0,0 +1,624 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.tsdb.memory;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.entity.DeviceSummary;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Record;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.ResultChecksum;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
+import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.IDatabase;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.TsdbException;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.AggRangeQuery;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.AggRangeValueQuery;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.AggValueQuery;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.DeviceQuery;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.GroupByQuery;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.LatestPointQuery;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.PreciseQuery;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.Query;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.RangeQuery;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.ValueRangeQuery;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.VerificationQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An in-process database keeping the points of each sensor in a sorted chunked Series. The queries
+ * have the semantics of IoTDB: the rows of several series are aligned by time, the columns are the
+ * sensors of each device, a value filter requires every value of the row to be greater than the
+ * threshold, and the result points are counted as the rows multiplied by the queried series. So it
+ * can be the reference database of double write, and the upper bound of the benchmark itself.
+ */
+public class MemoryDB implements IDatabase {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MemoryDB.class);
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+
+  private final MemoryStore store;
+
+  public MemoryDB(DBConfig dbConfig) {
+    this(MemoryStore.getInstance(dbConfig.getDB_NAME()));
+  }
+
+  MemoryDB(MemoryStore store) {
+    this.store = store;
+  }
+
+  @Override
+  public void init() throws TsdbException {}
+
+  @Override
+  public void cleanup() throws TsdbException {
+    store.clear();
+  }
+
+  @Override
+  public void close() throws TsdbException {}
+
+  /** The series are created when they are written */
+  @Override
+  public boolean registerSchema(List<DeviceSchema> schemaList) throws TsdbException {
+    return true;
+  }
+
+  @Override
+  public Status insertOneBatch(Batch batch) {
+    DeviceSchema deviceSchema = batch.getDeviceSchema();
+    List<Sensor> sensors = deviceSchema.getSensors();
+    List<Record> records = batch.getRecords();
+    if (records.isEmpty()) {
+      return new Status(true);
+    }
+    int recordNum = records.size();
+    long[] times = new long[recordNum];
+    for (int i = 0; i < recordNum; i++) {
+      times[i] = records.get(i).getTimestamp();
+    }
+    // the values of one sensor, reused by each sensor since the series copies them
+    Object[] values = new Object[recordNum];
+    int valueNum = records.get(0).getRecordDataValue().size();
+    for (int j = 0; j < valueNum; j++) {
+      int sensorIndex = batch.getColIndex() == -1 ? j : batch.getColIndex();
+      for (int i = 0; i < recordNum; i++) {
+        values[i] = records.get(i).getRecordDataValue().get(j);
+      }
+      Series series = store.getOrCreateSeries(getKey(deviceSchema, sensors.get(sensorIndex)));
+      series.write(times, values, recordNum);
+    }
+    return new Status(true);
+  }
+
+  /** select {sensors} from {devices} where time = {time} */
+  @Override
+  public Status preciseQuery(PreciseQuery preciseQuery) {
+    List<DeviceSchema> deviceSchemas = preciseQuery.getDeviceSchema();
+    long time = preciseQuery.getTimestamp();
+    return execute(
+        preciseQuery,
+        deviceSchemas,
+        result -> {
+          result.setCellDevices(deviceSchemas);
+          alignByTime(collect(deviceSchemas, time, time), false, result::addRow);
+        });
+  }
+
+  /** select {sensors} from {devices} where time >= {startTime} and time <= {endTime} */
+  @Override
+  public Status rangeQuery(RangeQuery rangeQuery) {
+    return executeRangeQuery(rangeQuery, false);
+  }
+
+  /**
+   * select {sensors} from {devices} where time >= {startTime} and time <= {endTime} and {sensors} >
+   * {value}
+   */
+  @Override
+  public Status valueRangeQuery(ValueRangeQuery valueRangeQuery) {
+    return executeValueRangeQuery(valueRangeQuery, false);
+  }
+
+  /** select {aggFun}({sensors}) from {devices} where time >= {startTime} and time <= {endTime} */
+  @Override
+  public Status aggRangeQuery(AggRangeQuery aggRangeQuery) {
+    List<DeviceSchema> deviceSchemas = aggRangeQuery.getDeviceSchema();
+    return execute(
+        aggRangeQuery,
+        deviceSchemas,
+        result -> {
+          Aggregator.Function function = Aggregator.Function.getFunction(aggRangeQuery.getAggFun());
+          List<Series> seriesList = getSeries(deviceSchemas);
+          List<Object> row = new ArrayList<>(seriesList.size());
+          for (Series series : seriesList) {
+            Aggregator aggregator = new Aggregator(function);
+            if (series != null) {
+              series.forEach(
+                  aggRangeQuery.getStartTimestamp(), aggRangeQuery.getEndTimestamp(), aggregator);
+            }
+            row.add(aggregator.getResult());
+          }
+          result.addRow(row);
+        });
+  }
+
+  /** select {aggFun}({sensors}) from {devices} where {sensors} > {value} */
+  @Override
+  public Status aggValueQuery(AggValueQuery aggValueQuery) {
+    // the time range of AggValueQuery only approximates the whole series
+    return executeAggValueQuery(
+        aggValueQuery,
+        Long.MIN_VALUE,
+        Long.MAX_VALUE,
+        aggValueQuery.getAggFun(),
+        aggValueQuery.getValueThreshold());
+  }
+
+  /**
+   * select {aggFun}({sensors}) from {devices} where time >= {startTime} and time <= {endTime} and
+   * {sensors} > {value}
+   */
+  @Override
+  public Status aggRangeValueQuery(AggRangeValueQuery aggRangeValueQuery) {
+    return executeAggValueQuery(
+        aggRangeValueQuery,
+        aggRangeValueQuery.getStartTimestamp(),
+        aggRangeValueQuery.getEndTimestamp(),
+        aggRangeValueQuery.getAggFun(),
+        aggRangeValueQuery.getValueThreshold());
+  }
+
+  /**
+   * select {aggFun}({sensors}) from {devices} group by ([{startTime}, {endTime}), {granularity}),
+   * each row begins with the start time of its interval, and the empty intervals are kept
+   */
+  @Override
+  public Status groupByQuery(GroupByQuery groupByQuery) {
+    List<DeviceSchema> deviceSchemas = groupByQuery.getDeviceSchema();
+    long startTime = groupByQuery.getStartTimestamp();
+    long endTime = groupByQuery.getEndTimestamp();
+    long granularity = groupByQuery.getGranularity();
+    if (granularity <= 0) {
+      TsdbException e = new TsdbException("The granularity of group by must be positive");
+      return new Status(false, 0, e, e.getMessage());
+    }
+    return execute(
+        groupByQuery,
+        deviceSchemas,
+        result -> {
+          Aggregator.Function function = Aggregator.Function.getFunction(groupByQuery.getAggFun());
+          List<Series> seriesList = getSeries(deviceSchemas);
+          int intervalNum =
+              (int) Math.max(0, (endTime - startTime + granularity - 1) / granularity);
+          Aggregator[][] aggregators = new Aggregator[intervalNum][seriesList.size()];
+          for (int c = 0; c < seriesList.size(); c++) {
+            for (int i = 0; i < intervalNum; i++) {
+              aggregators[i][c] = new Aggregator(function);
+            }
+            Series series = seriesList.get(c);
+            if (series != null) {
+              int column = c;
+              series.forEach(
+                  startTime,
+                  endTime - 1,
+                  (time, value) ->
+                      aggregators[(int) ((time - startTime) / granularity)][column].accept(
+                          time, value));
+            }
+          }
+          for (int i = 0; i < intervalNum; i++) {
+            List<Object> row = new ArrayList<>(seriesList.size() + 1);
+            row.add(startTime + i * granularity);
+            for (Aggregator aggregator : aggregators[i]) {
+              row.add(aggregator.getResult());
+            }
+            result.addRow(row);
+          }
+        });
+  }
+
+  /** select last {sensors} from {devices}, one row of time and value for each non-empty series */
+  @Override
+  public Status latestPointQuery(LatestPointQuery latestPointQuery) {
+    List<DeviceSchema> deviceSchemas = latestPointQuery.getDeviceSchema();
+    return execute(
+        latestPointQuery,
+        deviceSchemas,
+        result -> {
+          for (Series series : getSeries(deviceSchemas)) {
+            if (series != null) {
+              series.last((time, value) -> result.addRow(Arrays.asList(time, value)));
+            }
+          }
+        });
+  }
+
+  @Override
+  public Status rangeQueryOrderByDesc(RangeQuery rangeQuery) {
+    return executeRangeQuery(rangeQuery, true);
+  }
+
+  @Override
+  public Status valueRangeQueryOrderByDesc(ValueRangeQuery valueRangeQuery) {
+    return executeValueRangeQuery(valueRangeQuery, true);
+  }
+
+  private Status executeRangeQuery(RangeQuery rangeQuery, boolean desc) {
+    List<DeviceSchema> deviceSchemas = rangeQuery.getDeviceSchema();
+    return execute(
+        rangeQuery,
+        deviceSchemas,
+        result -> {
+          result.setCellDevices(deviceSchemas);
+          alignByTime(
+              collect(deviceSchemas, rangeQuery.getStartTimestamp(), rangeQuery.getEndTimestamp()),
+              desc,
+              result::addRow);
+        });
+  }
+
+  private Status executeValueRangeQuery(ValueRangeQuery valueRangeQuery, boolean desc) {
+    List<DeviceSchema> deviceSchemas = valueRangeQuery.getDeviceSchema();
+    double threshold = valueRangeQuery.getValueThreshold();
+    return execute(
+        valueRangeQuery,
+        deviceSchemas,
+        result -> {
+          result.setCellDevices(deviceSchemas);
+          alignByTime(
+              collect(
+                  deviceSchemas,
+                  valueRangeQuery.getStartTimestamp(),
+                  valueRangeQuery.getEndTimestamp()),
+              desc,
+              (time, cells) -> {
+                if (isGreater(cells, threshold)) {
+                  result.addRow(time, cells);
+                }
+              });
+        });
+  }
+
+  /** Aggregate each column of the rows in [startTime, endTime] passing the value filter */
+  private Status executeAggValueQuery(
+      AggRangeQuery query, long startTime, long endTime, String aggFun, double threshold) {
+    List<DeviceSchema> deviceSchemas = query.getDeviceSchema();
+    return execute(
+        query,
+        deviceSchemas,
+        result -> {
+          Aggregator.Function function = Aggregator.Function.getFunction(aggFun);
+          List<Column> columns = collect(deviceSchemas, startTime, endTime);
+          Aggregator[] aggregators = new Aggregator[columns.size()];
+          for (int c = 0; c < aggregators.length; c++) {
+            aggregators[c] = new Aggregator(function);
+          }
+          alignByTime(
+              columns,
+              false,
+              (time, cells) -> {
+                if (isGreater(cells, threshold)) {
+                  for (int c = 0; c < aggregators.length; c++) {
+                    aggregators[c].accept(time, cells[c]);
+                  }
+                }
+              });
+          List<Object> row = new ArrayList<>(aggregators.length);
+          for (Aggregator aggregator : aggregators) {
+            row.add(aggregator.getResult());
+          }
+          result.addRow(row);
+        });
+  }
+
+  /** Check the values of one device by the time of records, like IoTDB */
+  @Override
+  public Status verificationQuery(VerificationQuery verificationQuery) {
+    DeviceSchema deviceSchema = verificationQuery.getDeviceSchema();
+    List<Record> records = verificationQuery.getRecords();
+    if (records == null || records.size() == 0) {
+      return new Status(
+          false,
+          new TsdbException("There are no records in verficationQuery."),
+          "There are no records in verficationQuery.");
+    }
+    List<Series> seriesList = getSeries(Collections.singletonList(deviceSchema));
+    int point = 0;
+    for (Record record : records) {
+      List<Object> values = record.getRecordDataValue();
+      for (int i = 0; i < values.size(); i++) {
+        Series series = seriesList.get(i);
+        Object[] actual = new Object[1];
+        if (series != null) {
+          series.forEach(
+              record.getTimestamp(), record.getTimestamp(), (time, value) -> actual[0] = value);
+        }
+        String target = String.valueOf(values.get(i));
+        if (!target.equals(String.valueOf(actual[0]))) {
+          LOGGER.error(
+              "{} at {}: Expected {} but was {}",
+              getKey(deviceSchema, deviceSchema.getSensors().get(i)),
+              record.getTimestamp(),
+              target,
+              actual[0]);
+        } else {
+          point++;
+        }
+      }
+    }
+    return new Status(true, point);
+  }
+
+  @Override
+  public Status verificationRangeQuery(DeviceQuery deviceQuery, Consumer<Record> consumer) {
+    List<Column> columns =
+        collect(
+            Collections.singletonList(deviceQuery.getDeviceSchema()),
+            deviceQuery.getStartTimestamp(),
+            deviceQuery.getEndTimestamp() - 1);
+    int[] point = new int[1];
+    alignByTime(
+        columns,
+        false,
+        (time, cells) -> {
+          point[0] += cells.length;
+          consumer.accept(new Record(time, new ArrayList<>(Arrays.asList(cells))));
+        });
+    return new Status(true, point[0]);
+  }
+
+  /** The rows of the device in [startTime, endTime) in descending order of time */
+  @Override
+  public Status deviceQuery(DeviceQuery deviceQuery) {
+    List<Column> columns =
+        collect(
+            Collections.singletonList(deviceQuery.getDeviceSchema()),
+            deviceQuery.getStartTimestamp(),
+            deviceQuery.getEndTimestamp() - 1);
+    List<List<Object>> result = new ArrayList<>();
+    alignByTime(
+        columns,
+        true,
+        (time, cells) -> {
+          List<Object> row = new ArrayList<>(cells.length + 1);
+          row.add(time);
+          row.addAll(Arrays.asList(cells));
+          result.add(row);
+        });
+    return new Status(true, 0, deviceQuery.getQueryAttrs().toString(), result);
+  }
+
+  /** The line number is the max number of points of the sensors, like IoTDB */
+  @Override
+  public DeviceSummary deviceSummary(DeviceQuery deviceQuery) {
+    DeviceSchema deviceSchema = deviceQuery.getDeviceSchema();
+    long totalLineNumber = 0;
+    long minTimeStamp = Long.MAX_VALUE;
+    long maxTimeStamp = Long.MIN_VALUE;
+    for (Series series : getSeries(Collections.singletonList(deviceSchema))) {
+      if (series == null) {
+        continue;
+      }
+      long[] summary = series.getSummary();
+      if (summary[0] > 0) {
+        totalLineNumber = Math.max(totalLineNumber, summary[0]);
+        minTimeStamp = Math.min(minTimeStamp, summary[1]);
+        maxTimeStamp = Math.max(maxTimeStamp, summary[2]);
+      }
+    }
+    if (totalLineNumber == 0) {
+      return new DeviceSummary(deviceSchema.getDevice(), 0, 0, 0);
+    }
+    return new DeviceSummary(
+        deviceSchema.getDevice(), (int) totalLineNumber, minTimeStamp, maxTimeStamp);
+  }
+
+  private static String getKey(DeviceSchema deviceSchema, Sensor sensor) {
+    return deviceSchema.getGroup() + "." + deviceSchema.getDevice() + "." + sensor.getName();
+  }
+
+  /**
+   * Get the queried series, the sensors of the first device are queried in each device. The
+   * columns are ordered by sensor and then by device like IoTDB. The series never written is null.
+   */
+  private List<Series> getSeries(List<DeviceSchema> deviceSchemas) {
+    List<Sensor> sensors = deviceSchemas.get(0).getSensors();
+    List<Series> seriesList = new ArrayList<>(sensors.size() * deviceSchemas.size());
+    for (Sensor sensor : sensors) {
+      for (DeviceSchema deviceSchema : deviceSchemas) {
+        seriesList.add(store.getSeries(getKey(deviceSchema, sensor)));
+      }
+    }
+    return seriesList;
+  }
+
+  /** Collect the points in [startTime, endTime] of each queried series */
+  private List<Column> collect(List<DeviceSchema> deviceSchemas, long startTime, long endTime) {
+    List<Series> seriesList = getSeries(deviceSchemas);
+    List<Column> columns = new ArrayList<>(seriesList.size());
+    for (Series series : seriesList) {
+      Column column = new Column();
+      if (series != null) {
+        series.forEach(startTime, endTime, column);
+      }
+      columns.add(column);
+    }
+    return columns;
+  }
+
+  /**
+   * Pass the rows of the columns aligned by time to the consumer. A cell is null if its column has
+   * no point at the time, and the cells are reused by the next row.
+   */
+  private static void alignByTime(List<Column> columns, boolean desc, RowConsumer consumer) {
+    int[] cursors = new int[columns.size()];
+    if (desc) {
+      for (int c = 0; c < cursors.length; c++) {
+        cursors[c] = columns.get(c).size - 1;
+      }
+    }
+    Object[] cells = new Object[columns.size()];
+    while (true) {
+      boolean found = false;
+      long time = 0;
+      for (int c = 0; c < cursors.length; c++) {
+        Column column = columns.get(c);
+        if (cursors[c] >= 0 && cursors[c] < column.size) {
+          long t = column.times[cursors[c]];
+          if (!found || (desc ? t > time : t < time)) {
+            time = t;
+            found = true;
+          }
+        }
+      }
+      if (!found) {
+        return;
+      }
+      for (int c = 0; c < cursors.length; c++) {
+        Column column = columns.get(c);
+        if (cursors[c] >= 0 && cursors[c] < column.size && column.times[cursors[c]] == time) {
+          cells[c] = column.values[cursors[c]];
+          cursors[c] += desc ? -1 : 1;
+        } else {
+          cells[c] = null;
+        }
+      }
+      consumer.accept(time, cells);
+    }
+  }
+
+  /** Whether every cell of the row is a number greater than the threshold */
+  private static boolean isGreater(Object[] cells, double threshold) {
+    for (Object cell : cells) {
+      if (!(cell instanceof Number) || ((Number) cell).doubleValue() <= threshold) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Status execute(
+      Query query, List<DeviceSchema> deviceSchemas, Consumer<QueryResult> runner) {
+    try {
+      QueryResult result = new QueryResult();
+      runner.accept(result);
+      int seriesNum = deviceSchemas.size() * deviceSchemas.get(0).getSensors().size();
+      return result.toStatus(query.getQueryAttrs().toString(), seriesNum);
+    } catch (Exception e) {
+      LOGGER.error("Failed to execute {} because ", query.getQueryAttrs(), e);
+      return new Status(false, 0, e, e.getMessage());
+    }
+  }
+
+  @FunctionalInterface
+  private interface RowConsumer {
+    void accept(long time, Object[] cells);
+  }
+
+  /** The points of one series in a time range */
+  private static class Column implements Series.PointConsumer {
+    private long[] times = new long[16];
+    private Object[] values = new Object[16];
+    private int size = 0;
+
+    @Override
+    public void accept(long time, Object value) {
+      if (size == times.length) {
+        times = Arrays.copyOf(times, size * 2);
+        values = Arrays.copyOf(values, size * 2);
+      }
+      times[size] = time;
+      values[size++] = value;
+    }
+  }
+
+  /** The rows of a query, kept for comparison like the other databases when IS_COMPARISON */
+  private static class QueryResult {
+    private final List<List<Object>> records =
+        config.isIS_COMPARISON() && !config.isIS_STREAMING_QUERY() ? new ArrayList<>() : null;
+    private final ResultChecksum checksum =
+        config.isIS_COMPARISON() && config.isIS_STREAMING_QUERY()
+            ? new ResultChecksum(config.getCOMPARISON_BUCKET_MS())
+            : null;
+    /** The device of each cell of the rows, null if the cells are checksummed without device */
+    private String[] cellDevices = null;
+
+    private int line = 0;
+
+    /** The cells are ordered by sensor and then by device, see getSeries */
+    private void setCellDevices(List<DeviceSchema> deviceSchemas) {
+      int sensorNum = deviceSchemas.get(0).getSensors().size();
+      cellDevices = new String[sensorNum * deviceSchemas.size()];
+      for (int c = 0; c < cellDevices.length; c++) {
+        cellDevices[c] = deviceSchemas.get(c % deviceSchemas.size()).getDevice();
+      }
+    }
+
+    private void addRow(long time, Object[] cells) {
+      line++;
+      if (checksum != null && cellDevices != null) {
+        checksum.update(time, null);
+        for (int c = 0; c < cells.length; c++) {
+          checksum.update(cells[c], cellDevices[c]);
+        }
+        checksum.endRow();
+      } else if (records != null || checksum != null) {
+        List<Object> row = new ArrayList<>(cells.length + 1);
+        row.add(time);
+        row.addAll(Arrays.asList(cells));
+        addValues(row);
+      }
+    }
+
+    private void addRow(List<Object> row) {
+      line++;
+      addValues(row);
+    }
+
+    private void addValues(List<Object> row) {
+      if (records != null) {
+        records.add(row);
+      } else if (checksum != null) {
+        checksum.update(row);
+      }
+    }
+
+    /** The result points are the rows multiplied by the queried series, like IoTDB */
+    private Status toStatus(String sql, int seriesNum) {
+      int point = line * seriesNum;
+      if (records != null) {
+        return new Status(true, point, sql, records);
+      } else if (checksum != null) {
+        return new Status(true, point, sql, checksum);
+      }
+      return new Status(true, point);
+    }
+  }
+}
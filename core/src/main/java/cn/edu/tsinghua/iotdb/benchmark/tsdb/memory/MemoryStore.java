@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.tsdb.memory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The series of one database of MemoryDB, shared by the MemoryDB instances of all clients like the
+ * data of a real database. The series is keyed by the path of the device and the sensor name.
+ */
+public class MemoryStore {
+
+  /** The stores keyed by DB_NAME, so the two databases of double write don't share data */
+  private static final Map<String, MemoryStore> STORES = new ConcurrentHashMap<>();
+
+  private final Map<String, Series> seriesMap = new ConcurrentHashMap<>();
+
+  MemoryStore() {}
+
+  public static MemoryStore getInstance(String dbName) {
+    return STORES.computeIfAbsent(dbName, name -> new MemoryStore());
+  }
+
+  public Series getOrCreateSeries(String key) {
+    return seriesMap.computeIfAbsent(key, k -> new Series());
+  }
+
+  /** Get the series, null if nothing is written into it */
+  public Series getSeries(String key) {
+    return seriesMap.get(key);
+  }
+
+  public void clear() {
+    seriesMap.clear();
+  }
+}
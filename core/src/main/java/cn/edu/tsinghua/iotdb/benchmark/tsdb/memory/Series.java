@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.tsdb.memory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The points of one sensor, kept in a list of chunks. Each chunk holds the times and the values of
+ * at most CHUNK_SIZE points in ascending order of time, and the chunks do not overlap, so appending
+ * in order only fills the last chunk, and a point out of order is inserted into its chunk, which is
+ * split in halves when it is full. A point with an existing time overwrites the old value.
+ */
+public class Series {
+
+  static final int CHUNK_SIZE = 1024;
+
+  private final List<Chunk> chunks = new ArrayList<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private int size = 0;
+
+  /** Consume the points of a series in the order of time */
+  @FunctionalInterface
+  public interface PointConsumer {
+    void accept(long time, Object value);
+  }
+
+  private static class Chunk {
+    private final long[] times = new long[CHUNK_SIZE];
+    private final Object[] values = new Object[CHUNK_SIZE];
+    private int size = 0;
+  }
+
+  /** Write the first size points of times and values */
+  public void write(long[] times, Object[] values, int size) {
+    lock.writeLock().lock();
+    try {
+      for (int i = 0; i < size; i++) {
+        put(times[i], values[i]);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void put(long time, Object value) {
+    Chunk last = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+    if (last == null || time > last.times[last.size - 1]) {
+      if (last == null || last.size == CHUNK_SIZE) {
+        last = new Chunk();
+        chunks.add(last);
+      }
+      last.times[last.size] = time;
+      last.values[last.size++] = value;
+      size++;
+      return;
+    }
+    int chunkIndex = findChunk(time);
+    Chunk chunk = chunks.get(chunkIndex);
+    int pos = Arrays.binarySearch(chunk.times, 0, chunk.size, time);
+    if (pos >= 0) {
+      chunk.values[pos] = value;
+      return;
+    }
+    pos = -pos - 1;
+    if (chunk.size == CHUNK_SIZE) {
+      int half = CHUNK_SIZE / 2;
+      Chunk right = new Chunk();
+      System.arraycopy(chunk.times, half, right.times, 0, CHUNK_SIZE - half);
+      System.arraycopy(chunk.values, half, right.values, 0, CHUNK_SIZE - half);
+      Arrays.fill(chunk.values, half, CHUNK_SIZE, null);
+      right.size = CHUNK_SIZE - half;
+      chunk.size = half;
+      chunks.add(chunkIndex + 1, right);
+      if (pos > half) {
+        chunk = right;
+        pos -= half;
+      }
+    }
+    System.arraycopy(chunk.times, pos, chunk.times, pos + 1, chunk.size - pos);
+    System.arraycopy(chunk.values, pos, chunk.values, pos + 1, chunk.size - pos);
+    chunk.times[pos] = time;
+    chunk.values[pos] = value;
+    chunk.size++;
+    size++;
+  }
+
+  /** Get the index of the last chunk starting at or before time, or 0 if there is none */
+  private int findChunk(long time) {
+    int low = 0;
+    int high = chunks.size() - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (chunks.get(mid).times[0] <= time) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  /** Pass the points in [startTime, endTime] to the consumer in ascending order of time */
+  public void forEach(long startTime, long endTime, PointConsumer consumer) {
+    lock.readLock().lock();
+    try {
+      if (chunks.isEmpty()) {
+        return;
+      }
+      int first = findChunk(startTime);
+      for (int c = first; c < chunks.size(); c++) {
+        Chunk chunk = chunks.get(c);
+        int i = 0;
+        if (c == first) {
+          i = Arrays.binarySearch(chunk.times, 0, chunk.size, startTime);
+          i = i >= 0 ? i : -i - 1;
+        }
+        for (; i < chunk.size; i++) {
+          if (chunk.times[i] > endTime) {
+            return;
+          }
+          consumer.accept(chunk.times[i], chunk.values[i]);
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Pass the latest point to the consumer
+   *
+   * @return false if the series is empty
+   */
+  public boolean last(PointConsumer consumer) {
+    lock.readLock().lock();
+    try {
+      if (chunks.isEmpty()) {
+        return false;
+      }
+      Chunk chunk = chunks.get(chunks.size() - 1);
+      consumer.accept(chunk.times[chunk.size - 1], chunk.values[chunk.size - 1]);
+      return true;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Get the number of points, the min and the max time, the times are 0 if it is empty */
+  public long[] getSummary() {
+    lock.readLock().lock();
+    try {
+      if (chunks.isEmpty()) {
+        return new long[] {0, 0, 0};
+      }
+      Chunk last = chunks.get(chunks.size() - 1);
+      return new long[] {size, chunks.get(0).times[0], last.times[last.size - 1]};
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+}
@@ -254,6 +254,32 @@ public class ReadWriteIOUtils {
     return DOUBLE_LEN;
   }
 
+  /**
+   * write a long n to byteBuffer as zigzag varint, so a value near 0 takes less bytes.
+   *
+   * @return The number of bytes used to represent n.
+   */
+  public static int writeVarLong(long n, ByteBuffer buffer) {
+    long value = (n << 1) ^ (n >> 63);
+    int len = 1;
+    while ((value & ~0x7FL) != 0) {
+      buffer.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+      len++;
+    }
+    buffer.put((byte) value);
+    return len;
+  }
+
+  /**
+   * write a int n to byteBuffer as zigzag varint, so a value near 0 takes less bytes.
+   *
+   * @return The number of bytes used to represent n.
+   */
+  public static int writeVarInt(int n, ByteBuffer buffer) {
+    return writeVarLong(n, buffer);
+  }
+
   /**
    * write string to outputStream.
    *
@@ -384,6 +410,24 @@ public class ReadWriteIOUtils {
     return buffer.getInt();
   }
 
+  /** read a zigzag varint long from byteBuffer. */
+  public static long readVarLong(ByteBuffer buffer) {
+    long value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = buffer.get();
+      value |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /** read a zigzag varint int from byteBuffer. */
+  public static int readVarInt(ByteBuffer buffer) {
+    return (int) readVarLong(buffer);
+  }
+
   /**
    * read an unsigned byte(0 ~ 255) as InputStream does.
    *
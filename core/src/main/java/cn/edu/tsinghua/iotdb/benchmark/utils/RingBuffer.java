@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer for multiple producers and multiple consumers. Each slot carries a
+ * sequence number telling whether it is ready to be written or read in the current lap, so offer
+ * and poll only need one CAS on the tail or the head and never block.
+ */
+public class RingBuffer<T> {
+
+  private final AtomicReferenceArray<T> elements;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  /** The next position to write */
+  private final AtomicLong tail = new AtomicLong();
+  /** The next position to read */
+  private final AtomicLong head = new AtomicLong();
+
+  /** @param capacity the number of slots, rounded up to a power of 2 */
+  public RingBuffer(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+    int slotNumber = Integer.highestOneBit(capacity);
+    if (slotNumber < capacity) {
+      slotNumber <<= 1;
+    }
+    this.elements = new AtomicReferenceArray<>(slotNumber);
+    this.sequences = new AtomicLongArray(slotNumber);
+    for (int i = 0; i < slotNumber; i++) {
+      sequences.set(i, i);
+    }
+    this.mask = slotNumber - 1;
+  }
+
+  /**
+   * Put element at the tail
+   *
+   * @return false if the buffer is full
+   */
+  public boolean offer(T element) {
+    if (element == null) {
+      throw new NullPointerException("element must not be null");
+    }
+    while (true) {
+      long position = tail.get();
+      int index = (int) (position & mask);
+      long difference = sequences.get(index) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          elements.set(index, element);
+          // publish the element to the consumer of this lap
+          sequences.set(index, position + 1);
+          return true;
+        }
+      } else if (difference < 0) {
+        // the slot is not consumed since the last lap
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Take the element at the head
+   *
+   * @return null if the buffer is empty
+   */
+  public T poll() {
+    while (true) {
+      long position = head.get();
+      int index = (int) (position & mask);
+      long difference = sequences.get(index) - (position + 1);
+      if (difference == 0) {
+        if (head.compareAndSet(position, position + 1)) {
+          T element = elements.getAndSet(index, null);
+          // release the slot to the producer of the next lap
+          sequences.set(index, position + mask + 1);
+          return element;
+        }
+      } else if (difference < 0) {
+        // the slot is not published yet
+        return null;
+      }
+    }
+  }
+
+  /** The number of elements, which may be stale under concurrent access */
+  public int size() {
+    long size = tail.get() - head.get();
+    return (int) Math.max(0, Math.min(size, capacity()));
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public int capacity() {
+    return mask + 1;
+  }
+}
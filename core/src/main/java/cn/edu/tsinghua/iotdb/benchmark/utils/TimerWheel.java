@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timer wheel. A task is put into the slot of its deadline tick, so scheduling is O(1) and
+ * advancing only touches the slots of passed ticks, whatever the number of scheduled tasks is. The
+ * tasks whose deadlines are more than one wheel away stay in their slot until their tick comes.
+ *
+ * <p>It is not thread-safe, each client owns its wheel.
+ */
+public class TimerWheel<T> {
+
+  private final List<ArrayDeque<Timeout<T>>> slots;
+  private final int mask;
+  private final long tickMs;
+  private final long startMs;
+  /** The first tick that is not expired yet */
+  private long currentTick = 0;
+
+  private int size = 0;
+
+  /**
+   * @param wheelSize the number of slots, rounded up to a power of 2
+   * @param tickMs the time of one tick in millisecond
+   * @param startMs the time of tick 0 in millisecond
+   */
+  public TimerWheel(int wheelSize, long tickMs, long startMs) {
+    if (wheelSize <= 0 || tickMs <= 0) {
+      throw new IllegalArgumentException("wheelSize and tickMs must be positive");
+    }
+    int slotNumber = Integer.highestOneBit(wheelSize);
+    if (slotNumber < wheelSize) {
+      slotNumber <<= 1;
+    }
+    this.slots = new ArrayList<>(slotNumber);
+    for (int i = 0; i < slotNumber; i++) {
+      slots.add(new ArrayDeque<>());
+    }
+    this.mask = slotNumber - 1;
+    this.tickMs = tickMs;
+    this.startMs = startMs;
+  }
+
+  /** Schedule task at deadlineMs, the task whose deadline has passed expires at the next advance */
+  public void schedule(T task, long deadlineMs) {
+    long tick = Math.max(currentTick, Math.floorDiv(deadlineMs - startMs, tickMs));
+    slots.get((int) (tick & mask)).add(new Timeout<>(task, tick));
+    size++;
+  }
+
+  /**
+   * Expire the tasks whose deadlines are not after nowMs
+   *
+   * @param expired the expired tasks are added into it by the order of slots
+   */
+  public void advance(long nowMs, List<T> expired) {
+    long targetTick = Math.floorDiv(nowMs - startMs, tickMs);
+    // a full round visits every slot, so the ticks passed by more than one round are skipped
+    long lastTick = Math.min(targetTick, currentTick + mask);
+    for (long tick = currentTick; tick <= lastTick && size > 0; tick++) {
+      Iterator<Timeout<T>> iterator = slots.get((int) (tick & mask)).iterator();
+      while (iterator.hasNext()) {
+        Timeout<T> timeout = iterator.next();
+        if (timeout.tick <= targetTick) {
+          iterator.remove();
+          size--;
+          expired.add(timeout.task);
+        }
+      }
+    }
+    currentTick = Math.max(currentTick, targetTick + 1);
+  }
+
+  /** Get the time when the next tick expires */
+  public long getNextTickMs() {
+    return startMs + currentTick * tickMs;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  private static class Timeout<T> {
+    private final T task;
+    private final long tick;
+
+    private Timeout(T task, long tick) {
+      this.task = task;
+      this.tick = tick;
+    }
+  }
+}
@@ -20,6 +20,7 @@
 package cn.edu.tsinghua.iotdb.benchmark.workload;
 
 import cn.edu.tsinghua.iotdb.benchmark.conf.Constants;
+import cn.edu.tsinghua.iotdb.benchmark.distribution.AccessDistribution;
 import cn.edu.tsinghua.iotdb.benchmark.distribution.ProbTool;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
@@ -59,14 +60,19 @@ public abstract class GenerateDataWorkLoad extends DataWorkLoad {
 
   @Override
   public Batch getOneBatch() throws WorkloadException {
+    return getOneBatch(config.getBATCH_SIZE_PER_WRITE());
+  }
+
+  @Override
+  public Batch getOneBatch(int batchSize) throws WorkloadException {
     if (!config.isIS_OUT_OF_ORDER()) {
-      return getOrderedBatch();
+      return getOrderedBatch(batchSize);
     } else {
       switch (config.getOUT_OF_ORDER_MODE()) {
         case POISSON:
-          return getDistOutOfOrderBatch();
+          return getDistOutOfOrderBatch(batchSize);
         case BATCH:
-          return getLocalOutOfOrderBatch();
+          return getLocalOutOfOrderBatch(batchSize);
         default:
           throw new WorkloadException(
               "Unsupported out of order mode: " + config.getOUT_OF_ORDER_MODE());
@@ -79,27 +85,35 @@ public abstract class GenerateDataWorkLoad extends DataWorkLoad {
     return config.getDEVICE_NUMBER() * config.getLOOP();
   }
 
-  protected abstract Batch getOrderedBatch();
+  protected abstract Batch getOrderedBatch(int batchSize);
 
-  protected abstract Batch getDistOutOfOrderBatch();
+  protected abstract Batch getDistOutOfOrderBatch(int batchSize);
 
-  protected abstract Batch getLocalOutOfOrderBatch();
+  protected abstract Batch getLocalOutOfOrderBatch(int batchSize);
 
   /** Add one row into batch, row contains data from all sensors */
   protected void addOneRowIntoBatch(Batch batch, long stepOffset) {
-    List<Object> values = new ArrayList<>();
     long currentTimestamp = getCurrentTimestamp(stepOffset);
-    if (batch.getColIndex() == -1) {
+    batch.add(currentTimestamp, getRowValues(batch.getColIndex(), stepOffset));
+  }
+
+  /**
+   * Get the values of one row
+   *
+   * @param colIndex the index of sensor, -1 means all sensors
+   * @param stepOffset the index of row
+   */
+  public static List<Object> getRowValues(int colIndex, long stepOffset) {
+    List<Object> values = new ArrayList<>();
+    int valueIndex = (int) (Math.abs(stepOffset) % config.getWORKLOAD_BUFFER_SIZE());
+    if (colIndex == -1) {
       for (int i = 0; i < config.getSENSOR_NUMBER(); i++) {
-        values.add(
-            workloadValues[i][(int) (Math.abs(stepOffset) % config.getWORKLOAD_BUFFER_SIZE())]);
+        values.add(workloadValues[i][valueIndex]);
       }
     } else {
-      values.add(
-          workloadValues[batch.getColIndex()][
-              (int) (Math.abs(stepOffset) % config.getWORKLOAD_BUFFER_SIZE())]);
+      values.add(workloadValues[colIndex][valueIndex]);
     }
-    batch.add(currentTimestamp, values);
+    return values;
   }
 
   /** Get timestamp according to stepOffset */
@@ -117,7 +131,9 @@ public abstract class GenerateDataWorkLoad extends DataWorkLoad {
       timestamp += config.getPOINT_STEP() * timestampRandom.nextDouble();
     }
     long currentTimestamp = Constants.START_TIMESTAMP * timeStampConst + offset + timestamp;
-    if (config.isIS_RECENT_QUERY()) {
+    // the sampled time windows of queries also count backwards from the latest written timestamp
+    if (config.isIS_RECENT_QUERY()
+        || config.getQUERY_TIME_DISTRIBUTION() != AccessDistribution.DEFAULT) {
       this.currentTimestamp = Math.max(this.currentTimestamp, currentTimestamp);
     }
     return currentTimestamp;
@@ -21,6 +21,7 @@ package cn.edu.tsinghua.iotdb.benchmark.workload;
 
 import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Constants;
+import cn.edu.tsinghua.iotdb.benchmark.distribution.AliasTable;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
 import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
@@ -43,7 +44,34 @@ public class GenerateQueryWorkLoad extends QueryWorkLoad {
   private static final long timeStampConst =
       TimeUtils.getTimestampConst(config.getTIMESTAMP_PRECISION());
   private static AtomicInteger nowDeviceId = new AtomicInteger(config.getFIRST_DEVICE_INDEX());
+  /** The max number of time buckets in the alias table of time windows */
+  private static final int MAX_TIME_BUCKET_NUMBER = 65536;
+  /** The number of timestamps of each device, the time windows are sampled among them */
+  private static final long TIME_SLOT_NUMBER =
+      Math.max(1L, config.getLOOP() * config.getBATCH_SIZE_PER_WRITE());
+  /** The number of timestamps in one bucket of the time alias table */
+  private static final int TIME_BUCKET_WIDTH =
+      (int) ((TIME_SLOT_NUMBER + MAX_TIME_BUCKET_NUMBER - 1) / MAX_TIME_BUCKET_NUMBER);
+  /** The number of devices to query, the same as the devices written with REAL_INSERT_RATE */
+  private static final int QUERY_DEVICE_RANGE =
+      (int) Math.ceil(config.getDEVICE_NUMBER() * config.getREAL_INSERT_RATE());
+  /** Alias table of devices, device with smaller index is hotter, null means the default way */
+  private static final AliasTable deviceAliasTable =
+      buildAliasTable(config.getQUERY_DEVICE_DISTRIBUTION().getWeights(QUERY_DEVICE_RANGE));
+  /** Alias table of time buckets, bucket 0 is the latest, null means the default way */
+  private static final AliasTable timeAliasTable =
+      buildAliasTable(
+          config.getQUERY_TIME_DISTRIBUTION().getWeights(
+              (int) ((TIME_SLOT_NUMBER + TIME_BUCKET_WIDTH - 1) / TIME_BUCKET_WIDTH)));
   private Long currentTimestamp = null;
+  /**
+   * The offsets of the devices to query by deviceAliasTable. The devices sampled for a query are
+   * swapped to the front, so sampling allocates nothing and finds the sampled devices by their
+   * positions.
+   */
+  private final int[] deviceOffsets;
+  /** The position of each device offset in deviceOffsets */
+  private final int[] devicePositions;
 
   private static final Map<Operation, Long> operationLoops = new EnumMap<>(Operation.class);;
 
@@ -51,6 +79,13 @@ public class GenerateQueryWorkLoad extends QueryWorkLoad {
     for (Operation operation : Operation.values()) {
       operationLoops.put(operation, 0L);
     }
+    int deviceNumber = deviceAliasTable == null ? 0 : QUERY_DEVICE_RANGE;
+    deviceOffsets = new int[deviceNumber];
+    devicePositions = new int[deviceNumber];
+    for (int i = 0; i < deviceNumber; i++) {
+      deviceOffsets[i] = i;
+      devicePositions[i] = i;
+    }
   }
 
   @Override
@@ -144,13 +179,16 @@ public class GenerateQueryWorkLoad extends QueryWorkLoad {
   }
 
   @Override
-  public DeviceQuery getDeviceQuery() {
-    Integer deviceId = nowDeviceId.getAndIncrement();
-    if (deviceId >= config.getFIRST_DEVICE_INDEX() + config.getDEVICE_NUMBER()) {
-      return null;
+  public List<DeviceQuery> getDeviceQueries(int number) {
+    int endDeviceId = config.getFIRST_DEVICE_INDEX() + config.getDEVICE_NUMBER();
+    int startDeviceId = nowDeviceId.getAndAdd(number);
+    List<DeviceQuery> deviceQueries = new ArrayList<>();
+    for (int deviceId = startDeviceId;
+        deviceId < Math.min(startDeviceId + number, endDeviceId);
+        deviceId++) {
+      deviceQueries.add(new DeviceQuery(new DeviceSchema(deviceId, config.getSENSORS())));
     }
-    DeviceSchema deviceSchema = new DeviceSchema(deviceId, config.getSENSORS());
-    return new DeviceQuery(deviceSchema);
+    return deviceQueries;
   }
 
   @Override
@@ -158,7 +196,17 @@ public class GenerateQueryWorkLoad extends QueryWorkLoad {
     this.currentTimestamp = currentTimestamp;
   }
 
+  private static AliasTable buildAliasTable(double[] weights) {
+    if (weights == null || weights.length == 0) {
+      return null;
+    }
+    return new AliasTable(weights);
+  }
+
   private long getQueryStartTimestamp(Operation operation) {
+    if (timeAliasTable != null) {
+      return getSampledQueryStartTimestamp(operation);
+    }
     if (currentTimestamp != null) {
       if (operation == Operation.PRECISE_QUERY) {
         return currentTimestamp;
@@ -174,6 +222,80 @@ public class GenerateQueryWorkLoad extends QueryWorkLoad {
     return Constants.START_TIMESTAMP * timeStampConst + timestampOffset;
   }
 
+  /**
+   * Sample the start of the time window, counting backwards from the latest timestamp written by
+   * the client, or from the last timestamp of the data if the client has written nothing.
+   */
+  private long getSampledQueryStartTimestamp(Operation operation) {
+    long firstTimestamp = Constants.START_TIMESTAMP * timeStampConst;
+    long latestTimestamp =
+        currentTimestamp != null && currentTimestamp >= firstTimestamp
+            ? currentTimestamp
+            : firstTimestamp + (TIME_SLOT_NUMBER - 1) * config.getPOINT_STEP();
+    long slot =
+        (long) timeAliasTable.sample(queryDeviceRandom) * TIME_BUCKET_WIDTH
+            + queryDeviceRandom.nextInt(TIME_BUCKET_WIDTH);
+    long startTimestamp = latestTimestamp - slot * config.getPOINT_STEP();
+    if (operation != Operation.PRECISE_QUERY) {
+      startTimestamp -= config.getQUERY_INTERVAL();
+    }
+    return Math.max(firstTimestamp, startTimestamp);
+  }
+
+  /**
+   * Get the ids of devices to query in order. The default way shuffles all devices, so that the
+   * devices of a QUERY_SEED are the same as before.
+   */
+  private List<Integer> getQueryDeviceIds() {
+    List<Integer> deviceIds = new ArrayList<>();
+    if (deviceAliasTable == null) {
+      for (int offset = 0; offset < QUERY_DEVICE_RANGE; offset++) {
+        deviceIds.add(config.getFIRST_DEVICE_INDEX() + offset);
+      }
+      Collections.shuffle(deviceIds, queryDeviceRandom);
+    } else {
+      int sampledNum = sampleDevices();
+      for (int m = 0; m < sampledNum; m++) {
+        deviceIds.add(config.getFIRST_DEVICE_INDEX() + deviceOffsets[m]);
+      }
+    }
+    return deviceIds;
+  }
+
+  /**
+   * Sample QUERY_DEVICE_NUM different devices from the device alias table to the front of
+   * deviceOffsets
+   *
+   * @return the number of sampled devices
+   */
+  private int sampleDevices() {
+    int deviceNumber = deviceAliasTable.size();
+    int queryDeviceNum = Math.min(config.getQUERY_DEVICE_NUM(), deviceNumber);
+    int sampledNum = 0;
+    // give up sampling for highly skewed distributions and fill with the hottest devices left
+    int maxTry = queryDeviceNum * 100;
+    for (int i = 0; sampledNum < queryDeviceNum && i < maxTry; i++) {
+      int position = devicePositions[deviceAliasTable.sample(queryDeviceRandom)];
+      if (position >= sampledNum) {
+        swapDevices(sampledNum++, position);
+      }
+    }
+    for (int offset = 0; sampledNum < queryDeviceNum && offset < deviceNumber; offset++) {
+      if (devicePositions[offset] >= sampledNum) {
+        swapDevices(sampledNum++, devicePositions[offset]);
+      }
+    }
+    return sampledNum;
+  }
+
+  private void swapDevices(int i, int j) {
+    int offset = deviceOffsets[i];
+    deviceOffsets[i] = deviceOffsets[j];
+    deviceOffsets[j] = offset;
+    devicePositions[deviceOffsets[i]] = i;
+    devicePositions[deviceOffsets[j]] = j;
+  }
+
   /**
    * Return the list of deviceSchema
    *
@@ -182,19 +304,11 @@ public class GenerateQueryWorkLoad extends QueryWorkLoad {
   private List<DeviceSchema> getQueryDeviceSchemaList(boolean typeAllow) throws WorkloadException {
     checkQuerySchemaParams();
     List<DeviceSchema> queryDevices = new ArrayList<>();
-    List<Integer> clientDevicesIndex = new ArrayList<>();
-    for (int m = config.getFIRST_DEVICE_INDEX();
-        m
-            < config.getDEVICE_NUMBER() * config.getREAL_INSERT_RATE()
-                + config.getFIRST_DEVICE_INDEX();
-        m++) {
-      clientDevicesIndex.add(m);
-    }
-    Collections.shuffle(clientDevicesIndex, queryDeviceRandom);
+    List<Integer> queryDeviceIds = getQueryDeviceIds();
     for (int m = 0;
-        queryDevices.size() < config.getQUERY_DEVICE_NUM() && m < clientDevicesIndex.size();
+        queryDevices.size() < config.getQUERY_DEVICE_NUM() && m < queryDeviceIds.size();
         m++) {
-      int deviceId = clientDevicesIndex.get(m);
+      int deviceId = queryDeviceIds.get(m);
       List<Sensor> sensors = config.getSENSORS();
       Collections.shuffle(sensors, queryDeviceRandom);
       List<Sensor> querySensors = new ArrayList<>();
@@ -0,0 +1,346 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.workload;
+
+import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.Measurement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Search the max sustainable operations per second of all clients. Each step is a stage of fixed
+ * target rate, the target grows by SATURATION_GROWTH_FACTOR until a step is unsustainable, then
+ * the rate between the last sustainable step and the first unsustainable one is bisected until
+ * they are within SATURATION_PRECISION. A step is sustainable if the latency percentile of every
+ * operation is within SATURATION_LATENCY_SLO_MS and the achieved rate reaches the target.
+ */
+public class SaturationSearch {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SaturationSearch.class);
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+
+  /** A step whose achieved rate is below this ratio of the target is unsustainable */
+  private static final double MIN_ACHIEVED_RATIO = 0.9;
+
+  private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999, 1.0};
+  private static final String[] QUANTILE_NAMES = {"P50", "P90", "P99", "P999", "MAX"};
+  private static final String SEPARATOR = ",";
+
+  private final int clientNumber;
+  private final long stepDuration;
+  private final double growthFactor;
+  private final double latencySlo;
+  private final double percentile;
+  private final double precision;
+  private final int maxSteps;
+  private final long startTime = System.currentTimeMillis();
+
+  /** The finished steps */
+  private final List<Step> steps = new ArrayList<>();
+  /** The target rate of current step, 0 when the search finishes */
+  private double targetOps;
+  /** The max sustainable and the min unsustainable target rate, 0 if not found */
+  private double sustainableOps = 0;
+  private double unsustainableOps = 0;
+  /** The measurement merged from the clients which finish current step */
+  private Measurement stepMeasurement = new Measurement();
+  private double stepElapseTime = 0;
+  private int finishedClientNum = 0;
+
+  SaturationSearch(
+      int clientNumber,
+      double startOps,
+      long stepDuration,
+      double growthFactor,
+      double latencySlo,
+      double percentile,
+      double precision,
+      int maxSteps) {
+    this.clientNumber = clientNumber;
+    this.targetOps = startOps;
+    this.stepDuration = stepDuration;
+    this.growthFactor = growthFactor;
+    this.latencySlo = latencySlo;
+    this.percentile = percentile;
+    this.precision = precision;
+    this.maxSteps = maxSteps;
+  }
+
+  public static SaturationSearch getInstance() {
+    return SaturationSearchHolder.INSTANCE;
+  }
+
+  private static class SaturationSearchHolder {
+    private static final SaturationSearch INSTANCE =
+        new SaturationSearch(
+            config.getCLIENT_NUMBER(),
+            config.getSATURATION_START_OPS(),
+            config.getSATURATION_STEP_DURATION(),
+            config.getSATURATION_GROWTH_FACTOR(),
+            config.getSATURATION_LATENCY_SLO_MS(),
+            config.getSATURATION_LATENCY_PERCENTILE(),
+            config.getSATURATION_PRECISION(),
+            config.getSATURATION_MAX_STEPS());
+  }
+
+  /**
+   * Get the stage of step, all clients call it after all of them finish the previous step
+   *
+   * @return null when the search finishes
+   */
+  public synchronized WorkloadStage getStep(int stepIndex) {
+    if (targetOps <= 0 || stepIndex >= maxSteps) {
+      return null;
+    }
+    return new WorkloadStage(
+        "step-" + stepIndex,
+        stepDuration,
+        targetOps,
+        targetOps,
+        clientNumber,
+        config.getOPERATION_PROPORTION(),
+        config.getBATCH_SIZE_PER_WRITE());
+  }
+
+  /** Merge the measurement of a client, the step is judged when all clients finish it */
+  public synchronized void finishStep(Measurement clientMeasurement) {
+    stepMeasurement.mergeMeasurement(clientMeasurement);
+    stepElapseTime = Math.max(stepElapseTime, clientMeasurement.getElapseTime());
+    if (++finishedClientNum == clientNumber) {
+      stepMeasurement.setElapseTime(stepElapseTime);
+      judgeStep(stepMeasurement);
+      stepMeasurement = new Measurement();
+      stepElapseTime = 0;
+      finishedClientNum = 0;
+    }
+  }
+
+  /** Judge whether the merged measurement of current step is sustainable and choose next target */
+  void judgeStep(Measurement measurement) {
+    long okOperationNum = 0;
+    double worstLatency = 0;
+    for (Operation operation : Operation.values()) {
+      if (measurement.getOkOperationNum(operation) > 0) {
+        okOperationNum += measurement.getOkOperationNum(operation);
+        worstLatency =
+            Math.max(worstLatency, measurement.getLatencyQuantile(operation, percentile));
+      }
+    }
+    double achievedOps =
+        measurement.getElapseTime() > 0 ? okOperationNum / measurement.getElapseTime() : 0;
+    boolean sustainable =
+        worstLatency <= latencySlo && achievedOps >= targetOps * MIN_ACHIEVED_RATIO;
+    steps.add(new Step(targetOps, achievedOps, worstLatency, sustainable, measurement));
+    LOGGER.info(
+        "Step {}: target {} ops/s, achieved {} ops/s, latency {} ms at percentile {}, {}",
+        steps.size() - 1,
+        String.format("%.2f", targetOps),
+        String.format("%.2f", achievedOps),
+        String.format("%.2f", worstLatency),
+        percentile,
+        sustainable ? "sustainable" : "unsustainable");
+
+    if (sustainable) {
+      sustainableOps = Math.max(sustainableOps, targetOps);
+    } else if (unsustainableOps == 0 || targetOps < unsustainableOps) {
+      unsustainableOps = targetOps;
+    }
+    if (unsustainableOps == 0) {
+      targetOps *= growthFactor;
+    } else if (unsustainableOps - sustainableOps <= precision * unsustainableOps) {
+      targetOps = 0;
+    } else {
+      targetOps = (sustainableOps + unsustainableOps) / 2;
+    }
+    if (steps.size() >= maxSteps) {
+      targetOps = 0;
+    }
+  }
+
+  /** The progress in percent, which is the finished steps of max steps until it finishes */
+  public synchronized double getProgress() {
+    return targetOps <= 0 ? 100.0D : steps.size() * 100.0D / maxSteps;
+  }
+
+  public synchronized double getSustainableOps() {
+    return sustainableOps;
+  }
+
+  public synchronized List<Step> getSteps() {
+    return new ArrayList<>(steps);
+  }
+
+  /** Show the max sustainable rate and the curve, and export the curve into data/csvOutput */
+  public void showResult() {
+    List<Step> finishedSteps = getSteps();
+    System.out.println("Saturation search:");
+    String format = "%-8s%-20s%-20s%-25s%-15s%n";
+    String latencyName = "Latency(ms)@" + percentile;
+    System.out.printf(
+        format, "Step", "Target(op/s)", "Achieved(op/s)", latencyName, "Sustainable");
+    for (int i = 0; i < finishedSteps.size(); i++) {
+      Step step = finishedSteps.get(i);
+      System.out.printf(
+          format,
+          i,
+          String.format("%.2f", step.targetOps),
+          String.format("%.2f", step.achievedOps),
+          String.format("%.2f", step.latency),
+          step.sustainable);
+    }
+    if (unsustainableOps == 0) {
+      System.out.println(
+          "No step is unsustainable, the max sustainable rate is at least "
+              + String.format("%.2f", sustainableOps)
+              + " op/s");
+    } else {
+      System.out.println(
+          "The max sustainable rate is " + String.format("%.2f", sustainableOps) + " op/s");
+    }
+    export();
+  }
+
+  private void export() {
+    SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd-HH-mm-ss");
+    File folder = new File("data/csvOutput");
+    if (!folder.exists() && !folder.mkdirs()) {
+      LOGGER.error("Failed to create {}", folder);
+      return;
+    }
+    File file = new File(folder, sdf.format(new Date(startTime)) + "-saturation.csv");
+    try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+      write(writer);
+      LOGGER.info("Saturation curve is exported into {}", file.getAbsolutePath());
+    } catch (IOException e) {
+      LOGGER.error("Failed to export saturation curve into {}", file, e);
+    }
+  }
+
+  /**
+   * Write one line for each step: the target and achieved rate, the judged latency, whether it is
+   * sustainable, and the throughput and latency of each executed operation
+   */
+  void write(Writer writer) throws IOException {
+    List<Step> finishedSteps = getSteps();
+    Set<Operation> operations = EnumSet.noneOf(Operation.class);
+    for (Step step : finishedSteps) {
+      for (Operation operation : Operation.values()) {
+        if (step.measurement.getOkOperationNum(operation) > 0
+            || step.measurement.getFailOperationNum(operation) > 0) {
+          operations.add(operation);
+        }
+      }
+    }
+    StringBuilder line = new StringBuilder("step,target(op/s),achieved(op/s)");
+    line.append(SEPARATOR).append("latency(ms)@").append(percentile);
+    line.append(SEPARATOR).append("sustainable");
+    for (Operation operation : operations) {
+      String name = operation.getName();
+      line.append(SEPARATOR).append(name).append("_okOperation");
+      line.append(SEPARATOR).append(name).append("_failOperation");
+      line.append(SEPARATOR).append(name).append("_throughput(point/s)");
+      for (String quantile : QUANTILE_NAMES) {
+        line.append(SEPARATOR).append(name).append("_").append(quantile).append("(ms)");
+      }
+    }
+    writer.write(line.append("\n").toString());
+
+    for (int i = 0; i < finishedSteps.size(); i++) {
+      Step step = finishedSteps.get(i);
+      Measurement measurement = step.measurement;
+      line = new StringBuilder().append(i);
+      line.append(SEPARATOR).append(String.format("%.2f", step.targetOps));
+      line.append(SEPARATOR).append(String.format("%.2f", step.achievedOps));
+      line.append(SEPARATOR).append(String.format("%.2f", step.latency));
+      line.append(SEPARATOR).append(step.sustainable);
+      for (Operation operation : operations) {
+        double throughput =
+            measurement.getElapseTime() > 0
+                ? measurement.getOkPointNum(operation) / measurement.getElapseTime()
+                : 0;
+        line.append(SEPARATOR).append(measurement.getOkOperationNum(operation));
+        line.append(SEPARATOR).append(measurement.getFailOperationNum(operation));
+        line.append(SEPARATOR).append(String.format("%.2f", throughput));
+        for (double quantile : QUANTILES) {
+          line.append(SEPARATOR)
+              .append(String.format("%.2f", measurement.getLatencyQuantile(operation, quantile)));
+        }
+      }
+      writer.write(line.append("\n").toString());
+    }
+  }
+
+  /** The result of one step */
+  public static class Step {
+    private final double targetOps;
+    private final double achievedOps;
+    /** The max latency at the percentile among operations */
+    private final double latency;
+    private final boolean sustainable;
+    private final Measurement measurement;
+
+    Step(
+        double targetOps,
+        double achievedOps,
+        double latency,
+        boolean sustainable,
+        Measurement measurement) {
+      this.targetOps = targetOps;
+      this.achievedOps = achievedOps;
+      this.latency = latency;
+      this.sustainable = sustainable;
+      this.measurement = measurement;
+    }
+
+    public double getTargetOps() {
+      return targetOps;
+    }
+
+    public double getAchievedOps() {
+      return achievedOps;
+    }
+
+    public double getLatency() {
+      return latency;
+    }
+
+    public boolean isSustainable() {
+      return sustainable;
+    }
+
+    public Measurement getMeasurement() {
+      return measurement;
+    }
+  }
+}
@@ -39,18 +39,24 @@ public class SingletonWorkDataWorkLoad extends GenerateDataWorkLoad {
   private static final Logger LOGGER = LoggerFactory.getLogger(SingletonWorkDataWorkLoad.class);
   private static final List<Sensor> SENSORS = Collections.synchronizedList(config.getSENSORS());
   private ConcurrentHashMap<Integer, AtomicLong> deviceMaxTimeIndexMap;
+  /** The step offset of the next ordered row of each device */
+  private ConcurrentHashMap<Integer, AtomicLong> deviceNextStepOffsetMap;
   private static SingletonWorkDataWorkLoad singletonWorkDataWorkLoad = null;
   private static AtomicInteger sensorIndex = new AtomicInteger();
   private AtomicLong insertLoop = new AtomicLong(0);
 
   private SingletonWorkDataWorkLoad() {
+    long firstStepOffset = 0;
     if (config.isIS_OUT_OF_ORDER()) {
       long startIndex = (long) (config.getLOOP() * config.getOUT_OF_ORDER_RATIO());
       this.insertLoop.set(startIndex);
+      firstStepOffset = startIndex * config.getBATCH_SIZE_PER_WRITE();
     }
     deviceMaxTimeIndexMap = new ConcurrentHashMap<>();
+    deviceNextStepOffsetMap = new ConcurrentHashMap<>();
     for (int i = 0; i < config.getDEVICE_NUMBER(); i++) {
       deviceMaxTimeIndexMap.put(MetaUtil.getDeviceId(i), new AtomicLong(0));
+      deviceNextStepOffsetMap.put(MetaUtil.getDeviceId(i), new AtomicLong(firstStepOffset));
     }
   }
 
@@ -66,26 +72,27 @@ public class SingletonWorkDataWorkLoad extends GenerateDataWorkLoad {
   }
 
   @Override
-  protected Batch getOrderedBatch() {
+  protected Batch getOrderedBatch(int batchSize) {
     long curLoop = insertLoop.getAndIncrement();
     Batch batch = getBatchWithDeviceSchema(curLoop);
-    for (long batchOffset = 0; batchOffset < config.getBATCH_SIZE_PER_WRITE(); batchOffset++) {
-      long stepOffset =
-          (curLoop / config.getDEVICE_NUMBER()) * config.getBATCH_SIZE_PER_WRITE() + batchOffset;
-      addOneRowIntoBatch(batch, stepOffset);
+    // the k-th batch of a device starts from k * BATCH_SIZE_PER_WRITE if the size is not changed
+    long startOffset =
+        deviceNextStepOffsetMap.get(batch.getDeviceSchema().getDeviceId()).getAndAdd(batchSize);
+    for (long batchOffset = 0; batchOffset < batchSize; batchOffset++) {
+      addOneRowIntoBatch(batch, startOffset + batchOffset);
     }
     return batch;
   }
 
   @Override
-  protected Batch getDistOutOfOrderBatch() {
+  protected Batch getDistOutOfOrderBatch(int batchSize) {
     long curLoop = insertLoop.getAndIncrement();
     Batch batch = getBatchWithDeviceSchema(curLoop);
     int deviceId = batch.getDeviceSchema().getDeviceId();
     PoissonDistribution poissonDistribution = new PoissonDistribution(poissonRandom);
     int nextDelta;
     long stepOffset;
-    for (long batchOffset = 0; batchOffset < config.getBATCH_SIZE_PER_WRITE(); batchOffset++) {
+    for (long batchOffset = 0; batchOffset < batchSize; batchOffset++) {
       if (probTool.returnTrueByProb(config.getOUT_OF_ORDER_RATIO(), poissonRandom)) {
         // generate out of order timestamp
         nextDelta = poissonDistribution.getNextPoissonDelta();
@@ -116,12 +123,16 @@ public class SingletonWorkDataWorkLoad extends GenerateDataWorkLoad {
   }
 
   @Override
-  protected Batch getLocalOutOfOrderBatch() {
+  protected Batch getLocalOutOfOrderBatch(int batchSize) {
     long loopIndex = insertLoop.getAndIncrement() % config.getLOOP();
     Batch batch = getBatchWithDeviceSchema(loopIndex);
-    for (int i = 0; i < config.getBATCH_SIZE_PER_WRITE(); i++) {
-      long stepOffset = loopIndex * config.getBATCH_SIZE_PER_WRITE() + i;
-      addOneRowIntoBatch(batch, stepOffset);
+    // each device starts from the out of order part, and goes back to the beginning after the
+    // rows of LOOP batches of BATCH_SIZE_PER_WRITE are written
+    long startOffset =
+        deviceNextStepOffsetMap.get(batch.getDeviceSchema().getDeviceId()).getAndAdd(batchSize)
+            % (config.getLOOP() * config.getBATCH_SIZE_PER_WRITE());
+    for (long batchOffset = 0; batchOffset < batchSize; batchOffset++) {
+      addOneRowIntoBatch(batch, startOffset + batchOffset);
     }
     return batch;
   }
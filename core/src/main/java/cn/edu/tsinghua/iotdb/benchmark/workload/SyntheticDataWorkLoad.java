@@ -29,6 +29,10 @@ import java.util.*;
 public class SyntheticDataWorkLoad extends GenerateDataWorkLoad {
 
   private final Map<DeviceSchema, Long> maxTimestampIndexMap;
+  /** The step offset of the next ordered row of each series */
+  private final Map<DeviceSchema, Long> nextStepOffsetMap = new HashMap<>();
+  /** The step offset of the first row of each series */
+  private long firstStepOffset = 0;
   private long insertLoop = 0;
   private int deviceIndex = 0;
   private int sensorIndex = 0;
@@ -37,6 +41,7 @@ public class SyntheticDataWorkLoad extends GenerateDataWorkLoad {
     if (config.isIS_OUT_OF_ORDER()) {
       long startIndex = (long) (config.getLOOP() * config.getOUT_OF_ORDER_RATIO());
       insertLoop = startIndex;
+      firstStepOffset = startIndex * config.getBATCH_SIZE_PER_WRITE();
     }
     this.deviceSchemas = deviceSchemas;
     maxTimestampIndexMap = new HashMap<>();
@@ -54,15 +59,24 @@ public class SyntheticDataWorkLoad extends GenerateDataWorkLoad {
   }
 
   @Override
-  protected Batch getOrderedBatch() {
+  protected Batch getOrderedBatch(int batchSize) {
     Batch batch = getBatchWithSchema();
-    for (long batchOffset = 0; batchOffset < config.getBATCH_SIZE_PER_WRITE(); batchOffset++) {
-      long stepOffset = insertLoop * config.getBATCH_SIZE_PER_WRITE() + batchOffset;
-      addOneRowIntoBatch(batch, stepOffset);
+    // each series gets one batch per loop, so the batches of BATCH_SIZE_PER_WRITE start from
+    // insertLoop * BATCH_SIZE_PER_WRITE
+    long startOffset = getNextStepOffset(batch.getDeviceSchema(), batchSize);
+    for (long batchOffset = 0; batchOffset < batchSize; batchOffset++) {
+      addOneRowIntoBatch(batch, startOffset + batchOffset);
     }
     return batch;
   }
 
+  /** Get the step offset of the next batch of the series and move it forward by batchSize */
+  private long getNextStepOffset(DeviceSchema deviceSchema, int batchSize) {
+    long startOffset = nextStepOffsetMap.getOrDefault(deviceSchema, firstStepOffset);
+    nextStepOffsetMap.put(deviceSchema, startOffset + batchSize);
+    return startOffset;
+  }
+
   private Batch getBatchWithSchema() {
     Batch batch = new Batch();
     DeviceSchema deviceSchema =
@@ -81,13 +95,13 @@ public class SyntheticDataWorkLoad extends GenerateDataWorkLoad {
   }
 
   @Override
-  protected Batch getDistOutOfOrderBatch() {
+  protected Batch getDistOutOfOrderBatch(int batchSize) {
     Batch batch = getBatchWithSchema();
     DeviceSchema deviceSchema = batch.getDeviceSchema();
     PoissonDistribution poissonDistribution = new PoissonDistribution(poissonRandom);
     int nextDelta;
     long stepOffset;
-    for (long batchOffset = 0; batchOffset < config.getBATCH_SIZE_PER_WRITE(); batchOffset++) {
+    for (long batchOffset = 0; batchOffset < batchSize; batchOffset++) {
       if (probTool.returnTrueByProb(config.getOUT_OF_ORDER_RATIO(), poissonRandom)) {
         // generate out of order timestamp
         nextDelta = poissonDistribution.getNextPoissonDelta();
@@ -103,12 +117,15 @@ public class SyntheticDataWorkLoad extends GenerateDataWorkLoad {
   }
 
   @Override
-  protected Batch getLocalOutOfOrderBatch() {
-    long loopIndex = insertLoop % config.getLOOP();
+  protected Batch getLocalOutOfOrderBatch(int batchSize) {
     Batch batch = getBatchWithSchema();
-    for (int i = 0; i < config.getBATCH_SIZE_PER_WRITE(); i++) {
-      long stepOffset = loopIndex * config.getBATCH_SIZE_PER_WRITE() + i;
-      addOneRowIntoBatch(batch, stepOffset);
+    // each series starts from the out of order part, and goes back to the beginning after the
+    // rows of LOOP batches of BATCH_SIZE_PER_WRITE are written
+    long startOffset =
+        getNextStepOffset(batch.getDeviceSchema(), batchSize)
+            % (config.getLOOP() * config.getBATCH_SIZE_PER_WRITE());
+    for (long batchOffset = 0; batchOffset < batchSize; batchOffset++) {
+      addOneRowIntoBatch(batch, startOffset + batchOffset);
     }
     return batch;
   }
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.workload;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * One stage of a phased workload, e.g. ramp-up, steady state, spike or ramp-down. Stages are read
+ * from WORKLOAD_STAGE_FILE, which lists the stage names in STAGES and sets the parameters of each
+ * stage with the stage name as prefix:
+ *
+ * <pre>
+ * STAGES=warmup,steady
+ * warmup.DURATION=60
+ * warmup.OPS=100
+ * warmup.END_OPS=1000
+ * steady.DURATION=600
+ * steady.OPS=1000
+ * </pre>
+ */
+public class WorkloadStage {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WorkloadStage.class);
+
+  /** The name of stage */
+  private final String name;
+  /** The duration of stage in second */
+  private final long duration;
+  /** The target operations per second of all clients at the start of stage, 0 means unlimited */
+  private final double startOps;
+  /** The target operations per second of all clients at the end of stage */
+  private final double endOps;
+  /** The number of clients working in this stage, the others are idle */
+  private final int clientNumber;
+  /** The operation proportion of this stage, the same format as OPERATION_PROPORTION */
+  private final String operationProportion;
+  /** The number of records per batch in this stage */
+  private final int batchSize;
+
+  public WorkloadStage(
+      String name,
+      long duration,
+      double startOps,
+      double endOps,
+      int clientNumber,
+      String operationProportion,
+      int batchSize) {
+    this.name = name;
+    this.duration = duration;
+    this.startOps = startOps;
+    this.endOps = endOps;
+    this.clientNumber = clientNumber;
+    this.operationProportion = operationProportion;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Load stages from file, the parameters that are not set use the value of config
+   *
+   * @throws IllegalArgumentException if a stage is not valid
+   */
+  public static List<WorkloadStage> loadStages(String file, Config config) throws IOException {
+    Properties properties = new Properties();
+    try (InputStream inputStream = new FileInputStream(file)) {
+      properties.load(inputStream);
+    }
+    List<WorkloadStage> stages = new ArrayList<>();
+    for (String name : properties.getProperty("STAGES", "").split(",")) {
+      name = name.trim();
+      if (name.isEmpty()) {
+        continue;
+      }
+      long duration = Long.parseLong(properties.getProperty(name + ".DURATION", "0"));
+      if (duration <= 0) {
+        throw new IllegalArgumentException("DURATION of stage " + name + " must be positive");
+      }
+      double startOps = Double.parseDouble(properties.getProperty(name + ".OPS", "0"));
+      double endOps =
+          Double.parseDouble(properties.getProperty(name + ".END_OPS", String.valueOf(startOps)));
+      if (startOps < 0 || endOps < 0 || (startOps == 0) != (endOps == 0)) {
+        throw new IllegalArgumentException(
+            "OPS and END_OPS of stage " + name + " must be both positive or both zero");
+      }
+      int clientNumber =
+          Integer.parseInt(
+              properties.getProperty(
+                  name + ".CLIENT_NUMBER", String.valueOf(config.getCLIENT_NUMBER())));
+      if (clientNumber <= 0 || clientNumber > config.getCLIENT_NUMBER()) {
+        LOGGER.warn(
+            "CLIENT_NUMBER of stage {} should be in [1, {}], using {}",
+            name,
+            config.getCLIENT_NUMBER(),
+            config.getCLIENT_NUMBER());
+        clientNumber = config.getCLIENT_NUMBER();
+      }
+      String operationProportion =
+          properties.getProperty(
+              name + ".OPERATION_PROPORTION", config.getOPERATION_PROPORTION());
+      String defaultBatchSize = String.valueOf(config.getBATCH_SIZE_PER_WRITE());
+      int batchSize =
+          Integer.parseInt(
+              properties.getProperty(name + ".BATCH_SIZE_PER_WRITE", defaultBatchSize));
+      if (batchSize <= 0) {
+        // the batches of any size continue the timestamps of the series, so only check the sign
+        LOGGER.warn(
+            "BATCH_SIZE_PER_WRITE of stage {} should be positive, using {}",
+            name,
+            config.getBATCH_SIZE_PER_WRITE());
+        batchSize = config.getBATCH_SIZE_PER_WRITE();
+      }
+      stages.add(
+          new WorkloadStage(
+              name, duration, startOps, endOps, clientNumber, operationProportion, batchSize));
+    }
+    if (stages.isEmpty()) {
+      throw new IllegalArgumentException("No stage is defined by STAGES in " + file);
+    }
+    return stages;
+  }
+
+  /**
+   * Get the target operations per second of all clients
+   *
+   * @param elapsed the elapsed time since the start of stage in second
+   * @return the linear interpolation between OPS and END_OPS, 0 means unlimited
+   */
+  public double getTargetOps(double elapsed) {
+    double ratio = Math.min(1.0, Math.max(0.0, elapsed / duration));
+    return startOps + (endOps - startOps) * ratio;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getDuration() {
+    return duration;
+  }
+
+  public double getStartOps() {
+    return startOps;
+  }
+
+  public double getEndOps() {
+    return endOps;
+  }
+
+  public int getClientNumber() {
+    return clientNumber;
+  }
+
+  public String getOperationProportion() {
+    return operationProportion;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  @Override
+  public String toString() {
+    return "WorkloadStage{"
+        + "name='"
+        + name
+        + '\''
+        + ", duration="
+        + duration
+        + ", startOps="
+        + startOps
+        + ", endOps="
+        + endOps
+        + ", clientNumber="
+        + clientNumber
+        + ", operationProportion='"
+        + operationProportion
+        + '\''
+        + ", batchSize="
+        + batchSize
+        + '}';
+  }
+}
@@ -27,6 +27,17 @@ public interface IDataWorkLoad extends IWorkLoad {
   /** Insert one batch into database NOTICE: every row contains data from all sensors */
   Batch getOneBatch() throws WorkloadException;
 
+  /**
+   * Get one batch of batchSize records instead of BATCH_SIZE_PER_WRITE, the records of a series
+   * continue the timestamps of its last batch
+   *
+   * @param batchSize the number of records, at least 1
+   */
+  default Batch getOneBatch(int batchSize) throws WorkloadException {
+    throw new WorkloadException(
+        "The batch size of " + getClass().getSimpleName() + " can not be changed");
+  }
+
   /** Get Batch Number */
   long getBatchNumber();
 
@@ -4,6 +4,8 @@ import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
 import cn.edu.tsinghua.iotdb.benchmark.exception.WorkloadException;
 import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.*;
 
+import java.util.List;
+
 public interface IQueryWorkLoad extends IWorkLoad {
   /** Get precise query Eg. select v1... from data where time = ? and device in ? */
   PreciseQuery getPreciseQuery() throws WorkloadException;
@@ -45,9 +47,14 @@ public interface IQueryWorkLoad extends IWorkLoad {
    */
   VerificationQuery getVerifiedQuery(Batch batch) throws WorkloadException;
 
-  /** Get device query, Eg. select time, v1... where device = ? */
-  DeviceQuery getDeviceQuery();
+  /**
+   * Get the next device queries, Eg. select time, v1... where device = ?
+   *
+   * @param number the max number of device queries
+   * @return empty list when all devices are taken
+   */
+  List<DeviceQuery> getDeviceQueries(int number);
 
-  /** Update query time in recent mode */
+  /** Update query time in recent mode, or the latest written time for sampled time windows */
   void updateTime(long currentTimestamp);
 }
@@ -27,7 +27,10 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class OperationControllerTest {
 
@@ -55,4 +58,25 @@ public class OperationControllerTest {
       assertEquals(Operation.PRECISE_QUERY, operationController.getNextOperationType());
     }
   }
+
+  @Test
+  public void testWeightedOperations() {
+    double[] weights = new double[] {3, 1};
+    OperationController operationController =
+        new OperationController(
+            0, Arrays.asList(Operation.INGESTION, Operation.RANGE_QUERY), weights);
+    OperationController sameSeedController =
+        new OperationController(
+            0, Arrays.asList(Operation.INGESTION, Operation.RANGE_QUERY), weights);
+    int loop = 100000;
+    int ingestion = 0;
+    for (int i = 0; i < loop; i++) {
+      Operation operation = operationController.getNextOperationType();
+      assertEquals(operation, sameSeedController.getNextOperationType());
+      if (operation == Operation.INGESTION) {
+        ingestion++;
+      }
+    }
+    assertTrue(Math.abs(ingestion / (double) loop - 0.75) < 0.01);
+  }
 }
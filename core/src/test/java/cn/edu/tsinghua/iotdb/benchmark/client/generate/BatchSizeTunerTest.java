@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.client.generate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BatchSizeTunerTest {
+
+  /** The throughput is highest when batch size is 64 */
+  private static double throughput(int batchSize) {
+    return 100000 - (batchSize - 64) * (batchSize - 64);
+  }
+
+  @Test
+  public void testConvergeToBestBatchSize() {
+    BatchSizeTuner tuner = new BatchSizeTuner(1, 1000, 0);
+    for (int i = 0; i < 100 && !tuner.isConverged(); i++) {
+      int batchSize = tuner.getBatchSize();
+      tuner.update((long) throughput(batchSize), 10, 10, 1);
+    }
+    assertTrue(tuner.isConverged());
+    assertTrue(tuner.getBatchSize() >= 32 && tuner.getBatchSize() <= 128);
+    // the batch size doesn't change after converging
+    int batchSize = tuner.getBatchSize();
+    assertEquals(batchSize, tuner.update(1, 1, 1, 1));
+  }
+
+  @Test
+  public void testLatencySlo() {
+    // the latency is the batch size, so the batch size can't exceed 40
+    BatchSizeTuner tuner = new BatchSizeTuner(1, 1000, 40);
+    for (int i = 0; i < 100 && !tuner.isConverged(); i++) {
+      int batchSize = tuner.getBatchSize();
+      tuner.update((long) throughput(batchSize), 1, batchSize, 1);
+    }
+    assertTrue(tuner.isConverged());
+    assertTrue(tuner.getBatchSize() <= 40);
+    for (BatchSizeTuner.Window window : tuner.getWindows()) {
+      assertEquals(window.getBatchSize() > 40, window.isSloViolated());
+    }
+  }
+
+  @Test
+  public void testEmptyWindow() {
+    BatchSizeTuner tuner = new BatchSizeTuner(5, 10, 0);
+    assertEquals(5, tuner.update(0, 0, 0, 1));
+    assertTrue(tuner.getWindows().isEmpty());
+    assertFalse(tuner.isConverged());
+  }
+}
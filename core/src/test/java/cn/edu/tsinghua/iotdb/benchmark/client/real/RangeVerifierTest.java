@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package cn.edu.tsinghua.iotdb.benchmark.client.real;
+
+import cn.edu.tsinghua.iotdb.benchmark.entity.Record;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
+import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
+import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.DeviceQuery;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RangeVerifierTest {
+
+  private final DeviceQuery range =
+      new DeviceQuery(
+          new DeviceSchema(
+              "g_0",
+              "d_0",
+              Arrays.asList(
+                  new Sensor("s_0", SensorType.DOUBLE), new Sensor("s_1", SensorType.INT64))));
+
+  @Test
+  public void testMergeWithTolerance() {
+    RangeVerifier verifier = new RangeVerifier(range, buildRecords(3), 1e-6);
+    // the values of database may be returned as strings
+    verifier.accept(new Record(0, Arrays.<Object>asList("0.0000001", "0")));
+    verifier.accept(new Record(1, Arrays.<Object>asList(1.0000001, 10L)));
+    verifier.accept(new Record(2, Arrays.<Object>asList(2.0, "20")));
+    verifier.finish();
+
+    assertTrue(verifier.isOk());
+    assertEquals(6, verifier.getMatchedPointNum());
+    assertEquals(0, verifier.getFailedPointNum());
+  }
+
+  @Test
+  public void testMergeDifferences() {
+    RangeVerifier verifier = new RangeVerifier(range, buildRecords(4), 1e-6);
+    verifier.accept(new Record(0, Arrays.<Object>asList(0.0, 0L)));
+    // row 1 is missing, row 5 is extra
+    verifier.accept(new Record(2, Arrays.<Object>asList(2.1, 20L)));
+    verifier.accept(new Record(3, Arrays.<Object>asList(3.0, 30L)));
+    verifier.accept(new Record(5, Arrays.<Object>asList(5.0, 50L)));
+    verifier.finish();
+
+    assertEquals(5, verifier.getMatchedPointNum());
+    assertEquals(5, verifier.getFailedPointNum());
+    assertEquals(3, verifier.getDiffNum());
+    assertEquals("-,d_0,1", verifier.getDiffs().get(0));
+    assertEquals("M,d_0,2,s_0,2.0,2.1", verifier.getDiffs().get(1));
+    assertEquals("+,d_0,5", verifier.getDiffs().get(2));
+  }
+
+  @Test
+  public void testUnorderedFallbackToChecksum() {
+    RangeVerifier verifier = new RangeVerifier(range, buildRecords(3), 1e-6);
+    verifier.accept(new Record(2, Arrays.<Object>asList("2.0", "20")));
+    verifier.accept(new Record(0, Arrays.<Object>asList(0.0, 0L)));
+    verifier.accept(new Record(1, Arrays.<Object>asList(1.0f, 10)));
+    verifier.finish();
+    assertTrue(verifier.isOk());
+    assertEquals(6, verifier.getMatchedPointNum());
+
+    verifier = new RangeVerifier(range, buildRecords(3), 1e-6);
+    verifier.accept(new Record(2, Arrays.<Object>asList(2.0, 20L)));
+    verifier.accept(new Record(0, Arrays.<Object>asList(0.0, 0L)));
+    verifier.accept(new Record(1, Arrays.<Object>asList(1.0, 11L)));
+    verifier.finish();
+    assertEquals(6, verifier.getFailedPointNum());
+    assertEquals(1, verifier.getDiffs().size());
+    assertTrue(verifier.getDiffs().get(0).startsWith("H,d_0,"));
+  }
+
+  private List<Record> buildRecords(int rowNum) {
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < rowNum; i++) {
+      records.add(new Record(i, Arrays.<Object>asList((double) i, i * 10L)));
+    }
+    return records;
+  }
+}
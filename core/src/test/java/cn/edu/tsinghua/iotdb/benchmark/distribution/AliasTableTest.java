@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.distribution;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class AliasTableTest {
+  /** Method: sample(Random random) */
+  @Test
+  public void testSample() {
+    double[] weights = new double[] {5, 3, 0, 2};
+    AliasTable aliasTable = new AliasTable(weights);
+    Random random = new Random(100);
+    int[] count = new int[weights.length];
+    int sampleNumber = 100000;
+    for (int i = 0; i < sampleNumber; i++) {
+      count[aliasTable.sample(random)]++;
+    }
+    assertEquals(0.5, (double) count[0] / sampleNumber, 0.01);
+    assertEquals(0.3, (double) count[1] / sampleNumber, 0.01);
+    assertEquals(0, count[2]);
+    assertEquals(0.2, (double) count[3] / sampleNumber, 0.01);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testZeroWeights() {
+    new AliasTable(new double[] {0, 0});
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.kafka;
+
+import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Record;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
+import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
+import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.fakedb.FakeDB;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatchConsumeThreadTest {
+
+  private final TopicPartition partition = new TopicPartition("test-topic", 0);
+
+  @Test
+  public void testWriteAndCommitEachPoll() {
+    MockConsumer<String, Batch> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    consumer.updateBeginningOffsets(Collections.singletonMap(partition, 0L));
+    RecordingDB database = new RecordingDB(1);
+    BatchConsumeThread thread = new BatchConsumeThread(consumer, partition, database);
+    consumer.schedulePollTask(() -> addRecords(consumer));
+    // the first write fails, so the consumer seeks back and the same batches are written again
+    consumer.schedulePollTask(
+        () -> {
+          assertEquals(0, getCommitted(consumer));
+          assertEquals(0, consumer.position(partition));
+          addRecords(consumer);
+        });
+    long[] committed = new long[1];
+    consumer.schedulePollTask(
+        () -> {
+          committed[0] = getCommitted(consumer);
+          thread.shutdown();
+        });
+    thread.run();
+
+    assertEquals(2, database.writes.size());
+    assertEquals(3, database.writes.get(1).size());
+    assertEquals(3, committed[0]);
+    assertEquals(3, thread.getBatchNum());
+    assertEquals(6, thread.getPointNum());
+  }
+
+  private void addRecords(MockConsumer<String, Batch> consumer) {
+    for (int i = 0; i < 3; i++) {
+      consumer.addRecord(new ConsumerRecord<>("test-topic", 0, i, "key", buildBatch("d" + i)));
+    }
+  }
+
+  private long getCommitted(MockConsumer<String, Batch> consumer) {
+    Map<TopicPartition, OffsetAndMetadata> committed =
+        consumer.committed(Collections.singleton(partition));
+    OffsetAndMetadata offset = committed.get(partition);
+    return offset == null ? 0 : offset.offset();
+  }
+
+  private Batch buildBatch(String device) {
+    List<Sensor> sensors = Collections.singletonList(new Sensor("s1", SensorType.DOUBLE));
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      records.add(new Record(i, Collections.<Object>singletonList(1.0d)));
+    }
+    return new Batch(new DeviceSchema("g1", device, sensors), records);
+  }
+
+  /** Record the batches of each insertBatches call, and fail the first failTimes calls */
+  private static class RecordingDB extends FakeDB {
+
+    private final List<List<Batch>> writes = new ArrayList<>();
+    private int failTimes;
+
+    private RecordingDB(int failTimes) {
+      this.failTimes = failTimes;
+    }
+
+    @Override
+    public Status insertBatches(List<Batch> batches) {
+      writes.add(new ArrayList<>(batches));
+      if (failTimes > 0) {
+        failTimes--;
+        return new Status(false, 0, new Exception("fail"), "fail");
+      }
+      return new Status(true);
+    }
+  }
+}
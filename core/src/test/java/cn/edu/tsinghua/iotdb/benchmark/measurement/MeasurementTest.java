@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.measurement;
+
+import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.Metric;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class MeasurementTest {
+
+  @Test
+  public void testMergeSerializedMeasurements() throws IOException {
+    Measurement total = new Measurement();
+    for (int worker = 0; worker < 2; worker++) {
+      Measurement client = new Measurement();
+      for (int i = 1; i <= 100; i++) {
+        client.addOperationLatency(Operation.INGESTION, worker * 100 + i);
+        client.addOkOperationNum(Operation.INGESTION);
+        client.addOkPointNum(Operation.INGESTION, 10);
+      }
+      Measurement workerMeasurement = new Measurement();
+      workerMeasurement.mergeMeasurement(client);
+      workerMeasurement.setElapseTime(worker + 1);
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      workerMeasurement.serialize(new DataOutputStream(bytes));
+      total.mergeMergedMeasurement(
+          Measurement.deserialize(
+              new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+    }
+    assertEquals(2, total.getElapseTime(), 1e-7);
+    total.calculateMetrics(Collections.singletonList(Operation.INGESTION));
+    assertEquals(100.5, Metric.AVG_LATENCY.getTypeValueMap().get(Operation.INGESTION), 1e-7);
+    // the latency digests of both workers are merged
+    assertEquals(100.5, Metric.MEDIAN_LATENCY.getTypeValueMap().get(Operation.INGESTION), 5);
+    assertEquals(180, Metric.P90_LATENCY.getTypeValueMap().get(Operation.INGESTION), 5);
+  }
+
+  @Test
+  public void testMergeClientMeasurements() {
+    Measurement total = new Measurement();
+    for (int client = 0; client < 2; client++) {
+      Measurement measurement = new Measurement();
+      for (int i = 1; i <= 50; i++) {
+        measurement.addOperationLatency(Operation.PRECISE_QUERY, client * 50 + i);
+        measurement.addOkOperationNum(Operation.PRECISE_QUERY);
+      }
+      total.mergeMeasurement(measurement);
+    }
+    total.calculateMetrics(Collections.singletonList(Operation.PRECISE_QUERY));
+    assertEquals(1, Metric.MIN_LATENCY.getTypeValueMap().get(Operation.PRECISE_QUERY), 3);
+    assertEquals(100, Metric.MAX_LATENCY.getTypeValueMap().get(Operation.PRECISE_QUERY), 3);
+    assertEquals(50.5, Metric.MEDIAN_LATENCY.getTypeValueMap().get(Operation.PRECISE_QUERY), 3);
+  }
+
+  @Test
+  public void testOneOperation() {
+    Measurement client = new Measurement();
+    client.addOperationLatency(Operation.RANGE_QUERY, 7);
+    client.addOkOperationNum(Operation.RANGE_QUERY);
+    Measurement total = new Measurement();
+    total.mergeMeasurement(client);
+    total.calculateMetrics(Collections.singletonList(Operation.RANGE_QUERY));
+    assertEquals(7, Metric.MIN_LATENCY.getTypeValueMap().get(Operation.RANGE_QUERY), 1e-7);
+    assertEquals(7, Metric.P99_LATENCY.getTypeValueMap().get(Operation.RANGE_QUERY), 1e-7);
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package cn.edu.tsinghua.iotdb.benchmark.measurement;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class ResultChecksumTest {
+
+  @Test
+  public void testDifferentBuckets() {
+    ResultChecksum checksum1 = new ResultChecksum(100);
+    ResultChecksum checksum2 = new ResultChecksum(100);
+    for (long time = 0; time < 500; time += 10) {
+      checksum1.update(Arrays.<Object>asList(time, 1.0));
+      // the rows are added in another order, and one value in [200, 300) is different
+      long otherTime = 490 - time;
+      checksum2.update(Arrays.<Object>asList(otherTime, otherTime == 250 ? 2.0 : 1.0));
+    }
+    // an extra row in [600, 700)
+    checksum2.update(Arrays.<Object>asList(600L, 1.0));
+
+    assertEquals(
+        Arrays.asList(new ResultChecksum.Bucket(null, 200), new ResultChecksum.Bucket(null, 600)),
+        checksum1.getDifferentBuckets(checksum2));
+    assertEquals(
+        Collections.singletonList(new ResultChecksum.Bucket(null, ResultChecksum.NO_TIME_BUCKET)),
+        bucketOfRowWithoutTime().getDifferentBuckets(new ResultChecksum(100)));
+  }
+
+  @Test
+  public void testDifferentDeviceBuckets() {
+    // one aligned row of two devices against one row per device
+    ResultChecksum aligned = new ResultChecksum(100);
+    ResultChecksum perDevice = new ResultChecksum(100);
+    for (long time = 0; time < 300; time += 10) {
+      aligned.update(time, null);
+      aligned.update(1.0, "d_0");
+      aligned.update(time == 150 ? 2.0 : 1.0, "d_1");
+      // d_2 has no row in the other result
+      aligned.update(null, "d_2");
+      aligned.endRow();
+      for (String device : Arrays.asList("d_1", "d_0")) {
+        perDevice.update(time, null);
+        perDevice.update(1.0, device);
+        perDevice.endRow();
+      }
+    }
+    assertEquals(
+        Collections.singletonList(new ResultChecksum.Bucket("d_1", 100)),
+        aligned.getDifferentBuckets(perDevice));
+  }
+
+  @Test
+  public void testTypedCells() {
+    // the adapters may read the same value as different classes
+    assertEquals(ResultChecksum.hashCell(1L), ResultChecksum.hashCell(1));
+    assertEquals(ResultChecksum.hashCell(1.5d), ResultChecksum.hashCell(1.5f));
+    assertNotEquals(ResultChecksum.hashCell(1L), ResultChecksum.hashCell("1"));
+    assertNotEquals(ResultChecksum.hashCell(1L), ResultChecksum.hashCell(1.0d));
+    assertNotEquals(ResultChecksum.hashCell(null), ResultChecksum.hashCell("null"));
+  }
+
+  private ResultChecksum bucketOfRowWithoutTime() {
+    ResultChecksum checksum = new ResultChecksum(100);
+    checksum.update(Collections.<Object>singletonList(1.5));
+    return checksum;
+  }
+}
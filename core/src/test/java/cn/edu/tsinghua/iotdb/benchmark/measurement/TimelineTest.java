@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.measurement;
+
+import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
+import cn.edu.tsinghua.iotdb.benchmark.conf.Constants;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.SystemMetrics;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class TimelineTest {
+
+  @Test
+  public void testAlignOperationsAndServerMetrics() throws IOException {
+    Timeline timeline = new Timeline(1000, Constants.TIMELINE_SERVER_LOCAL);
+    // started in the past, so the intervals are finished when written
+    long start = System.currentTimeMillis() - 10000;
+    timeline.start(start);
+    timeline.addOkOperation(start + 100, Operation.INGESTION, 10, 2);
+    timeline.addOkOperation(start + 900, Operation.INGESTION, 10, 4);
+    timeline.addFailOperation(start + 2500, Operation.INGESTION);
+    timeline.addOkOperation(start + 2600, Operation.PRECISE_QUERY, 1, 8);
+    // the operation before start is ignored
+    timeline.addOkOperation(start - 1, Operation.INGESTION, 10, 100);
+    Map<SystemMetrics, Float> systemMetricsMap = new EnumMap<>(SystemMetrics.class);
+    systemMetricsMap.put(SystemMetrics.CPU_USAGE, 50f);
+    timeline.addServerMetrics(start + 1500, systemMetricsMap);
+    timeline.stop();
+
+    StringWriter writer = new StringWriter();
+    timeline.write(writer);
+    String[] lines = writer.toString().split("\n");
+    assertEquals(4, lines.length);
+    String[] header = lines[0].split(",", -1);
+    // time, elapsed, 9 columns of each operation and the server metrics
+    assertEquals(2 + 9 * 2 + SystemMetrics.values().length, header.length);
+    assertEquals("INGESTION_okOperation", header[2]);
+    assertEquals("PRECISE_POINT_okOperation", header[11]);
+    assertEquals("CPU_USAGE", header[20 + SystemMetrics.CPU_USAGE.ordinal()]);
+
+    String[] first = lines[1].split(",", -1);
+    assertEquals(String.valueOf(start), first[0]);
+    assertEquals("2", first[2]);
+    assertEquals("20", first[3]);
+    assertEquals("0", first[4]);
+    assertEquals("20.00", first[5]);
+    assertEquals("3.00", first[6]);
+    assertEquals("4.00", first[10]);
+    // the query is not executed in the first interval
+    assertEquals("0", first[11]);
+    assertEquals("", first[15]);
+    assertEquals("", first[20 + SystemMetrics.CPU_USAGE.ordinal()]);
+
+    String[] second = lines[2].split(",", -1);
+    assertEquals("0", second[2]);
+    assertEquals("50.0", second[20 + SystemMetrics.CPU_USAGE.ordinal()]);
+
+    String[] third = lines[3].split(",", -1);
+    assertEquals("1", third[4]);
+    assertEquals("1", third[11]);
+    assertEquals("8.00", third[15]);
+    // the only latency is used as every quantile
+    assertEquals("8.00", third[16]);
+    assertEquals("8.00", third[18]);
+  }
+}
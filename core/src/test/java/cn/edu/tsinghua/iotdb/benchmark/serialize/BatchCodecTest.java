@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.serialize;
+
+import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.entity.BatchCodec;
+import cn.edu.tsinghua.iotdb.benchmark.entity.ColumnarBatch;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Record;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
+import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
+import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BatchCodecTest {
+
+  private final DeviceSchema deviceSchema = buildDeviceSchema();
+
+  @Test
+  public void testEncodeAndDecode() throws Exception {
+    Batch batch = buildBatch(deviceSchema, -1, 10);
+    ByteBuffer buffer = ByteBuffer.allocate(4096);
+    int length = BatchCodec.encode(batch, buffer);
+    assertEquals(length, buffer.position());
+    buffer.flip();
+    ColumnarBatch columnarBatch = BatchCodec.decode(buffer, id -> deviceSchema);
+
+    assertEquals(length, buffer.position());
+    assertEquals(60, columnarBatch.pointNum());
+    assertEquals(1000L, columnarBatch.getTimestamps()[0]);
+    // the timestamps are not increasing, so the delta is negative
+    assertEquals(995L, columnarBatch.getTimestamps()[9]);
+    assertTrue(columnarBatch.getBooleans(0)[8]);
+    assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, columnarBatch.getInts(1));
+    assertEquals(batch, columnarBatch.toBatch());
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    batch.serialize(outputStream);
+    assertTrue(length < outputStream.size());
+  }
+
+  @Test
+  public void testOneSensor() {
+    DeviceSchema sensorSchema =
+        new DeviceSchema("g1", "d1", Collections.singletonList(deviceSchema.getSensors().get(4)));
+    Batch batch = buildBatch(sensorSchema, 4, 3);
+    ByteBuffer buffer = ByteBuffer.allocate(4096);
+    BatchCodec.encode(batch, buffer);
+    buffer.flip();
+    Batch decodeBatch = BatchCodec.decode(buffer, id -> deviceSchema).toBatch();
+
+    assertEquals(4, decodeBatch.getColIndex());
+    assertEquals(batch, decodeBatch);
+  }
+
+  @Test
+  public void testEncodable() {
+    assertTrue(BatchCodec.isEncodable(buildBatch(deviceSchema, -1, 1), id -> deviceSchema));
+    // the device schema of real data set has no deviceId, so another device is resolved by it
+    DeviceSchema realSchema = new DeviceSchema("g1", "root.real", deviceSchema.getSensors());
+    assertFalse(BatchCodec.isEncodable(buildBatch(realSchema, -1, 1), id -> deviceSchema));
+    assertFalse(BatchCodec.isEncodable(buildBatch(realSchema, -1, 1), id -> null));
+  }
+
+  @Test(expected = BufferOverflowException.class)
+  public void testBufferOverflow() {
+    BatchCodec.encode(buildBatch(deviceSchema, -1, 10), ByteBuffer.allocate(16));
+  }
+
+  private DeviceSchema buildDeviceSchema() {
+    List<Sensor> sensors = new ArrayList<>();
+    for (SensorType type : SensorType.values()) {
+      sensors.add(new Sensor("s_" + type, type));
+    }
+    return new DeviceSchema("g1", "d1", sensors);
+  }
+
+  private Batch buildBatch(DeviceSchema schema, int colIndex, int size) {
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      List<Object> values = new ArrayList<>();
+      List<Object> all =
+          Arrays.asList(i % 4 == 0, i, i * 100000000000L, i * 0.5f, i * 0.25d, "文本" + i);
+      if (colIndex == -1) {
+        values.addAll(all);
+      } else {
+        values.add(all.get(colIndex));
+      }
+      long timestamp = i == size - 1 ? 995 : 1000 + i * 10;
+      records.add(new Record(timestamp, values));
+    }
+    Batch batch = new Batch(schema, records);
+    batch.setColIndex(colIndex);
+    return batch;
+  }
+}
@@ -66,6 +66,26 @@ public class BatchSerializeTest {
     assertEquals(batch, deserializeBatch);
   }
 
+  @Test
+  public void testCopy() {
+    List<Sensor> sensors = new ArrayList<>();
+    sensors.add(new Sensor("s1", SensorType.DOUBLE));
+    Batch batch = new Batch(new DeviceSchema("g1", "d1", sensors), new LinkedList<>());
+    batch.getRecords().add(buildRecord(0, 1));
+    batch.setColIndex(0);
+
+    Batch copy = batch.copy();
+    assertEquals(batch, copy);
+    assertEquals(0, copy.getColIndex());
+    // changing the copy does not change the batch
+    copy.getRecords().get(0).setTimestamp(1);
+    copy.getRecords().get(0).getRecordDataValue().set(0, "v1");
+    copy.getDeviceSchema().setDevice("d2");
+    assertEquals(0, batch.getRecords().get(0).getTimestamp());
+    assertEquals("v0", batch.getRecords().get(0).getRecordDataValue().get(0));
+    assertEquals("d1", batch.getDeviceSchema().getDevice());
+  }
+
   private Record buildRecord(long time, int size) {
     List<Object> value = new ArrayList<>();
     for (int i = 0; i < size; i++) {
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.syslog;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+public class DirectorySizeTest {
+
+  private static final long TIMEOUT_MS = 10000;
+
+  private Path root;
+
+  @Before
+  public void before() throws IOException {
+    root = Files.createTempDirectory("directory-size");
+  }
+
+  @After
+  public void after() throws IOException {
+    try (Stream<Path> paths = Files.walk(root)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+
+  @Test
+  public void testTrackChanges() throws Exception {
+    Files.write(root.resolve("a"), new byte[100]);
+    try (DirectorySize directorySize =
+        new DirectorySize(Collections.singletonList(root.toString()))) {
+      assertEquals(100, directorySize.getSize());
+
+      Path sub = Files.createDirectories(root.resolve("sub/deep"));
+      Files.write(sub.resolve("b"), new byte[1000]);
+      assertSize(1100, directorySize);
+      Files.write(root.resolve("a"), new byte[50]);
+      assertSize(1050, directorySize);
+      Files.delete(sub.resolve("b"));
+      Files.delete(sub);
+      assertSize(50, directorySize);
+    }
+  }
+
+  @Test
+  public void testAbsentDirectory() throws Exception {
+    Path absent = root.resolve("absent");
+    try (DirectorySize directorySize =
+        new DirectorySize(Arrays.asList(absent.toString(), root.resolve("other").toString()))) {
+      assertEquals(-1, directorySize.getSize());
+      // the directory is walked once created
+      Files.createDirectories(absent);
+      Files.write(absent.resolve("a"), new byte[10]);
+      assertSize(10, directorySize);
+    }
+  }
+
+  /** The events of WatchService are delivered asynchronously */
+  private void assertSize(long expected, DirectorySize directorySize) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+    while (directorySize.getSize() != expected && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+    }
+    assertEquals(expected, directorySize.getSize());
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.syslog;
+
+import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.SystemMetrics;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ServerMetricsServerTest {
+
+  @Test
+  public void testPullLatestSample() throws IOException {
+    try (ServerMetricsServer server = new ServerMetricsServer(0);
+        ServerMetricsClient client = new ServerMetricsClient("127.0.0.1", server.getPort())) {
+      // no sample yet
+      assertNull(client.fetch());
+
+      Map<SystemMetrics, Float> systemMetricsMap = new EnumMap<>(SystemMetrics.class);
+      systemMetricsMap.put(SystemMetrics.CPU_USAGE, 12.5f);
+      systemMetricsMap.put(SystemMetrics.DISK_TPS, 3f);
+      long sampleTime = System.currentTimeMillis();
+      server.update(sampleTime, systemMetricsMap);
+
+      Map<SystemMetrics, Float> fetched = client.fetch();
+      assertEquals(systemMetricsMap, fetched);
+      // the clocks are the same, so the offset is within the round trip
+      assertTrue(Math.abs(client.getSampleTime() - sampleTime) < 1000);
+    }
+  }
+}
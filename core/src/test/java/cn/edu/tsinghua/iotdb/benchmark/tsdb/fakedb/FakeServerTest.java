@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.tsdb.fakedb;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.distribution.ServiceTimeDistribution;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.TsdbException;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FakeServerTest {
+
+  @Test
+  public void testServiceTimeMean() {
+    for (ServiceTimeDistribution distribution :
+        new ServiceTimeDistribution[] {
+          ServiceTimeDistribution.FIXED,
+          ServiceTimeDistribution.EXPONENTIAL,
+          ServiceTimeDistribution.LOGNORMAL
+        }) {
+      Config config = new Config();
+      config.setFAKEDB_SERVICE_TIME_DISTRIBUTION(distribution);
+      config.setFAKEDB_SERVICE_TIME_MS(2);
+      config.setFAKEDB_LOGNORMAL_SIGMA(0.5);
+      FakeServer server = new FakeServer(config);
+      Random random = new Random(1);
+      double sum = 0;
+      for (int i = 0; i < 100000; i++) {
+        sum += server.sampleServiceTime(random);
+      }
+      assertEquals(2, sum / 100000, 0.05);
+    }
+  }
+
+  @Test
+  public void testPointCostAndFailure() throws TsdbException {
+    Config config = new Config();
+    config.setFAKEDB_SERVICE_TIME_DISTRIBUTION(ServiceTimeDistribution.FIXED);
+    config.setFAKEDB_SERVICE_TIME_MS(5);
+    config.setFAKEDB_POINT_COST_US(1000);
+    long start = System.nanoTime();
+    new FakeServer(config).serve(new Random(1), 10);
+    assertTrue(System.nanoTime() - start >= 15000000);
+
+    config.setFAKEDB_SERVICE_TIME_DISTRIBUTION(ServiceTimeDistribution.NONE);
+    config.setFAKEDB_FAILURE_RATE(1);
+    try {
+      new FakeServer(config).serve(new Random(1), 10);
+      fail("the operation should fail");
+    } catch (TsdbException e) {
+      assertEquals("FakeDB injected a failure", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testRejectWhenQueueIsFull() throws InterruptedException {
+    Config config = new Config();
+    config.setFAKEDB_SERVICE_TIME_DISTRIBUTION(ServiceTimeDistribution.FIXED);
+    config.setFAKEDB_SERVICE_TIME_MS(1000);
+    config.setFAKEDB_CONCURRENCY(1);
+    config.setFAKEDB_QUEUE_SIZE(0);
+    FakeServer server = new FakeServer(config);
+    TsdbException[] exception = new TsdbException[1];
+    Thread thread =
+        new Thread(
+            () -> {
+              try {
+                server.serve(new Random(1), 0);
+              } catch (TsdbException e) {
+                exception[0] = e;
+              }
+            });
+    thread.start();
+    Thread.sleep(200);
+    try {
+      server.serve(new Random(2), 0);
+      fail("the operation should be rejected");
+    } catch (TsdbException e) {
+      assertEquals("FakeDB rejected the operation because the queue is full", e.getMessage());
+    }
+    thread.join();
+    assertNull(exception[0]);
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.tsdb.memory;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.entity.DeviceSummary;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Record;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
+import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
+import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.AggRangeQuery;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.AggRangeValueQuery;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.DeviceQuery;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.GroupByQuery;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.LatestPointQuery;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.RangeQuery;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.ValueRangeQuery;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryDBTest {
+
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+
+  private final List<Sensor> sensors =
+      Arrays.asList(new Sensor("s_0", SensorType.DOUBLE), new Sensor("s_1", SensorType.DOUBLE));
+  private final DeviceSchema device0 = new DeviceSchema("g_0", "d_0", sensors);
+  private final DeviceSchema device1 = new DeviceSchema("g_0", "d_1", sensors);
+  private final MemoryDB memoryDB = new MemoryDB(new MemoryStore());
+  private boolean isComparison;
+
+  @Before
+  public void setUp() {
+    isComparison = config.isIS_COMPARISON();
+    config.setIS_COMPARISON(true);
+    // d_0 has s_0 = t and s_1 = 10 * t at 1..5, written out of order
+    assertTrue(memoryDB.insertOneBatch(buildBatch(device0, 1, 5, 3, 1)).isOk());
+    assertTrue(memoryDB.insertOneBatch(buildBatch(device0, 1, 2, 4)).isOk());
+    // d_1 has s_0 = -t and s_1 = -10 * t at 2, 4, 6
+    assertTrue(memoryDB.insertOneBatch(buildBatch(device1, -1, 2, 4, 6)).isOk());
+  }
+
+  @After
+  public void tearDown() {
+    config.setIS_COMPARISON(isComparison);
+  }
+
+  @Test
+  public void testRangeQuery() {
+    List<DeviceSchema> devices = Arrays.asList(querySensor(device0), querySensor(device1));
+    Status status = memoryDB.rangeQuery(new RangeQuery(devices, 2, 5));
+    assertEquals(8, status.getQueryResultPointNum());
+    List<List<Object>> records = status.getRecords();
+    assertEquals(4, records.size());
+    assertEquals(Arrays.asList(2L, 2.0, -2.0), records.get(0));
+    assertEquals(Arrays.asList(3L, 3.0, null), records.get(1));
+
+    status = memoryDB.rangeQueryOrderByDesc(new RangeQuery(devices, 2, 6));
+    assertEquals(Arrays.asList(6L, null, -6.0), status.getRecords().get(0));
+    assertEquals(Arrays.asList(5L, 5.0, null), status.getRecords().get(1));
+
+    // every value of the row must be greater than the threshold
+    status = memoryDB.valueRangeQuery(new ValueRangeQuery(devices, 1, 6, 0));
+    assertEquals(0, status.getRecords().size());
+    status =
+        memoryDB.valueRangeQuery(
+            new ValueRangeQuery(Arrays.asList(device0, device1), 1, 6, -30.0));
+    assertEquals(1, status.getRecords().size());
+    assertEquals(Arrays.asList(2L, 2.0, -2.0, 20.0, -20.0), status.getRecords().get(0));
+  }
+
+  @Test
+  public void testAggregation() {
+    List<DeviceSchema> devices = Arrays.asList(device0, device1);
+    Status status = memoryDB.aggRangeQuery(new AggRangeQuery(devices, 2, 5, "count"));
+    assertEquals(Arrays.asList(4L, 2L, 4L, 2L), status.getRecords().get(0));
+    status = memoryDB.aggRangeQuery(new AggRangeQuery(devices, 1, 6, "max_value"));
+    assertEquals(Arrays.asList(5.0, -2.0, 50.0, -20.0), status.getRecords().get(0));
+    status =
+        memoryDB.aggRangeValueQuery(
+            new AggRangeValueQuery(Arrays.asList(device0), 1, 5, "avg", 2.5));
+    assertEquals(Arrays.asList(4.0, 40.0), status.getRecords().get(0));
+
+    status =
+        memoryDB.groupByQuery(
+            new GroupByQuery(Arrays.asList(querySensor(device0)), 0, 6, "count", 2));
+    assertEquals(3, status.getRecords().size());
+    assertEquals(Arrays.asList(0L, 1L), status.getRecords().get(0));
+    assertEquals(Arrays.asList(4L, 2L), status.getRecords().get(2));
+
+    status =
+        memoryDB.latestPointQuery(
+            new LatestPointQuery(
+                Arrays.asList(querySensor(device0), querySensor(device1)), 0, 0, ""));
+    assertEquals(Arrays.asList(5L, 5.0), status.getRecords().get(0));
+    assertEquals(Arrays.asList(6L, -6.0), status.getRecords().get(1));
+
+    assertTrue(!memoryDB.aggRangeQuery(new AggRangeQuery(devices, 1, 6, "unknown")).isOk());
+  }
+
+  @Test
+  public void testVerification() {
+    DeviceSummary summary = memoryDB.deviceSummary(new DeviceQuery(device0));
+    assertEquals(new DeviceSummary("d_0", 5, 1, 5), summary);
+
+    DeviceQuery deviceQuery = new DeviceQuery(device1);
+    deviceQuery.setStartTimestamp(2);
+    deviceQuery.setEndTimestamp(6);
+    List<Record> records = new ArrayList<>();
+    assertEquals(
+        4, memoryDB.verificationRangeQuery(deviceQuery, records::add).getQueryResultPointNum());
+    assertEquals(2, records.size());
+    assertEquals(4, records.get(1).getTimestamp());
+    assertEquals(
+        Arrays.asList(4L, -4.0, -40.0), memoryDB.deviceQuery(deviceQuery).getRecords().get(0));
+  }
+
+  private DeviceSchema querySensor(DeviceSchema deviceSchema) {
+    return new DeviceSchema("g_0", deviceSchema.getDevice(), sensors.subList(0, 1));
+  }
+
+  private Batch buildBatch(DeviceSchema deviceSchema, int sign, long... times) {
+    List<Record> records = new ArrayList<>();
+    for (long time : times) {
+      records.add(
+          new Record(time, Arrays.<Object>asList(sign * (double) time, sign * 10.0 * time)));
+    }
+    return new Batch(deviceSchema, records);
+  }
+}
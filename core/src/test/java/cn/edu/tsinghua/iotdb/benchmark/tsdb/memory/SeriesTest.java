@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.tsdb.memory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SeriesTest {
+
+  @Test
+  public void testWriteOutOfOrder() {
+    Series series = new Series();
+    int pointNum = Series.CHUNK_SIZE * 3;
+    // write the even times in order, then the odd times in reverse order into the full chunks
+    long[] times = new long[pointNum];
+    Object[] values = new Object[pointNum];
+    int size = 0;
+    for (int i = 0; i < pointNum; i += 2) {
+      times[size] = i;
+      values[size++] = i;
+    }
+    series.write(times, values, size);
+    size = 0;
+    for (int i = pointNum - 1; i > 0; i -= 2) {
+      times[size] = i;
+      values[size++] = i;
+    }
+    series.write(times, values, size);
+    // overwrite an existing point
+    series.write(new long[] {10}, new Object[] {-10}, 1);
+
+    List<Long> result = new ArrayList<>();
+    series.forEach(
+        0,
+        pointNum,
+        (time, value) -> {
+          result.add(time);
+          assertEquals(time == 10 ? -10 : (int) time, value);
+        });
+    assertEquals(pointNum, result.size());
+    for (int i = 0; i < pointNum; i++) {
+      assertEquals(i, (long) result.get(i));
+    }
+    long[] summary = series.getSummary();
+    assertEquals(pointNum, summary[0]);
+    assertEquals(0, summary[1]);
+    assertEquals(pointNum - 1, summary[2]);
+
+    result.clear();
+    series.forEach(100, 199, (time, value) -> result.add(time));
+    assertEquals(100, result.size());
+    assertEquals(100, (long) result.get(0));
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RingBufferTest {
+
+  @Test
+  public void testOfferAndPoll() {
+    RingBuffer<Integer> ringBuffer = new RingBuffer<>(3);
+    assertEquals(4, ringBuffer.capacity());
+    assertNull(ringBuffer.poll());
+    for (int lap = 0; lap < 3; lap++) {
+      for (int i = 0; i < 4; i++) {
+        assertTrue(ringBuffer.offer(i));
+      }
+      assertFalse(ringBuffer.offer(4));
+      assertEquals(4, ringBuffer.size());
+      for (int i = 0; i < 4; i++) {
+        assertEquals(Integer.valueOf(i), ringBuffer.poll());
+      }
+      assertTrue(ringBuffer.isEmpty());
+    }
+  }
+
+  @Test
+  public void testConcurrentProducersAndConsumers() throws InterruptedException {
+    RingBuffer<Long> ringBuffer = new RingBuffer<>(16);
+    int producerNumber = 4;
+    long elementPerProducer = 10000;
+    AtomicLong consumed = new AtomicLong();
+    AtomicLong sum = new AtomicLong();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < producerNumber; i++) {
+      threads.add(
+          new Thread(
+              () -> {
+                for (long j = 1; j <= elementPerProducer; j++) {
+                  while (!ringBuffer.offer(j)) {
+                    Thread.yield();
+                  }
+                }
+              }));
+      threads.add(
+          new Thread(
+              () -> {
+                while (consumed.get() < producerNumber * elementPerProducer) {
+                  Long element = ringBuffer.poll();
+                  if (element == null) {
+                    Thread.yield();
+                  } else {
+                    sum.addAndGet(element);
+                    consumed.incrementAndGet();
+                  }
+                }
+              }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(producerNumber * elementPerProducer, consumed.get());
+    assertEquals(producerNumber * elementPerProducer * (elementPerProducer + 1) / 2, sum.get());
+    assertTrue(ringBuffer.isEmpty());
+  }
+}
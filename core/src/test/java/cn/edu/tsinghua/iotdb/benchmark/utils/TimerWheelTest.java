@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TimerWheelTest {
+
+  @Test
+  public void testAdvance() {
+    TimerWheel<Integer> timerWheel = new TimerWheel<>(4, 10, 1000);
+    timerWheel.schedule(1, 1015);
+    timerWheel.schedule(2, 1035);
+    // more than one round later
+    timerWheel.schedule(3, 1095);
+    // already due
+    timerWheel.schedule(4, 900);
+    assertEquals(4, timerWheel.size());
+
+    List<Integer> expired = new ArrayList<>();
+    timerWheel.advance(1009, expired);
+    assertEquals(Collections.singletonList(4), expired);
+    assertEquals(1010, timerWheel.getNextTickMs());
+
+    expired.clear();
+    timerWheel.advance(1050, expired);
+    assertEquals(Arrays.asList(1, 2), expired);
+
+    expired.clear();
+    timerWheel.advance(1089, expired);
+    assertEquals(Collections.emptyList(), expired);
+
+    expired.clear();
+    timerWheel.advance(1090, expired);
+    assertEquals(Collections.singletonList(3), expired);
+    assertEquals(0, timerWheel.size());
+  }
+
+  @Test
+  public void testAdvanceMoreThanOneRound() {
+    TimerWheel<Integer> timerWheel = new TimerWheel<>(4, 1, 0);
+    for (int i = 0; i < 20; i++) {
+      timerWheel.schedule(i, i);
+    }
+    List<Integer> expired = new ArrayList<>();
+    timerWheel.advance(100, expired);
+    assertEquals(20, expired.size());
+    assertEquals(0, timerWheel.size());
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.workload;
+
+import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.Measurement;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBFactory;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.DBSwitch;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.fakedb.FakeDB;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SaturationSearchTest {
+
+  /** The latency of the simulated database is 10 ms below 1000 op/s and 500 ms above */
+  private static final double KNEE_OPS = 1000;
+
+  @Test
+  public void testSearchKnee() throws IOException {
+    SaturationSearch search = new SaturationSearch(2, 100, 10, 2, 100, 0.99, 0.05, 20);
+    int stepIndex = 0;
+    WorkloadStage stage = search.getStep(stepIndex);
+    while (stage != null) {
+      double ops = stage.getStartOps();
+      // each of two clients does half of the operations
+      search.finishStep(simulate(ops / 2, ops, stage.getDuration()));
+      search.finishStep(simulate(ops / 2, ops, stage.getDuration()));
+      stage = search.getStep(++stepIndex);
+    }
+    List<SaturationSearch.Step> steps = search.getSteps();
+    assertEquals(stepIndex, steps.size());
+    // 100, 200, 400, 800, 1600, then bisect between 800 and 1600
+    assertEquals(1600, steps.get(4).getTargetOps(), 1e-6);
+    assertFalse(steps.get(4).isSustainable());
+    assertTrue(search.getSustainableOps() <= KNEE_OPS);
+    assertTrue(search.getSustainableOps() >= KNEE_OPS * 0.95);
+    assertEquals(100.0, search.getProgress(), 1e-6);
+
+    StringWriter writer = new StringWriter();
+    search.write(writer);
+    String[] lines = writer.toString().split("\n");
+    assertEquals(steps.size() + 1, lines.length);
+    assertTrue(lines[0].contains("INGESTION_P99(ms)"));
+    String[] first = lines[1].split(",");
+    assertTrue(lines[1].startsWith("0,100.00,100.00,"));
+    assertEquals(10.99, Double.parseDouble(first[3]), 0.05);
+    assertEquals("true", first[4]);
+  }
+
+  @Test
+  public void testMaxSteps() {
+    SaturationSearch search = new SaturationSearch(1, 100, 10, 2, 100, 0.99, 0.05, 2);
+    search.finishStep(simulate(100, 100, 10));
+    search.finishStep(simulate(200, 200, 10));
+    assertNull(search.getStep(2));
+    assertEquals(200, search.getSustainableOps(), 1e-6);
+  }
+
+  @Test
+  public void testSearchFakeDB() throws SQLException {
+    // the steps are run through DBWrapper, which creates the database by DBFactory
+    DBConfig dbConfig = new DBConfig();
+    dbConfig.setDB_SWITCH(DBSwitch.DB_FAKE);
+    assertTrue(new DBFactory().getDatabase(dbConfig) instanceof FakeDB);
+  }
+
+  /** The measurement of one client running at clientOps while all clients run at totalOps */
+  private Measurement simulate(double clientOps, double totalOps, long duration) {
+    Measurement measurement = new Measurement();
+    long operationNum = (long) (clientOps * duration);
+    double latency = totalOps > KNEE_OPS ? 500 : 10;
+    for (long i = 0; i < operationNum; i++) {
+      // the latencies are spread a little, a digest of identical values is slow to build
+      measurement.addOperationLatency(Operation.INGESTION, latency + i % 100 / 100.0);
+      measurement.addOkOperationNum(Operation.INGESTION);
+      measurement.addOkPointNum(Operation.INGESTION, 10);
+    }
+    measurement.setElapseTime(duration);
+    return measurement;
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.workload;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.conf.Constants;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.exception.WorkloadException;
+import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
+import cn.edu.tsinghua.iotdb.benchmark.utils.TimeUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SyntheticDataWorkLoadTest {
+
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+
+  @Test
+  public void testGetOneBatchOfBatchSize() throws WorkloadException {
+    DeviceSchema deviceSchema = new DeviceSchema(0, config.getSENSORS());
+    SyntheticDataWorkLoad workLoad =
+        new SyntheticDataWorkLoad(Collections.singletonList(deviceSchema));
+    List<Long> stepOffsets = new ArrayList<>();
+    for (int batchSize : new int[] {3, 1, 2}) {
+      Batch batch = workLoad.getOneBatch(batchSize);
+      assertEquals(batchSize, batch.getRecords().size());
+      batch.getRecords().forEach(record -> stepOffsets.add(getStepOffset(record.getTimestamp())));
+    }
+    // the rows of a batch continue the timestamps of the last batch
+    for (int i = 0; i < stepOffsets.size(); i++) {
+      assertEquals(i, (long) stepOffsets.get(i));
+    }
+  }
+
+  private long getStepOffset(long timestamp) {
+    long startTime =
+        Constants.START_TIMESTAMP * TimeUtils.getTimestampConst(config.getTIMESTAMP_PRECISION());
+    // the timestamp of each step is shifted by at most one step if not regular
+    return (timestamp - startTime - (config.isIS_REGULAR_FREQUENCY() ? config.getPOINT_STEP() : 0))
+        / config.getPOINT_STEP();
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.workload;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class WorkloadStageTest {
+
+  @Test
+  public void testGetTargetOps() {
+    WorkloadStage stage = new WorkloadStage("warmup", 10, 100, 1100, 1, "1:0", 10);
+    assertEquals(100, stage.getTargetOps(0), 1e-7);
+    assertEquals(600, stage.getTargetOps(5), 1e-7);
+    assertEquals(1100, stage.getTargetOps(20), 1e-7);
+  }
+
+  @Test
+  public void testLoadStages() throws IOException {
+    Config config = new Config();
+    config.setCLIENT_NUMBER(5);
+    config.setBATCH_SIZE_PER_WRITE(100);
+    File file = File.createTempFile("stages", ".properties");
+    file.deleteOnExit();
+    try (FileWriter writer = new FileWriter(file)) {
+      writer.write("STAGES=warmup, spike, rampdown\n");
+      writer.write("warmup.DURATION=60\n");
+      writer.write("warmup.OPS=10\n");
+      writer.write("warmup.CLIENT_NUMBER=2\n");
+      writer.write("spike.DURATION=30\n");
+      writer.write("spike.CLIENT_NUMBER=10\n");
+      writer.write("spike.BATCH_SIZE_PER_WRITE=1000\n");
+      writer.write("rampdown.DURATION=30\n");
+      writer.write("rampdown.BATCH_SIZE_PER_WRITE=0\n");
+    }
+    List<WorkloadStage> stages = WorkloadStage.loadStages(file.getPath(), config);
+    assertEquals(3, stages.size());
+    assertEquals("warmup", stages.get(0).getName());
+    assertEquals(10, stages.get(0).getEndOps(), 1e-7);
+    assertEquals(2, stages.get(0).getClientNumber());
+    assertEquals(config.getOPERATION_PROPORTION(), stages.get(0).getOperationProportion());
+    // out of range values fall back to the config
+    assertEquals(5, stages.get(1).getClientNumber());
+    assertEquals(1000, stages.get(1).getBatchSize());
+    assertEquals(0, stages.get(1).getTargetOps(10), 1e-7);
+    assertEquals(100, stages.get(2).getBatchSize());
+  }
+}
@@ -35,6 +35,7 @@ import cn.edu.tsinghua.iotdb.benchmark.entity.Record;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
 import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
 import cn.edu.tsinghua.iotdb.benchmark.exception.DBConnectException;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.ResultChecksum;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
 import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
@@ -45,12 +46,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /** this class will create more than one connection. */
 public class IoTDB implements IDatabase {
@@ -78,7 +81,10 @@ public class IoTDB implements IDatabase {
       try {
         ioTDBConnection = new SingleNodeJDBCConnection(dbConfig);
         ioTDBConnection.init();
-        this.service = Executors.newSingleThreadExecutor();
+        if (!config.isIS_STATEMENT_QUERY_TIMEOUT()) {
+          // the queries only run on the executor to time out without a statement timeout
+          this.service = Executors.newSingleThreadExecutor();
+        }
       } catch (Exception e) {
         throw new TsdbException(e);
       }
@@ -563,6 +569,30 @@ public class IoTDB implements IDatabase {
     return ROOT_SERIES_NAME + "." + deviceSchema.getGroup() + "." + deviceSchema.getDevice();
   }
 
+  /**
+   * Get the device of each column for the checksum of rows, e.g. d_1 of root.group_1.d_1.s_1. Only
+   * the rows of raw points are checksummed by device, so it is null for the other operations, and
+   * the device of the time column is null.
+   */
+  protected static String[] getColumnDevices(List<String> columnNames, Operation operation) {
+    switch (operation) {
+      case PRECISE_QUERY:
+      case RANGE_QUERY:
+      case VALUE_RANGE_QUERY:
+      case RANGE_QUERY_ORDER_BY_TIME_DESC:
+      case VALUE_RANGE_QUERY_ORDER_BY_TIME_DESC:
+        break;
+      default:
+        return null;
+    }
+    String[] devices = new String[columnNames.size()];
+    for (int i = 0; i < devices.length; i++) {
+      String[] nodes = columnNames.get(i).split("\\.");
+      devices[i] = nodes.length > 2 ? nodes[nodes.length - 2] : null;
+    }
+    return devices;
+  }
+
   protected Status executeQueryAndGetStatus(String sql, Operation operation) {
     if (!config.isIS_QUIET_MODE()) {
       LOGGER.info("{} query SQL: {}", Thread.currentThread().getName(), sql);
@@ -572,46 +602,79 @@ public class IoTDB implements IDatabase {
     AtomicBoolean isOk = new AtomicBoolean(true);
     try (Statement statement = ioTDBConnection.getConnection().createStatement()) {
       List<List<Object>> records = new ArrayList<>();
-      future =
-          service.submit(
-              () -> {
-                try {
-                  try (ResultSet resultSet = statement.executeQuery(sql)) {
-                    while (resultSet.next()) {
-                      line.getAndIncrement();
-                      if (config.isIS_COMPARISON()) {
-                        List<Object> record = new ArrayList<>();
-                        for (int i = 1; i <= resultSet.getMetaData().getColumnCount(); i++) {
-                          switch (operation) {
-                            case LATEST_POINT_QUERY:
-                              if (i == 2 || i >= 4) {
-                                continue;
-                              }
-                              break;
-                            default:
-                              break;
+      ResultChecksum checksum = new ResultChecksum(config.getCOMPARISON_BUCKET_MS());
+      if (config.isIS_STREAMING_QUERY()) {
+        statement.setFetchSize(config.getQUERY_FETCH_SIZE());
+      }
+      Runnable query =
+          () -> {
+            try {
+              try (ResultSet resultSet = statement.executeQuery(sql)) {
+                String[] devices = null;
+                if (config.isIS_COMPARISON() && config.isIS_STREAMING_QUERY()) {
+                  ResultSetMetaData metaData = resultSet.getMetaData();
+                  List<String> columnNames = new ArrayList<>();
+                  for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    columnNames.add(metaData.getColumnName(i));
+                  }
+                  devices = getColumnDevices(columnNames, operation);
+                }
+                while (resultSet.next()) {
+                  line.getAndIncrement();
+                  if (config.isIS_COMPARISON()) {
+                    // rows are only folded into the checksum when streaming
+                    List<Object> record =
+                        config.isIS_STREAMING_QUERY() ? null : new ArrayList<>();
+                    for (int i = 1; i <= resultSet.getMetaData().getColumnCount(); i++) {
+                      switch (operation) {
+                        case LATEST_POINT_QUERY:
+                          if (i == 2 || i >= 4) {
+                            continue;
                           }
-                          record.add(resultSet.getObject(i));
-                        }
-                        records.add(record);
+                          break;
+                        default:
+                          break;
                       }
+                      if (record == null) {
+                        checksum.update(
+                            resultSet.getObject(i), devices == null ? null : devices[i - 1]);
+                      } else {
+                        record.add(resultSet.getObject(i));
+                      }
+                    }
+                    if (record == null) {
+                      checksum.endRow();
+                    } else {
+                      records.add(record);
                     }
                   }
-                } catch (SQLException e) {
-                  LOGGER.error("exception occurred when execute query={}", sql, e);
-                  isOk.set(false);
                 }
-                queryResultPointNum.set(
-                    line.get() * config.getQUERY_SENSOR_NUM() * config.getQUERY_DEVICE_NUM());
-              });
-      try {
-        future.get(config.getREAD_OPERATION_TIMEOUT_MS(), TimeUnit.MILLISECONDS);
-      } catch (InterruptedException | ExecutionException | TimeoutException e) {
-        future.cancel(true);
-        return new Status(false, queryResultPointNum.get(), e, sql);
+              }
+            } catch (SQLException e) {
+              LOGGER.error("exception occurred when execute query={}", sql, e);
+              isOk.set(false);
+            }
+            queryResultPointNum.set(
+                line.get() * config.getQUERY_SENSOR_NUM() * config.getQUERY_DEVICE_NUM());
+          };
+      if (config.isIS_STATEMENT_QUERY_TIMEOUT()) {
+        // the server cancels the query after the timeout, so it runs on the client thread
+        statement.setQueryTimeout(
+            Math.max(1, (config.getREAD_OPERATION_TIMEOUT_MS() + 999) / 1000));
+        query.run();
+      } else {
+        future = service.submit(query);
+        try {
+          future.get(config.getREAD_OPERATION_TIMEOUT_MS(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+          future.cancel(true);
+          return new Status(false, queryResultPointNum.get(), e, sql);
+        }
       }
       if (isOk.get() == true) {
-        if (config.isIS_COMPARISON()) {
+        if (config.isIS_COMPARISON() && config.isIS_STREAMING_QUERY()) {
+          return new Status(true, queryResultPointNum.get(), sql, checksum);
+        } else if (config.isIS_COMPARISON()) {
           return new Status(true, queryResultPointNum.get(), sql, records);
         } else {
           return new Status(true, queryResultPointNum.get());
@@ -723,6 +786,42 @@ public class IoTDB implements IDatabase {
     return new Status(true, point);
   }
 
+  /**
+   * Using in range verification
+   *
+   * @param deviceQuery the device and the time range to query
+   */
+  @Override
+  public Status verificationRangeQuery(DeviceQuery deviceQuery, Consumer<Record> consumer) {
+    String sql = getVerificationRangeQuerySql(deviceQuery);
+    int sensorNum = deviceQuery.getDeviceSchema().getSensors().size();
+    int point = 0;
+    try (Statement statement = ioTDBConnection.getConnection().createStatement();
+        ResultSet resultSet = statement.executeQuery(sql)) {
+      while (resultSet.next()) {
+        List<Object> values = new ArrayList<>(sensorNum);
+        for (int i = 0; i < sensorNum; i++) {
+          values.add(resultSet.getString(i + 2));
+        }
+        point += sensorNum;
+        consumer.accept(new Record(resultSet.getLong(1), values));
+      }
+    } catch (Exception e) {
+      LOGGER.error("Query Error: " + sql);
+      return new Status(false, e, "Failed to query.");
+    }
+    return new Status(true, point);
+  }
+
+  /** eg. SELECT s_0, s_1 FROM root.g_0.d_0 WHERE time >= 1 AND time < 10 */
+  protected String getVerificationRangeQuerySql(DeviceQuery deviceQuery) {
+    return getSimpleQuerySqlHead(Collections.singletonList(deviceQuery.getDeviceSchema()))
+        + " WHERE time >= "
+        + deviceQuery.getStartTimestamp()
+        + " AND time < "
+        + deviceQuery.getEndTimestamp();
+  }
+
   @Override
   public Status deviceQuery(DeviceQuery deviceQuery) throws SQLException, TsdbException {
     DeviceSchema deviceSchema = deviceQuery.getDeviceSchema();
@@ -766,34 +865,57 @@ public class IoTDB implements IDatabase {
   @Override
   public DeviceSummary deviceSummary(DeviceQuery deviceQuery) throws SQLException, TsdbException {
     DeviceSchema deviceSchema = deviceQuery.getDeviceSchema();
-    int totalLineNumber = 0;
-    long minTimeStamp = 0, maxTimeStamp = 0;
-    try (Statement statement = ioTDBConnection.getConnection().createStatement()) {
-      ResultSet resultSet = statement.executeQuery(getTotalLineNumberSql(deviceSchema));
-      resultSet.next();
-      totalLineNumber = Integer.parseInt(resultSet.getString(1));
-
-      resultSet = statement.executeQuery(getMaxTimeStampSql(deviceSchema));
-      resultSet.next();
-      maxTimeStamp = Long.parseLong(resultSet.getObject(1).toString());
-
-      resultSet = statement.executeQuery(getMinTimeStampSql(deviceSchema));
-      resultSet.next();
-      minTimeStamp = Long.parseLong(resultSet.getObject(1).toString());
+    List<String> columnNames = new ArrayList<>();
+    List<String> values = new ArrayList<>();
+    try (Statement statement = ioTDBConnection.getConnection().createStatement();
+        ResultSet resultSet = statement.executeQuery(getDeviceSummarySql(deviceSchema))) {
+      if (resultSet.next()) {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+          columnNames.add(metaData.getColumnLabel(i));
+          values.add(resultSet.getString(i));
+        }
+      }
     }
-    return new DeviceSummary(deviceSchema.getDevice(), totalLineNumber, minTimeStamp, maxTimeStamp);
+    return toDeviceSummary(deviceSchema.getDevice(), columnNames, values);
   }
 
-  protected String getTotalLineNumberSql(DeviceSchema deviceSchema) {
-    return "select count(*) from " + getDevicePath(deviceSchema);
+  /** Get count, min and max time of all sensors of the device by one aggregation query */
+  protected String getDeviceSummarySql(DeviceSchema deviceSchema) {
+    return "select count(*), min_time(*), max_time(*) from " + getDevicePath(deviceSchema);
   }
 
-  protected String getMinTimeStampSql(DeviceSchema deviceSchema) {
-    return "select * from " + getDevicePath(deviceSchema) + " order by time limit 1";
-  }
-
-  protected String getMaxTimeStampSql(DeviceSchema deviceSchema) {
-    return "select * from " + getDevicePath(deviceSchema) + " order by time desc limit 1";
+  /**
+   * Merge the aggregations of sensors into the summary of device, the line number is the max count
+   * of sensors
+   *
+   * @param columnNames column names of the result of getDeviceSummarySql, may begin with Time
+   * @param values values of the aggregation columns, null when the sensor has no data
+   */
+  protected static DeviceSummary toDeviceSummary(
+      String device, List<String> columnNames, List<String> values) {
+    long totalLineNumber = 0;
+    long minTimeStamp = Long.MAX_VALUE;
+    long maxTimeStamp = Long.MIN_VALUE;
+    int offset = columnNames.size() - values.size();
+    for (int i = 0; i < values.size(); i++) {
+      String value = values.get(i);
+      if (value == null || "null".equals(value)) {
+        continue;
+      }
+      String columnName = columnNames.get(i + offset);
+      if (columnName.startsWith("count(")) {
+        totalLineNumber = Math.max(totalLineNumber, Long.parseLong(value));
+      } else if (columnName.startsWith("min_time(")) {
+        minTimeStamp = Math.min(minTimeStamp, Long.parseLong(value));
+      } else if (columnName.startsWith("max_time(")) {
+        maxTimeStamp = Math.max(maxTimeStamp, Long.parseLong(value));
+      }
+    }
+    if (totalLineNumber == 0) {
+      return new DeviceSummary(device, 0, 0, 0);
+    }
+    return new DeviceSummary(device, (int) totalLineNumber, minTimeStamp, maxTimeStamp);
   }
 
   String getEncodingType(SensorType dataSensorType) {
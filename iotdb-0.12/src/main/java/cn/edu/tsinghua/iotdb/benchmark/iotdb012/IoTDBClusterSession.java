@@ -35,6 +35,7 @@ import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
 import cn.edu.tsinghua.iotdb.benchmark.entity.DeviceSummary;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Record;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.ResultChecksum;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
 import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
@@ -55,6 +56,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class IoTDBClusterSession extends IoTDBSessionBase {
@@ -189,6 +191,23 @@ public class IoTDBClusterSession extends IoTDBSessionBase {
     return status;
   }
 
+  @Override
+  protected Status insertTablets(Map<String, Tablet> tablets) {
+    future =
+        service.submit(
+            () -> {
+              try {
+                sessions[currSession].insertTablets(tablets);
+              } catch (IoTDBConnectionException | StatementExecutionException e) {
+                LOGGER.error("insert tablets failed", e);
+              }
+            });
+
+    Status status = waitFuture();
+    currSession = (currSession + 1) % sessions.length;
+    return status;
+  }
+
   @Override
   protected Status executeQueryAndGetStatus(String sql, Operation operation) {
     if (!config.isIS_QUIET_MODE()) {
@@ -200,12 +219,17 @@ public class IoTDBClusterSession extends IoTDBSessionBase {
 
     try {
       List<List<Object>> records = new ArrayList<>();
+      ResultChecksum checksum = new ResultChecksum(config.getCOMPARISON_BUCKET_MS());
       future =
           service.submit(
               () -> {
                 try {
                   SessionDataSetWrapper sessionDataSet =
                       sessions[currSession].executeQueryStatement(sql);
+                  String[] devices =
+                      config.isIS_COMPARISON() && config.isIS_STREAMING_QUERY()
+                          ? getColumnDevices(sessionDataSet.getColumnNames(), operation)
+                          : null;
                   while (sessionDataSet.hasNext()) {
                     RowRecord rowRecord = sessionDataSet.next();
                     line.getAndIncrement();
@@ -230,9 +254,18 @@ public class IoTDBClusterSession extends IoTDBSessionBase {
                           default:
                             break;
                         }
-                        record.add(fields.get(i).toString());
+                        // the checksum hashes the typed values, like the values read by JDBC
+                        record.add(
+                            config.isIS_STREAMING_QUERY()
+                                ? getFieldValue(fields.get(i))
+                                : fields.get(i).toString());
+                      }
+                      if (config.isIS_STREAMING_QUERY()) {
+                        // the row is folded into the checksum instead of being kept
+                        checksum.update(record, devices);
+                      } else {
+                        records.add(record);
                       }
-                      records.add(record);
                     }
                   }
                 } catch (StatementExecutionException | IoTDBConnectionException e) {
@@ -250,7 +283,9 @@ public class IoTDBClusterSession extends IoTDBSessionBase {
       }
       currSession = (currSession + 1) % sessions.length;
       if (isOk.get()) {
-        if (config.isIS_COMPARISON()) {
+        if (config.isIS_COMPARISON() && config.isIS_STREAMING_QUERY()) {
+          return new Status(true, queryResultPointNum.get(), sql, checksum);
+        } else if (config.isIS_COMPARISON()) {
           return new Status(true, queryResultPointNum.get(), sql, records);
         } else {
           return new Status(true, queryResultPointNum.get());
@@ -327,6 +362,31 @@ public class IoTDBClusterSession extends IoTDBSessionBase {
     return new Status(true, point);
   }
 
+  /**
+   * Using in range verification
+   *
+   * @param deviceQuery the device and the time range to query
+   */
+  @Override
+  public Status verificationRangeQuery(DeviceQuery deviceQuery, Consumer<Record> consumer) {
+    String sql = getVerificationRangeQuerySql(deviceQuery);
+    int point = 0;
+    try {
+      SessionDataSetWrapper sessionDataSet = sessions[currSession].executeQueryStatement(sql);
+      while (sessionDataSet.hasNext()) {
+        Record record = toRecord(sessionDataSet.next());
+        point += record.size();
+        consumer.accept(record);
+      }
+      sessions[currSession].closeResultSet(sessionDataSet);
+      currSession = (currSession + 1) % sessions.length;
+    } catch (Exception e) {
+      LOGGER.error("Query Error: " + sql);
+      return new Status(false, e, "Failed to query.");
+    }
+    return new Status(true, point);
+  }
+
   @Override
   public Status deviceQuery(DeviceQuery deviceQuery) throws SQLException, TsdbException {
     DeviceSchema deviceSchema = deviceQuery.getDeviceSchema();
@@ -361,29 +421,25 @@ public class IoTDBClusterSession extends IoTDBSessionBase {
   @Override
   public DeviceSummary deviceSummary(DeviceQuery deviceQuery) throws SQLException, TsdbException {
     DeviceSchema deviceSchema = deviceQuery.getDeviceSchema();
-    int totalLineNumber = 0;
-    long minTimeStamp = 0, maxTimeStamp = 0;
+    List<String> columnNames = new ArrayList<>();
+    List<String> values = new ArrayList<>();
     try {
       SessionDataSetWrapper sessionDataSet =
-          sessions[currSession].executeQueryStatement(getTotalLineNumberSql(deviceSchema));
-      RowRecord rowRecord = sessionDataSet.next();
-      totalLineNumber = Integer.parseInt(rowRecord.getFields().get(0).toString());
-
-      sessionDataSet =
-          sessions[currSession].executeQueryStatement(getMaxTimeStampSql(deviceSchema));
-      rowRecord = sessionDataSet.next();
-      maxTimeStamp = rowRecord.getTimestamp();
-
-      sessionDataSet =
-          sessions[currSession].executeQueryStatement(getMinTimeStampSql(deviceSchema));
-      rowRecord = sessionDataSet.next();
-      minTimeStamp = rowRecord.getTimestamp();
+          sessions[currSession].executeQueryStatement(getDeviceSummarySql(deviceSchema));
+      if (sessionDataSet.hasNext()) {
+        columnNames.addAll(sessionDataSet.getColumnNames());
+        for (Field field : sessionDataSet.next().getFields()) {
+          values.add(field == null ? null : field.getStringValue());
+        }
+      }
+      sessions[currSession].closeResultSet(sessionDataSet);
+      currSession = (currSession + 1) % sessions.length;
     } catch (IoTDBConnectionException e) {
       throw new TsdbException("Failed to connect to IoTDB:" + e.getMessage());
     } catch (StatementExecutionException e) {
       throw new TsdbException("Failed to execute statement:" + e.getMessage());
     }
-    return new DeviceSummary(deviceSchema.getDevice(), totalLineNumber, minTimeStamp, maxTimeStamp);
+    return toDeviceSummary(deviceSchema.getDevice(), columnNames, values);
   }
 
   private Status waitFuture() {
@@ -410,6 +466,10 @@ public class IoTDBClusterSession extends IoTDBSessionBase {
 
   @Override
   public void close() throws TsdbException {
+    Status status = flushTablets();
+    if (!status.isOk()) {
+      LOGGER.error("Failed to flush pending tablets.", status.getException());
+    }
     for (SessionPool sessionPool : sessions) {
       if (sessionPool != null) {
         sessionPool.close();
@@ -34,6 +34,7 @@ import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
 import cn.edu.tsinghua.iotdb.benchmark.entity.DeviceSummary;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Record;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.ResultChecksum;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
 import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
@@ -54,6 +55,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class IoTDBSession extends IoTDBSessionBase {
@@ -81,7 +83,13 @@ public class IoTDBSession extends IoTDBSessionBase {
       } else {
         session.open();
       }
-      this.service = Executors.newSingleThreadExecutor();
+      if (config.isIS_STREAMING_QUERY()) {
+        session.setFetchSize(config.getQUERY_FETCH_SIZE());
+      }
+      if (!config.isIS_STATEMENT_QUERY_TIMEOUT()) {
+        // the queries only run on the executor to time out without a statement timeout
+        this.service = Executors.newSingleThreadExecutor();
+      }
     } catch (IoTDBConnectionException e) {
       LOGGER.error("Failed to add session", e);
     }
@@ -166,6 +174,16 @@ public class IoTDBSession extends IoTDBSessionBase {
     }
   }
 
+  @Override
+  protected Status insertTablets(Map<String, Tablet> tablets) {
+    try {
+      session.insertTablets(tablets);
+      return new Status(true);
+    } catch (IoTDBConnectionException | StatementExecutionException e) {
+      return new Status(false, 0, e, e.toString());
+    }
+  }
+
   @Override
   protected Status executeQueryAndGetStatus(String sql, Operation operation) {
     if (!config.isIS_QUIET_MODE()) {
@@ -177,55 +195,79 @@ public class IoTDBSession extends IoTDBSessionBase {
 
     try {
       List<List<Object>> records = new ArrayList<>();
-      future =
-          service.submit(
-              () -> {
-                try {
-                  SessionDataSet sessionDataSet = session.executeQueryStatement(sql);
-                  while (sessionDataSet.hasNext()) {
-                    RowRecord rowRecord = sessionDataSet.next();
-                    line.getAndIncrement();
-                    if (config.isIS_COMPARISON()) {
-                      List<Object> record = new ArrayList<>();
-                      switch (operation) {
-                        case AGG_RANGE_QUERY:
-                        case AGG_VALUE_QUERY:
-                        case AGG_RANGE_VALUE_QUERY:
-                          break;
-                        default:
-                          record.add(rowRecord.getTimestamp());
-                          break;
-                      }
-                      List<Field> fields = rowRecord.getFields();
-                      for (int i = 0; i < fields.size(); i++) {
-                        switch (operation) {
-                          case LATEST_POINT_QUERY:
-                            if (i == 0 || i == 2) {
-                              continue;
-                            }
-                          default:
-                            break;
+      ResultChecksum checksum = new ResultChecksum(config.getCOMPARISON_BUCKET_MS());
+      Runnable query =
+          () -> {
+            try {
+              // with a statement timeout the server cancels the query, no executor is needed
+              SessionDataSet sessionDataSet =
+                  config.isIS_STATEMENT_QUERY_TIMEOUT()
+                      ? session.executeQueryStatement(sql, config.getREAD_OPERATION_TIMEOUT_MS())
+                      : session.executeQueryStatement(sql);
+              String[] devices =
+                  config.isIS_COMPARISON() && config.isIS_STREAMING_QUERY()
+                      ? getColumnDevices(sessionDataSet.getColumnNames(), operation)
+                      : null;
+              while (sessionDataSet.hasNext()) {
+                RowRecord rowRecord = sessionDataSet.next();
+                line.getAndIncrement();
+                if (config.isIS_COMPARISON()) {
+                  List<Object> record = new ArrayList<>();
+                  switch (operation) {
+                    case AGG_RANGE_QUERY:
+                    case AGG_VALUE_QUERY:
+                    case AGG_RANGE_VALUE_QUERY:
+                      break;
+                    default:
+                      record.add(rowRecord.getTimestamp());
+                      break;
+                  }
+                  List<Field> fields = rowRecord.getFields();
+                  for (int i = 0; i < fields.size(); i++) {
+                    switch (operation) {
+                      case LATEST_POINT_QUERY:
+                        if (i == 0 || i == 2) {
+                          continue;
                         }
-                        record.add(fields.get(i).toString());
-                      }
-                      records.add(record);
+                      default:
+                        break;
                     }
+                    // the checksum hashes the typed values, like the values read by JDBC
+                    record.add(
+                        config.isIS_STREAMING_QUERY()
+                            ? getFieldValue(fields.get(i))
+                            : fields.get(i).toString());
+                  }
+                  if (config.isIS_STREAMING_QUERY()) {
+                    // the row is folded into the checksum instead of being kept
+                    checksum.update(record, devices);
+                  } else {
+                    records.add(record);
                   }
-                } catch (StatementExecutionException | IoTDBConnectionException e) {
-                  LOGGER.error("exception occurred when execute query={}", sql, e);
-                  isOk.set(false);
                 }
-                queryResultPointNum.set(
-                    line.get() * config.getQUERY_SENSOR_NUM() * config.getQUERY_DEVICE_NUM());
-              });
-      try {
-        future.get(config.getREAD_OPERATION_TIMEOUT_MS(), TimeUnit.MILLISECONDS);
-      } catch (InterruptedException | ExecutionException | TimeoutException e) {
-        future.cancel(true);
-        return new Status(false, queryResultPointNum.get(), e, sql);
+              }
+            } catch (StatementExecutionException | IoTDBConnectionException e) {
+              LOGGER.error("exception occurred when execute query={}", sql, e);
+              isOk.set(false);
+            }
+            queryResultPointNum.set(
+                line.get() * config.getQUERY_SENSOR_NUM() * config.getQUERY_DEVICE_NUM());
+          };
+      if (config.isIS_STATEMENT_QUERY_TIMEOUT()) {
+        query.run();
+      } else {
+        future = service.submit(query);
+        try {
+          future.get(config.getREAD_OPERATION_TIMEOUT_MS(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+          future.cancel(true);
+          return new Status(false, queryResultPointNum.get(), e, sql);
+        }
       }
       if (isOk.get() == true) {
-        if (config.isIS_COMPARISON()) {
+        if (config.isIS_COMPARISON() && config.isIS_STREAMING_QUERY()) {
+          return new Status(true, queryResultPointNum.get(), sql, checksum);
+        } else if (config.isIS_COMPARISON()) {
           return new Status(true, queryResultPointNum.get(), sql, records);
         } else {
           return new Status(true, queryResultPointNum.get());
@@ -300,6 +342,30 @@ public class IoTDBSession extends IoTDBSessionBase {
     return new Status(true, point);
   }
 
+  /**
+   * Using in range verification
+   *
+   * @param deviceQuery the device and the time range to query
+   */
+  @Override
+  public Status verificationRangeQuery(DeviceQuery deviceQuery, Consumer<Record> consumer) {
+    String sql = getVerificationRangeQuerySql(deviceQuery);
+    int point = 0;
+    try {
+      SessionDataSet sessionDataSet = session.executeQueryStatement(sql);
+      while (sessionDataSet.hasNext()) {
+        Record record = toRecord(sessionDataSet.next());
+        point += record.size();
+        consumer.accept(record);
+      }
+      sessionDataSet.closeOperationHandle();
+    } catch (Exception e) {
+      LOGGER.error("Query Error: " + sql);
+      return new Status(false, e, "Failed to query.");
+    }
+    return new Status(true, point);
+  }
+
   @Override
   public Status deviceQuery(DeviceQuery deviceQuery) throws SQLException, TsdbException {
     DeviceSchema deviceSchema = deviceQuery.getDeviceSchema();
@@ -333,27 +399,24 @@ public class IoTDBSession extends IoTDBSessionBase {
   @Override
   public DeviceSummary deviceSummary(DeviceQuery deviceQuery) throws SQLException, TsdbException {
     DeviceSchema deviceSchema = deviceQuery.getDeviceSchema();
-    int totalLineNumber = 0;
-    long minTimeStamp = 0, maxTimeStamp = 0;
+    List<String> columnNames = new ArrayList<>();
+    List<String> values = new ArrayList<>();
     try {
       SessionDataSet sessionDataSet =
-          session.executeQueryStatement(getTotalLineNumberSql(deviceSchema));
-      RowRecord rowRecord = sessionDataSet.next();
-      totalLineNumber = Integer.parseInt(rowRecord.getFields().get(0).toString());
-
-      sessionDataSet = session.executeQueryStatement(getMaxTimeStampSql(deviceSchema));
-      rowRecord = sessionDataSet.next();
-      maxTimeStamp = rowRecord.getTimestamp();
-
-      sessionDataSet = session.executeQueryStatement(getMinTimeStampSql(deviceSchema));
-      rowRecord = sessionDataSet.next();
-      minTimeStamp = rowRecord.getTimestamp();
+          session.executeQueryStatement(getDeviceSummarySql(deviceSchema));
+      if (sessionDataSet.hasNext()) {
+        columnNames.addAll(sessionDataSet.getColumnNames());
+        for (Field field : sessionDataSet.next().getFields()) {
+          values.add(field == null ? null : field.getStringValue());
+        }
+      }
+      sessionDataSet.closeOperationHandle();
     } catch (IoTDBConnectionException e) {
       throw new TsdbException("Failed to connect to IoTDB:" + e.getMessage());
     } catch (StatementExecutionException e) {
       throw new TsdbException("Failed to execute statement:" + e.getMessage());
     }
-    return new DeviceSummary(deviceSchema.getDevice(), totalLineNumber, minTimeStamp, maxTimeStamp);
+    return toDeviceSummary(deviceSchema.getDevice(), columnNames, values);
   }
 
   @Override
@@ -370,13 +433,19 @@ public class IoTDBSession extends IoTDBSessionBase {
   @Override
   public void close() throws TsdbException {
     try {
+      Status status = flushTablets();
+      if (!status.isOk()) {
+        LOGGER.error("Failed to flush pending tablets.", status.getException());
+      }
       if (session != null) {
         session.close();
       }
       if (ioTDBConnection != null) {
         ioTDBConnection.close();
       }
-      this.service.shutdown();
+      if (service != null) {
+        service.shutdown();
+      }
     } catch (IoTDBConnectionException ioTDBConnectionException) {
       LOGGER.error("Failed to close session.");
       throw new TsdbException(ioTDBConnectionException);
@@ -21,6 +21,8 @@ package cn.edu.tsinghua.iotdb.benchmark.iotdb012;
 
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.Field;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.write.record.Tablet;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
@@ -29,17 +31,33 @@ import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Record;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
 import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
+import cn.edu.tsinghua.iotdb.benchmark.exception.DBConnectException;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.DBInsertMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class IoTDBSessionBase extends IoTDB {
   private static final Logger LOGGER = LoggerFactory.getLogger(IoTDBSessionBase.class);
+  /** Free tablets of this client reused across batches and devices, the key is the schema key */
+  private final Map<String, Deque<Tablet>> tabletPool = new HashMap<>();
+  /** Tablets waiting to be written in one insertTablets call, the key is the device path */
+  private final Map<String, Tablet> pendingTablets = new HashMap<>();
+  /** The schema key of each pending tablet, to return the tablet to tabletPool when written */
+  private final Map<String, String> pendingSchemaKeys = new HashMap<>();
+
+  private int pendingRows = 0;
+  private long pendingBytes = 0;
+  private int pendingPoints = 0;
 
   public IoTDBSessionBase(DBConfig dbConfig) {
     super(dbConfig);
@@ -57,33 +75,172 @@ public class IoTDBSessionBase extends IoTDB {
     return new Status(true);
   }
 
+  protected Status insertTablets(Map<String, Tablet> tablets) {
+    return new Status(true);
+  }
+
+  /**
+   * Fill the batch into a cached tablet and gather tablets of several devices until
+   * IOTDB_TABLETS_MAX_ROWS rows or IOTDB_TABLETS_MAX_BYTES bytes are pending, then write them by
+   * one insertTablets call. The insertPointNum of the returned status is 0 if the batch is only
+   * buffered, or the points of all written batches, so they are measured when written.
+   */
+  public Status insertOneBatchByTablets(Batch batch) {
+    String deviceId =
+        ROOT_SERIES_NAME
+            + "."
+            + batch.getDeviceSchema().getGroup()
+            + "."
+            + batch.getDeviceSchema().getDevice();
+    List<Sensor> sensors = batch.getDeviceSchema().getSensors();
+    boolean aligned = batch.getColIndex() == -1;
+    if (!aligned) {
+      sensors = Collections.singletonList(sensors.get(batch.getColIndex()));
+    }
+    String schemaKey = getSchemaKey(sensors, aligned);
+    int rows = batch.getRecords().size();
+    long bytes = estimateRowBytes(sensors) * rows;
+    Status status = null;
+    // one insertTablets call holds at most one tablet per device
+    if (pendingTablets.containsKey(deviceId)
+        || (!pendingTablets.isEmpty() && exceedBudget(pendingRows + rows, pendingBytes + bytes))) {
+      status = flushTablets();
+    }
+    Tablet tablet = takeTablet(schemaKey, deviceId, sensors, rows);
+    fillTablet(tablet, sensors, batch);
+    pendingTablets.put(deviceId, tablet);
+    pendingSchemaKeys.put(deviceId, schemaKey);
+    pendingRows += rows;
+    pendingBytes += bytes;
+    pendingPoints += batch.pointNum();
+    if (status == null) {
+      if (exceedBudget(pendingRows, pendingBytes)) {
+        status = flushTablets();
+      } else {
+        status = new Status(true);
+        status.setInsertPointNum(0);
+      }
+    }
+    return status;
+  }
+
+  /** The key of tablets with the same sensor names, types and alignment */
+  private static String getSchemaKey(List<Sensor> sensors, boolean aligned) {
+    StringBuilder schemaKey = new StringBuilder(aligned ? "aligned" : "single");
+    for (Sensor sensor : sensors) {
+      schemaKey.append(',').append(sensor.getName()).append(':').append(sensor.getSensorType());
+    }
+    return schemaKey.toString();
+  }
+
+  /** Take a free tablet of the schema key with at least rows rows, and set it to the device */
+  private Tablet takeTablet(String schemaKey, String deviceId, List<Sensor> sensors, int rows) {
+    Tablet tablet = tabletPool.computeIfAbsent(schemaKey, key -> new ArrayDeque<>()).poll();
+    if (tablet == null || tablet.getMaxRowNumber() < rows) {
+      return new Tablet(deviceId, genSchemaList(sensors), rows);
+    }
+    tablet.deviceId = deviceId;
+    return tablet;
+  }
+
+  private boolean exceedBudget(int rows, long bytes) {
+    return rows >= config.getIOTDB_TABLETS_MAX_ROWS()
+        || (config.getIOTDB_TABLETS_MAX_BYTES() > 0
+            && bytes >= config.getIOTDB_TABLETS_MAX_BYTES());
+  }
+
+  /** Estimate the bytes of one row of the sensors in a tablet, including the timestamp */
+  private long estimateRowBytes(List<Sensor> sensors) {
+    long bytes = Long.BYTES;
+    for (Sensor sensor : sensors) {
+      switch (sensor.getSensorType()) {
+        case BOOLEAN:
+          bytes += 1;
+          break;
+        case INT32:
+        case FLOAT:
+          bytes += Integer.BYTES;
+          break;
+        case TEXT:
+          bytes += Integer.BYTES + config.getSTRING_LENGTH();
+          break;
+        default:
+          bytes += Long.BYTES;
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Write all pending tablets, called when the budget is reached and before close. The
+   * insertPointNum of the returned status is the number of points of the pending tablets
+   */
+  protected Status flushTablets() {
+    int pointNum = pendingPoints;
+    Status status = new Status(true);
+    try {
+      if (!pendingTablets.isEmpty()) {
+        status = insertTablets(new HashMap<>(pendingTablets));
+      }
+    } finally {
+      for (Map.Entry<String, Tablet> entry : pendingTablets.entrySet()) {
+        tabletPool.get(pendingSchemaKeys.get(entry.getKey())).push(entry.getValue());
+      }
+      pendingTablets.clear();
+      pendingSchemaKeys.clear();
+      pendingRows = 0;
+      pendingBytes = 0;
+      pendingPoints = 0;
+    }
+    status.setInsertPointNum(pointNum);
+    return status;
+  }
+
+  @Override
+  public Status flushBatches() {
+    return flushTablets();
+  }
+
   protected Tablet genTablet(Batch batch) {
+    List<Sensor> sensors = batch.getDeviceSchema().getSensors();
+    String deviceId =
+        ROOT_SERIES_NAME
+            + "."
+            + batch.getDeviceSchema().getGroup()
+            + "."
+            + batch.getDeviceSchema().getDevice();
+    Tablet tablet = new Tablet(deviceId, genSchemaList(sensors), batch.getRecords().size());
+    fillTablet(tablet, sensors, batch);
+    return tablet;
+  }
+
+  /** The typed value of the field, null if the field has no value */
+  protected static Object getFieldValue(Field field) {
+    return field.getDataType() == null ? null : field.getObjectValue(field.getDataType());
+  }
+
+  private List<MeasurementSchema> genSchemaList(List<Sensor> sensors) {
     List<MeasurementSchema> schemaList = new ArrayList<>();
-    int sensorIndex = 0;
-    for (Sensor sensor : batch.getDeviceSchema().getSensors()) {
+    for (Sensor sensor : sensors) {
       SensorType dataSensorType = sensor.getSensorType();
       schemaList.add(
           new MeasurementSchema(
               sensor.getName(),
               Enum.valueOf(TSDataType.class, dataSensorType.name),
               Enum.valueOf(TSEncoding.class, getEncodingType(dataSensorType))));
-      sensorIndex++;
     }
-    String deviceId =
-        ROOT_SERIES_NAME
-            + "."
-            + batch.getDeviceSchema().getGroup()
-            + "."
-            + batch.getDeviceSchema().getDevice();
-    Tablet tablet = new Tablet(deviceId, schemaList, batch.getRecords().size());
+    return schemaList;
+  }
+
+  /** Reset the tablet and fill it with the records of batch, sensors are the tablet columns */
+  private void fillTablet(Tablet tablet, List<Sensor> sensors, Batch batch) {
+    tablet.reset();
     long[] timestamps = tablet.timestamps;
     Object[] values = tablet.values;
-
-    List<Sensor> sensors = batch.getDeviceSchema().getSensors();
     for (int recordIndex = 0; recordIndex < batch.getRecords().size(); recordIndex++) {
       tablet.rowSize++;
       Record record = batch.getRecords().get(recordIndex);
-      sensorIndex = 0;
+      int sensorIndex = 0;
       long currentTime = record.getTimestamp();
       timestamps[recordIndex] = currentTime;
       for (int recordValueIndex = 0;
@@ -123,7 +280,6 @@ public class IoTDBSessionBase extends IoTDB {
         sensorIndex++;
       }
     }
-    return tablet;
   }
 
   public List<TSDataType> constructDataTypes(List<Sensor> sensors, int recordValueSize) {
@@ -163,8 +319,39 @@ public class IoTDBSessionBase extends IoTDB {
         return insertOneBatchByRecord(batch);
       case INSERT_USE_SESSION_RECORDS:
         return insertOneBatchByRecords(batch);
+      case INSERT_USE_SESSION_TABLETS:
+        return insertOneBatchByTablets(batch);
       default:
         throw new IllegalStateException("Unexpected INSERT_MODE value: " + insertMode);
     }
   }
+
+  /**
+   * Gather the batches of all devices into insertTablets calls in SESSION_BY_TABLETS mode, and
+   * write the pending tablets before returning, so all batches are written when it returns ok
+   */
+  @Override
+  public Status insertBatches(List<Batch> batches) throws DBConnectException {
+    if (dbConfig.getDB_SWITCH().getInsertMode() != DBInsertMode.INSERT_USE_SESSION_TABLETS) {
+      return super.insertBatches(batches);
+    }
+    Status status = new Status(true);
+    for (Batch batch : batches) {
+      Status batchStatus = insertOneBatchByTablets(batch);
+      if (status.isOk()) {
+        status = batchStatus;
+      }
+    }
+    Status flushStatus = flushTablets();
+    return status.isOk() ? flushStatus : status;
+  }
+
+  /** Convert the row of session into a record, the null values are kept as null */
+  protected static Record toRecord(RowRecord rowRecord) {
+    List<Object> values = new ArrayList<>(rowRecord.getFields().size());
+    for (Field field : rowRecord.getFields()) {
+      values.add(field == null || field.getDataType() == null ? null : field.getStringValue());
+    }
+    return new Record(rowRecord.getTimestamp(), values);
+  }
 }
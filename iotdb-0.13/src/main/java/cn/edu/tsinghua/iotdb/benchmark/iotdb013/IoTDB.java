@@ -22,7 +22,6 @@ package cn.edu.tsinghua.iotdb.benchmark.iotdb013;
 import org.apache.iotdb.rpc.IoTDBConnectionException;
 import org.apache.iotdb.rpc.StatementExecutionException;
 import org.apache.iotdb.session.Session;
-import org.apache.iotdb.session.template.InternalNode;
 import org.apache.iotdb.session.template.MeasurementNode;
 import org.apache.iotdb.session.template.Template;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
@@ -37,6 +36,7 @@ import cn.edu.tsinghua.iotdb.benchmark.entity.Record;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
 import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
 import cn.edu.tsinghua.iotdb.benchmark.exception.DBConnectException;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.ResultChecksum;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
 import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
@@ -46,20 +46,22 @@ import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /** this class will create more than one connection. */
 public class IoTDB implements IDatabase {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(IoTDB.class);
   private static final String ALREADY_KEYWORD = "already";
+  private static final String TEMPLATE_NAME = "BenchmarkTemplate";
   private final String DELETE_SERIES_SQL;
   protected SingleNodeJDBCConnection ioTDBConnection;
 
@@ -80,7 +82,10 @@ public class IoTDB implements IDatabase {
     try {
       ioTDBConnection = new SingleNodeJDBCConnection(dbConfig);
       ioTDBConnection.init();
-      this.service = Executors.newSingleThreadExecutor();
+      if (!config.isIS_STATEMENT_QUERY_TIMEOUT()) {
+        // the queries only run on the executor to time out without a statement timeout
+        this.service = Executors.newSingleThreadExecutor();
+      }
     } catch (Exception e) {
       throw new TsdbException(e);
     }
@@ -147,14 +152,13 @@ public class IoTDB implements IDatabase {
         }
         for (Map.Entry<Session, List<DeviceSchema>> pair : sessionListMap.entrySet()) {
           registerStorageGroups(pair.getKey(), pair.getValue());
-          if (config.isTEMPLATE()) {
-            try {
-              registerTemplates(pair.getKey(), pair.getValue());
-            } catch (StatementExecutionException e) {
-              // do nothing
-            }
+          if (!config.isTEMPLATE()) {
+            registerTimeseries(pair.getKey(), pair.getValue());
           }
-          registerTimeseries(pair.getKey(), pair.getValue());
+        }
+        if (config.isTEMPLATE()) {
+          // devices activate the template on their first write, no time series is created here
+          registerTemplates(schemaList);
         }
       } catch (Exception e) {
         throw new TsdbException(e);
@@ -174,24 +178,94 @@ public class IoTDB implements IDatabase {
     return true;
   }
 
-  private void registerTemplates(Session metaSession, List<DeviceSchema> schemaList)
-      throws IoTDBConnectionException, StatementExecutionException, IOException {
-    Template template = new Template("testTemplate");
-    InternalNode internalNode = new InternalNode("template", true);
-    for (Sensor sensor : schemaList.get(0).getSensors()) {
-      MeasurementNode measurementNode =
-          new MeasurementNode(
-              sensor.getName(),
-              Enum.valueOf(TSDataType.class, sensor.getSensorType().name),
-              Enum.valueOf(TSEncoding.class, getEncodingType(sensor.getSensorType())),
-              Enum.valueOf(CompressionType.class, config.getCOMPRESSOR()));
-      internalNode.addChild(measurementNode);
+  /**
+   * Create one schema template (aligned if VECTOR=true) and set it on all storage groups in
+   * parallel, so the number of RPCs grows with the number of storage groups instead of devices.
+   */
+  private void registerTemplates(List<DeviceSchema> schemaList) throws TsdbException {
+    Set<String> groupSet = new LinkedHashSet<>();
+    for (DeviceSchema schema : schemaList) {
+      groupSet.add(schema.getGroup());
     }
-    template.addToTemplate(internalNode);
-    metaSession.createSchemaTemplate(template);
-    for (DeviceSchema deviceSchema : schemaList) {
-      metaSession.setSchemaTemplate(
-          "testTemplate", ROOT_SERIES_NAME + "." + deviceSchema.getGroup());
+    List<String> groups = new ArrayList<>(groupSet);
+    if (groups.isEmpty()) {
+      return;
+    }
+    Session templateSession = null;
+    try {
+      Template template = new Template(TEMPLATE_NAME, config.isVECTOR());
+      for (Sensor sensor : schemaList.get(0).getSensors()) {
+        template.addToTemplate(
+            new MeasurementNode(
+                sensor.getName(),
+                Enum.valueOf(TSDataType.class, sensor.getSensorType().name),
+                Enum.valueOf(TSEncoding.class, getEncodingType(sensor.getSensorType())),
+                Enum.valueOf(CompressionType.class, config.getCOMPRESSOR())));
+      }
+      templateSession = openMetaSession(0);
+      templateSession.createSchemaTemplate(template);
+    } catch (Exception e) {
+      handleRegisterException(e);
+    } finally {
+      closeMetaSession(templateSession);
+    }
+
+    int threadNumber = Math.min(groups.size(), Runtime.getRuntime().availableProcessors());
+    ExecutorService executorService = Executors.newFixedThreadPool(threadNumber);
+    List<Future<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < threadNumber; i++) {
+      int hostIndex = i % dbConfig.getHOST().size();
+      List<String> threadGroups = new ArrayList<>();
+      for (int j = i; j < groups.size(); j += threadNumber) {
+        threadGroups.add(groups.get(j));
+      }
+      futures.add(
+          executorService.submit(
+              () -> {
+                Session metaSession = openMetaSession(hostIndex);
+                try {
+                  for (String group : threadGroups) {
+                    try {
+                      metaSession.setSchemaTemplate(TEMPLATE_NAME, ROOT_SERIES_NAME + "." + group);
+                    } catch (StatementExecutionException e) {
+                      handleRegisterException(e);
+                    }
+                  }
+                } finally {
+                  closeMetaSession(metaSession);
+                }
+                return null;
+              }));
+    }
+    try {
+      for (Future<Void> setFuture : futures) {
+        setFuture.get();
+      }
+    } catch (InterruptedException | ExecutionException e) {
+      throw new TsdbException(e);
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  private Session openMetaSession(int hostIndex) throws IoTDBConnectionException {
+    Session metaSession =
+        new Session(
+            dbConfig.getHOST().get(hostIndex),
+            dbConfig.getPORT().get(hostIndex),
+            dbConfig.getUSERNAME(),
+            dbConfig.getPASSWORD());
+    metaSession.open(config.isENABLE_THRIFT_COMPRESSION());
+    return metaSession;
+  }
+
+  private void closeMetaSession(Session metaSession) {
+    if (metaSession != null) {
+      try {
+        metaSession.close();
+      } catch (IoTDBConnectionException e) {
+        LOGGER.error("Schema-register session cannot be closed: {}", e.getMessage());
+      }
     }
   }
 
@@ -606,6 +680,30 @@ public class IoTDB implements IDatabase {
     return ROOT_SERIES_NAME + "." + deviceSchema.getGroup() + "." + deviceSchema.getDevice();
   }
 
+  /**
+   * Get the device of each column for the checksum of rows, e.g. d_1 of root.group_1.d_1.s_1. Only
+   * the rows of raw points are checksummed by device, so it is null for the other operations, and
+   * the device of the time column is null.
+   */
+  protected static String[] getColumnDevices(List<String> columnNames, Operation operation) {
+    switch (operation) {
+      case PRECISE_QUERY:
+      case RANGE_QUERY:
+      case VALUE_RANGE_QUERY:
+      case RANGE_QUERY_ORDER_BY_TIME_DESC:
+      case VALUE_RANGE_QUERY_ORDER_BY_TIME_DESC:
+        break;
+      default:
+        return null;
+    }
+    String[] devices = new String[columnNames.size()];
+    for (int i = 0; i < devices.length; i++) {
+      String[] nodes = columnNames.get(i).split("\\.");
+      devices[i] = nodes.length > 2 ? nodes[nodes.length - 2] : null;
+    }
+    return devices;
+  }
+
   protected Status executeQueryAndGetStatus(String sql, Operation operation) {
     if (!config.isIS_QUIET_MODE()) {
       LOGGER.info("{} query SQL: {}", Thread.currentThread().getName(), sql);
@@ -615,46 +713,79 @@ public class IoTDB implements IDatabase {
     AtomicBoolean isOk = new AtomicBoolean(true);
     try (Statement statement = ioTDBConnection.getConnection().createStatement()) {
       List<List<Object>> records = new ArrayList<>();
-      future =
-          service.submit(
-              () -> {
-                try {
-                  try (ResultSet resultSet = statement.executeQuery(sql)) {
-                    while (resultSet.next()) {
-                      line.getAndIncrement();
-                      if (config.isIS_COMPARISON()) {
-                        List<Object> record = new ArrayList<>();
-                        for (int i = 1; i <= resultSet.getMetaData().getColumnCount(); i++) {
-                          switch (operation) {
-                            case LATEST_POINT_QUERY:
-                              if (i == 2 || i >= 4) {
-                                continue;
-                              }
-                              break;
-                            default:
-                              break;
+      ResultChecksum checksum = new ResultChecksum(config.getCOMPARISON_BUCKET_MS());
+      if (config.isIS_STREAMING_QUERY()) {
+        statement.setFetchSize(config.getQUERY_FETCH_SIZE());
+      }
+      Runnable query =
+          () -> {
+            try {
+              try (ResultSet resultSet = statement.executeQuery(sql)) {
+                String[] devices = null;
+                if (config.isIS_COMPARISON() && config.isIS_STREAMING_QUERY()) {
+                  ResultSetMetaData metaData = resultSet.getMetaData();
+                  List<String> columnNames = new ArrayList<>();
+                  for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    columnNames.add(metaData.getColumnName(i));
+                  }
+                  devices = getColumnDevices(columnNames, operation);
+                }
+                while (resultSet.next()) {
+                  line.getAndIncrement();
+                  if (config.isIS_COMPARISON()) {
+                    // rows are only folded into the checksum when streaming
+                    List<Object> record =
+                        config.isIS_STREAMING_QUERY() ? null : new ArrayList<>();
+                    for (int i = 1; i <= resultSet.getMetaData().getColumnCount(); i++) {
+                      switch (operation) {
+                        case LATEST_POINT_QUERY:
+                          if (i == 2 || i >= 4) {
+                            continue;
                           }
-                          record.add(resultSet.getObject(i));
-                        }
-                        records.add(record);
+                          break;
+                        default:
+                          break;
                       }
+                      if (record == null) {
+                        checksum.update(
+                            resultSet.getObject(i), devices == null ? null : devices[i - 1]);
+                      } else {
+                        record.add(resultSet.getObject(i));
+                      }
+                    }
+                    if (record == null) {
+                      checksum.endRow();
+                    } else {
+                      records.add(record);
                     }
                   }
-                } catch (SQLException e) {
-                  LOGGER.error("exception occurred when execute query={}", sql, e);
-                  isOk.set(false);
                 }
-                queryResultPointNum.set(
-                    line.get() * config.getQUERY_SENSOR_NUM() * config.getQUERY_DEVICE_NUM());
-              });
-      try {
-        future.get(config.getREAD_OPERATION_TIMEOUT_MS(), TimeUnit.MILLISECONDS);
-      } catch (InterruptedException | ExecutionException | TimeoutException e) {
-        future.cancel(true);
-        return new Status(false, queryResultPointNum.get(), e, sql);
+              }
+            } catch (SQLException e) {
+              LOGGER.error("exception occurred when execute query={}", sql, e);
+              isOk.set(false);
+            }
+            queryResultPointNum.set(
+                line.get() * config.getQUERY_SENSOR_NUM() * config.getQUERY_DEVICE_NUM());
+          };
+      if (config.isIS_STATEMENT_QUERY_TIMEOUT()) {
+        // the server cancels the query after the timeout, so it runs on the client thread
+        statement.setQueryTimeout(
+            Math.max(1, (config.getREAD_OPERATION_TIMEOUT_MS() + 999) / 1000));
+        query.run();
+      } else {
+        future = service.submit(query);
+        try {
+          future.get(config.getREAD_OPERATION_TIMEOUT_MS(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+          future.cancel(true);
+          return new Status(false, queryResultPointNum.get(), e, sql);
+        }
       }
       if (isOk.get() == true) {
-        if (config.isIS_COMPARISON()) {
+        if (config.isIS_COMPARISON() && config.isIS_STREAMING_QUERY()) {
+          return new Status(true, queryResultPointNum.get(), sql, checksum);
+        } else if (config.isIS_COMPARISON()) {
           return new Status(true, queryResultPointNum.get(), sql, records);
         } else {
           return new Status(true, queryResultPointNum.get());
@@ -770,13 +901,52 @@ public class IoTDB implements IDatabase {
     return new Status(true, point);
   }
 
+  /**
+   * Using in range verification
+   *
+   * @param deviceQuery the device and the time range to query
+   */
+  @Override
+  public Status verificationRangeQuery(DeviceQuery deviceQuery, Consumer<Record> consumer) {
+    String sql = getVerificationRangeQuerySql(deviceQuery);
+    int sensorNum = deviceQuery.getDeviceSchema().getSensors().size();
+    int point = 0;
+    try (Statement statement = ioTDBConnection.getConnection().createStatement();
+        ResultSet resultSet = statement.executeQuery(sql)) {
+      while (resultSet.next()) {
+        List<Object> values = new ArrayList<>(sensorNum);
+        for (int i = 0; i < sensorNum; i++) {
+          values.add(resultSet.getString(i + 2));
+        }
+        point += sensorNum;
+        consumer.accept(new Record(resultSet.getLong(1), values));
+      }
+    } catch (Exception e) {
+      LOGGER.error("Query Error: " + sql);
+      return new Status(false, e, "Failed to query.");
+    }
+    return new Status(true, point);
+  }
+
+  /** eg. SELECT s_0, s_1 FROM root.g_0.d_0 WHERE time >= 1 AND time < 10 */
+  protected String getVerificationRangeQuerySql(DeviceQuery deviceQuery) {
+    return getSimpleQuerySqlHead(Collections.singletonList(deviceQuery.getDeviceSchema()))
+        + " WHERE time >= "
+        + deviceQuery.getStartTimestamp()
+        + " AND time < "
+        + deviceQuery.getEndTimestamp();
+  }
+
   @Override
   public Status deviceQuery(DeviceQuery deviceQuery) throws SQLException, TsdbException {
     // TODO find a new way to fix
     try {
       ioTDBConnection = new SingleNodeJDBCConnection(dbConfig);
       ioTDBConnection.init();
-      this.service = Executors.newSingleThreadExecutor();
+      if (!config.isIS_STATEMENT_QUERY_TIMEOUT()) {
+        // the queries only run on the executor to time out without a statement timeout
+        this.service = Executors.newSingleThreadExecutor();
+      }
     } catch (Exception e) {
       throw new TsdbException(e);
     }
@@ -20,7 +20,13 @@ import org.slf4j.LoggerFactory;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class SqliteDB implements IDatabase {
   private static final Logger LOGGER = LoggerFactory.getLogger(SqliteDB.class);
@@ -30,6 +36,7 @@ public class SqliteDB implements IDatabase {
   private static final List<String> TYPES =
       new ArrayList<>(Arrays.asList("INTEGER", "REAL", "TEXT"));
   private static final List<String> VALUE_TYPES = TYPES.subList(0, 2);
+  private static final String WIDE = "WIDE";
 
   private static final String CREATE_TABLE =
       "CREATE TABLE "
@@ -39,9 +46,26 @@ public class SqliteDB implements IDatabase {
           + "Value %s NULL,\n"
           + "CONSTRAINT PK_test_%s PRIMARY KEY (pk_fk_Id, pk_TimeStamp)\n"
           + ")";
+  private static final String CREATE_WIDE_TABLE =
+      "CREATE TABLE "
+          + "%s_%s\n"
+          + "(pk_fk_Id INTEGER NOT NULL,\n"
+          + "pk_TimeStamp INTEGER NOT NULL,\n"
+          + "%s,\n"
+          + "CONSTRAINT PK_test_%s PRIMARY KEY (pk_fk_Id, pk_TimeStamp)\n"
+          + ")";
+  private static final String INSERT_VALUE = "INSERT INTO %s_%s VALUES (?, ?, ?)";
+  private static final String INSERT_WIDE =
+      "INSERT INTO %s_%s (pk_fk_Id, pk_TimeStamp, %s) VALUES (?, ?%s)";
+  private static final String UPSERT_WIDE_CLAUSE =
+      " ON CONFLICT (pk_fk_Id, pk_TimeStamp) DO UPDATE SET %s = excluded.%s";
 
   private Connection connection;
   private DBConfig dbConfig;
+  /** prepared insert statements of this client, the key is the target table (and columns) */
+  private final Map<String, PreparedStatement> preparedStatements = new HashMap<>();
+  /** the number of records written since the last commit */
+  private int uncommittedRecords = 0;
 
   public SqliteDB(DBConfig dbConfig) {
     this.dbConfig = dbConfig;
@@ -56,6 +80,12 @@ public class SqliteDB implements IDatabase {
     try {
       Class.forName("org.sqlite.JDBC");
       connection = DriverManager.getConnection(String.format(URL, dbConfig.getDB_NAME()));
+      if (config.isSQLITE_WAL()) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("PRAGMA journal_mode=WAL");
+          statement.execute("PRAGMA synchronous=NORMAL");
+        }
+      }
     } catch (Exception e) {
       LOGGER.error(e.getClass().getName() + ": " + e.getMessage());
       throw new TsdbException("Failed to init: ", e);
@@ -73,6 +103,7 @@ public class SqliteDB implements IDatabase {
         String tableName = dbConfig.getDB_NAME() + "_" + sensorType;
         statement.execute("DROP TABLE IF EXISTS " + tableName);
       }
+      statement.execute("DROP TABLE IF EXISTS " + dbConfig.getDB_NAME() + "_" + WIDE);
       LOGGER.info("Finish Clean up!");
     } catch (SQLException sqlException) {
       LOGGER.error("Failed to Clean up!");
@@ -85,6 +116,11 @@ public class SqliteDB implements IDatabase {
   public void close() throws TsdbException {
     if (connection != null) {
       try {
+        commit();
+        for (PreparedStatement statement : preparedStatements.values()) {
+          statement.close();
+        }
+        preparedStatements.clear();
         connection.close();
       } catch (SQLException sqlException) {
         LOGGER.error(sqlException.getMessage());
@@ -102,6 +138,11 @@ public class SqliteDB implements IDatabase {
   @Override
   public boolean registerSchema(List<DeviceSchema> schemaList) throws TsdbException {
     try (Statement statement = connection.createStatement()) {
+      if (config.isSQLITE_WIDE_TABLE()) {
+        statement.execute(getCreateWideTableSql(schemaList));
+        LOGGER.info("Finish Register!");
+        return true;
+      }
       for (String sensorType : TYPES) {
         String create =
             String.format(CREATE_TABLE, dbConfig.getDB_NAME(), sensorType, sensorType, sensorType);
@@ -125,53 +166,160 @@ public class SqliteDB implements IDatabase {
    */
   @Override
   public Status insertOneBatch(Batch batch) throws DBConnectException {
-    DeviceSchema deviceSchema = batch.getDeviceSchema();
-    long idPredix = getId(deviceSchema.getGroup(), deviceSchema.getDevice(), null);
     try {
-      Statement statement = connection.createStatement();
-      for (Record record : batch.getRecords()) {
-        List<Object> values = record.getRecordDataValue();
-        for (int i = 0; i < values.size(); i++) {
-          statement.addBatch(
-              getOneLine(
-                  idPredix,
-                  i,
-                  record.getTimestamp(),
-                  values.get(i),
-                  deviceSchema.getSensors().get(i).getSensorType()));
-        }
+      if (config.getSQLITE_TRANSACTION_SIZE() > 0 && connection.getAutoCommit()) {
+        connection.setAutoCommit(false);
+      }
+      if (config.isSQLITE_WIDE_TABLE()) {
+        insertWideBatch(batch);
+      } else {
+        insertNarrowBatch(batch);
+      }
+      uncommittedRecords += batch.getRecords().size();
+      if (uncommittedRecords >= config.getSQLITE_TRANSACTION_SIZE()) {
+        commit();
       }
-      statement.executeBatch();
-      statement.close();
       return new Status(true);
     } catch (SQLException e) {
       LOGGER.error("Write batch failed");
+      rollback();
       return new Status(false, 0, e, e.getMessage());
     }
   }
 
-  private String getOneLine(
-      long idPredix, int sensorIndex, long time, Object value, SensorType sensorType) {
-    long sensorNow = sensorIndex + idPredix;
-    String sysType = typeMap(sensorType);
-    StringBuffer sql =
-        new StringBuffer("INSERT INTO ")
-            .append(dbConfig.getDB_NAME() + "_" + sysType)
-            .append(" values (");
-    sql.append(sensorNow).append(",");
-    sql.append(time).append(",");
-    if (sensorType == SensorType.BOOLEAN) {
-      if ((boolean) value) {
-        sql.append("1").append(")");
-      } else {
-        sql.append("0").append(")");
+  /** insert one row per value into the table of its type */
+  private void insertNarrowBatch(Batch batch) throws SQLException {
+    DeviceSchema deviceSchema = batch.getDeviceSchema();
+    List<Sensor> sensors = deviceSchema.getSensors();
+    long idPredix = getId(deviceSchema.getGroup(), deviceSchema.getDevice(), null);
+    Set<PreparedStatement> statements = new LinkedHashSet<>();
+    for (Record record : batch.getRecords()) {
+      List<Object> values = record.getRecordDataValue();
+      for (int i = 0; i < values.size(); i++) {
+        int sensorIndex = batch.getColIndex() == -1 ? i : batch.getColIndex();
+        SensorType sensorType = sensors.get(sensorIndex).getSensorType();
+        String sysType = typeMap(sensorType);
+        PreparedStatement statement =
+            getPreparedStatement(
+                sysType, String.format(INSERT_VALUE, dbConfig.getDB_NAME(), sysType));
+        statement.setLong(1, idPredix + sensorIndex);
+        statement.setLong(2, record.getTimestamp());
+        setValue(statement, 3, values.get(i), sensorType);
+        statement.addBatch();
+        statements.add(statement);
+      }
+    }
+    for (PreparedStatement statement : statements) {
+      statement.executeBatch();
+    }
+  }
+
+  /** insert one row per timestamp into the wide table */
+  private void insertWideBatch(Batch batch) throws SQLException {
+    DeviceSchema deviceSchema = batch.getDeviceSchema();
+    List<Sensor> sensors = deviceSchema.getSensors();
+    if (batch.getColIndex() != -1) {
+      sensors = Collections.singletonList(sensors.get(batch.getColIndex()));
+    }
+    List<String> columns = new ArrayList<>();
+    StringBuilder placeholders = new StringBuilder();
+    for (Sensor sensor : sensors) {
+      columns.add(getColumnName(sensor));
+      placeholders.append(", ?");
+    }
+    String columnList = String.join(", ", columns);
+    String sql =
+        String.format(INSERT_WIDE, dbConfig.getDB_NAME(), WIDE, columnList, placeholders);
+    if (batch.getColIndex() != -1) {
+      // the other columns of the same row may be written by another batch
+      sql += String.format(UPSERT_WIDE_CLAUSE, columnList, columnList);
+    }
+    PreparedStatement statement = getPreparedStatement(WIDE + "." + columnList, sql);
+    long idPredix = getId(deviceSchema.getGroup(), deviceSchema.getDevice(), null);
+    for (Record record : batch.getRecords()) {
+      List<Object> values = record.getRecordDataValue();
+      statement.setLong(1, idPredix);
+      statement.setLong(2, record.getTimestamp());
+      for (int i = 0; i < values.size(); i++) {
+        setValue(statement, i + 3, values.get(i), sensors.get(i).getSensorType());
       }
+      statement.addBatch();
+    }
+    statement.executeBatch();
+  }
+
+  private PreparedStatement getPreparedStatement(String key, String sql) throws SQLException {
+    PreparedStatement statement = preparedStatements.get(key);
+    if (statement == null) {
+      statement = connection.prepareStatement(sql);
+      preparedStatements.put(key, statement);
+    }
+    return statement;
+  }
+
+  private void setValue(PreparedStatement statement, int index, Object value, SensorType sensorType)
+      throws SQLException {
+    if (sensorType == SensorType.BOOLEAN) {
+      statement.setInt(index, (boolean) value ? 1 : 0);
     } else if (sensorType == SensorType.TEXT) {
-      sql.append("'").append(value).append("')");
+      statement.setString(index, String.valueOf(value));
     } else {
-      sql.append(value).append(")");
+      statement.setObject(index, value);
     }
-    return sql.toString();
+  }
+
+  /** commit the open transaction, if any, and fall back to auto commit until the next write */
+  private void commit() throws SQLException {
+    if (!connection.getAutoCommit()) {
+      connection.commit();
+      connection.setAutoCommit(true);
+    }
+    uncommittedRecords = 0;
+  }
+
+  /**
+   * roll back the open transaction, if any, and clear the rows left in the cached statements, so
+   * that the rows of a failed batch are neither committed nor executed with the next batch
+   */
+  private void rollback() {
+    for (PreparedStatement statement : preparedStatements.values()) {
+      try {
+        statement.clearBatch();
+      } catch (SQLException e) {
+        LOGGER.error("Failed to clear the batch of statement", e);
+      }
+    }
+    try {
+      if (!connection.getAutoCommit()) {
+        connection.rollback();
+        connection.setAutoCommit(true);
+        if (uncommittedRecords > 0) {
+          LOGGER.error("Rolled back {} records of the previous batches", uncommittedRecords);
+        }
+      }
+    } catch (SQLException e) {
+      LOGGER.error("Failed to roll back the transaction", e);
+    }
+    uncommittedRecords = 0;
+  }
+
+  private String getCreateWideTableSql(List<DeviceSchema> schemaList) {
+    Map<String, Sensor> sensors = new LinkedHashMap<>();
+    for (DeviceSchema deviceSchema : schemaList) {
+      for (Sensor sensor : deviceSchema.getSensors()) {
+        sensors.putIfAbsent(sensor.getName(), sensor);
+      }
+    }
+    List<String> columns = new ArrayList<>();
+    for (Sensor sensor : sensors.values()) {
+      columns.add(getColumnName(sensor) + " " + typeMap(sensor.getSensorType()) + " NULL");
+    }
+    return String.format(
+        CREATE_WIDE_TABLE, dbConfig.getDB_NAME(), WIDE, String.join(",\n", columns), WIDE);
+  }
+
+  private String getColumnName(Sensor sensor) {
+    return "\"" + sensor.getName() + "\"";
   }
 
   /**
@@ -204,6 +352,12 @@ public class SqliteDB implements IDatabase {
       int result = 0;
       for (DeviceSchema deviceSchema : deviceSchemas) {
         long idPrefix = getId(deviceSchema.getGroup(), deviceSchema.getDevice(), null);
+        if (config.isSQLITE_WIDE_TABLE()) {
+          String sql = getWideHeader(idPrefix, deviceSchema.getSensors());
+          sql = addTimeClause(sql, time);
+          result += countPoints(statement, sql, deviceSchema.getSensors().size());
+          continue;
+        }
         for (String sensorType : TYPES) {
           String sql = getHeader(idPrefix, deviceSchema.getSensors(), sensorType);
           sql = addTimeClause(sql, time);
@@ -232,6 +386,12 @@ public class SqliteDB implements IDatabase {
       int result = 0;
       for (DeviceSchema deviceSchema : deviceSchemas) {
         long idPrefix = getId(deviceSchema.getGroup(), deviceSchema.getDevice(), null);
+        if (config.isSQLITE_WIDE_TABLE()) {
+          String sql = getWideHeader(idPrefix, deviceSchema.getSensors());
+          sql = addTimeClause(sql, startTime, endTime);
+          result += countPoints(statement, sql, deviceSchema.getSensors().size());
+          continue;
+        }
         for (String sensorType : TYPES) {
           String sql = getHeader(idPrefix, deviceSchema.getSensors(), sensorType);
           sql = addTimeClause(sql, startTime, endTime);
@@ -260,6 +420,14 @@ public class SqliteDB implements IDatabase {
       int result = 0;
       for (DeviceSchema deviceSchema : deviceSchemas) {
         long idPrefix = getId(deviceSchema.getGroup(), deviceSchema.getDevice(), null);
+        if (config.isSQLITE_WIDE_TABLE()) {
+          List<Sensor> sensors = getValueSensors(deviceSchema.getSensors());
+          String sql = getWideHeader(idPrefix, sensors);
+          sql = addTimeClause(sql, startTime, endTime);
+          sql = addValueClause(sql, sensors, valueRangeQuery.getValueThreshold());
+          result += countPoints(statement, sql, sensors.size());
+          continue;
+        }
         for (String sensorType : VALUE_TYPES) {
           String sql = getHeader(idPrefix, deviceSchema.getSensors(), sensorType);
           sql = addTimeClause(sql, startTime, endTime);
@@ -289,6 +457,16 @@ public class SqliteDB implements IDatabase {
       int result = 0;
       for (DeviceSchema deviceSchema : deviceSchemas) {
         long idPrefix = getId(deviceSchema.getGroup(), deviceSchema.getDevice(), null);
+        if (config.isSQLITE_WIDE_TABLE()) {
+          List<Sensor> sensors = deviceSchema.getSensors();
+          if (!aggRangeQuery.getAggFun().startsWith("count")) {
+            sensors = getValueSensors(sensors);
+          }
+          String sql = getWideHeader(aggRangeQuery.getAggFun(), sensors, idPrefix);
+          sql = addTimeClause(sql, startTime, endTime);
+          result += countPoints(statement, sql, sensors.size());
+          continue;
+        }
         List<String> types = VALUE_TYPES;
         if (aggRangeQuery.getAggFun().startsWith("count")) {
           types = TYPES;
@@ -320,6 +498,13 @@ public class SqliteDB implements IDatabase {
       int result = 0;
       for (DeviceSchema deviceSchema : deviceSchemas) {
         long idPrefix = getId(deviceSchema.getGroup(), deviceSchema.getDevice(), null);
+        if (config.isSQLITE_WIDE_TABLE()) {
+          List<Sensor> sensors = getValueSensors(deviceSchema.getSensors());
+          String sql = getWideHeader(aggValueQuery.getAggFun(), sensors, idPrefix);
+          sql = addValueClause(sql, sensors, aggValueQuery.getValueThreshold());
+          result += countPoints(statement, sql, sensors.size());
+          continue;
+        }
         for (String sensorType : VALUE_TYPES) {
           String sql =
               getHeader(aggValueQuery.getAggFun(), deviceSchema.getSensors(), idPrefix, sensorType);
@@ -349,6 +534,14 @@ public class SqliteDB implements IDatabase {
       int result = 0;
       for (DeviceSchema deviceSchema : deviceSchemas) {
         long idPrefix = getId(deviceSchema.getGroup(), deviceSchema.getDevice(), null);
+        if (config.isSQLITE_WIDE_TABLE()) {
+          List<Sensor> sensors = getValueSensors(deviceSchema.getSensors());
+          String sql = getWideHeader(aggRangeValueQuery.getAggFun(), sensors, idPrefix);
+          sql = addTimeClause(sql, startTime, endTime);
+          sql = addValueClause(sql, sensors, aggRangeValueQuery.getValueThreshold());
+          result += countPoints(statement, sql, sensors.size());
+          continue;
+        }
         for (String sensorType : VALUE_TYPES) {
           String sql =
               getHeader(
@@ -380,6 +573,14 @@ public class SqliteDB implements IDatabase {
       int result = 0;
       for (DeviceSchema deviceSchema : deviceSchemas) {
         long idPrefix = getId(deviceSchema.getGroup(), deviceSchema.getDevice(), null);
+        if (config.isSQLITE_WIDE_TABLE()) {
+          List<Sensor> sensors = getValueSensors(deviceSchema.getSensors());
+          String sql = getWideHeader("max", sensors, idPrefix);
+          sql = addTimeClause(sql, startTime, endTime);
+          sql = addGroupByClause(sql, groupByQuery.getGranularity());
+          result += countPoints(statement, sql, sensors.size());
+          continue;
+        }
         for (String sensorType : VALUE_TYPES) {
           String sql = getHeader("max", deviceSchema.getSensors(), idPrefix, sensorType);
           sql = addTimeClause(sql, startTime, endTime);
@@ -407,6 +608,12 @@ public class SqliteDB implements IDatabase {
       int result = 0;
       for (DeviceSchema deviceSchema : deviceSchemas) {
         long idPrefix = getId(deviceSchema.getGroup(), deviceSchema.getDevice(), null);
+        if (config.isSQLITE_WIDE_TABLE()) {
+          String sql = getWideHeader(idPrefix, deviceSchema.getSensors());
+          sql = addOrderClause(sql) + " limit 1";
+          result += countPoints(statement, sql, deviceSchema.getSensors().size());
+          continue;
+        }
         List<String> search = new ArrayList<>();
         for (Sensor sensor : deviceSchema.getSensors()) {
           long sensorId = idPrefix + Integer.parseInt(sensor.getName().split("_")[1]);
@@ -454,6 +661,13 @@ public class SqliteDB implements IDatabase {
       int result = 0;
       for (DeviceSchema deviceSchema : deviceSchemas) {
         long idPrefix = getId(deviceSchema.getGroup(), deviceSchema.getDevice(), null);
+        if (config.isSQLITE_WIDE_TABLE()) {
+          String sql = getWideHeader(idPrefix, deviceSchema.getSensors());
+          sql = addTimeClause(sql, startTime, endTime);
+          sql = addOrderClause(sql);
+          result += countPoints(statement, sql, deviceSchema.getSensors().size());
+          continue;
+        }
         for (String sensorType : TYPES) {
           String sql = getHeader(idPrefix, deviceSchema.getSensors(), sensorType);
           sql = addTimeClause(sql, startTime, endTime);
@@ -483,6 +697,15 @@ public class SqliteDB implements IDatabase {
       int result = 0;
       for (DeviceSchema deviceSchema : deviceSchemas) {
         long idPrefix = getId(deviceSchema.getGroup(), deviceSchema.getDevice(), null);
+        if (config.isSQLITE_WIDE_TABLE()) {
+          List<Sensor> sensors = getValueSensors(deviceSchema.getSensors());
+          String sql = getWideHeader(idPrefix, sensors);
+          sql = addTimeClause(sql, startTime, endTime);
+          sql = addValueClause(sql, sensors, valueRangeQuery.getValueThreshold());
+          sql = addOrderClause(sql);
+          result += countPoints(statement, sql, sensors.size());
+          continue;
+        }
         for (String sensorType : VALUE_TYPES) {
           String sql = getHeader(idPrefix, deviceSchema.getSensors(), sensorType);
           sql = addTimeClause(sql, startTime, endTime);
@@ -534,6 +757,55 @@ public class SqliteDB implements IDatabase {
     return stringBuilder.toString();
   }
 
+  private String getWideHeader(long device, List<Sensor> sensors) {
+    List<String> columns = new ArrayList<>();
+    for (Sensor sensor : sensors) {
+      columns.add(getColumnName(sensor));
+    }
+    StringBuilder stringBuilder = new StringBuilder("SELECT pk_TimeStamp, ");
+    stringBuilder.append(String.join(", ", columns)).append(" from ");
+    stringBuilder.append(dbConfig.getDB_NAME()).append("_").append(WIDE);
+    stringBuilder.append(" where pk_fk_Id = ").append(device);
+    return stringBuilder.toString();
+  }
+
+  private String getWideHeader(String aggFun, List<Sensor> sensors, long device) {
+    List<String> columns = new ArrayList<>();
+    for (Sensor sensor : sensors) {
+      columns.add(aggFun + "(" + getColumnName(sensor) + ")");
+    }
+    StringBuilder stringBuilder = new StringBuilder("SELECT ");
+    stringBuilder.append(String.join(", ", columns)).append(" from ");
+    stringBuilder.append(dbConfig.getDB_NAME()).append("_").append(WIDE);
+    stringBuilder.append(" where pk_fk_Id = ").append(device);
+    return stringBuilder.toString();
+  }
+
+  /** sensors which are stored in the numeric columns of the wide table */
+  private List<Sensor> getValueSensors(List<Sensor> sensors) {
+    List<Sensor> valueSensors = new ArrayList<>();
+    for (Sensor sensor : sensors) {
+      if (VALUE_TYPES.contains(typeMap(sensor.getSensorType()))) {
+        valueSensors.add(sensor);
+      }
+    }
+    return valueSensors;
+  }
+
+  /** execute the query on the wide table, each row contains one point per selected column */
+  private int countPoints(Statement statement, String sql, int columnNumber) throws SQLException {
+    if (columnNumber == 0) {
+      return 0;
+    }
+    int result = 0;
+    try (ResultSet resultSet = statement.executeQuery(sql)) {
+      while (resultSet.next()) {
+        result += columnNumber;
+      }
+    }
+    return result;
+  }
+
   private String addTimeClause(String sql, long time) {
     return sql + " and pk_TimeStamp = " + time;
   }
@@ -546,6 +818,14 @@ public class SqliteDB implements IDatabase {
     return sql + " and value > " + value;
   }
 
+  private String addValueClause(String sql, List<Sensor> sensors, double value) {
+    StringBuilder stringBuilder = new StringBuilder(sql);
+    for (Sensor sensor : sensors) {
+      stringBuilder.append(" and ").append(getColumnName(sensor)).append(" > ").append(value);
+    }
+    return stringBuilder.toString();
+  }
+
   private String addGroupByClause(String sql, long granularity) {
     return sql + " group by pk_TimeStamp / " + granularity;
   }
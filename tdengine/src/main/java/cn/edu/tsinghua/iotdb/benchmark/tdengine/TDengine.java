@@ -30,14 +30,19 @@ import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.IDatabase;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.TsdbException;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.DBInsertMode;
 import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.*;
+import com.taosdata.jdbc.TSDBPreparedStatement;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class TDengine implements IDatabase {
 
@@ -51,7 +56,14 @@ public class TDengine implements IDatabase {
   private static final String CREATE_STABLE =
       "create table if not exists %s (time timestamp, %s) tags(device binary(20))";
   private static final String CREATE_TABLE = "create table if not exists %s using %s tags('%s')";
+  private static final String INSERT_STMT =
+      "insert into ? using %s.%s tags(?) (time, %s) values(?%s)";
+  /** The max length of BINARY column, keep same with the super table */
+  private static final int BINARY_LENGTH = 100;
+
   private Connection connection;
+  /** Prepared statement of each device(and column when not aligned), only used in STMT mode */
+  private final Map<String, TSDBPreparedStatement> preparedStatements = new HashMap<>();
   private DBConfig dbConfig;
   private static String testDb;
   private static Config config;
@@ -88,6 +100,15 @@ public class TDengine implements IDatabase {
 
   @Override
   public void close() throws TsdbException {
+    for (TSDBPreparedStatement preparedStatement : preparedStatements.values()) {
+      try {
+        preparedStatement.columnDataCloseBatch();
+        preparedStatement.close();
+      } catch (SQLException e) {
+        LOGGER.warn("Failed to close TaosDB prepared statement because ", e);
+      }
+    }
+    preparedStatements.clear();
     if (connection != null) {
       try {
         connection.close();
@@ -134,6 +155,10 @@ public class TDengine implements IDatabase {
         throw new TsdbException(e);
       }
 
+      if (isStmtMode()) {
+        // sub tables are created automatically by 'using super tags(...)' in the first insertion
+        return true;
+      }
       // create tables
       try (Statement statement = connection.createStatement()) {
         statement.execute(String.format(USE_DB, testDb));
@@ -161,6 +186,9 @@ public class TDengine implements IDatabase {
 
   @Override
   public Status insertOneBatch(Batch batch) {
+    if (isStmtMode()) {
+      return insertOneBatchByStmt(batch);
+    }
     try (Statement statement = connection.createStatement()) {
       statement.execute(String.format(USE_DB, testDb));
       StringBuilder builder = new StringBuilder();
@@ -180,6 +208,139 @@ public class TDengine implements IDatabase {
     }
   }
 
+  /**
+   * Insert one batch by parameter binding, values are bound column by column and the sub table is
+   * created automatically if not exists.
+   */
+  private Status insertOneBatchByStmt(Batch batch) {
+    DeviceSchema deviceSchema = batch.getDeviceSchema();
+    List<Sensor> sensors = deviceSchema.getSensors();
+    List<Record> records = batch.getRecords();
+    TSDBPreparedStatement preparedStatement = null;
+    try {
+      preparedStatement = getPreparedStatement(deviceSchema);
+      preparedStatement.setTableName(testDb + "." + deviceSchema.getDevice());
+      preparedStatement.setTagString(0, deviceSchema.getDevice());
+      ArrayList<Long> timestamps = new ArrayList<>(records.size());
+      for (Record record : records) {
+        timestamps.add(record.getTimestamp());
+      }
+      preparedStatement.setTimestamp(0, timestamps);
+      for (int sensorIndex = 0; sensorIndex < sensors.size(); sensorIndex++) {
+        bindColumn(
+            preparedStatement, sensorIndex + 1, sensors.get(sensorIndex), records, sensorIndex);
+      }
+      preparedStatement.columnDataAddBatch();
+      preparedStatement.columnDataExecuteBatch();
+      return new Status(true);
+    } catch (Exception e) {
+      return new Status(false, 0, e, e.toString());
+    } finally {
+      // the cached statement is reused by the next batch of the device, even after a failure
+      clearBatch(preparedStatement);
+    }
+  }
+
+  private void clearBatch(TSDBPreparedStatement preparedStatement) {
+    if (preparedStatement == null) {
+      return;
+    }
+    try {
+      preparedStatement.columnDataClearBatch();
+    } catch (Exception e) {
+      LOGGER.warn("Failed to clear the batch of prepared statement", e);
+    }
+  }
+
+  /** Get the prepared statement of device, create and cache it when not exists */
+  private TSDBPreparedStatement getPreparedStatement(DeviceSchema deviceSchema)
+      throws SQLException {
+    List<Sensor> sensors = deviceSchema.getSensors();
+    String key = deviceSchema.getDevice();
+    if (!config.isIS_SENSOR_TS_ALIGNMENT()) {
+      key = key + "." + sensors.get(0).getName();
+    }
+    TSDBPreparedStatement preparedStatement = preparedStatements.get(key);
+    if (preparedStatement == null) {
+      StringBuilder columns = new StringBuilder();
+      StringBuilder placeholders = new StringBuilder();
+      for (Sensor sensor : sensors) {
+        if (columns.length() != 0) {
+          columns.append(", ");
+        }
+        columns.append(sensor.getName());
+        placeholders.append(", ?");
+      }
+      String sql =
+          String.format(
+              INSERT_STMT, testDb, SUPER_TABLE, columns.toString(), placeholders.toString());
+      LOGGER.debug("prepare insert statement: {}", sql);
+      preparedStatement = (TSDBPreparedStatement) connection.prepareStatement(sql);
+      preparedStatements.put(key, preparedStatement);
+    }
+    return preparedStatement;
+  }
+
+  /** Bind all values of one sensor in records to the column */
+  private void bindColumn(
+      TSDBPreparedStatement preparedStatement,
+      int columnIndex,
+      Sensor sensor,
+      List<Record> records,
+      int valueIndex)
+      throws SQLException {
+    switch (typeMap(sensor.getSensorType())) {
+      case "BOOL":
+        ArrayList<Boolean> booleans = new ArrayList<>(records.size());
+        for (Record record : records) {
+          booleans.add((Boolean) record.getRecordDataValue().get(valueIndex));
+        }
+        preparedStatement.setBoolean(columnIndex, booleans);
+        break;
+      case "INT":
+        ArrayList<Integer> ints = new ArrayList<>(records.size());
+        for (Record record : records) {
+          ints.add((Integer) record.getRecordDataValue().get(valueIndex));
+        }
+        preparedStatement.setInt(columnIndex, ints);
+        break;
+      case "BIGINT":
+        ArrayList<Long> longs = new ArrayList<>(records.size());
+        for (Record record : records) {
+          longs.add((Long) record.getRecordDataValue().get(valueIndex));
+        }
+        preparedStatement.setLong(columnIndex, longs);
+        break;
+      case "FLOAT":
+        ArrayList<Float> floats = new ArrayList<>(records.size());
+        for (Record record : records) {
+          floats.add((Float) record.getRecordDataValue().get(valueIndex));
+        }
+        preparedStatement.setFloat(columnIndex, floats);
+        break;
+      case "DOUBLE":
+        ArrayList<Double> doubles = new ArrayList<>(records.size());
+        for (Record record : records) {
+          doubles.add((Double) record.getRecordDataValue().get(valueIndex));
+        }
+        preparedStatement.setDouble(columnIndex, doubles);
+        break;
+      case "BINARY":
+      default:
+        ArrayList<String> strings = new ArrayList<>(records.size());
+        for (Record record : records) {
+          Object value = record.getRecordDataValue().get(valueIndex);
+          strings.add(value == null ? null : String.valueOf(value));
+        }
+        preparedStatement.setString(columnIndex, strings, BINARY_LENGTH);
+        break;
+    }
+  }
+
+  private boolean isStmtMode() {
+    return dbConfig.getDB_SWITCH().getInsertMode() == DBInsertMode.INSERT_USE_STMT;
+  }
+
   private String getInsertOneRecordSql(
       DeviceSchema deviceSchema, long timestamp, List<Object> values) {
     StringBuilder builder = new StringBuilder();
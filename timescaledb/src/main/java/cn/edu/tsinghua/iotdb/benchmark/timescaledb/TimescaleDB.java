@@ -27,6 +27,7 @@ import cn.edu.tsinghua.iotdb.benchmark.entity.DeviceSummary;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Record;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
 import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.ResultChecksum;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
 import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
@@ -38,6 +39,7 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.*;
+import java.util.function.Consumer;
 
 public class TimescaleDB implements IDatabase {
 
@@ -355,6 +357,36 @@ public class TimescaleDB implements IDatabase {
     return new Status(true, point);
   }
 
+  /**
+   * eg. SELECT time, s_0, s_1 FROM tutorial WHERE (device='d_0') AND time >= 1 AND time < 10 ORDER
+   * BY time ASC
+   */
+  @Override
+  public Status verificationRangeQuery(DeviceQuery deviceQuery, Consumer<Record> consumer) {
+    int sensorNum = deviceQuery.getDeviceSchema().getSensors().size();
+    StringBuilder sql =
+        getSampleQuerySqlHead(Collections.singletonList(deviceQuery.getDeviceSchema()));
+    sql.append(" AND time >= ").append(deviceQuery.getStartTimestamp());
+    sql.append(" AND time < ").append(deviceQuery.getEndTimestamp());
+    sql.append(" ORDER BY time ASC");
+    int point = 0;
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(sql.toString())) {
+      while (resultSet.next()) {
+        List<Object> values = new ArrayList<>(sensorNum);
+        for (int i = 0; i < sensorNum; i++) {
+          values.add(resultSet.getObject(i + 2));
+        }
+        point += sensorNum;
+        consumer.accept(new Record(resultSet.getLong(1), values));
+      }
+    } catch (Exception e) {
+      LOGGER.error("Query Error: " + sql);
+      return new Status(false, e, "Failed to query.");
+    }
+    return new Status(true, point);
+  }
+
   @Override
   public Status deviceQuery(DeviceQuery deviceQuery) throws SQLException {
     DeviceSchema deviceSchema = deviceQuery.getDeviceSchema();
@@ -384,31 +416,40 @@ public class TimescaleDB implements IDatabase {
 
   @Override
   public DeviceSummary deviceSummary(DeviceQuery deviceQuery) throws SQLException, TsdbException {
-    DeviceSchema deviceSchema = deviceQuery.getDeviceSchema();
-    StringBuilder sql = new StringBuilder("select count(1)");
-    sql.append(" FROM ").append(tableName);
-    addDeviceCondition(sql, Arrays.asList(deviceSchema));
-    Statement statement = connection.createStatement();
-    ResultSet resultSet = statement.executeQuery(sql.toString());
-    resultSet.next();
-    int totalLineNumber = Integer.parseInt(resultSet.getString(1));
-
-    sql = new StringBuilder("select min(time)");
-    sql.append(" FROM ").append(tableName);
-    addDeviceCondition(sql, Arrays.asList(deviceSchema));
-    resultSet = statement.executeQuery(sql.toString());
-    resultSet.next();
-    long minTimeStamp = Long.parseLong(resultSet.getString(1));
+    return deviceSummaries(Collections.singletonList(deviceQuery)).get(0);
+  }
 
-    sql = new StringBuilder("select max(time)");
+  /** Get count, min and max time of all devices by one query grouped by device */
+  @Override
+  public List<DeviceSummary> deviceSummaries(List<DeviceQuery> deviceQueries)
+      throws SQLException {
+    List<DeviceSchema> deviceSchemas = new ArrayList<>(deviceQueries.size());
+    for (DeviceQuery deviceQuery : deviceQueries) {
+      deviceSchemas.add(deviceQuery.getDeviceSchema());
+    }
+    StringBuilder sql = new StringBuilder("SELECT device, count(1), min(time), max(time)");
     sql.append(" FROM ").append(tableName);
-    addDeviceCondition(sql, Arrays.asList(deviceSchema));
-    resultSet = statement.executeQuery(sql.toString());
-    resultSet.next();
-    long maxTimeStamp = Long.parseLong(resultSet.getString(1));
-
-    statement.close();
-    return new DeviceSummary(deviceSchema.getDevice(), totalLineNumber, minTimeStamp, maxTimeStamp);
+    addDeviceCondition(sql, deviceSchemas);
+    sql.append(" GROUP BY device");
+    Map<String, DeviceSummary> summaryMap = new HashMap<>();
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(sql.toString())) {
+      while (resultSet.next()) {
+        String device = resultSet.getString(1);
+        summaryMap.put(
+            device,
+            new DeviceSummary(
+                device, resultSet.getInt(2), resultSet.getLong(3), resultSet.getLong(4)));
+      }
+    }
+    List<DeviceSummary> deviceSummaries = new ArrayList<>(deviceSchemas.size());
+    for (DeviceSchema deviceSchema : deviceSchemas) {
+      // the device without data is not in the result
+      deviceSummaries.add(
+          summaryMap.getOrDefault(
+              deviceSchema.getDevice(), new DeviceSummary(deviceSchema.getDevice(), 0, 0, 0)));
+    }
+    return deviceSummaries;
   }
 
   private Status executeQueryAndGetStatus(String sql, int sensorNum, Operation operation) {
@@ -416,14 +457,24 @@ public class TimescaleDB implements IDatabase {
       LOGGER.debug("{} the query SQL: {}", Thread.currentThread().getName(), sql);
     }
     List<List<Object>> records = new ArrayList<>();
+    ResultChecksum checksum = new ResultChecksum(config.getCOMPARISON_BUCKET_MS());
     int line = 0;
     int queryResultPointNum = 0;
+    boolean streaming = config.isIS_STREAMING_QUERY();
     try (Statement statement = connection.createStatement()) {
+      if (streaming) {
+        // PostgreSQL only uses a cursor for the fetch size inside a transaction
+        connection.setAutoCommit(false);
+        statement.setFetchSize(config.getQUERY_FETCH_SIZE());
+      }
+      boolean byDevice = streaming && isRawDataQuery(operation);
       try (ResultSet resultSet = statement.executeQuery(sql)) {
         while (resultSet.next()) {
           line++;
           if (config.isIS_COMPARISON()) {
-            List<Object> record = new ArrayList<>();
+            List<Object> record = streaming ? null : new ArrayList<>();
+            // the rows of raw data are checksummed by the device in the second column
+            String device = byDevice ? resultSet.getString(2) : null;
             for (int i = 1; i <= resultSet.getMetaData().getColumnCount(); i++) {
               switch (operation) {
                 case AGG_RANGE_QUERY:
@@ -436,23 +487,59 @@ public class TimescaleDB implements IDatabase {
                 default:
                   break;
               }
-              record.add(resultSet.getObject(i));
+              if (streaming) {
+                checksum.update(resultSet.getObject(i), i > 2 ? device : null);
+              } else {
+                record.add(resultSet.getObject(i));
+              }
+            }
+            if (streaming) {
+              checksum.endRow();
+            } else {
+              records.add(record);
             }
-            records.add(record);
           }
         }
       }
+      if (streaming) {
+        connection.commit();
+        connection.setAutoCommit(true);
+      }
       queryResultPointNum = line * sensorNum * config.getQUERY_DEVICE_NUM();
-      if (config.isIS_COMPARISON()) {
+      if (config.isIS_COMPARISON() && streaming) {
+        return new Status(true, queryResultPointNum, sql, checksum);
+      } else if (config.isIS_COMPARISON()) {
         return new Status(true, queryResultPointNum, sql, records);
       } else {
         return new Status(true, queryResultPointNum);
       }
     } catch (Exception e) {
+      if (streaming) {
+        try {
+          connection.rollback();
+          connection.setAutoCommit(true);
+        } catch (SQLException sqlException) {
+          LOGGER.error("Failed to end the streaming query transaction", sqlException);
+        }
+      }
       return new Status(false, queryResultPointNum, e, sql);
     }
   }
 
+  /** Whether the rows of the operation are the raw data of devices, e.g. time, device, s_0 */
+  private static boolean isRawDataQuery(Operation operation) {
+    switch (operation) {
+      case PRECISE_QUERY:
+      case RANGE_QUERY:
+      case VALUE_RANGE_QUERY:
+      case RANGE_QUERY_ORDER_BY_TIME_DESC:
+      case VALUE_RANGE_QUERY_ORDER_BY_TIME_DESC:
+        return true;
+      default:
+        return false;
+    }
+  }
+
   /**
    * 创建查询语句--(带有聚合函数的查询) . SELECT device, avg(cpu) FROM metrics WHERE (device='d_1' OR device='d_2')
    */